@@ -0,0 +1,128 @@
+package datawave.ingest.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.WritableUtils;
+
+import com.clearspring.analytics.stream.cardinality.CardinalityMergeException;
+import com.clearspring.analytics.stream.cardinality.HyperLogLogPlus;
+
+/**
+ * A mergeable summary of the values seen for a field name/datatype pair on a day: the total number of values and a {@link HyperLogLogPlus} estimate of the
+ * number of distinct values. Sketches built with the same precisions can be merged in any order, so they can be built independently in each mapper and
+ * combined by the {@link datawave.iterators.FieldCardinalityCombiner} as they are compacted. The selectivity of a field is the estimated distinct count over
+ * the total count.
+ */
+public class FieldCardinalitySketch {
+    
+    /**
+     * Default normal and sparse precisions, which keep a sketch at no more than about 2.7KB regardless of the number of values
+     */
+    public static final int DEFAULT_NORMAL_PRECISION = 12;
+    public static final int DEFAULT_SPARSE_PRECISION = 20;
+    
+    private long count;
+    private final HyperLogLogPlus hllp;
+    
+    public FieldCardinalitySketch() {
+        this(DEFAULT_NORMAL_PRECISION, DEFAULT_SPARSE_PRECISION);
+    }
+    
+    public FieldCardinalitySketch(int normalPrecision, int sparsePrecision) {
+        this.hllp = new HyperLogLogPlus(normalPrecision, sparsePrecision);
+    }
+    
+    /**
+     * Deserialize a sketch
+     *
+     * @param value
+     *            a value created by {@link #toValue()}
+     * @throws IOException
+     *             if the value is not a serialized sketch
+     */
+    public FieldCardinalitySketch(Value value) throws IOException {
+        this(value.get());
+    }
+    
+    public FieldCardinalitySketch(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        this.count = WritableUtils.readVLong(in);
+        byte[] hllpBytes = new byte[WritableUtils.readVInt(in)];
+        in.readFully(hllpBytes);
+        this.hllp = HyperLogLogPlus.Builder.build(hllpBytes);
+    }
+    
+    /**
+     * Add a value
+     *
+     * @param value
+     *            the (normalized) field value
+     */
+    public void offer(String value) {
+        count++;
+        hllp.offer(value);
+    }
+    
+    /**
+     * Merge another sketch into this one
+     *
+     * @param other
+     *            a sketch with the same precisions
+     * @throws IOException
+     *             if the sketches have different precisions
+     */
+    public void merge(FieldCardinalitySketch other) throws IOException {
+        try {
+            hllp.addAll(other.hllp);
+        } catch (CardinalityMergeException e) {
+            throw new IOException("Unable to merge field cardinality sketches", e);
+        }
+        count += other.count;
+    }
+    
+    /**
+     * @return the total number of values
+     */
+    public long getCount() {
+        return count;
+    }
+    
+    /**
+     * @return the estimated number of distinct values, which is never more than the total number of values
+     */
+    public long getCardinality() {
+        return Math.min(hllp.cardinality(), count);
+    }
+    
+    /**
+     * @return the estimated number of distinct values over the total number of values, between 0 and 1
+     */
+    public double getSelectivity() {
+        return count == 0 ? 0.0d : (double) getCardinality() / count;
+    }
+    
+    public Value toValue() throws IOException {
+        return new Value(toByteArray(), false);
+    }
+    
+    public byte[] toByteArray() throws IOException {
+        byte[] hllpBytes = hllp.getBytes();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(hllpBytes.length + 16);
+        DataOutputStream out = new DataOutputStream(bytes);
+        WritableUtils.writeVLong(out, count);
+        WritableUtils.writeVInt(out, hllpBytes.length);
+        out.write(hllpBytes);
+        out.flush();
+        return bytes.toByteArray();
+    }
+    
+    @Override
+    public String toString() {
+        return "FieldCardinalitySketch{count=" + count + ", cardinality=" + getCardinality() + '}';
+    }
+}
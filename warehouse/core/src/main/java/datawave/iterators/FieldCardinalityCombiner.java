@@ -0,0 +1,65 @@
+package datawave.iterators;
+
+import datawave.ingest.util.FieldCardinalitySketch;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.Combiner;
+import org.apache.log4j.Logger;
+
+import java.util.Iterator;
+
+/**
+ * Combines the {@link FieldCardinalitySketch} values written to the metadata table by the field cardinality ingest handler, summing the counts and merging the
+ * distinct value estimates.
+ *
+ */
+public class FieldCardinalityCombiner extends Combiner {
+    
+    private static final Logger log = Logger.getLogger(FieldCardinalityCombiner.class);
+    
+    /**
+     * Reduces a list of Values into a single Value.
+     *
+     * @param key
+     *            The most recent version of the Key being reduced.
+     *
+     * @param iter
+     *            An iterator over the Values for different versions of the key.
+     *
+     * @return The combined Value.
+     */
+    @Override
+    public Value reduce(Key key, Iterator<Value> iter) {
+        
+        FieldCardinalitySketch sketch = null;
+        Value singletonValue = null;
+        
+        while (iter.hasNext()) {
+            Value value = iter.next();
+            try {
+                FieldCardinalitySketch newSketch = new FieldCardinalitySketch(value);
+                if (sketch == null) {
+                    sketch = newSketch;
+                    singletonValue = value;
+                } else {
+                    sketch.merge(newSketch);
+                    singletonValue = null;
+                }
+            } catch (Exception e) {
+                log.error("Unable to decode field cardinality sketch from " + key + " / " + value, e);
+            }
+        }
+        
+        if (singletonValue != null) {
+            return singletonValue;
+        } else if (sketch != null) {
+            try {
+                return sketch.toValue();
+            } catch (Exception e) {
+                log.error("Unable to encode field cardinality sketch for " + key, e);
+            }
+        }
+        return new Value();
+    }
+    
+}
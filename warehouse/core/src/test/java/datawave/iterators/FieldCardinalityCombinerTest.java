@@ -0,0 +1,63 @@
+package datawave.iterators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import datawave.ingest.util.FieldCardinalitySketch;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Test;
+
+public class FieldCardinalityCombinerTest {
+    
+    private static FieldCardinalitySketch sketch(int from, int to) {
+        FieldCardinalitySketch sketch = new FieldCardinalitySketch();
+        for (int i = from; i < to; i++) {
+            sketch.offer("value" + i);
+        }
+        return sketch;
+    }
+    
+    @Test
+    public void testSketchSerialization() throws Exception {
+        FieldCardinalitySketch sketch = sketch(0, 1000);
+        sketch.offer("value1");
+        FieldCardinalitySketch copy = new FieldCardinalitySketch(sketch.toValue());
+        assertEquals(1001, copy.getCount());
+        assertEquals(sketch.getCardinality(), copy.getCardinality());
+        assertTrue(Math.abs(copy.getCardinality() - 1000) < 50);
+    }
+    
+    @Test
+    public void testReduce() throws Exception {
+        // overlapping ranges of values from three mappers
+        List<Value> values = new ArrayList<>();
+        values.add(sketch(0, 5000).toValue());
+        values.add(sketch(2500, 7500).toValue());
+        values.add(sketch(5000, 10000).toValue());
+        
+        Value combined = new FieldCardinalityCombiner().reduce(new Key("FIELD", "card", "datatype\u000020190314"), values.iterator());
+        FieldCardinalitySketch sketch = new FieldCardinalitySketch(combined);
+        assertEquals(15000, sketch.getCount());
+        assertTrue(Math.abs(sketch.getCardinality() - 10000) < 500);
+        assertEquals(2.0d / 3.0d, sketch.getSelectivity(), 0.05d);
+    }
+    
+    @Test
+    public void testReduceSingleValue() throws Exception {
+        List<Value> values = new ArrayList<>();
+        values.add(sketch(0, 10).toValue());
+        assertSame(values.get(0), new FieldCardinalityCombiner().reduce(new Key("FIELD"), values.iterator()));
+    }
+    
+    @Test
+    public void testCardinalityNeverExceedsCount() {
+        FieldCardinalitySketch sketch = sketch(0, 3);
+        assertTrue(sketch.getCardinality() <= 3);
+        assertEquals(0.0d, new FieldCardinalitySketch().getSelectivity(), 0.0d);
+    }
+}
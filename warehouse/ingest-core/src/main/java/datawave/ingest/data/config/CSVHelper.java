@@ -115,6 +115,12 @@ public class CSVHelper extends DataTypeHelperImpl {
      */
     public static final String THRESHOLD_FIELD_REPLACEMENT = ".data.threshold.replacement";
     
+    /**
+     * Parameter to specify that records should be split with a {@link CSVLineScanner} rather than a tokenizer, only creating the values of the fields that are
+     * actually used. Only applies to readers and ingest helpers that have not customized their tokenizer.
+     */
+    public static final String FAST_PARSE = ".data.fast.parse";
+    
     /** Partial configuration key for specifying CSV fields that a record must have. */
     public static final String REQUIRED_FIELDS = ".data.fields.required";
     
@@ -129,6 +135,7 @@ public class CSVHelper extends DataTypeHelperImpl {
     private String separator = null;
     private boolean skipHeaderRow = false;
     private boolean processExtraFields = false;
+    private boolean fastParse = false;
     private Map<String,String> multiValuedFields = new HashMap<>();
     private Map<String,String> multiValuedFieldsBlacklist = new HashMap<>();
     private boolean hasMultiValuedFieldsBlacklist = false;
@@ -171,6 +178,9 @@ public class CSVHelper extends DataTypeHelperImpl {
         // Get the process extra fields property
         this.processExtraFields = config.getBoolean(this.getType().typeName() + PROCESS_EXTRA_FIELDS, false);
         
+        // Get the fast parse property
+        this.fastParse = config.getBoolean(this.getType().typeName() + FAST_PARSE, false);
+        
         // Get the whitelist of event fields to keep.
         Collection<String> cw = config.getStringCollection(this.getType().typeName() + FIELD_WHITELIST);
         if (cw != null && !cw.isEmpty()) {
@@ -272,6 +282,17 @@ public class CSVHelper extends DataTypeHelperImpl {
         return processExtraFields;
     }
     
+    public boolean isFastParse() {
+        return fastParse;
+    }
+    
+    /**
+     * @return a new scanner splitting records the same way as the tokenizer for the configured separator
+     */
+    public CSVLineScanner newLineScanner() {
+        return CSVLineScanner.forSeparator(getSeparator());
+    }
+    
     public Map<String,String> getMultiValuedFields() {
         return multiValuedFields;
     }
@@ -0,0 +1,266 @@
+package datawave.ingest.data.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits the bytes of a delimited line into columns in a single pass, recording only the offsets of each column. The String for a column is only created when
+ * it is asked for, so columns that are not needed cost nothing beyond the scan. The arrays are reused from line to line, so an instance is not thread-safe.
+ * <p>
+ * The columns produced are the same as those of the {@link org.apache.commons.lang.text.StrTokenizer} configured by {@link CSVHelper} based readers and ingest
+ * helpers: a "," separator is split as {@link org.apache.commons.lang.text.StrTokenizer#getCSVInstance()}, a "\t" separator as
+ * {@link org.apache.commons.lang.text.StrTokenizer#getTSVInstance()}, and any other separator as a plain delimiter without quoting or trimming. Empty columns
+ * are returned as null. The line is expected to be UTF-8 (or another ASCII compatible encoding of UTF-8 text).
+ */
+public class CSVLineScanner {
+    
+    private static final byte QUOTE = '"';
+    
+    private final byte[] separator;
+    private final boolean quoted;
+    private boolean trimmed;
+    
+    private byte[] data;
+    private int columns;
+    private int[] starts = new int[32];
+    private int[] ends = new int[32];
+    private boolean[] needsDecoding = new boolean[32];
+    private byte[] work = new byte[256];
+    
+    /**
+     * @param separator
+     *            the column separator
+     * @param quoted
+     *            whether columns may be enclosed in double quotes
+     * @param trimmed
+     *            whether whitespace (and control characters) around unquoted column values is trimmed
+     */
+    public CSVLineScanner(String separator, boolean quoted, boolean trimmed) {
+        this.separator = separator.getBytes(StandardCharsets.UTF_8);
+        this.quoted = quoted;
+        this.trimmed = trimmed;
+    }
+    
+    /**
+     * Create a scanner that splits lines the same way as the tokenizer used for the configured separator
+     *
+     * @param separator
+     *            the configured separator, see {@link CSVHelper#getSeparator()}
+     * @return the scanner
+     */
+    public static CSVLineScanner forSeparator(String separator) {
+        if (separator.equals(",")) {
+            return new CSVLineScanner(",", true, true);
+        } else if (separator.equals("\\t")) {
+            return new CSVLineScanner("\t", true, true);
+        } else {
+            return new CSVLineScanner(separator, false, false);
+        }
+    }
+    
+    public boolean isTrimmed() {
+        return trimmed;
+    }
+    
+    public CSVLineScanner setTrimmed(boolean trimmed) {
+        this.trimmed = trimmed;
+        return this;
+    }
+    
+    /**
+     * Scan a line into its columns. The bytes are referenced, not copied, so they must not be changed while the columns are in use.
+     *
+     * @param bytes
+     *            the buffer containing the line
+     * @param offset
+     *            the offset of the line in the buffer
+     * @param length
+     *            the length of the line
+     * @return the number of columns
+     */
+    public int scan(byte[] bytes, int offset, int length) {
+        this.data = bytes;
+        this.columns = 0;
+        int end = offset + length;
+        int pos = offset;
+        while (pos >= 0 && pos < end) {
+            pos = scanColumn(pos, end);
+            if (pos >= end) {
+                // a trailing separator ends with an empty column
+                addColumn(end, end, false);
+            }
+        }
+        return columns;
+    }
+    
+    /**
+     * @return the number of columns in the last line scanned
+     */
+    public int getColumnCount() {
+        return columns;
+    }
+    
+    /**
+     * Get the value of a column, unquoting it if needed
+     *
+     * @param column
+     *            the column index
+     * @return the value, or null if the column is empty
+     */
+    public String getString(int column) {
+        if (column >= columns) {
+            throw new IndexOutOfBoundsException("Column " + column + " of " + columns);
+        }
+        int start = starts[column];
+        int end = ends[column];
+        if (needsDecoding[column]) {
+            int length = unquote(start, end);
+            return length == 0 ? null : new String(work, 0, length, StandardCharsets.UTF_8);
+        }
+        return start == end ? null : new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Scan the column beginning at pos
+     *
+     * @return the position following the separator that ended the column, or -1 if the column ended the line
+     */
+    private int scanColumn(int pos, int end) {
+        // skip leading whitespace
+        if (trimmed) {
+            while (pos < end && isTrim(data[pos]) && !isSeparator(pos, end) && !isQuote(pos)) {
+                pos++;
+            }
+        }
+        if (pos >= end) {
+            addColumn(end, end, false);
+            return -1;
+        }
+        if (isSeparator(pos, end)) {
+            addColumn(pos, pos, false);
+            return pos + separator.length;
+        }
+        
+        int start = pos;
+        if (isQuote(pos)) {
+            // find the end of the column, ignoring separators within quotes
+            boolean quoting = true;
+            pos++;
+            while (pos < end) {
+                if (quoting) {
+                    if (data[pos] == QUOTE) {
+                        if (pos + 1 < end && data[pos + 1] == QUOTE) {
+                            pos += 2;
+                            continue;
+                        }
+                        quoting = false;
+                    }
+                    pos++;
+                } else if (isSeparator(pos, end)) {
+                    addColumn(start, pos, true);
+                    return pos + separator.length;
+                } else {
+                    quoting = (data[pos] == QUOTE);
+                    pos++;
+                }
+            }
+            addColumn(start, end, true);
+            return -1;
+        }
+        
+        // an unquoted column, trimming any trailing whitespace
+        int last = pos;
+        while (pos < end) {
+            if (isSeparator(pos, end)) {
+                addColumn(start, last, false);
+                return pos + separator.length;
+            }
+            if (!trimmed || !isTrim(data[pos])) {
+                last = pos + 1;
+            }
+            pos++;
+        }
+        addColumn(start, last, false);
+        return -1;
+    }
+    
+    /**
+     * Unquote a column beginning with a quote into the work buffer
+     *
+     * @return the length of the unquoted value
+     */
+    private int unquote(int start, int end) {
+        if (work.length < end - start) {
+            work = new byte[Math.max(end - start, work.length * 2)];
+        }
+        int length = 0;
+        int trimmedLength = 0;
+        boolean quoting = true;
+        int pos = start + 1;
+        while (pos < end) {
+            byte b = data[pos];
+            if (quoting) {
+                if (b == QUOTE) {
+                    if (pos + 1 < end && data[pos + 1] == QUOTE) {
+                        // an escaped quote
+                        work[length++] = QUOTE;
+                        trimmedLength = length;
+                        pos += 2;
+                        continue;
+                    }
+                    quoting = false;
+                    pos++;
+                    continue;
+                }
+                work[length++] = b;
+                trimmedLength = length;
+            } else if (b == QUOTE) {
+                quoting = true;
+            } else {
+                work[length++] = b;
+                if (!trimmed || !isTrim(b)) {
+                    trimmedLength = length;
+                }
+            }
+            pos++;
+        }
+        return trimmedLength;
+    }
+    
+    private void addColumn(int start, int end, boolean decode) {
+        if (columns == starts.length) {
+            int size = columns * 2;
+            starts = Arrays.copyOf(starts, size);
+            ends = Arrays.copyOf(ends, size);
+            needsDecoding = Arrays.copyOf(needsDecoding, size);
+        }
+        starts[columns] = start;
+        ends[columns] = end;
+        needsDecoding[columns] = decode;
+        columns++;
+    }
+    
+    private boolean isSeparator(int pos, int end) {
+        if (separator.length == 1) {
+            return data[pos] == separator[0];
+        }
+        if (separator.length == 0 || pos + separator.length > end) {
+            return false;
+        }
+        for (int i = 0; i < separator.length; i++) {
+            if (data[pos + i] != separator[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private boolean isQuote(int pos) {
+        return quoted && data[pos] == QUOTE;
+    }
+    
+    private static boolean isTrim(byte b) {
+        // matches StrMatcher.trimMatcher(), which treats every character up to and including a space as whitespace
+        return (b & 0xff) <= 32;
+    }
+}
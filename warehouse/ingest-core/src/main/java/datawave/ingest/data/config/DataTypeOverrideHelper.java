@@ -111,6 +111,13 @@ public class DataTypeOverrideHelper extends DataTypeHelperImpl {
         }
     }
     
+    /**
+     * @return the name of the field used to override the data type of an event, or null if not configured
+     */
+    public String getEventDataTypeFieldName() {
+        return eventDataTypeFieldName;
+    }
+    
     /**
      * Obtain the new type from the eventDataType map based on the field value. This new type is a type in 'output name' only and will reference the internal
      * type, helper, reader, default data type handlers filter priority and default data type filters of the original type (as returned by {@link #getType()};)
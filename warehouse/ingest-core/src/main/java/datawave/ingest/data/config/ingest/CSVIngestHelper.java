@@ -6,6 +6,7 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import datawave.ingest.data.RawRecordContainer;
 import datawave.ingest.data.config.CSVHelper;
+import datawave.ingest.data.config.CSVLineScanner;
 import datawave.ingest.data.config.NormalizedContentInterface;
 import datawave.util.StringUtils;
 import org.apache.commons.lang.StringEscapeUtils;
@@ -18,6 +19,10 @@ public class CSVIngestHelper extends ContentBaseIngestHelper {
     private static final Logger log = Logger.getLogger(CSVIngestHelper.class);
     protected CSVHelper helper = null;
     
+    // the scanner and the header columns to keep when the fast parse is enabled, created on first use
+    private CSVLineScanner scanner = null;
+    private boolean[] keepColumns = null;
+    
     @Override
     public void setup(Configuration config) {
         super.setup(config);
@@ -43,6 +48,29 @@ public class CSVIngestHelper extends ContentBaseIngestHelper {
         return tokenizer;
     }
     
+    /**
+     * Create the scanner used to split the raw data when {@link CSVHelper#isFastParse()} is enabled. Classes that modify the tokenizer via
+     * {@link #configureTokenizer(StrTokenizer)} should configure the scanner to match.
+     * 
+     * @return the scanner
+     */
+    protected CSVLineScanner createLineScanner() {
+        return helper.newLineScanner();
+    }
+    
+    /**
+     * Scan the raw data from the Event when {@link CSVHelper#isFastParse()} is enabled. Classes that modify the raw data via {@link #preProcessRawData(byte[])}
+     * should scan the equivalent bytes here.
+     * 
+     * @param scanner
+     *            the scanner
+     * @param data
+     *            The raw data from the Event
+     */
+    protected void scanRawData(CSVLineScanner scanner, byte[] data) {
+        scanner.scan(data, 0, data.length);
+    }
+    
     /**
      * Allow classes extending this class to modify the raw data before setting it on the StrTokenizer
      * 
@@ -61,6 +89,15 @@ public class CSVIngestHelper extends ContentBaseIngestHelper {
     public Multimap<String,NormalizedContentInterface> getEventFields(RawRecordContainer event) {
         HashMultimap<String,String> fields = HashMultimap.create();
         
+        if (helper.isFastParse()) {
+            if (null == scanner) {
+                scanner = createLineScanner();
+            }
+            scanRawData(scanner, event.getRawData());
+            processFields(fields, scanner);
+            return normalize(fields);
+        }
+        
         String data = preProcessRawData(event.getRawData());
         
         StrTokenizer tokenizer;
@@ -114,6 +151,49 @@ public class CSVIngestHelper extends ContentBaseIngestHelper {
         }
     }
     
+    /**
+     * Same as {@link #processFields(HashMultimap, String[])}, except that the values are only created for the header fields that are kept. Header fields
+     * missing from the record are skipped.
+     * 
+     * @param fields
+     *            the fields to add to
+     * @param scanner
+     *            the scanner holding the columns of the record
+     */
+    protected void processFields(HashMultimap<String,String> fields, CSVLineScanner scanner) {
+        String[] header = helper.getHeader();
+        if (null == keepColumns) {
+            // resolve the header against the whitelist and blacklist once, rather than for every record
+            keepColumns = new boolean[header.length];
+            for (int i = 0; i < header.length; i++) {
+                keepColumns[i] = keepField(header[i]);
+            }
+        }
+        
+        int columns = scanner.getColumnCount();
+        for (int i = 0; i < Math.max(columns, header.length); i++) {
+            
+            if (i < header.length) {
+                if (keepColumns[i] && i < columns) {
+                    String fieldValue = scanner.getString(i);
+                    if (fieldValue != null) {
+                        fieldValue = helper.clean(header[i], StringEscapeUtils.unescapeCsv(fieldValue));
+                        if (fieldValue != null) {
+                            processPreSplitField(fields, header[i], fieldValue);
+                        }
+                    }
+                }
+            } else if (helper.processExtraFields()) {
+                String fieldValue = StringEscapeUtils.unescapeCsv(scanner.getString(i));
+                if (fieldValue != null) {
+                    processExtraField(fields, fieldValue);
+                }
+            } else {
+                break;
+            }
+        }
+    }
+    
     /**
      * Used to process extra fields. The PROCESS_EXTRA_FIELDS configuration parameter must be set to enable this processing.
      * 
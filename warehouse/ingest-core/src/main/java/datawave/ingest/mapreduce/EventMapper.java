@@ -3,6 +3,7 @@ package datawave.ingest.mapreduce;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import datawave.data.normalizer.DateNormalizer;
 import datawave.ingest.data.RawRecordContainer;
 import datawave.ingest.data.Type;
@@ -31,6 +32,7 @@ import datawave.ingest.mapreduce.job.writer.BulkContextWriter;
 import datawave.ingest.mapreduce.job.writer.ContextWriter;
 import datawave.ingest.mapreduce.job.writer.LiveContextWriter;
 import datawave.ingest.mapreduce.partition.MultiTableRangePartitioner;
+import datawave.ingest.mapreduce.partition.VolumeBalancedShardPartitioner;
 import datawave.ingest.metric.IngestInput;
 import datawave.ingest.metric.IngestOutput;
 import datawave.ingest.metric.IngestProcess;
@@ -66,6 +68,11 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.Stack;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -78,9 +85,13 @@ import java.util.concurrent.TimeUnit;
  * is within the window, then the map will parse the Event into a map of field names and field values, the map method will call the process() method on each
  * DataTypeHandler implementation that has been configured for the Type of Event.
  *
- * This class no longer supports processing events in a multi-threaded fashion as that was proven to NOT be beneficial in the long run (i.e. The bulk of the
- * time is spent in the ContextWriter which is synchronized. Also multithreading mean potentially more memory use which we should already be maximizing per
- * machine in the hadoop map-reduce cluster.)
+ * Events are processed one at a time, as processing multiple events concurrently was proven to NOT be beneficial in the long run (i.e. The bulk of the time
+ * was spent in the ContextWriter which is synchronized. Also multithreading mean potentially more memory use which we should already be maximizing per machine
+ * in the hadoop map-reduce cluster.) However if the HANDLER_THREADS parameter is greater than 1, the handlers for an event are run concurrently on a pool of
+ * that many threads. The event is still parsed once on the map thread, and the output and counters of each handler are buffered and written to the context on
+ * the map thread in the order the handlers are configured, so the output is the same as when the handlers are run one after another. Handlers which write to
+ * the context themselves (ExtendedDataTypeHandler) are still run on the map thread, in their turn. This is only beneficial when an event has several CPU
+ * intensive handlers, such as the content tokenizing handlers, and requires that the handlers do not share mutable state.
  *
  *
  *
@@ -127,6 +138,11 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
     
     public static final String ID_FILTER_FSTS = "ingest.event.mapper.id.filter.fsts";
     
+    /**
+     * The number of threads to run the handlers for an event on. A value of 1 runs the handlers on the map thread.
+     */
+    public static final String HANDLER_THREADS = "ingest.event.mapper.handler.threads";
+    
     protected Map<String,List<DataTypeHandler<K1>>> typeMap = new HashMap<>();
     
     /**
@@ -146,6 +162,9 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
     
     private ContextWriter<K2,V2> contextWriter = null;
     
+    // runs the handlers for an event concurrently, or null to run them on the map thread
+    private ExecutorService handlerService = null;
+    
     protected long offset = 0;
     
     protected String splitStart = null;
@@ -193,6 +212,12 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         
         createRawFileName = context.getConfiguration().getBoolean(LOAD_RAW_FILE_NAME, true);
         
+        int handlerThreads = context.getConfiguration().getInt(HANDLER_THREADS, 1);
+        if (handlerThreads > 1) {
+            handlerService = Executors.newFixedThreadPool(handlerThreads, new ThreadFactoryBuilder().setNameFormat("EventMapper handler %d").setDaemon(true)
+                            .build());
+        }
+        
         Class<? extends KeyValueFilter<K2,V2>> firstFilter = null;
         
         // Use the filter class as the context writer if any
@@ -393,6 +418,7 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         // to get the context on a partitioner, and we are only
         // using this to set some counters that collect stats.
         MultiTableRangePartitioner.setContext(context);
+        VolumeBalancedShardPartitioner.setContext(context);
         
         Long myInterval = dataTypeDiscardIntervalCache.get(value.getDataType().typeName());
         
@@ -632,6 +658,11 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         // cleanup the context writer
         contextWriter.cleanup(context);
         
+        if (handlerService != null) {
+            handlerService.shutdownNow();
+            handlerService = null;
+        }
+        
         for (List<DataTypeHandler<K1>> handlers : typeMap.values()) {
             for (DataTypeHandler<K1> h : handlers)
                 h.close(context);
@@ -639,12 +670,7 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         typeMap.clear();
         
         // Add the counters from the standalone reporter to this context.
-        Counters counters = reporter.getCounters();
-        for (CounterGroup cg : counters) {
-            for (Counter c : cg) {
-                getCounter(context, cg.getName(), c.getName()).increment(c.getValue());
-            }
-        }
+        addCounters(reporter.getCounters(), context);
         
         super.cleanup(context);
         
@@ -654,8 +680,17 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         }
     }
     
+    private void addCounters(Counters counters, Context context) {
+        for (CounterGroup cg : counters) {
+            for (Counter c : cg) {
+                getCounter(context, cg.getName(), c.getName()).increment(c.getValue());
+            }
+        }
+    }
+    
     /**
-     * This is where we apply a list of handlers to an event.
+     * This is where we apply a list of handlers to an event. If a handler thread pool has been configured the handlers are run concurrently, and their output
+     * written once they have all completed.
      *
      * @param key
      *            The key of the map process
@@ -671,6 +706,27 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
      */
     public void processEvent(K1 key, RawRecordContainer value, List<DataTypeHandler<K1>> handlers, Multimap<String,NormalizedContentInterface> fields,
                     Context context) throws Exception {
+        List<HandlerTask> tasks = new ArrayList<>();
+        try {
+            applyHandlers(key, value, handlers, fields, context, tasks);
+            
+            // write the output of the concurrent handlers in the order they are configured
+            for (HandlerTask task : tasks) {
+                task.complete(context);
+                
+                context.progress();
+            }
+        } finally {
+            // the handlers are reused for the next event, so none may still be running
+            awaitHandlers(tasks);
+        }
+    }
+    
+    /**
+     * Parse the event and run each handler on it, or submit each handler to the handler thread pool if configured
+     */
+    private void applyHandlers(K1 key, RawRecordContainer value, List<DataTypeHandler<K1>> handlers, Multimap<String,NormalizedContentInterface> fields,
+                    Context context, List<HandlerTask> tasks) throws Exception {
         IngestHelperInterface previousHelper = null;
         
         for (DataTypeHandler<K1> handler : handlers) {
@@ -723,9 +779,34 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
                 validator.validate(value, fields);
             }
             
-            executeHandler(key, value, fields, handler, context);
-            
-            context.progress();
+            if (handlerService == null) {
+                executeHandler(key, value, fields, handler, context);
+                
+                context.progress();
+            } else {
+                // the handler gets its own copy of the fields as they are cleared when the event is parsed for the next helper
+                HandlerTask task = new HandlerTask(key, value, HashMultimap.create(fields), handler);
+                if (!(handler instanceof ExtendedDataTypeHandler)) {
+                    task.future = handlerService.submit(task);
+                }
+                tasks.add(task);
+            }
+        }
+    }
+    
+    private void awaitHandlers(List<HandlerTask> tasks) {
+        for (HandlerTask task : tasks) {
+            if (task.future == null) {
+                continue;
+            }
+            try {
+                task.future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // the failure has already been thrown, or an earlier failure is being thrown
+            }
         }
     }
     
@@ -804,11 +885,20 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         return newFields;
     }
     
-    @SuppressWarnings("unchecked")
     public void executeHandler(K1 key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields, DataTypeHandler<K1> handler,
                     Context context) throws Exception {
-        long count = 0;
+        TraceStopwatch handlerTimer = startHandlerTimer();
+        
+        Long count = runHandler(key, event, fields, handler, context);
+        
+        if (handlerTimer != null) {
+            handlerTimer.stop();
+        }
         
+        completeHandler(event, fields, handler, count, handlerTimer, context);
+    }
+    
+    private TraceStopwatch startHandlerTimer() {
         TraceStopwatch handlerTimer = null;
         
         // Handler based metrics
@@ -817,7 +907,17 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
             handlerTimer = new TraceStopwatch("Time in handler");
             handlerTimer.start();
         }
-        
+        return handlerTimer;
+    }
+    
+    /**
+     * Run a handler against an event, writing its output to the context writer
+     *
+     * @return the number of entries written, or null if the handler failed to produce any
+     */
+    @SuppressWarnings("unchecked")
+    private Long runHandler(K1 key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields, DataTypeHandler<K1> handler,
+                    Context context) throws Exception {
         // In the setup we determined whether or not we were performing bulk ingest. This tells us which
         // method to call on the DataTypeHandler interface.
         Multimap<BulkIngestKey,Value> r;
@@ -825,14 +925,26 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         if (!(handler instanceof ExtendedDataTypeHandler)) {
             r = handler.processBulk(key, event, fields, new ContextWrappedStatusReporter(getContext(context)));
             if (r == null) {
-                getCounter(context, IngestInput.EVENT_FATAL_ERROR).increment(1);
-                getCounter(context, IngestInput.EVENT_FATAL_ERROR.name(), "NullMultiMap").increment(1);
-            } else {
-                contextWriter.write(r, context);
-                count = r.size();
+                return null;
             }
+            contextWriter.write(r, context);
+            return (long) r.size();
         } else {
-            count = ((ExtendedDataTypeHandler<K1,K2,V2>) handler).process(key, event, fields, context, contextWriter);
+            return ((ExtendedDataTypeHandler<K1,K2,V2>) handler).process(key, event, fields, context, contextWriter);
+        }
+    }
+    
+    /**
+     * Update the counters, metadata and metrics once a handler has been run and its output written
+     */
+    private void completeHandler(RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields, DataTypeHandler<K1> handler, Long result,
+                    TraceStopwatch handlerTimer, Context context) {
+        long count = 0;
+        if (result == null) {
+            getCounter(context, IngestInput.EVENT_FATAL_ERROR).increment(1);
+            getCounter(context, IngestInput.EVENT_FATAL_ERROR.name(), "NullMultiMap").increment(1);
+        } else {
+            count = result;
             if (count == -1) {
                 getCounter(context, IngestInput.EVENT_FATAL_ERROR).increment(1);
                 getCounter(context, IngestInput.EVENT_FATAL_ERROR.name(), "NegOneCount").increment(1);
@@ -850,7 +962,6 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         }
         
         if (metricsEnabled && handlerTimer != null) {
-            handlerTimer.stop();
             long handlerTime = handlerTimer.elapsed(TimeUnit.MILLISECONDS);
             
             metricsLabels.clear();
@@ -864,6 +975,67 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         }
     }
     
+    /**
+     * A handler run on the handler thread pool. The task is given neither the context nor the context writer: the output of the handler and the counters it
+     * increments are kept by the task, and written to the context on the map thread once the handler has finished.
+     */
+    private class HandlerTask implements Callable<Long> {
+        private final K1 key;
+        private final RawRecordContainer event;
+        private final Multimap<String,NormalizedContentInterface> fields;
+        private final DataTypeHandler<K1> handler;
+        private final StandaloneStatusReporter taskReporter = new StandaloneStatusReporter();
+        private Multimap<BulkIngestKey,Value> output = null;
+        private TraceStopwatch handlerTimer = null;
+        private Future<Long> future = null;
+        
+        private HandlerTask(K1 key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields, DataTypeHandler<K1> handler) {
+            this.key = key;
+            this.event = event;
+            this.fields = fields;
+            this.handler = handler;
+        }
+        
+        @Override
+        public Long call() throws Exception {
+            handlerTimer = startHandlerTimer();
+            try {
+                output = handler.processBulk(key, event, fields, taskReporter);
+                return (output == null ? null : (long) output.size());
+            } finally {
+                if (handlerTimer != null) {
+                    handlerTimer.stop();
+                }
+            }
+        }
+        
+        /**
+         * Wait for the handler to finish and write its output and counters to the context. Extended handlers write to the context themselves, so they are
+         * run here on the map thread instead.
+         */
+        private void complete(Context context) throws Exception {
+            if (future == null) {
+                executeHandler(key, event, fields, handler, context);
+                return;
+            }
+            
+            Long count;
+            try {
+                count = future.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception) {
+                    throw (Exception) e.getCause();
+                }
+                throw e;
+            }
+            addCounters(taskReporter.getCounters(), context);
+            if (output != null) {
+                contextWriter.write(output, context);
+            }
+            completeHandler(event, fields, handler, count, handlerTimer, context);
+        }
+    }
+    
     public ContextWriter<K2,V2> getContextWriter() {
         return this.contextWriter;
     }
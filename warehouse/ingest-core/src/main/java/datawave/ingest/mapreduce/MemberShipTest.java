@@ -19,7 +19,8 @@ public class MemberShipTest {
     }
     
     public static <T> BloomFilter<T> update(BloomFilter<T> filter, T term) {
-        filter.apply(term);
+        // note that apply is the membership test, put is what adds the term
+        filter.put(term);
         
         return filter;
     }
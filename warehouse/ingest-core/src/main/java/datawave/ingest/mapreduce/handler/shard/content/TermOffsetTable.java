@@ -0,0 +1,469 @@
+package datawave.ingest.mapreduce.handler.shard.content;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import datawave.ingest.mapreduce.handler.shard.content.BoundedOffsetQueue.OffsetList;
+import datawave.ingest.protobuf.TermWeight;
+
+import com.google.common.primitives.Ints;
+import com.google.protobuf.CodedOutputStream;
+
+/**
+ * A bounded table of term offsets that keeps the offsets of each term and zone in a primitive int array. Each distinct term and zone is interned to an entry
+ * id in an open hash table, so adding an offset for a term that has already been seen allocates nothing. Like the {@link BoundedOffsetQueue}, once the total
+ * number of offsets exceeds the capacity the entry with the fewest offsets is evicted and returned so that it can be written out early. The entries are kept in
+ * a list ordered by their number of offsets so that the eviction is constant time rather than a scan of a priority queue.
+ * <p>
+ * The entries returned by {@link #addOffset(String, String, int)} and {@link #entries()} are reused, and are only valid until the table is next changed. This
+ * class is not thread-safe.
+ */
+public class TermOffsetTable implements OffsetQueue<Integer> {
+    
+    private static final int NONE = -1;
+    private static final int INITIAL_ENTRIES = 64;
+    private static final int INITIAL_OFFSETS = 4;
+    
+    // offset arrays larger than this are not kept for reuse once the table is cleared
+    private static final int MAX_RETAINED_OFFSETS = 64;
+    
+    /**
+     * The offsets for a term and zone. The offsets array may be longer than the number of offsets.
+     */
+    public static class Entry {
+        public String term;
+        public String zone;
+        public int[] offsets;
+        public int size;
+        
+        public int size() {
+            return size;
+        }
+        
+        /**
+         * @return the TermWeight.Info protobuf bytes for the offsets
+         */
+        public byte[] toTermWeightInfo() {
+            return TermOffsetTable.toTermWeightInfo(offsets, size);
+        }
+    }
+    
+    private final int maxNumOffsets;
+    
+    // the current number of offsets across all of the entries
+    private int numOffsets = 0;
+    
+    // the number of entry ids that have been handed out, including those on the free list
+    private int highWater = 0;
+    private int freeList = NONE;
+    private int numEntries = 0;
+    
+    // the hash table of entry ids, chained through hashNext
+    private int[] table;
+    
+    // the entries, indexed by id
+    private String[] terms;
+    private String[] zones;
+    private int[] hashes;
+    private int[] hashNext;
+    private int[][] offsets;
+    private int[] counts;
+    
+    // the entries in ascending order of their counts, and the last entry for each count
+    private int[] prev;
+    private int[] next;
+    private int head = NONE;
+    private int[] lastWithCount = new int[INITIAL_OFFSETS * 4];
+    private int maxCount = 0;
+    
+    private final Entry evicted = new Entry();
+    
+    /**
+     * @param maxNumOffsets
+     *            the total number of offsets to hold before the smallest entry is evicted
+     */
+    public TermOffsetTable(int maxNumOffsets) {
+        this.maxNumOffsets = maxNumOffsets;
+        this.table = new int[INITIAL_ENTRIES * 2];
+        Arrays.fill(table, NONE);
+        this.terms = new String[INITIAL_ENTRIES];
+        this.zones = new String[INITIAL_ENTRIES];
+        this.hashes = new int[INITIAL_ENTRIES];
+        this.hashNext = new int[INITIAL_ENTRIES];
+        this.offsets = new int[INITIAL_ENTRIES][];
+        this.counts = new int[INITIAL_ENTRIES];
+        this.prev = new int[INITIAL_ENTRIES];
+        this.next = new int[INITIAL_ENTRIES];
+        Arrays.fill(lastWithCount, NONE);
+    }
+    
+    public int getCapacity() {
+        return maxNumOffsets;
+    }
+    
+    /**
+     * @return the number of offsets in the table
+     */
+    @Override
+    public int size() {
+        return numOffsets;
+    }
+    
+    /**
+     * @return the number of distinct terms and zones in the table
+     */
+    public int getNumEntries() {
+        return numEntries;
+    }
+    
+    /**
+     * Add an offset for a term and zone. If this addition pushes the table past its capacity, then the entry with the fewest offsets is removed and returned.
+     *
+     * @param term
+     *            the term
+     * @param zone
+     *            the zone (field name)
+     * @param offset
+     *            the offset
+     * @return the evicted entry, valid until the table is next changed, or null if the table is not full yet
+     */
+    public Entry addOffset(String term, String zone, int offset) {
+        int hash = hash(term, zone);
+        int id = find(term, zone, hash);
+        if (id == NONE) {
+            id = insert(term, zone, hash);
+        }
+        
+        int count = counts[id];
+        int[] array = offsets[id];
+        if (count == array.length) {
+            array = offsets[id] = Arrays.copyOf(array, count * 2);
+        }
+        array[count] = offset;
+        if (count == 0) {
+            linkNew(id);
+        } else {
+            promote(id, count);
+        }
+        counts[id] = count + 1;
+        
+        numOffsets++;
+        if (numOffsets > maxNumOffsets) {
+            return evict();
+        }
+        return null;
+    }
+    
+    public boolean containsKey(String term, String zone) {
+        return find(term, zone, hash(term, zone)) != NONE;
+    }
+    
+    /**
+     * @return the entries in the table, valid until the table is next changed
+     */
+    public Iterable<Entry> entries() {
+        return () -> new Iterator<Entry>() {
+            private final Entry entry = new Entry();
+            private int id = advance(0);
+            
+            private int advance(int from) {
+                while (from < highWater && terms[from] == null) {
+                    from++;
+                }
+                return from;
+            }
+            
+            @Override
+            public boolean hasNext() {
+                return id < highWater;
+            }
+            
+            @Override
+            public Entry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                set(entry, id);
+                id = advance(id + 1);
+                return entry;
+            }
+        };
+    }
+    
+    @Override
+    public void clear() {
+        for (int id = 0; id < highWater; id++) {
+            terms[id] = null;
+            zones[id] = null;
+            if (offsets[id] != null && offsets[id].length > MAX_RETAINED_OFFSETS) {
+                offsets[id] = null;
+            }
+            counts[id] = 0;
+        }
+        Arrays.fill(table, NONE);
+        Arrays.fill(lastWithCount, 0, Math.min(maxCount + 1, lastWithCount.length), NONE);
+        maxCount = 0;
+        head = NONE;
+        highWater = 0;
+        freeList = NONE;
+        numEntries = 0;
+        numOffsets = 0;
+        evicted.term = null;
+        evicted.zone = null;
+        evicted.offsets = null;
+    }
+    
+    /**
+     * Encode offsets as the bytes of a TermWeight.Info protobuf without building the message. The bytes are the same as those of a message built with
+     * {@code TermWeight.Info.newBuilder().addTermOffset(...)} for each of the offsets.
+     *
+     * @param offsets
+     *            the offsets
+     * @param length
+     *            the number of offsets to encode
+     * @return the serialized TermWeight.Info
+     */
+    public static byte[] toTermWeightInfo(int[] offsets, int length) {
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            size += CodedOutputStream.computeUInt32Size(TermWeight.Info.TERMOFFSET_FIELD_NUMBER, offsets[i]);
+        }
+        byte[] bytes = new byte[size];
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        try {
+            for (int i = 0; i < length; i++) {
+                out.writeUInt32(TermWeight.Info.TERMOFFSET_FIELD_NUMBER, offsets[i]);
+            }
+            out.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to encode term offsets", e);
+        }
+        return bytes;
+    }
+    
+    /* OffsetQueue methods, which box the offsets for compatibility with existing callers */
+    
+    @Override
+    public OffsetList<Integer> addOffset(TermAndZone termAndZone, Integer offset) {
+        Entry entry = addOffset(termAndZone.term, termAndZone.zone, offset);
+        return entry == null ? null : toOffsetList(entry);
+    }
+    
+    @Override
+    public boolean containsKey(TermAndZone termAndZone) {
+        return containsKey(termAndZone.term, termAndZone.zone);
+    }
+    
+    @Override
+    public List<Integer> getOffsets(TermAndZone termAndZone) {
+        int id = find(termAndZone.term, termAndZone.zone, hash(termAndZone.term, termAndZone.zone));
+        return id == NONE ? null : Ints.asList(Arrays.copyOf(offsets[id], counts[id]));
+    }
+    
+    @Override
+    public Iterable<OffsetList<Integer>> offsets() {
+        return () -> {
+            final Iterator<Entry> entries = entries().iterator();
+            return new Iterator<OffsetList<Integer>>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+                
+                @Override
+                public OffsetList<Integer> next() {
+                    return toOffsetList(entries.next());
+                }
+            };
+        };
+    }
+    
+    private static OffsetList<Integer> toOffsetList(Entry entry) {
+        OffsetList<Integer> list = new OffsetList<>();
+        list.termAndZone = new TermAndZone(entry.term, entry.zone);
+        list.offsets = Ints.asList(Arrays.copyOf(entry.offsets, entry.size));
+        return list;
+    }
+    
+    private static int hash(String term, String zone) {
+        int h = term.hashCode() * 31 + zone.hashCode();
+        // spread the high bits into the low bits used by the table
+        return h ^ (h >>> 16);
+    }
+    
+    private int find(String term, String zone, int hash) {
+        for (int id = table[hash & (table.length - 1)]; id != NONE; id = hashNext[id]) {
+            if (hashes[id] == hash && terms[id].equals(term) && zones[id].equals(zone)) {
+                return id;
+            }
+        }
+        return NONE;
+    }
+    
+    private int insert(String term, String zone, int hash) {
+        int id;
+        if (freeList != NONE) {
+            id = freeList;
+            freeList = hashNext[id];
+        } else {
+            if (highWater == terms.length) {
+                grow();
+            }
+            id = highWater++;
+        }
+        terms[id] = term;
+        zones[id] = zone;
+        hashes[id] = hash;
+        counts[id] = 0;
+        if (offsets[id] == null) {
+            offsets[id] = new int[INITIAL_OFFSETS];
+        }
+        int bucket = hash & (table.length - 1);
+        hashNext[id] = table[bucket];
+        table[bucket] = id;
+        numEntries++;
+        return id;
+    }
+    
+    private void grow() {
+        int size = terms.length * 2;
+        terms = Arrays.copyOf(terms, size);
+        zones = Arrays.copyOf(zones, size);
+        hashes = Arrays.copyOf(hashes, size);
+        hashNext = Arrays.copyOf(hashNext, size);
+        offsets = Arrays.copyOf(offsets, size);
+        counts = Arrays.copyOf(counts, size);
+        prev = Arrays.copyOf(prev, size);
+        next = Arrays.copyOf(next, size);
+        
+        // rehash into a table twice the size of the entry arrays
+        table = new int[size * 2];
+        Arrays.fill(table, NONE);
+        for (int id = 0; id < highWater; id++) {
+            if (terms[id] != null) {
+                int bucket = hashes[id] & (table.length - 1);
+                hashNext[id] = table[bucket];
+                table[bucket] = id;
+            }
+        }
+    }
+    
+    /**
+     * Link a new entry with a count of one after the other entries with a count of one
+     */
+    private void linkNew(int id) {
+        int after = lastWithCount(1);
+        if (after == NONE) {
+            prev[id] = NONE;
+            next[id] = head;
+            if (head != NONE) {
+                prev[head] = id;
+            }
+            head = id;
+        } else {
+            linkAfter(id, after);
+        }
+        setLastWithCount(1, id);
+    }
+    
+    /**
+     * Move an entry whose count is going from count to count + 1 to the end of the entries with that count, which is the start of the entries with count + 1
+     */
+    private void promote(int id, int count) {
+        int last = lastWithCount[count];
+        if (last == id) {
+            int before = prev[id];
+            lastWithCount[count] = (before != NONE && counts[before] == count) ? before : NONE;
+        } else {
+            unlink(id);
+            linkAfter(id, last);
+        }
+        if (lastWithCount(count + 1) == NONE) {
+            setLastWithCount(count + 1, id);
+        }
+    }
+    
+    /**
+     * Remove the entry with the fewest offsets, returning its offsets
+     */
+    private Entry evict() {
+        int id = head;
+        int count = counts[id];
+        if (lastWithCount[count] == id) {
+            lastWithCount[count] = NONE;
+        }
+        unlink(id);
+        
+        // remove it from the hash table
+        int bucket = hashes[id] & (table.length - 1);
+        if (table[bucket] == id) {
+            table[bucket] = hashNext[id];
+        } else {
+            int other = table[bucket];
+            while (hashNext[other] != id) {
+                other = hashNext[other];
+            }
+            hashNext[other] = hashNext[id];
+        }
+        
+        set(evicted, id);
+        numOffsets -= count;
+        numEntries--;
+        
+        // the offsets array is handed off with the evicted entry, so the id gets a new one when it is reused
+        terms[id] = null;
+        zones[id] = null;
+        offsets[id] = null;
+        counts[id] = 0;
+        hashNext[id] = freeList;
+        freeList = id;
+        return evicted;
+    }
+    
+    private void set(Entry entry, int id) {
+        entry.term = terms[id];
+        entry.zone = zones[id];
+        entry.offsets = offsets[id];
+        entry.size = counts[id];
+    }
+    
+    private void linkAfter(int id, int after) {
+        int following = next[after];
+        prev[id] = after;
+        next[id] = following;
+        next[after] = id;
+        if (following != NONE) {
+            prev[following] = id;
+        }
+    }
+    
+    private void unlink(int id) {
+        int before = prev[id];
+        int following = next[id];
+        if (before == NONE) {
+            head = following;
+        } else {
+            next[before] = following;
+        }
+        if (following != NONE) {
+            prev[following] = before;
+        }
+    }
+    
+    private int lastWithCount(int count) {
+        return count < lastWithCount.length ? lastWithCount[count] : NONE;
+    }
+    
+    private void setLastWithCount(int count, int id) {
+        if (count >= lastWithCount.length) {
+            int size = lastWithCount.length;
+            lastWithCount = Arrays.copyOf(lastWithCount, Math.max(count + 1, size * 2));
+            Arrays.fill(lastWithCount, size, lastWithCount.length, NONE);
+        }
+        lastWithCount[count] = id;
+        maxCount = Math.max(maxCount, count);
+    }
+}
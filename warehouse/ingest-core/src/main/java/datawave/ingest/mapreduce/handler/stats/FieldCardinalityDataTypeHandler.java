@@ -0,0 +1,236 @@
+package datawave.ingest.mapreduce.handler.stats;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.Type;
+import datawave.ingest.data.config.NormalizedContentInterface;
+import datawave.ingest.data.config.ingest.IngestHelperInterface;
+import datawave.ingest.mapreduce.handler.DataTypeHandler;
+import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.metadata.RawRecordMetadata;
+import datawave.ingest.util.FieldCardinalitySketch;
+import datawave.util.time.DateHelper;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.StatusReporter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
+/**
+ * <p>
+ * Collects the cardinality of the indexed fields as events are ingested, so that field selectivity is available without a separate pass over the shard table
+ * (see the index-stats StatsJob). For each indexed field name, datatype and event date the mapper keeps a {@link FieldCardinalitySketch} of the indexed
+ * values. The sketches are written to the metadata table, where the {@link datawave.iterators.FieldCardinalityCombiner} configured by the
+ * {@link datawave.ingest.table.config.MetadataTableConfigHelper} merges the sketches from every mapper and every job.
+ *
+ * <p>
+ * This class creates the following Key/Values: <br>
+ * <br>
+ * <table border="1" summary="">
+ * <tr>
+ * <th>Schema Type</th>
+ * <th>Use</th>
+ * <th>Row</th>
+ * <th>Column Family</th>
+ * <th>Column Qualifier</th>
+ * <th>Value</th>
+ * </tr>
+ * <tr>
+ * <td>metadata</td>
+ * <td>field cardinality</td>
+ * <td>field name</td>
+ * <td>card</td>
+ * <td>datatype\0date (yyyyMMdd event date)</td>
+ * <td>FieldCardinalitySketch</td>
+ * </tr>
+ * </table>
+ *
+ * <p>
+ * Like the date index, the keys are created by the metadata mechanism: the sketches are accumulated as events are added and written when the mapper is
+ * cleaned up. If more than {@link #FIELD_CARDINALITY_MAX_SKETCHES} sketches are held they are written early by {@link #processBulk}.
+ *
+ * @param <KEYIN>
+ */
+public class FieldCardinalityDataTypeHandler<KEYIN> implements DataTypeHandler<KEYIN>, RawRecordMetadata {
+    
+    private static final Logger log = Logger.getLogger(FieldCardinalityDataTypeHandler.class);
+    
+    public static final Text COLF_CARDINALITY = new Text("card");
+    
+    public static final String FIELD_CARDINALITY_NORMAL_PRECISION = "field.cardinality.hyperlog.normal";
+    public static final String FIELD_CARDINALITY_SPARSE_PRECISION = "field.cardinality.hyperlog.sparse";
+    public static final String FIELD_CARDINALITY_MAX_SKETCHES = "field.cardinality.max.sketches";
+    
+    protected Text metadataTableName = null;
+    protected int normalPrecision = FieldCardinalitySketch.DEFAULT_NORMAL_PRECISION;
+    protected int sparsePrecision = FieldCardinalitySketch.DEFAULT_SPARSE_PRECISION;
+    protected int maxSketches = 10000;
+    protected Configuration conf = null;
+    
+    /**
+     * The sketches keyed by field name, datatype and date
+     */
+    private Map<SketchKey,FieldCardinalitySketch> sketches = new HashMap<>();
+    
+    @Override
+    public void setup(TaskAttemptContext context) {
+        this.conf = context.getConfiguration();
+        
+        String tableName = conf.get(ShardedDataTypeHandler.METADATA_TABLE_NAME, null);
+        if (null == tableName) {
+            log.error(ShardedDataTypeHandler.METADATA_TABLE_NAME + " not specified, no field cardinality will be collected");
+        } else {
+            this.metadataTableName = new Text(tableName);
+        }
+        
+        this.normalPrecision = conf.getInt(FIELD_CARDINALITY_NORMAL_PRECISION, this.normalPrecision);
+        this.sparsePrecision = conf.getInt(FIELD_CARDINALITY_SPARSE_PRECISION, this.sparsePrecision);
+        this.maxSketches = conf.getInt(FIELD_CARDINALITY_MAX_SKETCHES, this.maxSketches);
+    }
+    
+    @Override
+    public String[] getTableNames(Configuration conf) {
+        String tableName = conf.get(ShardedDataTypeHandler.METADATA_TABLE_NAME, null);
+        return (null == tableName ? new String[0] : new String[] {tableName});
+    }
+    
+    @Override
+    public int[] getTableLoaderPriorities(Configuration conf) {
+        String tableName = conf.get(ShardedDataTypeHandler.METADATA_TABLE_NAME, null);
+        return (null == tableName ? new int[0] : new int[] {conf.getInt(ShardedDataTypeHandler.METADATA_TABLE_LOADER_PRIORITY, 40)});
+    }
+    
+    /**
+     * The sketches are updated by the metadata mechanism, see the {@link RawRecordMetadata} implementation contained herein. This only writes the sketches
+     * out early if too many are being held.
+     */
+    @Override
+    public Multimap<BulkIngestKey,Value> processBulk(KEYIN keyin, RawRecordContainer event, Multimap<String,NormalizedContentInterface> eventFields,
+                    StatusReporter reporter) {
+        if (sketches.size() >= maxSketches) {
+            if (log.isDebugEnabled()) {
+                log.debug("Writing " + sketches.size() + " field cardinality sketches early");
+            }
+            Multimap<BulkIngestKey,Value> values = getBulkMetadata();
+            clear();
+            return values;
+        }
+        return HashMultimap.create();
+    }
+    
+    /**
+     * Add the indexed field values of an event to the sketches
+     *
+     * @param helper
+     * @param event
+     * @param fields
+     */
+    protected void addToSketches(IngestHelperInterface helper, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields) {
+        if (metadataTableName == null || fields == null || fields.isEmpty()) {
+            return;
+        }
+        String dataType = event.getDataType().outputName();
+        String date = DateHelper.format(event.getDate());
+        for (NormalizedContentInterface nci : fields.values()) {
+            String fieldName = nci.getIndexedFieldName();
+            if (helper.isIndexedField(fieldName) && nci.getIndexedFieldValue() != null) {
+                SketchKey key = new SketchKey(fieldName, dataType, date);
+                FieldCardinalitySketch sketch = sketches.get(key);
+                if (sketch == null) {
+                    sketch = new FieldCardinalitySketch(normalPrecision, sparsePrecision);
+                    sketches.put(key, sketch);
+                }
+                sketch.offer(nci.getIndexedFieldValue());
+            }
+        }
+    }
+    
+    @Override
+    public RawRecordMetadata getMetadata() {
+        return this;
+    }
+    
+    @Override
+    public IngestHelperInterface getHelper(Type type) {
+        return type.getIngestHelper(conf);
+    }
+    
+    @Override
+    public void close(TaskAttemptContext context) {}
+    
+    @Override
+    public void addEvent(IngestHelperInterface helper, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields, long loadTimeInMillis) {
+        addToSketches(helper, event, fields);
+    }
+    
+    @Override
+    public void addEvent(IngestHelperInterface helper, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields) {
+        addToSketches(helper, event, fields);
+    }
+    
+    @Override
+    public void addEventWithoutLoadDates(IngestHelperInterface helper, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields) {
+        addToSketches(helper, event, fields);
+    }
+    
+    @Override
+    public void addEvent(IngestHelperInterface helper, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields, boolean frequency) {
+        addToSketches(helper, event, fields);
+    }
+    
+    @Override
+    public Multimap<BulkIngestKey,Value> getBulkMetadata() {
+        Multimap<BulkIngestKey,Value> values = HashMultimap.create();
+        for (Map.Entry<SketchKey,FieldCardinalitySketch> entry : sketches.entrySet()) {
+            SketchKey sketchKey = entry.getKey();
+            Key key = new Key(new Text(sketchKey.fieldName), COLF_CARDINALITY, new Text(sketchKey.dataType + DELIMITER + sketchKey.date), DateHelper.parse(
+                            sketchKey.date).getTime());
+            try {
+                values.put(new BulkIngestKey(metadataTableName, key), entry.getValue().toValue());
+            } catch (IOException e) {
+                log.error("Unable to serialize the field cardinality sketch for " + key, e);
+            }
+        }
+        return values;
+    }
+    
+    @Override
+    public void clear() {
+        sketches = new HashMap<>();
+    }
+    
+    private static class SketchKey {
+        private final String fieldName;
+        private final String dataType;
+        private final String date;
+        
+        SketchKey(String fieldName, String dataType, String date) {
+            this.fieldName = fieldName;
+            this.dataType = dataType;
+            this.date = date;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof SketchKey)) {
+                return false;
+            }
+            SketchKey other = (SketchKey) o;
+            return fieldName.equals(other.fieldName) && dataType.equals(other.dataType) && date.equals(other.date);
+        }
+        
+        @Override
+        public int hashCode() {
+            return (fieldName.hashCode() * 31 + dataType.hashCode()) * 31 + date.hashCode();
+        }
+    }
+}
@@ -22,11 +22,8 @@ import datawave.ingest.data.tokenize.TruncateAttribute;
 import datawave.ingest.mapreduce.handler.ExtendedDataTypeHandler;
 import datawave.ingest.mapreduce.handler.shard.AbstractColumnBasedHandler;
 import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
-import datawave.ingest.mapreduce.handler.shard.content.BoundedOffsetQueue;
-import datawave.ingest.mapreduce.handler.shard.content.BoundedOffsetQueue.OffsetList;
 import datawave.ingest.mapreduce.handler.shard.content.ContentIndexCounters;
-import datawave.ingest.mapreduce.handler.shard.content.OffsetQueue;
-import datawave.ingest.mapreduce.handler.shard.content.TermAndZone;
+import datawave.ingest.mapreduce.handler.shard.content.TermOffsetTable;
 import datawave.ingest.mapreduce.job.BulkIngestKey;
 import datawave.ingest.protobuf.TermWeight;
 import datawave.ingest.util.BloomFilterUtil;
@@ -87,7 +84,7 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
     
     protected String tokenRegex;
     
-    protected OffsetQueue<Integer> tokenOffsetCache = null;
+    private TermOffsetTable tokenOffsetCache = null;
     
     protected Identity hasher = new Identity();
     
@@ -107,6 +104,9 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
     
     private int termPosition = 0;
     
+    // Lucene analyzers reuse their token stream components per thread, so one analyzer is shared across events
+    private Analyzer analyzer;
+    
     @Override
     public void setup(TaskAttemptContext context) {
         super.setup(context);
@@ -133,7 +133,9 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
         searchUtilReverse = TokenSearch.Factory.newInstance(DefaultTokenSearch.class.getCanonicalName(), tokenHelper.getStopWords(), true);
         tokenHelper.configureSearchUtil(searchUtilReverse);
         
-        tokenOffsetCache = new BoundedOffsetQueue<>(tokenHelper.getTokenOffsetCacheMaxSize());
+        tokenOffsetCache = new TermOffsetTable(tokenHelper.getTokenOffsetCacheMaxSize());
+        
+        analyzer = tokenHelper.getAnalyzer();
         
         // Conditionally create an NGrams factory
         if (this.getBloomFiltersEnabled()) {
@@ -170,14 +172,14 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
         if (tokenOffsetCache != null) {
             int termCount = 0;
             try {
-                for (OffsetList<Integer> offsets : tokenOffsetCache.offsets()) {
+                for (TermOffsetTable.Entry offsets : tokenOffsetCache.entries()) {
                     // no need to normalize as that was already done
                     // upon insertion into the token offset cache
-                    NormalizedFieldAndValue nfv = new NormalizedFieldAndValue(offsets.termAndZone.zone, offsets.termAndZone.term);
+                    NormalizedFieldAndValue nfv = new NormalizedFieldAndValue(offsets.zone, offsets.term);
                     
                     byte[] fieldVisibility = getVisibility(event, nfv);
                     
-                    createTermFrequencyIndex(event, values, this.shardId, nfv, offsets.offsets, fieldVisibility);
+                    createTermFrequencyIndex(event, values, this.shardId, nfv, offsets.offsets, offsets.size(), fieldVisibility);
                     termCount++;
                 }
                 
@@ -245,70 +247,64 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
         index = HashMultimap.create();
         reverse = HashMultimap.create();
         
-        Analyzer analyzer = tokenHelper.getAnalyzer();
+        String lastFieldName = "";
         
-        try {
-            String lastFieldName = "";
+        for (Entry<String,NormalizedContentInterface> e : eventFields.entries()) {
+            NormalizedContentInterface nci = e.getValue();
             
-            for (Entry<String,NormalizedContentInterface> e : eventFields.entries()) {
-                NormalizedContentInterface nci = e.getValue();
-                
-                // Put the normalized field name and normalized value into the index
-                if (createGlobalIndexTerms) {
-                    if (helper.isIndexedField(nci.getIndexedFieldName())) {
-                        index.put(nci.getIndexedFieldName(), nci);
-                    }
-                }
-                
-                // Put the normalized field name and normalized value into the reverse
-                if (createGlobalReverseIndexTerms) {
-                    if (helper.isReverseIndexedField(nci.getIndexedFieldName())) {
-                        NormalizedContentInterface rField = (NormalizedContentInterface) (nci.clone());
-                        rField.setEventFieldValue(new StringBuilder(rField.getEventFieldValue()).reverse().toString());
-                        rField.setIndexedFieldValue(new StringBuilder(rField.getIndexedFieldValue()).reverse().toString());
-                        reverse.put(nci.getIndexedFieldName(), rField);
-                    }
-                }
-                
-                // Skip any fields that should not be included in the shard table.
-                if (helper.isShardExcluded(nci.getIndexedFieldName())) {
-                    continue;
-                }
-                
-                // Put the event field name and original value into the fields
-                fields.put(nci.getIndexedFieldName(), nci);
-                
-                String indexedFieldName = nci.getIndexedFieldName();
-                
-                // reset term position to zero if the indexed field name has changed, otherwise
-                // bump the offset based on the inter-field position increment.
-                if (!lastFieldName.equals(indexedFieldName)) {
-                    termPosition = 0;
-                    lastFieldName = indexedFieldName;
-                } else {
-                    termPosition = tokenHelper.getInterFieldPositionIncrement();
+            // Put the normalized field name and normalized value into the index
+            if (createGlobalIndexTerms) {
+                if (helper.isIndexedField(nci.getIndexedFieldName())) {
+                    index.put(nci.getIndexedFieldName(), nci);
                 }
-                
-                boolean indexField = createGlobalIndexTerms && contentHelper.isContentIndexField(indexedFieldName);
-                boolean reverseIndexField = createGlobalReverseIndexTerms && contentHelper.isReverseContentIndexField(indexedFieldName);
-                
-                if (indexField || reverseIndexField) {
-                    try {
-                        tokenizeField(analyzer, nci, indexField, reverseIndexField, reporter);
-                    } catch (Exception ex) {
-                        throw new RuntimeException(ex);
-                    }
+            }
+            
+            // Put the normalized field name and normalized value into the reverse
+            if (createGlobalReverseIndexTerms) {
+                if (helper.isReverseIndexedField(nci.getIndexedFieldName())) {
+                    NormalizedContentInterface rField = (NormalizedContentInterface) (nci.clone());
+                    rField.setEventFieldValue(new StringBuilder(rField.getEventFieldValue()).reverse().toString());
+                    rField.setIndexedFieldValue(new StringBuilder(rField.getIndexedFieldValue()).reverse().toString());
+                    reverse.put(nci.getIndexedFieldName(), rField);
                 }
-                
-                boolean indexListField = createGlobalIndexTerms && contentHelper.isIndexListField(indexedFieldName);
-                boolean reverseIndexListField = createGlobalReverseIndexTerms && contentHelper.isReverseIndexListField(indexedFieldName);
-                
-                if (indexListField || reverseIndexListField) {
-                    indexListEntries(nci, indexListField, reverseIndexListField, reporter);
+            }
+            
+            // Skip any fields that should not be included in the shard table.
+            if (helper.isShardExcluded(nci.getIndexedFieldName())) {
+                continue;
+            }
+            
+            // Put the event field name and original value into the fields
+            fields.put(nci.getIndexedFieldName(), nci);
+            
+            String indexedFieldName = nci.getIndexedFieldName();
+            
+            // reset term position to zero if the indexed field name has changed, otherwise
+            // bump the offset based on the inter-field position increment.
+            if (!lastFieldName.equals(indexedFieldName)) {
+                termPosition = 0;
+                lastFieldName = indexedFieldName;
+            } else {
+                termPosition = tokenHelper.getInterFieldPositionIncrement();
+            }
+            
+            boolean indexField = createGlobalIndexTerms && contentHelper.isContentIndexField(indexedFieldName);
+            boolean reverseIndexField = createGlobalReverseIndexTerms && contentHelper.isReverseContentIndexField(indexedFieldName);
+            
+            if (indexField || reverseIndexField) {
+                try {
+                    tokenizeField(analyzer, nci, indexField, reverseIndexField, reporter);
+                } catch (Exception ex) {
+                    throw new RuntimeException(ex);
                 }
             }
-        } finally {
-            analyzer.close();
+            
+            boolean indexListField = createGlobalIndexTerms && contentHelper.isIndexListField(indexedFieldName);
+            boolean reverseIndexListField = createGlobalReverseIndexTerms && contentHelper.isReverseIndexListField(indexedFieldName);
+            
+            if (indexListField || reverseIndexListField) {
+                indexListEntries(nci, indexListField, reverseIndexListField, reporter);
+            }
         }
         
         validateIndexedFields(createGlobalIndexTerms, createGlobalReverseIndexTerms, reporter);
@@ -316,6 +312,15 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
         return fields;
     }
     
+    @Override
+    public void close(TaskAttemptContext context) {
+        super.close(context);
+        if (analyzer != null) {
+            analyzer.close();
+            analyzer = null;
+        }
+    }
+    
     public boolean isTokenizerTimeWarned() {
         return tokenizerTimeWarned;
     }
@@ -475,7 +480,7 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
                         fields.put(modifiedFieldName, newField);
                         
                         if (tokenOffsetCache != null) {
-                            tokenOffsetCache.addOffset(new TermAndZone(s, modifiedFieldName), termPosition);
+                            tokenOffsetCache.addOffset(s, modifiedFieldName, termPosition);
                         }
                     }
                     
@@ -558,7 +563,31 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
         for (Integer offset : offsets) {
             builder.addTermOffset(offset);
         }
-        Value value = new Value(builder.build().toByteArray());
+        createTermFrequencyIndex(event, values, shardId, nfv, builder.build().toByteArray(), visibility);
+    }
+    
+    /**
+     * Creates a Term Frequency index key in the "tf" column family, encoding the offsets directly from the array.
+     * 
+     * @param event
+     * @param values
+     * @param shardId
+     * @param nfv
+     * @param offsets
+     * @param numOffsets
+     *            the number of offsets in the array
+     * @param visibility
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    protected void createTermFrequencyIndex(RawRecordContainer event, Multimap<BulkIngestKey,Value> values, byte[] shardId, NormalizedFieldAndValue nfv,
+                    int[] offsets, int numOffsets, byte[] visibility) throws IOException, InterruptedException {
+        createTermFrequencyIndex(event, values, shardId, nfv, TermOffsetTable.toTermWeightInfo(offsets, numOffsets), visibility);
+    }
+    
+    private void createTermFrequencyIndex(RawRecordContainer event, Multimap<BulkIngestKey,Value> values, byte[] shardId, NormalizedFieldAndValue nfv,
+                    byte[] termWeightInfo, byte[] visibility) {
+        Value value = new Value(termWeightInfo);
         
         StringBuilder colq = new StringBuilder(this.eventDataTypeName.length() + this.eventUid.length() + nfv.getIndexedFieldName().length()
                         + nfv.getIndexedFieldValue().length() + 3);
@@ -691,14 +720,14 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
                     
                     if (tokenOffsetCache != null) {
                         for (NormalizedContentInterface normalizedNci : normalizedValueFields) {
-                            tokenOffsetCache.addOffset(new TermAndZone(normalizedNci.getIndexedFieldValue(), indexedFieldName), position);
+                            tokenOffsetCache.addOffset(normalizedNci.getIndexedFieldValue(), indexedFieldName, position);
                         }
                     }
                 } else {
                     index.put(indexedFieldName, newField);
                     fields.put(indexedFieldName, newField);
                     if (tokenOffsetCache != null) {
-                        tokenOffsetCache.addOffset(new TermAndZone(trimmedToken, indexedFieldName), position);
+                        tokenOffsetCache.addOffset(trimmedToken, indexedFieldName, position);
                     }
                 }
                 position++;
@@ -27,11 +27,9 @@ import datawave.ingest.mapreduce.handler.DataTypeHandler;
 import datawave.ingest.mapreduce.handler.ExtendedDataTypeHandler;
 import datawave.ingest.mapreduce.handler.shard.AbstractColumnBasedHandler;
 import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
-import datawave.ingest.mapreduce.handler.shard.content.BoundedOffsetQueue;
-import datawave.ingest.mapreduce.handler.shard.content.BoundedOffsetQueue.OffsetList;
 import datawave.ingest.mapreduce.handler.shard.content.ContentIndexCounters;
-import datawave.ingest.mapreduce.handler.shard.content.OffsetQueue;
 import datawave.ingest.mapreduce.handler.shard.content.TermAndZone;
+import datawave.ingest.mapreduce.handler.shard.content.TermOffsetTable;
 import datawave.ingest.mapreduce.job.BulkIngestKey;
 import datawave.ingest.mapreduce.job.writer.ContextWriter;
 import datawave.ingest.protobuf.TermWeight;
@@ -127,7 +125,7 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
     protected ExtendedContentIngestHelper ingestHelper = null;
     
     protected ContentIndexCounters counters = null;
-    protected OffsetQueue<Integer> tokenOffsetCache = null;
+    private TermOffsetTable tokenOffsetCache = null;
     protected Set<String> zones = new HashSet<>();
     
     protected boolean eventReplaceMalformedUTF8 = false;
@@ -201,9 +199,9 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
                 };
             }
         }
-        // The tokens offsets queue is a bounded priority queue that will allow us to cache the
+        // The tokens offsets table is bounded and will allow us to cache the
         // highest cardinality offsets up to a predetermined max size
-        tokenOffsetCache = new BoundedOffsetQueue<>(tokenHelper.getTokenOffsetCacheMaxSize());
+        tokenOffsetCache = new TermOffsetTable(tokenHelper.getTokenOffsetCacheMaxSize());
         
         stopWords = tokenHelper.getStopWords();
         
@@ -335,7 +333,7 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
                     log.debug("Not creating index mutations for " + termAndZone + " as we've already created mutations for it.");
                 }
                 counters.increment(ContentIndexCounters.BLOOM_FILTER_EXISTS, reporter);
-            } else if ((tokenOffsetCache != null) && tokenOffsetCache.containsKey(indexedTermAndZone)) {
+            } else if ((tokenOffsetCache != null) && tokenOffsetCache.containsKey(indexedTermAndZone.term, indexedTermAndZone.zone)) {
                 if (log.isDebugEnabled()) {
                     log.debug("Not creating index mutations for " + termAndZone + " as we've already created mutations for it.");
                 }
@@ -352,20 +350,20 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
             
             // Now add the offset to the token offset queue, and if we overflow then output the overflow
             if (tokenOffsetCache != null) {
-                OffsetList<Integer> overflow = tokenOffsetCache.addOffset(indexedTermAndZone, position);
+                TermOffsetTable.Entry overflow = tokenOffsetCache.addOffset(indexedTermAndZone.term, indexedTermAndZone.zone, position);
                 if (overflow != null) {
                     // no need to normalize as that was already done upon insertion into the token offset cache
-                    NormalizedFieldAndValue overflowNfv = new NormalizedFieldAndValue(overflow.termAndZone.zone, overflow.termAndZone.term);
+                    NormalizedFieldAndValue overflowNfv = new NormalizedFieldAndValue(overflow.zone, overflow.term);
                     byte[] overflowFieldVisibility = getVisibility(event, overflowNfv);
                     
                     // Build the field index key/value
-                    createTermFrequencyIndex(event, contextWriter, context, this.shardId, overflowNfv, overflow.offsets, overflowFieldVisibility,
-                                    this.ingestHelper.getDeleteMode());
+                    createTermFrequencyIndex(event, contextWriter, context, this.shardId, overflowNfv, overflow.offsets, overflow.size(),
+                                    overflowFieldVisibility, this.ingestHelper.getDeleteMode());
                     counters.increment(ContentIndexCounters.TOKENIZER_OFFSET_CACHE_OVERFLOWS, reporter);
-                    counters.incrementValue(ContentIndexCounters.TOKENIZER_OFFSET_CACHE_POSITIONS_OVERFLOWED, overflow.offsets.size(), reporter);
+                    counters.incrementValue(ContentIndexCounters.TOKENIZER_OFFSET_CACHE_POSITIONS_OVERFLOWED, overflow.size(), reporter);
                 }
             } else {
-                createTermFrequencyIndex(event, contextWriter, context, this.shardId, nfv, Arrays.asList(position), fieldVisibility,
+                createTermFrequencyIndex(event, contextWriter, context, this.shardId, nfv, new int[] {position}, 1, fieldVisibility,
                                 this.ingestHelper.getDeleteMode());
             }
         }
@@ -427,6 +425,13 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
         }
     }
     
+    /**
+     * @return the offsets of the terms seen in the current event, or null if the term offsets are not being tracked
+     */
+    protected TermOffsetTable getTokenOffsetCache() {
+        return tokenOffsetCache;
+    }
+    
     static final Pattern EMPTY_PATTERN = Pattern.compile("\\s*");
     
     /**
@@ -725,7 +730,35 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
         for (Integer offset : offsets) {
             builder.addTermOffset(offset);
         }
-        Value value = new Value(builder.build().toByteArray());
+        createTermFrequencyIndex(event, contextWriter, context, shardId, nfv, builder.build().toByteArray(), visibility, deleteMode);
+    }
+    
+    /**
+     * Creates a Term Frequency index key in the "tf" column family, encoding the offsets directly from the array.
+     * 
+     * @param event
+     * @param contextWriter
+     * @param context
+     * @param shardId
+     * @param nfv
+     * @param offsets
+     * @param numOffsets
+     *            the number of offsets in the array
+     * @param visibility
+     * @param deleteMode
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    protected void createTermFrequencyIndex(RawRecordContainer event, ContextWriter<KEYOUT,VALUEOUT> contextWriter,
+                    TaskInputOutputContext<KEYIN,? extends RawRecordContainer,KEYOUT,VALUEOUT> context, byte[] shardId, NormalizedFieldAndValue nfv,
+                    int[] offsets, int numOffsets, byte[] visibility, boolean deleteMode) throws IOException, InterruptedException {
+        createTermFrequencyIndex(event, contextWriter, context, shardId, nfv, TermOffsetTable.toTermWeightInfo(offsets, numOffsets), visibility, deleteMode);
+    }
+    
+    private void createTermFrequencyIndex(RawRecordContainer event, ContextWriter<KEYOUT,VALUEOUT> contextWriter,
+                    TaskInputOutputContext<KEYIN,? extends RawRecordContainer,KEYOUT,VALUEOUT> context, byte[] shardId, NormalizedFieldAndValue nfv,
+                    byte[] termWeightInfo, byte[] visibility, boolean deleteMode) throws IOException, InterruptedException {
+        Value value = new Value(termWeightInfo);
         
         StringBuilder colq = new StringBuilder(this.eventDataTypeName.length() + this.eventUid.length() + nfv.getIndexedFieldName().length()
                         + nfv.getIndexedFieldValue().length() + 3);
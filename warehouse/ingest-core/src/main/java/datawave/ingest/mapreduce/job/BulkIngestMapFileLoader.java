@@ -2,6 +2,7 @@ package datawave.ingest.mapreduce.job;
 
 import com.google.common.base.Objects;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import datawave.ingest.data.TypeRegistry;
 import datawave.ingest.mapreduce.StandaloneStatusReporter;
 import datawave.util.cli.PasswordConverter;
@@ -56,18 +57,26 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A processor whose job is to watch for completed Bulk Ingest jobs and bring the map files produced by them online in accumulo. This class attempts to bring
  * multiple map files online at once if many jobs have completed, and also attempts to throttle itself to prevent queuing up too many major compactions on the
- * various tablet servers.
+ * various tablet servers. With {@code -numConcurrentJobs} greater than one, several jobs are loaded at once through a pipeline of copy, import and complete
+ * stages, each with its own bounded queue, and the time spent in each stage is reported. The table imports of the jobs in flight then share a pool of
+ * {@code -numThreads} threads, ordered by table priority.
  */
-public final class BulkIngestMapFileLoader implements Runnable {
+public class BulkIngestMapFileLoader implements Runnable {
     private static Logger log = Logger.getLogger(BulkIngestMapFileLoader.class);
     private static int SLEEP_TIME = 30000;
     private static int FAILURE_SLEEP_TIME = 10 * 60 * 1000; // 10 minutes
@@ -97,9 +106,14 @@ public final class BulkIngestMapFileLoader implements Runnable {
     private URI srcHdfs;
     private URI destHdfs;
     private String jobtracker;
-    private StandaloneStatusReporter reporter = new StandaloneStatusReporter();
     private volatile boolean running;
     private ExecutorService executor;
+    // the imports of the jobs in the pipeline, or null to import each table on a thread of its own
+    private ThreadPoolExecutor importExecutor = null;
+    private final AtomicLong importSequence = new AtomicLong();
+    private int numConcurrentJobs;
+    private int fsAccessFailures = 0;
+    private final Object failureLock = new Object();
     
     public static void main(String[] args) throws AccumuloSecurityException, IOException {
         
@@ -122,6 +136,8 @@ public final class BulkIngestMapFileLoader implements Runnable {
         int numBulkAssignThreads = 4;
         // default the number of HDFS threads to 1
         int numHdfsThreads = 1;
+        // default to loading one job at a time
+        int numConcurrentJobs = 1;
         if (args.length > 6) {
             for (int i = 6; i < args.length; ++i) {
                 if ("-sleepTime".equalsIgnoreCase(args[i])) {
@@ -202,6 +218,17 @@ public final class BulkIngestMapFileLoader implements Runnable {
                         log.error("-numHdfsThreads must be followed by the number of threads to use for concurrent HDFS operations", e);
                         System.exit(-2);
                     }
+                } else if ("-numConcurrentJobs".equalsIgnoreCase(args[i])) {
+                    if (i + 2 > args.length) {
+                        log.error("-numConcurrentJobs must be followed by the number of jobs to load concurrently");
+                        System.exit(-2);
+                    }
+                    try {
+                        numConcurrentJobs = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException e) {
+                        log.error("-numConcurrentJobs must be followed by the number of jobs to load concurrently", e);
+                        System.exit(-2);
+                    }
                 } else if ("-numAssignThreads".equalsIgnoreCase(args[i])) {
                     if (i + 2 > args.length) {
                         log.error("-numAssignThreads must be followed by the number of bulk import assignment threads");
@@ -303,6 +330,7 @@ public final class BulkIngestMapFileLoader implements Runnable {
         log.info("Using " + numBulkThreads + " bulk load threads");
         log.info("Using " + numHdfsThreads + " HDFS operation threads");
         log.info("Using " + numBulkAssignThreads + " bulk assign threads");
+        log.info("Loading " + numConcurrentJobs + " jobs concurrently");
         log.info("Using " + seqFileHdfs + " as the file system containing the original sequence files");
         log.info("Using " + srcHdfs + " as the source file system");
         log.info("Using " + destHdfs + " as the destination file system");
@@ -336,7 +364,7 @@ public final class BulkIngestMapFileLoader implements Runnable {
         
         Credentials credentials = new Credentials(args[4], new PasswordToken(passwordStr));
         BulkIngestMapFileLoader processor = new BulkIngestMapFileLoader(workDir, jobDirPattern, instanceName, zooKeepers, credentials, seqFileHdfs, srcHdfs,
-                        destHdfs, jobtracker, tablePriorities, conf, SHUTDOWN_PORT, numHdfsThreads);
+                        destHdfs, jobtracker, tablePriorities, conf, SHUTDOWN_PORT, numHdfsThreads, numBulkThreads, numConcurrentJobs);
         Thread t = new Thread(processor, "map-file-watcher");
         t.start();
     }
@@ -353,6 +381,20 @@ public final class BulkIngestMapFileLoader implements Runnable {
     
     public BulkIngestMapFileLoader(String workDir, String jobDirPattern, String instanceName, String zooKeepers, Credentials credentials, URI seqFileHdfs,
                     URI srcHdfs, URI destHdfs, String jobtracker, Map<String,Integer> tablePriorities, Configuration conf, int shutdownPort, int numHdfsThreads) {
+        this(workDir, jobDirPattern, instanceName, zooKeepers, credentials, seqFileHdfs, srcHdfs, destHdfs, jobtracker, tablePriorities, conf, shutdownPort,
+                        numHdfsThreads, 8, 1);
+    }
+    
+    /**
+     * @param numBulkThreads
+     *            the number of threads importing the map files for a table, shared by all of the jobs being loaded through the pipeline
+     * @param numConcurrentJobs
+     *            the number of jobs to load concurrently. When greater than one the jobs are loaded through a pipeline of stages, with each job moving from one
+     *            stage to the next so that the stages of different jobs overlap.
+     */
+    public BulkIngestMapFileLoader(String workDir, String jobDirPattern, String instanceName, String zooKeepers, Credentials credentials, URI seqFileHdfs,
+                    URI srcHdfs, URI destHdfs, String jobtracker, Map<String,Integer> tablePriorities, Configuration conf, int shutdownPort, int numHdfsThreads,
+                    int numBulkThreads, int numConcurrentJobs) {
         this.conf = conf;
         this.tablePriorities = tablePriorities;
         this.workDir = new Path(workDir);
@@ -366,6 +408,14 @@ public final class BulkIngestMapFileLoader implements Runnable {
         this.jobtracker = jobtracker;
         this.running = true;
         this.executor = Executors.newFixedThreadPool(numHdfsThreads > 0 ? numHdfsThreads : 1);
+        if (numConcurrentJobs > 1) {
+            // the imports for the tables of the jobs in flight are queued by priority, so that the higher priority tables of every job go first
+            int importThreads = (numBulkThreads > 0 ? numBulkThreads : 1);
+            this.importExecutor = new ThreadPoolExecutor(importThreads, importThreads, 60, TimeUnit.SECONDS, new PriorityBlockingQueue<>(),
+                            new ThreadFactoryBuilder().setNameFormat("map-file-import-%d").setDaemon(true).build());
+            this.importExecutor.allowCoreThreadTimeOut(true);
+        }
+        this.numConcurrentJobs = numConcurrentJobs;
         try {
             if (shutdownPort > 0) {
                 final ServerSocket serverSocket = new ServerSocket(shutdownPort);
@@ -383,9 +433,12 @@ public final class BulkIngestMapFileLoader implements Runnable {
     @Override
     public void run() {
         log.info("Starting process to monitor map files.");
+        if (numConcurrentJobs > 1) {
+            runPipeline();
+            return;
+        }
         long lastOnlineTime = 0;
         long lastLoadMessageTime = 0;
-        int fsAccessFailures = 0;
         Path[] jobDirectories = new Path[0];
         int nextJobIndex = 0;
         try {
@@ -408,6 +461,7 @@ public final class BulkIngestMapFileLoader implements Runnable {
                         continue;
                     }
                     List<Path> processedDirectories = new ArrayList<>();
+                    StandaloneStatusReporter reporter = new StandaloneStatusReporter();
                     if (nextJobIndex >= jobDirectories.length) {
                         jobDirectories = getJobDirectories();
                         nextJobIndex = 0;
@@ -420,51 +474,16 @@ public final class BulkIngestMapFileLoader implements Runnable {
                             // take ownership of the job directory if we can
                             if (takeOwnershipJobDirectory(srcJobDirectory)) {
                                 processedDirectories.add(srcJobDirectory);
-                                Path mapFilesDir = new Path(srcJobDirectory, "mapFiles");
-                                reporter.getCounter("MapFileLoader.StartTimes", srcJobDirectory.getName()).increment(System.currentTimeMillis());
-                                Path dstJobDirectory = srcJobDirectory;
-                                URI workingHdfs = srcHdfs;
-                                
+                                JobLoad job = new JobLoad(srcJobDirectory, reporter);
                                 try {
-                                    log.info("Started processing " + mapFilesDir);
-                                    long start = System.currentTimeMillis();
-                                    
-                                    // copy the data if needed
-                                    dstJobDirectory = distCpDirectory(srcJobDirectory);
-                                    workingHdfs = destHdfs;
-                                    
-                                    // recreate the map files directory reference in case it moved filesystems
-                                    mapFilesDir = new Path(dstJobDirectory, "mapFiles");
-                                    
-                                    // now if we have a destination work directory, then move then move the files
-                                    bringMapFilesOnline(mapFilesDir);
-                                    
-                                    // ensure everything got loaded
-                                    verifyNothingLeftBehind(mapFilesDir);
-                                    
-                                    cleanUpJobDirectory(mapFilesDir);
-                                    long end = System.currentTimeMillis();
-                                    log.info("Finished processing " + mapFilesDir + ", duration (sec): " + ((end - start) / 1000));
+                                    job.copy();
+                                    job.load();
+                                    job.complete();
                                     
                                     // now that we actually processed something, reset the last load message time to force a message on the next round
                                     lastLoadMessageTime = 0;
                                 } catch (Exception e) {
-                                    log.error("Failed to process " + mapFilesDir, e);
-                                    boolean marked = markJobDirectoryFailed(workingHdfs, dstJobDirectory);
-                                    if (!marked) {
-                                        ++fsAccessFailures;
-                                        if (fsAccessFailures >= 3) {
-                                            log.error("Too many failures updating marker files.  Exiting...");
-                                            shutdown();
-                                        } else {
-                                            log.warn("Failed to mark " + dstJobDirectory + " as failed. Sleeping in case this was a transient failure.");
-                                            try {
-                                                Thread.sleep(FAILURE_SLEEP_TIME);
-                                            } catch (InterruptedException ie) {
-                                                log.warn("Interrupted while sleeping.", ie);
-                                            }
-                                        }
-                                    }
+                                    failed(job, e);
                                 }
                             }
                             if (nextJobIndex >= jobDirectories.length) {
@@ -474,7 +493,7 @@ public final class BulkIngestMapFileLoader implements Runnable {
                             
                         }
                         if (!processedDirectories.isEmpty()) {
-                            writeStats(processedDirectories.toArray(new Path[processedDirectories.size()]));
+                            writeStats(reporter, processedDirectories.toArray(new Path[processedDirectories.size()]));
                             lastOnlineTime = System.currentTimeMillis();
                         }
                     }
@@ -489,6 +508,285 @@ public final class BulkIngestMapFileLoader implements Runnable {
         log.info("Bulk map file loader shutting down.");
     }
     
+    /**
+     * Load the jobs through a pipeline of stages: the job directories are discovered and owned on this thread, and then pass through the copy, import and
+     * complete stages. Each stage has its own bounded queue and threads, so that several jobs are in flight at once while a slow stage holds back discovery
+     * rather than letting the queues grow.
+     */
+    private void runPipeline() {
+        log.info("Loading up to " + numConcurrentJobs + " jobs concurrently");
+        Stage complete = new Stage("complete", 1, null, job -> {
+            job.complete();
+            finished(job);
+        });
+        Stage load = new Stage("import", numConcurrentJobs, complete, JobLoad::load);
+        Stage copy = new Stage("copy", numConcurrentJobs, load, JobLoad::copy);
+        List<Stage> stages = Arrays.asList(copy, load, complete);
+        
+        long lastOnlineTime = 0;
+        long lastLoadMessageTime = 0;
+        try {
+            for (Stage stage : stages) {
+                stage.start();
+            }
+            while (running) {
+                try {
+                    long loadMessageDelta = System.currentTimeMillis() - lastLoadMessageTime;
+                    boolean logMessages = (loadMessageDelta > (5 * 60 * 1000));
+                    if (logMessages) {
+                        lastLoadMessageTime = System.currentTimeMillis();
+                        for (Stage stage : stages) {
+                            log.info(stage);
+                        }
+                    }
+                    int dispatched = 0;
+                    if (!canBringMapFilesOnline(lastOnlineTime, logMessages)) {
+                        if (logMessages) {
+                            log.info("Waiting for load to decrease before bringing more map files online.");
+                        }
+                    } else {
+                        for (Path srcJobDirectory : getJobDirectories(Math.max(MAX_DIRECTORIES, numConcurrentJobs))) {
+                            if (!running || dispatched >= MAJC_CHECK_INTERVAL)
+                                break;
+                            // take ownership of the job directory if we can, waiting for room in the copy stage
+                            if (takeOwnershipJobDirectory(srcJobDirectory)) {
+                                copy.put(new JobLoad(srcJobDirectory, new StandaloneStatusReporter()));
+                                dispatched++;
+                            }
+                        }
+                    }
+                    if (dispatched > 0) {
+                        lastOnlineTime = System.currentTimeMillis();
+                    } else {
+                        sleep();
+                    }
+                } catch (InterruptedException e) {
+                    log.warn("Interrupted while waiting to queue a job.", e);
+                    shutdown();
+                } catch (Exception e) {
+                    log.error("Error: " + e.getMessage(), e);
+                }
+            }
+            
+            // let the jobs in flight finish, one stage after another
+            for (Stage stage : stages) {
+                stage.finish();
+                log.info(stage);
+            }
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while waiting for the jobs in flight to finish.", e);
+        } finally {
+            log.info("Shutting down executor service");
+            executor.shutdown();
+            importExecutor.shutdown();
+        }
+        log.info("Bulk map file loader shutting down.");
+    }
+    
+    /**
+     * Handle the failure of a job, marking the job directory as failed
+     */
+    private void failed(JobLoad job, Exception e) {
+        log.error("Failed to process " + job.mapFilesDir, e);
+        boolean sleep = false;
+        synchronized (failureLock) {
+            boolean marked = markJobDirectoryFailed(job.workingHdfs, job.dstJobDirectory);
+            if (!marked) {
+                ++fsAccessFailures;
+                if (fsAccessFailures >= 3) {
+                    log.error("Too many failures updating marker files.  Exiting...");
+                    shutdown();
+                } else {
+                    log.warn("Failed to mark " + job.dstJobDirectory + " as failed. Sleeping in case this was a transient failure.");
+                    sleep = true;
+                }
+            }
+        }
+        // sleep outside of the lock so that the failures of other jobs are not held up behind this one
+        if (sleep) {
+            try {
+                Thread.sleep(FAILURE_SLEEP_TIME);
+            } catch (InterruptedException ie) {
+                log.warn("Interrupted while sleeping.", ie);
+            }
+        }
+    }
+    
+    /**
+     * Write the stats for a job that has left the pipeline. Each job in the pipeline has its own reporter, so the stats of the jobs still in flight are left
+     * for their own metrics files.
+     */
+    private void finished(JobLoad job) {
+        try {
+            writeStats(job.reporter, new Path[] {job.srcJobDirectory});
+        } catch (IOException e) {
+            log.error("Failed to write the stats for " + job.srcJobDirectory, e);
+        }
+    }
+    
+    /**
+     * The loading of a job directory, broken into the steps run by the stages of the pipeline
+     */
+    private class JobLoad {
+        private final Path srcJobDirectory;
+        private final StandaloneStatusReporter reporter;
+        private Path dstJobDirectory;
+        private Path mapFilesDir;
+        private URI workingHdfs;
+        private final long start;
+        private long copyTime;
+        private long loadTime;
+        
+        // the marker for the end of the jobs
+        private JobLoad() {
+            this.srcJobDirectory = null;
+            this.reporter = null;
+            this.start = 0;
+        }
+        
+        private JobLoad(Path srcJobDirectory, StandaloneStatusReporter reporter) {
+            this.srcJobDirectory = srcJobDirectory;
+            this.reporter = reporter;
+            this.dstJobDirectory = srcJobDirectory;
+            this.mapFilesDir = new Path(srcJobDirectory, "mapFiles");
+            this.workingHdfs = srcHdfs;
+            this.start = System.currentTimeMillis();
+            incrementCounter("MapFileLoader.StartTimes", srcJobDirectory.getName(), start);
+            log.info("Started processing " + mapFilesDir);
+        }
+        
+        /**
+         * Copy the data if needed
+         */
+        private void copy() throws Exception {
+            long stepStart = System.currentTimeMillis();
+            dstJobDirectory = distCpDirectory(srcJobDirectory);
+            workingHdfs = destHdfs;
+            
+            // recreate the map files directory reference in case it moved filesystems
+            mapFilesDir = new Path(dstJobDirectory, "mapFiles");
+            copyTime = System.currentTimeMillis() - stepStart;
+            incrementCounter("MapFileLoader.CopyTimes", srcJobDirectory.getName(), copyTime);
+        }
+        
+        /**
+         * Import the map files into the tables
+         */
+        private void load() throws Exception {
+            long stepStart = System.currentTimeMillis();
+            bringMapFilesOnline(mapFilesDir);
+            loadTime = System.currentTimeMillis() - stepStart;
+            incrementCounter("MapFileLoader.ImportTimes", srcJobDirectory.getName(), loadTime);
+        }
+        
+        /**
+         * Verify the map files were all loaded, and clean up the job directory
+         */
+        private void complete() throws Exception {
+            long stepStart = System.currentTimeMillis();
+            // ensure everything got loaded
+            verifyNothingLeftBehind(mapFilesDir);
+            
+            cleanUpJobDirectory(mapFilesDir);
+            long end = System.currentTimeMillis();
+            incrementCounter("MapFileLoader.CompleteTimes", srcJobDirectory.getName(), end - stepStart);
+            log.info("Finished processing " + mapFilesDir + ", duration (sec): " + ((end - start) / 1000) + " (copy: " + (copyTime / 1000) + ", import: "
+                            + (loadTime / 1000) + ", complete: " + ((end - stepStart) / 1000) + ")");
+        }
+        
+        private void incrementCounter(String group, String name, long amount) {
+            reporter.getCounter(group, name).increment(amount);
+        }
+    }
+    
+    private interface JobStep {
+        void process(JobLoad job) throws Exception;
+    }
+    
+    /**
+     * A stage of the pipeline, with a bounded queue of the jobs waiting for it and the threads running its step. Jobs which complete the step are passed to
+     * the next stage, waiting for room in its queue, and jobs which fail are marked as failed and leave the pipeline.
+     */
+    private class Stage {
+        private final String name;
+        private final Stage next;
+        private final JobStep step;
+        private final BlockingQueue<JobLoad> queue;
+        private final List<Thread> workers = new ArrayList<>();
+        private final JobLoad end = new JobLoad();
+        private final AtomicLong jobs = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong time = new AtomicLong();
+        
+        private Stage(String name, int threads, Stage next, JobStep step) {
+            this.name = name;
+            this.next = next;
+            this.step = step;
+            this.queue = new ArrayBlockingQueue<>(threads);
+            for (int i = 0; i < threads; i++) {
+                Thread worker = new Thread(this::work, "map-file-" + name + "-" + i);
+                worker.setDaemon(true);
+                workers.add(worker);
+            }
+        }
+        
+        private void start() {
+            for (Thread worker : workers) {
+                worker.start();
+            }
+        }
+        
+        private void put(JobLoad job) throws InterruptedException {
+            queue.put(job);
+        }
+        
+        /**
+         * Wait for the jobs queued to pass through this stage, and stop its threads
+         */
+        private void finish() throws InterruptedException {
+            for (int i = 0; i < workers.size(); i++) {
+                queue.put(end);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+        
+        private void work() {
+            try {
+                while (true) {
+                    JobLoad job = queue.take();
+                    if (job == end) {
+                        break;
+                    }
+                    long start = System.currentTimeMillis();
+                    boolean succeeded = false;
+                    try {
+                        step.process(job);
+                        succeeded = true;
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                        failed(job, e);
+                        finished(job);
+                    } finally {
+                        time.addAndGet(System.currentTimeMillis() - start);
+                        jobs.incrementAndGet();
+                    }
+                    if (succeeded && next != null) {
+                        next.put(job);
+                    }
+                }
+            } catch (InterruptedException e) {
+                log.warn("Interrupted while running the " + name + " stage.", e);
+            }
+        }
+        
+        @Override
+        public String toString() {
+            return "Stage " + name + ": " + jobs.get() + " jobs (" + failures.get() + " failed) in " + (time.get() / 1000) + "s, " + queue.size() + " queued";
+        }
+    }
+    
     protected void shutdown() {
         running = false;
     }
@@ -637,6 +935,10 @@ public final class BulkIngestMapFileLoader implements Runnable {
      * map files ready to be loaded.
      */
     private Path[] getJobDirectories() throws IOException {
+        return getJobDirectories(MAX_DIRECTORIES);
+    }
+    
+    private Path[] getJobDirectories(int maxDirectories) throws IOException {
         log.debug("Checking for completed job directories.");
         FileSystem fs = getFileSystem(srcHdfs);
         FileStatus[] files = fs.globStatus(new Path(workDir, jobDirPattern + '/' + COMPLETE_FILE_MARKER));
@@ -648,7 +950,7 @@ public final class BulkIngestMapFileLoader implements Runnable {
                 long m2 = o2.getModificationTime();
                 return order * ((m1 < m2) ? -1 : ((m1 > m2) ? 1 : 0));
             });
-            jobDirectories = new Path[Math.min(MAX_DIRECTORIES, files.length)];
+            jobDirectories = new Path[Math.min(maxDirectories, files.length)];
             for (int i = 0; i < jobDirectories.length; i++) {
                 jobDirectories[i] = files[i].getPath().getParent();
             }
@@ -761,26 +1063,53 @@ public final class BulkIngestMapFileLoader implements Runnable {
     
     public ImportRunnable startImport(Path mapFilesDir, String tableName, Path tableDir, TableOperations tops) {
         ImportRunnable runnable = new ImportRunnable(mapFilesDir, tableName, tableDir, tops);
-        Thread thread = new Thread(runnable);
-        runnable.setThread(thread);
-        thread.start();
+        if (importExecutor != null) {
+            importExecutor.execute(runnable);
+        } else {
+            Thread thread = new Thread(runnable);
+            runnable.setThread(thread);
+            thread.start();
+        }
         return runnable;
     }
     
-    public class ImportRunnable implements Runnable {
-        private boolean complete = false;
+    /**
+     * Wait until the number of major compactions allows more map files to be brought online. The pipeline checks the compactions before taking on a job, but
+     * an import may wait in the queue for a while behind the imports of the other jobs in flight, so it checks again before it runs.
+     */
+    private void waitForCompactions() throws InterruptedException {
+        boolean logMessages = true;
+        while (running && !canBringMapFilesOnline(0, logMessages)) {
+            if (logMessages) {
+                log.info("Waiting for load to decrease before importing more map files.");
+            }
+            logMessages = false;
+            Thread.sleep(SLEEP_TIME);
+        }
+    }
+    
+    /**
+     * The import of the map files for a table. When run on the import pool of the pipeline, the imports waiting for a thread are ordered by the priority of
+     * their table, and then in the order they were started.
+     */
+    public class ImportRunnable implements Runnable, Comparable<ImportRunnable> {
+        private volatile boolean complete = false;
         private String tableName;
         private Path tableDir;
         private TableOperations tops;
         private Path mapFilesDir;
         private Exception exception = null;
-        private Thread thread = null;
+        private volatile Thread thread = null;
+        private final Integer priority;
+        private final long sequence;
         
-        private ImportRunnable(Path mapFilesDir, String tableName, Path tableDir, TableOperations tops) {
+        ImportRunnable(Path mapFilesDir, String tableName, Path tableDir, TableOperations tops) {
             this.tableName = tableName;
             this.tableDir = tableDir;
             this.tops = tops;
             this.mapFilesDir = mapFilesDir;
+            this.priority = (tablePriorities == null ? null : tablePriorities.get(tableName));
+            this.sequence = importSequence.incrementAndGet();
         }
         
         private void setThread(Thread thread) {
@@ -798,6 +1127,12 @@ public final class BulkIngestMapFileLoader implements Runnable {
         public void waitForCompletion() throws InterruptedException {
             synchronized (this) {
                 while (!complete) {
+                    // the thread is not known until the import has been taken from the queue
+                    Thread thread = this.thread;
+                    if (thread == null) {
+                        this.wait(10000);
+                        continue;
+                    }
                     if (!thread.isAlive()) {
                         throw new InterruptedException("This thread is no longer alive but yet the task is incomplete");
                     }
@@ -809,8 +1144,25 @@ public final class BulkIngestMapFileLoader implements Runnable {
             }
         }
         
+        @Override
+        public int compareTo(ImportRunnable other) {
+            // tables without a priority go last
+            int result;
+            if (priority == null) {
+                result = (other.priority == null ? 0 : 1);
+            } else {
+                result = (other.priority == null ? -1 : priority.compareTo(other.priority));
+            }
+            return (result != 0 ? result : Long.compare(sequence, other.sequence));
+        }
+        
         public void run() {
+            setThread(Thread.currentThread());
             try {
+                if (importExecutor != null) {
+                    waitForCompactions();
+                }
+                
                 // Ensure all of the files put just under tableDir....
                 collapseDirectory();
                 
@@ -1124,7 +1476,7 @@ public final class BulkIngestMapFileLoader implements Runnable {
         }
     }
     
-    private void writeStats(Path[] jobDirectories) throws IOException {
+    private synchronized void writeStats(StandaloneStatusReporter reporter, Path[] jobDirectories) throws IOException {
         if (!INGEST_METRICS) {
             log.info("ingest metrics disabled");
         } else {
@@ -1166,9 +1518,6 @@ public final class BulkIngestMapFileLoader implements Runnable {
                     // If an error occurs in the copy, then we will leave in the local metrics directory.
                     log.error("Error copying metrics file into HDFS, will remain in metrics directory.");
                 }
-                
-                // reset reporter so that old metrics don't persist over time
-                this.reporter = new StandaloneStatusReporter();
             }
         }
     }
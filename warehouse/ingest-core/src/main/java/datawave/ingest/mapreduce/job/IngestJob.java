@@ -20,6 +20,7 @@ import datawave.ingest.mapreduce.job.writer.DedupeContextWriter;
 import datawave.ingest.mapreduce.job.writer.LiveContextWriter;
 import datawave.ingest.mapreduce.job.writer.TableCachingContextWriter;
 import datawave.ingest.mapreduce.partition.MultiTableRangePartitioner;
+import datawave.ingest.mapreduce.partition.VolumeBalancedShardPartitioner;
 import datawave.ingest.metric.IngestInput;
 import datawave.ingest.metric.IngestProcess;
 import datawave.marking.MarkingFunctions;
@@ -228,6 +229,7 @@ public class IngestJob implements Tool {
         System.out.println("                     [-generateMapFileRowKeys]");
         System.out.println("                     [-enableBloomFilters]");
         System.out.println("                     [-collectDistributionStats]");
+        System.out.println("                     [-collectShardVolume volumeFile]");
         System.out.println("                     [-ingestMetricsDisabled]");
         System.out.println("                     [-ingestMetricsLabel label]");
         System.out.println("                     [-compressionType lzo|gz]");
@@ -428,6 +430,15 @@ public class IngestJob implements Tool {
             log.error("Found Fatal Errors in the counters");
         }
         
+        // save the shard volumes seen by this job for the next job's VolumeBalancedShardPartitioner
+        if (job.getConfiguration().getBoolean(VolumeBalancedShardPartitioner.COLLECT_VOLUME, false)) {
+            try {
+                VolumeBalancedShardPartitioner.writeVolumes(job.getConfiguration(), counters);
+            } catch (IOException e) {
+                log.warn("Unable to write the shard volumes", e);
+            }
+        }
+        
         // If we're doing "live" ingest (sending mutations to accumulo rather than
         // bringing map files online), then simply delete the workDir since it
         // doesn't contain anything we need. If we are doing bulk ingest, then
@@ -633,6 +644,9 @@ public class IngestJob implements Tool {
                 enableBloomFilters = true;
             } else if (args[i].equals("-collectDistributionStats")) {
                 conf.setBoolean(MultiTableRangePartitioner.PARTITION_STATS, true);
+            } else if (args[i].equals("-collectShardVolume")) {
+                conf.setBoolean(VolumeBalancedShardPartitioner.COLLECT_VOLUME, true);
+                conf.set(VolumeBalancedShardPartitioner.VOLUME_FILE, args[++i]);
             } else if (args[i].equals("-ingestMetricsLabel")) {
                 this.metricsLabelOverride = args[++i];
             } else if (args[i].equals("-ingestMetricsDisabled")) {
@@ -0,0 +1,246 @@
+package datawave.ingest.mapreduce.job.writer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.WritableUtils;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.Multimap;
+
+/**
+ * The sorted runs spilled to local disk for one of the tables cached by the {@link TableCachingContextWriter}. Each spill writes the cached entries to a new
+ * run file sorted by key. The runs are merged back together when the cache is flushed, reducing the values of keys found in more than one run as they are
+ * merged, so that the entries are combined across the whole task rather than just across what fits in memory.
+ */
+public class TableCacheSpill implements Closeable {
+    
+    private static final Logger log = Logger.getLogger(TableCacheSpill.class);
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    /**
+     * Reduces the values for a key found in more than one run
+     */
+    public interface Reducer {
+        Collection<Value> reduce(BulkIngestKey key, List<Value> values) throws IOException, InterruptedException;
+    }
+    
+    /**
+     * Receives the merged entries in sorted order
+     */
+    public interface Sink {
+        void write(BulkIngestKey key, Collection<Value> values) throws IOException, InterruptedException;
+    }
+    
+    private final File dir;
+    private final String prefix;
+    private final List<File> runs = new ArrayList<>();
+    
+    /**
+     * @param dir
+     *            the local directory to write the runs into
+     * @param prefix
+     *            the prefix for the names of the run files
+     */
+    public TableCacheSpill(File dir, String prefix) {
+        this.dir = dir;
+        // File.createTempFile requires a prefix of at least 3 characters
+        this.prefix = (prefix.length() < 3 ? prefix + "___" : prefix);
+    }
+    
+    /**
+     * Write the entries to a new sorted run
+     *
+     * @param entries
+     *            the entries to spill
+     * @throws IOException
+     */
+    public void spill(Multimap<BulkIngestKey,Value> entries) throws IOException {
+        List<BulkIngestKey> keys = new ArrayList<>(entries.keySet());
+        Collections.sort(keys);
+        File file = newRunFile();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE))) {
+            for (BulkIngestKey key : keys) {
+                writeRecord(out, key, entries.get(key));
+            }
+            out.writeBoolean(false);
+        } catch (IOException e) {
+            delete(file);
+            throw e;
+        }
+        runs.add(file);
+        if (log.isDebugEnabled()) {
+            log.debug("Spilled " + entries.size() + " entries to " + file + ", " + runs.size() + " runs");
+        }
+    }
+    
+    /**
+     * @return the number of runs spilled
+     */
+    public int getRuns() {
+        return runs.size();
+    }
+    
+    /**
+     * Merge all of the runs into a single run, reducing the values as they are merged
+     *
+     * @param reducer
+     *            the reducer for the values of keys found in more than one run
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public void compact(Reducer reducer) throws IOException, InterruptedException {
+        if (runs.size() < 2) {
+            return;
+        }
+        File file = newRunFile();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE))) {
+            merge(reducer, (key, values) -> writeRecord(out, key, values));
+            out.writeBoolean(false);
+        } catch (IOException | InterruptedException e) {
+            delete(file);
+            throw e;
+        }
+        for (File run : runs) {
+            delete(run);
+        }
+        runs.clear();
+        runs.add(file);
+    }
+    
+    /**
+     * Merge the runs, passing each key with its reduced values to the sink in sorted order. The runs are left in place until closed.
+     *
+     * @param reducer
+     *            the reducer for the values of keys found in more than one run
+     * @param sink
+     *            the sink for the merged entries
+     * @return the number of values passed to the sink
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public long merge(Reducer reducer, Sink sink) throws IOException, InterruptedException {
+        long count = 0;
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, runs.size()), (r1, r2) -> r1.key.compareTo(r2.key));
+        try {
+            for (File run : runs) {
+                RunReader reader = new RunReader(run);
+                readers.add(reader);
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+            while (!queue.isEmpty()) {
+                RunReader reader = queue.poll();
+                BulkIngestKey key = reader.key;
+                List<Value> values = new ArrayList<>(reader.values);
+                advance(reader, queue);
+                while (!queue.isEmpty() && queue.peek().key.compareTo(key) == 0) {
+                    reader = queue.poll();
+                    values.addAll(reader.values);
+                    advance(reader, queue);
+                }
+                Collection<Value> reduced = (values.size() > 1 ? reducer.reduce(key, values) : values);
+                sink.write(key, reduced);
+                count += reduced.size();
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Delete the runs
+     */
+    @Override
+    public void close() {
+        for (File run : runs) {
+            delete(run);
+        }
+        runs.clear();
+    }
+    
+    private static void advance(RunReader reader, PriorityQueue<RunReader> queue) throws IOException {
+        if (reader.next()) {
+            queue.add(reader);
+        }
+    }
+    
+    private File newRunFile() throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("Unable to create spill directory " + dir);
+        }
+        return File.createTempFile(prefix, ".run", dir);
+    }
+    
+    private static void writeRecord(DataOutputStream out, BulkIngestKey key, Collection<Value> values) throws IOException {
+        out.writeBoolean(true);
+        key.write(out);
+        WritableUtils.writeVInt(out, values.size());
+        for (Value value : values) {
+            value.write(out);
+        }
+    }
+    
+    private static void delete(File file) {
+        if (!file.delete() && file.exists()) {
+            log.warn("Unable to delete spill file " + file);
+        }
+    }
+    
+    /**
+     * Reads the records of a run in order
+     */
+    private static class RunReader implements Closeable {
+        private final DataInputStream in;
+        private BulkIngestKey key;
+        private List<Value> values;
+        
+        RunReader(File file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+        }
+        
+        boolean next() throws IOException {
+            if (!in.readBoolean()) {
+                key = null;
+                values = null;
+                return false;
+            }
+            key = new BulkIngestKey();
+            key.readFields(in);
+            int size = WritableUtils.readVInt(in);
+            values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Value value = new Value();
+                value.readFields(in);
+                values.add(value);
+            }
+            return true;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package datawave.ingest.mapreduce.job.writer;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -21,6 +22,10 @@ import org.apache.hadoop.mapreduce.TaskInputOutputContext;
  * aggregated as the entries are received. This cache will cache values across calls to commit, which means that entries are aggregated across events (see
  * EventMapper contextWriter commit calls).
  * 
+ * The cache for a table may also be given a budget in bytes. Once the cached entries for such a table exceed its budget, or its maximum number of entries, they
+ * are spilled to a sorted run on local disk instead of being flushed, and the runs are merged and combined when this context writer is cleaned up. This bounds
+ * the memory used by the cache while still combining the entries across the whole task.
+ * 
  */
 public class TableCachingContextWriter extends AbstractContextWriter<BulkIngestKey,Value> implements ChainedContextWriter<BulkIngestKey,Value> {
     
@@ -34,6 +39,10 @@ public class TableCachingContextWriter extends AbstractContextWriter<BulkIngestK
     public static final String FLUSHED_BUFFER_COUNTER = "TABLE_CACHE_FLUSHES";
     public static final String FLUSHED_BUFFER_TOTAL = "TABLE_CACHE_FLUSHED_ENTRIES";
     
+    // counters to keep track of how often the buffer for a table gets spilled to disk
+    public static final String SPILLED_BUFFER_COUNTER = "TABLE_CACHE_SPILLS";
+    public static final String SPILLED_BUFFER_TOTAL = "TABLE_CACHE_SPILLED_ENTRIES";
+    
     // This is the cache configuration
     private static final Map<Text,Integer> tableCacheConf = new HashMap<>();
     
@@ -41,9 +50,32 @@ public class TableCachingContextWriter extends AbstractContextWriter<BulkIngestK
     // entries
     public static final String TABLES_TO_CACHE_SUFFIX = ".table.context.writer.cache";
     
+    // the memory budget for a table will be configured by setting a <tablename>.table.context.writer.cache.bytes property where the value is the max size of
+    // the cache in bytes. Tables with a budget are spilled to local disk rather than flushed when their cache is full.
+    public static final String TABLES_TO_CACHE_BYTES_SUFFIX = ".table.context.writer.cache.bytes";
+    
+    // The local directory to spill into, defaulting to the java.io.tmpdir of the task
+    public static final String SPILL_DIR = "ingest.table.caching.context.writer.spill.dir";
+    
+    // The number of runs spilled for a table after which they are merged into a single run
+    public static final String SPILL_MERGE_FACTOR = "ingest.table.caching.context.writer.spill.merge.factor";
+    
+    // An estimate of the memory used by a cached entry beyond the bytes of its key and value
+    private static final long ENTRY_OVERHEAD = 128;
+    
+    private final Map<Text,Long> tableCacheBytesConf = new HashMap<>();
+    private File spillDir;
+    private int spillMergeFactor = 16;
+    
     // This is the cache
     private final Map<Text,Multimap<BulkIngestKey,Value>> aggregatedCache = new HashMap<>();
     
+    // The estimated size of the cache in bytes
+    private final Map<Text,Long> aggregatedCacheBytes = new HashMap<>();
+    
+    // The runs spilled to disk
+    private final Map<Text,TableCacheSpill> spills = new HashMap<>();
+    
     // This is the combiner used to aggregate values
     private CachingContextWriter combinerCache = new CachingContextWriter();
     private BulkIngestKeyDedupeCombiner<BulkIngestKey,Value> combiner = new BulkIngestKeyDedupeCombiner<BulkIngestKey,Value>() {
@@ -74,8 +106,14 @@ public class TableCachingContextWriter extends AbstractContextWriter<BulkIngestK
                 String tableName = prop.getKey().substring(0, prop.getKey().length() - TABLES_TO_CACHE_SUFFIX.length());
                 int maxCacheSize = Integer.parseInt(prop.getValue());
                 tableCacheConf.put(new Text(tableName), maxCacheSize);
+            } else if (prop.getKey().endsWith(TABLES_TO_CACHE_BYTES_SUFFIX)) {
+                String tableName = prop.getKey().substring(0, prop.getKey().length() - TABLES_TO_CACHE_BYTES_SUFFIX.length());
+                long maxCacheBytes = Long.parseLong(prop.getValue());
+                tableCacheBytesConf.put(new Text(tableName), maxCacheBytes);
             }
         }
+        spillDir = new File(conf.get(SPILL_DIR, System.getProperty("java.io.tmpdir")));
+        spillMergeFactor = Math.max(2, conf.getInt(SPILL_MERGE_FACTOR, spillMergeFactor));
         
         // create and setup the chained context writer
         Class<ContextWriter<BulkIngestKey,Value>> contextWriterClass = null;
@@ -105,7 +143,7 @@ public class TableCachingContextWriter extends AbstractContextWriter<BulkIngestK
         Multimap<BulkIngestKey,Value> residual = HashMultimap.create();
         for (BulkIngestKey key : entries.keySet()) {
             Collection<Value> values = entries.get(key);
-            if (tableCacheConf.containsKey(key.getTableName())) {
+            if (tableCacheConf.containsKey(key.getTableName()) || tableCacheBytesConf.containsKey(key.getTableName())) {
                 cache(key, values, context);
             } else {
                 residual.putAll(key, values);
@@ -130,6 +168,28 @@ public class TableCachingContextWriter extends AbstractContextWriter<BulkIngestK
     }
     
     private void flushAll(TaskInputOutputContext<?,?,BulkIngestKey,Value> context) throws IOException, InterruptedException {
+        // merge the spilled runs, along with what remains in the cache for those tables
+        try {
+            for (Map.Entry<Text,TableCacheSpill> spill : spills.entrySet()) {
+                Multimap<BulkIngestKey,Value> entries = aggregatedCache.remove(spill.getKey());
+                if (entries != null && !entries.isEmpty()) {
+                    spill.getValue().spill(entries);
+                }
+                long count = spill.getValue().merge((key, values) -> reduceValues(key, values, context), (key, values) -> {
+                    for (Value value : values) {
+                        contextWriter.write(key, value, context);
+                    }
+                });
+                getCounter(context, FLUSHED_BUFFER_TOTAL, spill.getKey().toString()).increment(count);
+                getCounter(context, FLUSHED_BUFFER_COUNTER, spill.getKey().toString()).increment(1);
+            }
+        } finally {
+            for (TableCacheSpill spill : spills.values()) {
+                spill.close();
+            }
+            spills.clear();
+        }
+        
         // pass all of the data through the delegate and clear the cache
         for (Map.Entry<Text,Multimap<BulkIngestKey,Value>> entries : aggregatedCache.entrySet()) {
             if (!entries.getValue().isEmpty()) {
@@ -139,6 +199,7 @@ public class TableCachingContextWriter extends AbstractContextWriter<BulkIngestK
             }
         }
         aggregatedCache.clear();
+        aggregatedCacheBytes.clear();
     }
     
     private void cache(BulkIngestKey key, Collection<Value> values, TaskInputOutputContext<?,?,BulkIngestKey,Value> context) throws IOException,
@@ -146,29 +207,80 @@ public class TableCachingContextWriter extends AbstractContextWriter<BulkIngestK
         List<Value> valueList = new ArrayList<>();
         valueList.addAll(values);
         
-        Multimap<BulkIngestKey,Value> entries = aggregatedCache.get(key.getTableName());
+        Text tableName = key.getTableName();
+        long bytes = 0;
+        Multimap<BulkIngestKey,Value> entries = aggregatedCache.get(tableName);
         if (entries != null) {
-            valueList.addAll(entries.removeAll(key));
+            Collection<Value> removed = entries.removeAll(key);
+            valueList.addAll(removed);
+            bytes = aggregatedCacheBytes.get(tableName) - estimateSize(key, removed);
         } else {
             entries = HashMultimap.create();
-            aggregatedCache.put(key.getTableName(), entries);
+            aggregatedCache.put(tableName, entries);
         }
         
         // reduce the entries as needed
-        if (valueList.size() > 1) {
-            entries.putAll(key, reduceValues(key, valueList, context));
-        } else {
-            entries.putAll(key, valueList);
-        }
+        Collection<Value> reduced = (valueList.size() > 1 ? reduceValues(key, valueList, context) : valueList);
+        entries.putAll(key, reduced);
+        bytes += estimateSize(key, reduced);
+        aggregatedCacheBytes.put(tableName, bytes);
         
-        // now flush this tables cache if needed
-        if (entries.size() >= tableCacheConf.get(key.getTableName())) {
+        // now flush or spill this tables cache if needed
+        Integer maxCacheSize = tableCacheConf.get(tableName);
+        Long maxCacheBytes = tableCacheBytesConf.get(tableName);
+        boolean full = (maxCacheSize != null && entries.size() >= maxCacheSize);
+        if (maxCacheBytes != null && (full || bytes >= maxCacheBytes)) {
+            spill(tableName, entries, context);
+        } else if (full) {
             // register that we overran the cache for this table
-            getCounter(context, FLUSHED_BUFFER_TOTAL, key.getTableName().toString()).increment(entries.size());
-            getCounter(context, FLUSHED_BUFFER_COUNTER, key.getTableName().toString()).increment(1);
+            getCounter(context, FLUSHED_BUFFER_TOTAL, tableName.toString()).increment(entries.size());
+            getCounter(context, FLUSHED_BUFFER_COUNTER, tableName.toString()).increment(1);
             contextWriter.write(entries, context);
-            aggregatedCache.remove(key.getTableName());
+            aggregatedCache.remove(tableName);
+            aggregatedCacheBytes.remove(tableName);
+        }
+    }
+    
+    /**
+     * Spill the cache for a table to a sorted run on local disk, merging the runs for the table if there are too many of them
+     * 
+     * @param tableName
+     * @param entries
+     * @param context
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    private void spill(Text tableName, Multimap<BulkIngestKey,Value> entries, TaskInputOutputContext<?,?,BulkIngestKey,Value> context) throws IOException,
+                    InterruptedException {
+        TableCacheSpill spill = spills.get(tableName);
+        if (spill == null) {
+            spill = new TableCacheSpill(spillDir, tableName.toString() + '-');
+            spills.put(tableName, spill);
+        }
+        getCounter(context, SPILLED_BUFFER_TOTAL, tableName.toString()).increment(entries.size());
+        getCounter(context, SPILLED_BUFFER_COUNTER, tableName.toString()).increment(1);
+        spill.spill(entries);
+        aggregatedCache.remove(tableName);
+        aggregatedCacheBytes.remove(tableName);
+        
+        if (spill.getRuns() >= spillMergeFactor) {
+            spill.compact((key, values) -> reduceValues(key, values, context));
+        }
+    }
+    
+    /**
+     * Estimate the memory used by a key and its cached values
+     * 
+     * @param key
+     * @param values
+     * @return the estimated size in bytes
+     */
+    private static long estimateSize(BulkIngestKey key, Collection<Value> values) {
+        long size = 0;
+        for (Value value : values) {
+            size += ENTRY_OVERHEAD + key.getTableName().getLength() + key.getKey().getSize() + value.getSize();
         }
+        return size;
     }
     
     /**
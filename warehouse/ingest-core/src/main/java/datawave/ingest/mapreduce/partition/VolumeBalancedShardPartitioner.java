@@ -0,0 +1,354 @@
+package datawave.ingest.mapreduce.partition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.mapreduce.job.ShardedTableMapFile;
+import datawave.util.time.DateHelper;
+import org.apache.accumulo.core.data.Value;
+import org.apache.commons.lang.time.DateUtils;
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.CounterGroup;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.Partitioner;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.apache.log4j.Logger;
+
+/**
+ * The VolumeBalancedShardPartitioner assigns the shards of the sharded tables to reducers by their estimated volume of data, rather than by the number of
+ * shards. Like the {@link BalancedShardPartitioner} and the {@link TabletLocationHashPartitioner}, all of the shards hosted by a tablet server are sent to the
+ * same reducer, so each reducer still creates one file per tablet server. The tablet servers are then assigned to reducers largest first, each going to the
+ * reducer with the least estimated volume so far, which keeps hot days from piling up on a few reducers.
+ * <p>
+ * The volume estimates come from a prior job. When {@link #COLLECT_VOLUME} is set the partitioner counts the bytes it sees per table and day (for the last
+ * {@link #VOLUME_DAYS} days, which bounds the number of counters) and the IngestJob writes those counters to the {@link #VOLUME_FILE} when the job completes.
+ * The next job reads that file and spreads each day's volume evenly over the shards of the day, which matches how events are hashed to shards. Days within the
+ * window that have no estimate get the average daily volume, and older or future days are assumed to have none. Without a volume file each recent shard
+ * counts the same.
+ * <p>
+ * The window of days is measured back from the time the job was submitted, which {@link #initializeJob(Job)} stores as the {@link #REFERENCE_TIME}, so that
+ * every task computes the same assignments even when the tasks run on either side of midnight.
+ */
+public class VolumeBalancedShardPartitioner extends Partitioner<BulkIngestKey,Value> implements Configurable, DelegatePartitioner {
+    private static final Logger log = Logger.getLogger(VolumeBalancedShardPartitioner.class);
+    
+    private static final String PREFIX = VolumeBalancedShardPartitioner.class.getName();
+    public static final String VOLUME_FILE = PREFIX + ".volume.file";
+    public static final String COLLECT_VOLUME = PREFIX + ".collect.volume";
+    public static final String VOLUME_DAYS = PREFIX + ".volume.days";
+    public static final String REFERENCE_TIME = PREFIX + ".reference.time";
+    public static final String COUNTER_GROUP_PREFIX = "ShardVolume: ";
+    
+    private static final int SHARD_DATE_LENGTH = 8;
+    
+    static TaskInputOutputContext<?,?,?,?> context = null;
+    private static boolean collectVolume = false;
+    
+    private Configuration conf;
+    private String oldestDay;
+    private String today;
+    private Map<String,Map<Text,Integer>> partitionsByTable;
+    private int assignedReduceTasks = -1;
+    
+    @Override
+    public synchronized int getPartition(BulkIngestKey key, Value value, int numReduceTasks) {
+        String tableName = key.getTableName().toString();
+        Text shardId = key.getKey().getRow();
+        
+        if (collectVolume && context != null) {
+            countVolume(tableName, shardId, key, value);
+        }
+        
+        try {
+            Map<Text,Integer> partitions = getAssignments(numReduceTasks).get(tableName);
+            Integer partition = (partitions == null ? null : partitions.get(shardId));
+            if (partition != null) {
+                return partition;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        // either the shard was not created or the table is not configured as sharded
+        return (shardId.hashCode() & Integer.MAX_VALUE) % numReduceTasks;
+    }
+    
+    private void countVolume(String tableName, Text shardId, BulkIngestKey key, Value value) {
+        String day = getDay(shardId);
+        if (day != null) {
+            context.getCounter(COUNTER_GROUP_PREFIX + tableName, day).increment(key.getKey().getSize() + value.getSize());
+        }
+    }
+    
+    private Map<String,Map<Text,Integer>> getAssignments(int numReduceTasks) throws IOException {
+        if (partitionsByTable == null || assignedReduceTasks != numReduceTasks) {
+            partitionsByTable = assignPartitions(numReduceTasks);
+            assignedReduceTasks = numReduceTasks;
+        }
+        return partitionsByTable;
+    }
+    
+    /**
+     * Estimates the volume for each tablet server of each sharded table, and assigns the tablet servers to reducers, largest first.
+     */
+    private Map<String,Map<Text,Integer>> assignPartitions(int numReduceTasks) throws IOException {
+        Map<String,Long> dayVolumes = readVolumes(conf);
+        
+        List<TServerVolume> tservers = new ArrayList<>();
+        Map<String,TreeMap<Text,String>> locationsByTable = new HashMap<>();
+        for (String tableName : conf.getStrings(ShardedTableMapFile.CONFIGURED_SHARDED_TABLE_NAMES)) {
+            TreeMap<Text,String> locations = ShardedTableMapFile.getShardIdToLocations(conf, tableName);
+            locationsByTable.put(tableName, locations);
+            tservers.addAll(estimateVolumes(tableName, locations, dayVolumes));
+        }
+        
+        // longest processing time first: the largest volumes go to the least loaded reducers
+        Collections.sort(tservers);
+        PriorityQueue<Reducer> reducers = new PriorityQueue<>(numReduceTasks);
+        for (int i = 0; i < numReduceTasks; i++) {
+            reducers.add(new Reducer(i));
+        }
+        Map<String,Integer> partitionsByTServer = new HashMap<>();
+        for (TServerVolume tserver : tservers) {
+            Reducer reducer = reducers.poll();
+            reducer.volume += tserver.volume;
+            partitionsByTServer.put(tserver.tableName + '\t' + tserver.location, reducer.partition);
+            reducers.add(reducer);
+        }
+        
+        Map<String,Map<Text,Integer>> partitions = new HashMap<>();
+        for (Map.Entry<String,TreeMap<Text,String>> table : locationsByTable.entrySet()) {
+            Map<Text,Integer> partitionsByShardId = new HashMap<>();
+            for (Map.Entry<Text,String> entry : table.getValue().entrySet()) {
+                partitionsByShardId.put(entry.getKey(), partitionsByTServer.get(table.getKey() + '\t' + entry.getValue()));
+            }
+            partitions.put(table.getKey(), partitionsByShardId);
+        }
+        
+        if (log.isDebugEnabled()) {
+            log.debug("Assigned " + tservers.size() + " tablet servers to " + numReduceTasks + " reducers, heaviest reducer: " + maxVolume(reducers));
+        }
+        return partitions;
+    }
+    
+    private static double maxVolume(PriorityQueue<Reducer> reducers) {
+        double max = 0;
+        for (Reducer reducer : reducers) {
+            max = Math.max(max, reducer.volume);
+        }
+        return max;
+    }
+    
+    /**
+     * Estimate the volume for each tablet server hosting shards of a table
+     */
+    private List<TServerVolume> estimateVolumes(String tableName, TreeMap<Text,String> locations, Map<String,Long> dayVolumes) {
+        // count the shards per day so a day's volume can be spread over its shards
+        Map<String,Integer> shardsPerDay = new HashMap<>();
+        for (Text shardId : locations.keySet()) {
+            String day = getDay(shardId);
+            if (day != null) {
+                Integer count = shardsPerDay.get(day);
+                shardsPerDay.put(day, count == null ? 1 : count + 1);
+            }
+        }
+        
+        double defaultVolume = getDefaultVolume(tableName, dayVolumes);
+        Map<String,TServerVolume> volumes = new HashMap<>();
+        for (Map.Entry<Text,String> entry : locations.entrySet()) {
+            TServerVolume volume = volumes.get(entry.getValue());
+            if (volume == null) {
+                volume = new TServerVolume(tableName, entry.getValue());
+                volumes.put(entry.getValue(), volume);
+            }
+            String day = getDay(entry.getKey());
+            if (day != null) {
+                Long dayVolume = dayVolumes.get(tableName + '\t' + day);
+                volume.volume += (dayVolume == null ? defaultVolume : dayVolume) / shardsPerDay.get(day);
+            }
+        }
+        return new ArrayList<>(volumes.values());
+    }
+    
+    private double getDefaultVolume(String tableName, Map<String,Long> dayVolumes) {
+        long total = 0;
+        int count = 0;
+        String prefix = tableName + '\t';
+        for (Map.Entry<String,Long> entry : dayVolumes.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                total += entry.getValue();
+                count++;
+            }
+        }
+        // without any estimates, every recent shard counts the same
+        return count == 0 ? 1.0d : (double) total / count;
+    }
+    
+    /**
+     * @return the day of a shard id if it is within the volume window, null otherwise
+     */
+    private String getDay(Text shardId) {
+        if (shardId.getLength() < SHARD_DATE_LENGTH) {
+            return null;
+        }
+        String day = shardId.toString().substring(0, SHARD_DATE_LENGTH);
+        return (day.compareTo(oldestDay) >= 0 && day.compareTo(today) <= 0) ? day : null;
+    }
+    
+    /**
+     * Read the volume estimates written by a prior job
+     *
+     * @param conf
+     * @return table\tday to bytes
+     * @throws IOException
+     */
+    public static Map<String,Long> readVolumes(Configuration conf) throws IOException {
+        Map<String,Long> volumes = new HashMap<>();
+        String volumeFile = conf.get(VOLUME_FILE);
+        if (volumeFile == null) {
+            return volumes;
+        }
+        Path path = new Path(volumeFile);
+        FileSystem fs = path.getFileSystem(conf);
+        if (!fs.exists(path)) {
+            log.warn("Volume file " + path + " does not exist, assuming an even volume per shard");
+            return volumes;
+        }
+        Text key = new Text();
+        LongWritable bytes = new LongWritable();
+        try (SequenceFile.Reader reader = new SequenceFile.Reader(fs, path, conf)) {
+            while (reader.next(key, bytes)) {
+                volumes.put(key.toString(), bytes.get());
+            }
+        }
+        return volumes;
+    }
+    
+    /**
+     * Write the volume counters of a completed job to the volume file for the next job
+     *
+     * @param conf
+     * @param counters
+     *            the counters of a job that ran with {@link #COLLECT_VOLUME} set
+     * @throws IOException
+     */
+    public static void writeVolumes(Configuration conf, Counters counters) throws IOException {
+        String volumeFile = conf.get(VOLUME_FILE);
+        if (volumeFile == null) {
+            log.warn(VOLUME_FILE + " not specified, the shard volumes will not be saved");
+            return;
+        }
+        Path path = new Path(volumeFile);
+        FileSystem fs = path.getFileSystem(conf);
+        Path tmpPath = new Path(path.getParent(), path.getName() + ".tmp");
+        int written = 0;
+        try (SequenceFile.Writer writer = SequenceFile.createWriter(fs, conf, tmpPath, Text.class, LongWritable.class)) {
+            for (CounterGroup group : counters) {
+                if (group.getName().startsWith(COUNTER_GROUP_PREFIX)) {
+                    String tableName = group.getName().substring(COUNTER_GROUP_PREFIX.length());
+                    for (Counter counter : group) {
+                        writer.append(new Text(tableName + '\t' + counter.getName()), new LongWritable(counter.getValue()));
+                        written++;
+                    }
+                }
+            }
+        }
+        fs.delete(path, false);
+        if (!fs.rename(tmpPath, path)) {
+            throw new IOException("Unable to rename " + tmpPath + " to " + path);
+        }
+        log.info("Wrote " + written + " shard volume estimates to " + path);
+    }
+    
+    public static void setContext(TaskInputOutputContext<?,?,?,?> context) {
+        VolumeBalancedShardPartitioner.context = context;
+        collectVolume = (context != null) && context.getConfiguration().getBoolean(COLLECT_VOLUME, false);
+    }
+    
+    @Override
+    public void configureWithPrefix(String prefix) {/* no op */}
+    
+    @Override
+    public int getNumPartitions() {
+        return Integer.MAX_VALUE;
+    }
+    
+    @Override
+    public void initializeJob(Job job) {
+        Configuration jobConf = job.getConfiguration();
+        if (jobConf.get(REFERENCE_TIME) == null) {
+            jobConf.setLong(REFERENCE_TIME, System.currentTimeMillis());
+        }
+    }
+    
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+    
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+        long now = conf.getLong(REFERENCE_TIME, -1);
+        if (now < 0) {
+            log.warn(REFERENCE_TIME + " was not set when the job was submitted, using the current time");
+            now = System.currentTimeMillis();
+        }
+        this.today = DateHelper.format(now);
+        this.oldestDay = DateHelper.format(now - (DateUtils.MILLIS_PER_DAY * (conf.getInt(VOLUME_DAYS, 14) - 1)));
+        this.partitionsByTable = null;
+    }
+    
+    private static class TServerVolume implements Comparable<TServerVolume> {
+        private final String tableName;
+        private final String location;
+        private double volume = 0;
+        
+        TServerVolume(String tableName, String location) {
+            this.tableName = tableName;
+            this.location = location;
+        }
+        
+        @Override
+        public int compareTo(TServerVolume o) {
+            // largest first, then by name so that every mapper computes the same assignments
+            int result = Double.compare(o.volume, volume);
+            if (result == 0) {
+                result = tableName.compareTo(o.tableName);
+            }
+            if (result == 0) {
+                result = location.compareTo(o.location);
+            }
+            return result;
+        }
+    }
+    
+    private static class Reducer implements Comparable<Reducer> {
+        private final int partition;
+        private double volume = 0;
+        
+        Reducer(int partition) {
+            this.partition = partition;
+        }
+        
+        @Override
+        public int compareTo(Reducer o) {
+            int result = Double.compare(volume, o.volume);
+            return result == 0 ? Integer.compare(partition, o.partition) : result;
+        }
+    }
+}
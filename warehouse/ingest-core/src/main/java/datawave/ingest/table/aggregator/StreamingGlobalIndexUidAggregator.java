@@ -0,0 +1,432 @@
+package datawave.ingest.table.aggregator;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.log4j.Logger;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+/**
+ * An alternative to the {@link GlobalIndexUidAggregator} which merges the serialized Uid.List objects without parsing them into protobuf objects and sets of
+ * Strings. The UIDs are read straight from the serialized bytes and are only copied when they are kept, the sets of UIDs are held as sorted arrays of bytes,
+ * and the aggregate is written straight to bytes. Once the maximum number of UIDs has been collected the remaining UIDs of a value are not read at all. This
+ * greatly reduces the garbage created when compacting or scanning hot terms in the shardIndex and shardReverseIndex.
+ *
+ * The result is the same as that of the {@link GlobalIndexUidAggregator}, other than the UIDs being written in sorted order. The aggregator used for the index
+ * tables is set with the {@code shard.global.index.uid.aggregator.class} property.
+ */
+public class StreamingGlobalIndexUidAggregator extends PropogatingCombiner {
+    private static final Logger log = Logger.getLogger(StreamingGlobalIndexUidAggregator.class);
+    
+    // the field numbers of the Uid.List protobuf
+    private static final int IGNORE_FIELD = 1;
+    private static final int COUNT_FIELD = 2;
+    private static final int UID_FIELD = 3;
+    private static final int REMOVEDUID_FIELD = 4;
+    private static final int QUARANTINEUID_FIELD = 5;
+    
+    private static final int TYPE_MASK = 7;
+    
+    // the operations applied to the UIDs of a field
+    private enum Op {
+        COLLECT, RELEASE, REMOVE, QUARANTINE
+    }
+    
+    /**
+     * Maximum number of UIDs.
+     */
+    public int maxUids = GlobalIndexUidAggregator.MAX;
+    
+    private final UidSet uids = new UidSet();
+    private final UidSet uidsToRemove = new UidSet();
+    private final UidSet quarantinedIds = new UidSet();
+    private final UidSet releasedUids = new UidSet();
+    
+    private boolean seenIgnore = false;
+    private long count = 0;
+    
+    // the values of the required fields for the value being read
+    private boolean valueIgnore;
+    private long valueCount;
+    
+    public StreamingGlobalIndexUidAggregator(int max) {
+        this.maxUids = max;
+    }
+    
+    public StreamingGlobalIndexUidAggregator() {
+        this.maxUids = GlobalIndexUidAggregator.MAX;
+    }
+    
+    @Override
+    public Value reduce(Key key, Iterator<Value> iter) {
+        while (iter.hasNext()) {
+            Value value = iter.next();
+            byte[] data = value.get();
+            int length = value.getSize();
+            
+            // validate the whole value before applying any of it, as a value which cannot be parsed is skipped
+            try {
+                if (!readHeader(data, length)) {
+                    throw new IOException("Missing required fields");
+                }
+            } catch (IOException e) {
+                if (key.isDeleted()) {
+                    log.warn("Value passed to aggregator for a delete key was not of type Uid.List");
+                } else {
+                    log.error("Value passed to aggregator was not of type Uid.List", e);
+                }
+                continue;
+            }
+            
+            long delta = valueCount;
+            count += delta;
+            if (valueIgnore) {
+                seenIgnore = true;
+                if (log.isDebugEnabled())
+                    log.debug("SeenIgnore is true. Skipping collections");
+            }
+            
+            try {
+                if (delta > 0) {
+                    // the releases must be applied before the UIDs are collected
+                    apply(data, length, QUARANTINEUID_FIELD, Op.RELEASE);
+                    if (uids.size() < maxUids) {
+                        apply(data, length, UID_FIELD, Op.COLLECT);
+                    }
+                } else if (delta < 0 && !seenIgnore) {
+                    apply(data, length, REMOVEDUID_FIELD, Op.REMOVE);
+                    apply(data, length, QUARANTINEUID_FIELD, Op.QUARANTINE);
+                    // for backwards compatibility the UIDs of a removal are also removed
+                    apply(data, length, UID_FIELD, Op.REMOVE);
+                }
+            } catch (IOException e) {
+                // cannot happen as the value has already been read through once
+                throw new IllegalStateException("Failed to reread Uid.List", e);
+            }
+        }
+        return aggregate();
+    }
+    
+    /**
+     * Read the required fields of a value, validating that the rest of the value can be read
+     *
+     * @return true if the required fields were found
+     */
+    private boolean readHeader(byte[] data, int length) throws IOException {
+        boolean foundIgnore = false;
+        boolean foundCount = false;
+        CodedInputStream in = CodedInputStream.newInstance(data, 0, length);
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            int field = WireFormat.getTagFieldNumber(tag);
+            int type = tag & TYPE_MASK;
+            if (field == IGNORE_FIELD && type == WireFormat.WIRETYPE_VARINT) {
+                valueIgnore = in.readBool();
+                foundIgnore = true;
+            } else if (field == COUNT_FIELD && type == WireFormat.WIRETYPE_VARINT) {
+                valueCount = in.readUInt64();
+                foundCount = true;
+            } else if (!in.skipField(tag)) {
+                break;
+            }
+        }
+        return foundIgnore && foundCount;
+    }
+    
+    /**
+     * Apply an operation to each of the UIDs in a field of a value, without copying them
+     */
+    private void apply(byte[] data, int length, int targetField, Op op) throws IOException {
+        CodedInputStream in = CodedInputStream.newInstance(data, 0, length);
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            if (WireFormat.getTagFieldNumber(tag) == targetField && (tag & TYPE_MASK) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                int size = in.readRawVarint32();
+                int offset = in.getTotalBytesRead();
+                switch (op) {
+                    case COLLECT:
+                        // add the UID iff it has not been removed and we are under our MAX
+                        if (!uidsToRemove.contains(data, offset, size) && !quarantinedIds.contains(data, offset, size)) {
+                            uids.add(data, offset, size);
+                            if (uids.size() >= maxUids) {
+                                return;
+                            }
+                        }
+                        break;
+                    case RELEASE:
+                        quarantinedIds.remove(data, offset, size);
+                        releasedUids.add(data, offset, size);
+                        break;
+                    case REMOVE:
+                        uidsToRemove.add(data, offset, size);
+                        uids.remove(data, offset, size);
+                        break;
+                    case QUARANTINE:
+                        quarantinedIds.add(data, offset, size);
+                        break;
+                }
+                in.skipRawBytes(size);
+            } else if (!in.skipField(tag)) {
+                break;
+            }
+        }
+    }
+    
+    @Override
+    public Value aggregate() {
+        boolean ignore;
+        if (seenIgnore || count > maxUids) {
+            ignore = true;
+            // if we catch seenIgnore, then there is
+            // no need to propogate removals.
+            propogate = false;
+        } else {
+            ignore = false;
+            
+            uidsToRemove.removeAll(quarantinedIds);
+            uidsToRemove.removeAll(releasedUids);
+            quarantinedIds.removeAll(releasedUids);
+            
+            uids.removeAll(uidsToRemove);
+            uids.removeAll(quarantinedIds);
+            
+            if (!releasedUids.isEmpty()) {
+                if (log.isDebugEnabled())
+                    log.debug("Adding released UIDS");
+                uids.addAll(releasedUids);
+            }
+        }
+        
+        if (log.isDebugEnabled())
+            log.debug("Propogating: " + propogate);
+        
+        UidSet outputUids = (ignore ? null : uids);
+        UidSet outputRemoved = (propogate ? uidsToRemove : null);
+        UidSet outputQuarantined = (propogate ? quarantinedIds : null);
+        
+        int size = CodedOutputStream.computeBoolSize(IGNORE_FIELD, ignore) + CodedOutputStream.computeUInt64Size(COUNT_FIELD, count)
+                        + computeSize(UID_FIELD, outputUids) + computeSize(REMOVEDUID_FIELD, outputRemoved)
+                        + computeSize(QUARANTINEUID_FIELD, outputQuarantined);
+        byte[] result = new byte[size];
+        CodedOutputStream out = CodedOutputStream.newInstance(result);
+        try {
+            out.writeBool(IGNORE_FIELD, ignore);
+            out.writeUInt64(COUNT_FIELD, count);
+            write(out, UID_FIELD, outputUids);
+            write(out, REMOVEDUID_FIELD, outputRemoved);
+            write(out, QUARANTINEUID_FIELD, outputQuarantined);
+            out.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write Uid.List", e);
+        }
+        
+        if (log.isDebugEnabled())
+            log.debug("Building aggregate. Count is " + count + ", uids.size() is " + uids.size());
+        return new Value(result);
+    }
+    
+    private static int computeSize(int field, UidSet set) {
+        int size = 0;
+        if (set != null) {
+            int tagSize = CodedOutputStream.computeTagSize(field);
+            for (int i = 0; i < set.size(); i++) {
+                int length = set.get(i).length;
+                size += tagSize + CodedOutputStream.computeRawVarint32Size(length) + length;
+            }
+        }
+        return size;
+    }
+    
+    private static void write(CodedOutputStream out, int field, UidSet set) throws IOException {
+        if (set != null) {
+            for (int i = 0; i < set.size(); i++) {
+                byte[] uid = set.get(i);
+                out.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                out.writeRawVarint32(uid.length);
+                out.writeRawBytes(uid);
+            }
+        }
+    }
+    
+    @Override
+    public void reset() {
+        if (log.isDebugEnabled())
+            log.debug("Resetting StreamingGlobalIndexUidAggregator");
+        count = 0;
+        seenIgnore = false;
+        uids.clear();
+        uidsToRemove.clear();
+        releasedUids.clear();
+        quarantinedIds.clear();
+    }
+    
+    @Override
+    public boolean propogateKey() {
+        
+        /**
+         * Changed logic so that if seenIgnore is true and count > MAX, we keep propogate the key
+         */
+        if ((seenIgnore && count > maxUids) || !quarantinedIds.isEmpty())
+            return true;
+        
+        // if <= 0 and there are no uids left once the removals are applied, we can safely remove
+        return count > 0 || !uidsToRemove.containsAll(uids);
+    }
+    
+    /**
+     * A set of UIDs held as a sorted array of their bytes. The UIDs are compared as unsigned bytes, and may be looked up using a range of a larger array so
+     * that they only need to be copied when added.
+     */
+    static class UidSet {
+        private static final byte[][] EMPTY = new byte[0][];
+        
+        private byte[][] uids = EMPTY;
+        private int size = 0;
+        
+        public int size() {
+            return size;
+        }
+        
+        public boolean isEmpty() {
+            return size == 0;
+        }
+        
+        public byte[] get(int index) {
+            return uids[index];
+        }
+        
+        public boolean contains(byte[] data, int offset, int length) {
+            return indexOf(data, offset, length) >= 0;
+        }
+        
+        /**
+         * @return true if every UID in the other set is in this set
+         */
+        public boolean containsAll(UidSet other) {
+            for (int i = 0; i < other.size; i++) {
+                byte[] uid = other.uids[i];
+                if (!contains(uid, 0, uid.length)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        public boolean add(byte[] data, int offset, int length) {
+            int index = indexOf(data, offset, length);
+            if (index >= 0) {
+                return false;
+            }
+            index = -(index + 1);
+            if (size == uids.length) {
+                uids = Arrays.copyOf(uids, Math.max(8, size * 2));
+            }
+            System.arraycopy(uids, index, uids, index + 1, size - index);
+            uids[index] = Arrays.copyOfRange(data, offset, offset + length);
+            size++;
+            return true;
+        }
+        
+        public boolean remove(byte[] data, int offset, int length) {
+            int index = indexOf(data, offset, length);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(uids, index + 1, uids, index, size - index - 1);
+            uids[--size] = null;
+            return true;
+        }
+        
+        /**
+         * Remove the UIDs in the other set, merging the two sorted arrays
+         */
+        public void removeAll(UidSet other) {
+            if (size == 0 || other.size == 0) {
+                return;
+            }
+            int kept = 0;
+            int j = 0;
+            for (int i = 0; i < size; i++) {
+                byte[] uid = uids[i];
+                int cmp = 1;
+                while (j < other.size && (cmp = compare(other.uids[j], 0, other.uids[j].length, uid)) < 0) {
+                    j++;
+                }
+                if (j == other.size || cmp != 0) {
+                    uids[kept++] = uid;
+                }
+            }
+            Arrays.fill(uids, kept, size, null);
+            size = kept;
+        }
+        
+        /**
+         * Add the UIDs in the other set, merging the two sorted arrays
+         */
+        public void addAll(UidSet other) {
+            if (other.size == 0) {
+                return;
+            }
+            byte[][] merged = new byte[size + other.size][];
+            int i = 0, j = 0, n = 0;
+            while (i < size && j < other.size) {
+                int cmp = compare(uids[i], 0, uids[i].length, other.uids[j]);
+                if (cmp < 0) {
+                    merged[n++] = uids[i++];
+                } else if (cmp > 0) {
+                    merged[n++] = other.uids[j++];
+                } else {
+                    merged[n++] = uids[i++];
+                    j++;
+                }
+            }
+            while (i < size) {
+                merged[n++] = uids[i++];
+            }
+            while (j < other.size) {
+                merged[n++] = other.uids[j++];
+            }
+            uids = merged;
+            size = n;
+        }
+        
+        public void clear() {
+            Arrays.fill(uids, 0, size, null);
+            size = 0;
+        }
+        
+        private int indexOf(byte[] data, int offset, int length) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(data, offset, length, uids[mid]);
+                if (cmp > 0) {
+                    low = mid + 1;
+                } else if (cmp < 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+        
+        private static int compare(byte[] data, int offset, int length, byte[] uid) {
+            int end = Math.min(length, uid.length);
+            for (int i = 0; i < end; i++) {
+                int cmp = (data[offset + i] & 0xff) - (uid[i] & 0xff);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return length - uid.length;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package datawave.ingest.table.config;
 
 import datawave.data.ColumnFamilyConstants;
 import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
+import datawave.ingest.mapreduce.handler.stats.FieldCardinalityDataTypeHandler;
 
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
@@ -26,6 +27,7 @@ public class MetadataTableConfigHelper extends AbstractTableConfigHelper {
                 setFrequencyCombiner(tops, scope.name());
                 setCombinerForCountMetadata(tops, scope.name());
                 setCombinerForEdgeMetadata(tops, scope.name());
+                setCombinerForFieldCardinality(tops, scope.name());
             }
         }
         
@@ -49,6 +51,15 @@ public class MetadataTableConfigHelper extends AbstractTableConfigHelper {
         return stem;
     }
     
+    // add the FieldCardinalityCombiner to the field cardinality column
+    private String setCombinerForFieldCardinality(TableOperations tops, String scopeName) throws AccumuloException, AccumuloSecurityException,
+                    TableNotFoundException {
+        String stem = String.format("%s%s.%s", Property.TABLE_ITERATOR_PREFIX, scopeName, "FieldCardinalityCombiner");
+        setPropertyIfNecessary(tableName, stem, "16,datawave.iterators.FieldCardinalityCombiner", tops, log);
+        setPropertyIfNecessary(tableName, stem + ".opt.columns", FieldCardinalityDataTypeHandler.COLF_CARDINALITY.toString(), tops, log);
+        return stem;
+    }
+    
     // add the EdgeMetadataCombiner to the edge column
     private String setFrequencyCombiner(TableOperations tops, String scopeName) throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
         String stem = String.format("%s%s.%s", Property.TABLE_ITERATOR_PREFIX, scopeName, "FrequencyCombiner");
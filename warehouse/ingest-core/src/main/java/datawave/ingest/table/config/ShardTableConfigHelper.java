@@ -8,6 +8,7 @@ import java.util.Set;
 import datawave.ingest.mapreduce.handler.ExtendedDataTypeHandler;
 import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
 import datawave.ingest.table.aggregator.CombinerConfiguration;
+import datawave.ingest.table.aggregator.GlobalIndexUidAggregator;
 import datawave.ingest.table.balancer.ShardedTableTabletBalancer;
 import datawave.ingest.table.bloomfilter.ShardKeyFunctor;
 import datawave.ingest.table.bloomfilter.ShardIndexKeyFunctor;
@@ -35,6 +36,9 @@ public class ShardTableConfigHelper extends AbstractTableConfigHelper {
     public static final String ENABLE_BLOOM_FILTERS = "shard.enable.bloom.filters";
     protected boolean enableBloomFilters = false;
     
+    public static final String GLOBAL_INDEX_UID_AGGREGATOR = "shard.global.index.uid.aggregator.class";
+    protected String globalIndexUidAggregatorClass = GlobalIndexUidAggregator.class.getName();
+    
     public static final String MARKINGS_SETUP_ITERATOR_ENABLED = "markings.setup.iterator.enabled";
     private boolean markingsSetupIteratorEnabled = false;
     
@@ -86,6 +90,7 @@ public class ShardTableConfigHelper extends AbstractTableConfigHelper {
         }
         
         enableBloomFilters = conf.getBoolean(ENABLE_BLOOM_FILTERS, enableBloomFilters);
+        globalIndexUidAggregatorClass = conf.get(GLOBAL_INDEX_UID_AGGREGATOR, globalIndexUidAggregatorClass);
         
         String localityGroupsConf = null;
         if (tableName.equals(shardTableName)) {
@@ -193,7 +198,7 @@ public class ShardTableConfigHelper extends AbstractTableConfigHelper {
             String stem = String.format("%s%s.%s", Property.TABLE_ITERATOR_PREFIX, scope.name(), "UIDAggregator");
             setPropertyIfNecessary(tableName, stem, "19,datawave.iterators.TotalAggregatingIterator", tops, log);
             stem += ".opt.";
-            setPropertyIfNecessary(tableName, stem + "*", "datawave.ingest.table.aggregator.GlobalIndexUidAggregator", tops, log);
+            setPropertyIfNecessary(tableName, stem + "*", globalIndexUidAggregatorClass, tops, log);
             
             if (markingsSetupIteratorEnabled) {
                 // we want the markings setup iterator init method to be called up front
@@ -216,7 +221,7 @@ public class ShardTableConfigHelper extends AbstractTableConfigHelper {
             String stem = String.format("%s%s.%s", Property.TABLE_ITERATOR_PREFIX, scope.name(), "UIDAggregator");
             setPropertyIfNecessary(tableName, stem, "19,datawave.iterators.TotalAggregatingIterator", tops, log);
             stem += ".opt.";
-            setPropertyIfNecessary(tableName, stem + "*", "datawave.ingest.table.aggregator.GlobalIndexUidAggregator", tops, log);
+            setPropertyIfNecessary(tableName, stem + "*", globalIndexUidAggregatorClass, tops, log);
             
             if (markingsSetupIteratorEnabled) {
                 // we want the markings setup iterator init method to be called up front
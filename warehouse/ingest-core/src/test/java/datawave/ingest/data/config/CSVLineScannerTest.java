@@ -0,0 +1,86 @@
+package datawave.ingest.data.config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.commons.lang.text.StrMatcher;
+import org.apache.commons.lang.text.StrTokenizer;
+import org.junit.Test;
+
+public class CSVLineScannerTest {
+    
+    private static String[] scan(CSVLineScanner scanner, String line) {
+        byte[] bytes = ("xx" + line + "yy").getBytes(StandardCharsets.UTF_8);
+        int columns = scanner.scan(bytes, 2, bytes.length - 4);
+        String[] values = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            values[i] = scanner.getString(i);
+        }
+        return values;
+    }
+    
+    private static String[] tokenize(StrTokenizer tokenizer, String line) {
+        tokenizer.setIgnoreEmptyTokens(false);
+        tokenizer.setEmptyTokenAsNull(true);
+        tokenizer.reset(line);
+        return tokenizer.getTokenArray();
+    }
+    
+    private static void assertSameAsTokenizer(CSVLineScanner scanner, StrTokenizer tokenizer, String line) {
+        assertArrayEquals(line, tokenize(tokenizer, line), scan(scanner, line));
+    }
+    
+    @Test
+    public void testCsv() {
+        CSVLineScanner scanner = CSVLineScanner.forSeparator(",");
+        String[] values = scan(scanner, "a, b ,,\"c,d\",\"e\"\"f\"\"\",  \"\" ,\u00e9\u00e8");
+        assertEquals(7, values.length);
+        assertEquals("a", values[0]);
+        assertEquals("b", values[1]);
+        assertNull(values[2]);
+        assertEquals("c,d", values[3]);
+        assertEquals("e\"f\"", values[4]);
+        assertNull(values[5]);
+        assertEquals("\u00e9\u00e8", values[6]);
+        
+        assertEquals(0, scan(scanner, "").length);
+        assertEquals(2, scan(scanner, "a,").length);
+    }
+    
+    @Test
+    public void testOtherSeparators() {
+        assertSameAsTokenizer(CSVLineScanner.forSeparator("\\t"), StrTokenizer.getTSVInstance(), " a \t\"b\tc\" \t\t");
+        assertSameAsTokenizer(CSVLineScanner.forSeparator("|"), new StrTokenizer("", "|"), " a |\"b|c\"||");
+        assertSameAsTokenizer(CSVLineScanner.forSeparator("::"), new StrTokenizer("", "::"), "a:::b::::c:");
+    }
+    
+    @Test
+    public void testUntrimmed() {
+        CSVLineScanner scanner = CSVLineScanner.forSeparator(",").setTrimmed(false);
+        StrTokenizer tokenizer = StrTokenizer.getCSVInstance().setTrimmerMatcher(StrMatcher.noneMatcher());
+        assertSameAsTokenizer(scanner, tokenizer, " a , \"b\" ,c ");
+    }
+    
+    @Test
+    public void testRandomLines() {
+        String alphabet = "ab ,\"\t\u00e9";
+        Random random = new Random(1234);
+        CSVLineScanner csv = CSVLineScanner.forSeparator(",");
+        CSVLineScanner tsv = CSVLineScanner.forSeparator("\\t");
+        CSVLineScanner untrimmed = CSVLineScanner.forSeparator(",").setTrimmed(false);
+        for (int i = 0; i < 10000; i++) {
+            StringBuilder line = new StringBuilder();
+            int length = random.nextInt(20);
+            for (int j = 0; j < length; j++) {
+                line.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            assertSameAsTokenizer(csv, StrTokenizer.getCSVInstance(), line.toString());
+            assertSameAsTokenizer(tsv, StrTokenizer.getTSVInstance(), line.toString());
+            assertSameAsTokenizer(untrimmed, StrTokenizer.getCSVInstance().setTrimmerMatcher(StrMatcher.noneMatcher()), line.toString());
+        }
+    }
+}
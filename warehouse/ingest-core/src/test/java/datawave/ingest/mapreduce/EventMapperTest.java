@@ -12,10 +12,15 @@ import datawave.ingest.mapreduce.job.metrics.Metric;
 import datawave.ingest.mapreduce.job.metrics.MetricsConfiguration;
 import datawave.ingest.mapreduce.job.metrics.TestEventCountMetricsReceiver;
 import datawave.ingest.mapreduce.job.writer.ContextWriter;
+import datawave.ingest.metric.IngestOutput;
+import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.StatusReporter;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
 import org.easymock.EasyMockRule;
 import org.easymock.Mock;
 import org.junit.After;
@@ -27,7 +32,12 @@ import static org.easymock.EasyMock.*;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class EventMapperTest {
     
@@ -41,6 +51,7 @@ public class EventMapperTest {
     private SimpleRawRecord record;
     private SimpleRawRecord errorRecord;
     private EventMapper<LongWritable,RawRecordContainer,BulkIngestKey,Value> eventMapper;
+    private StandaloneStatusReporter statusReporter;
     
     @Before
     public void setUp() throws Exception {
@@ -94,7 +105,8 @@ public class EventMapperTest {
         expect(mapContext.getInputSplit()).andReturn(null);
         expect(mapContext.getMapOutputValueClass()).andReturn(null);
         
-        StandaloneTaskAttemptContext standaloneContext = new StandaloneTaskAttemptContext(conf, new StandaloneStatusReporter());
+        statusReporter = new StandaloneStatusReporter();
+        StandaloneTaskAttemptContext standaloneContext = new StandaloneTaskAttemptContext(conf, statusReporter);
         expect(mapContext.getCounter(anyObject())).andDelegateTo(standaloneContext).anyTimes();
         expect(mapContext.getCounter(anyString(), anyString())).andDelegateTo(standaloneContext).anyTimes();
         
@@ -187,6 +199,37 @@ public class EventMapperTest {
         assertEquals(4, written.size());
     }
     
+    @Test
+    public void shouldRunHandlersConcurrentlyWhenConfigured() throws IOException, InterruptedException {
+        conf.setInt(EventMapper.HANDLER_THREADS, 2);
+        conf.setClass(EventMapper.CONTEXT_WRITER_CLASS, OrderedTestContextWriter.class, ContextWriter.class);
+        Type type = new Type("file", null, null, new String[] {FirstHandler.class.getName(), SecondHandler.class.getName()}, 10, null);
+        TypeRegistry.getInstance(conf).put(type.typeName(), type);
+        record.setDataType(type);
+        
+        secondHandlerDone = new CountDownLatch(1);
+        handlersOverlapped = false;
+        
+        eventMapper.setup(mapContext);
+        eventMapper.map(new LongWritable(1), record, mapContext);
+        eventMapper.cleanup(mapContext);
+        
+        // the first handler waits for the second handler to finish, which can only happen if they are run concurrently
+        assertTrue(handlersOverlapped);
+        
+        // the output is written in the order the handlers are configured, as it is when they are run on the map thread
+        List<String> tables = OrderedTestContextWriter.getTables();
+        assertEquals(10, tables.size());
+        assertEquals(Collections.nCopies(5, FirstHandler.TABLE), tables.subList(0, 5));
+        assertEquals(Collections.nCopies(5, SecondHandler.TABLE), tables.subList(5, 10));
+        
+        // the counters incremented by the handlers on the pool threads are added to the context
+        assertEquals(1, statusReporter.getCounter("handler", FirstHandler.TABLE).getValue());
+        assertEquals(1, statusReporter.getCounter("handler", SecondHandler.TABLE).getValue());
+        assertEquals(5, statusReporter.getCounter(IngestOutput.ROWS_CREATED.name(), FirstHandler.class.getSimpleName()).getValue());
+        assertEquals(5, statusReporter.getCounter(IngestOutput.ROWS_CREATED.name(), SecondHandler.class.getSimpleName()).getValue());
+    }
+    
     @Test
     public void errorEventWithZeroTimestampNotDropped() throws IOException, InterruptedException {
         eventMapper.setup(mapContext);
@@ -200,6 +243,77 @@ public class EventMapperTest {
         assertEquals(4, written.size());
     }
     
+    private static volatile CountDownLatch secondHandlerDone;
+    private static volatile boolean handlersOverlapped;
+    
+    /**
+     * Writes the output of a handler to its own table, and counts each event it processes
+     */
+    private static Multimap<BulkIngestKey,Value> processBulk(String table, Multimap<String,NormalizedContentInterface> fields, StatusReporter reporter) {
+        reporter.getCounter("handler", table).increment(1);
+        Multimap<BulkIngestKey,Value> pairs = HashMultimap.create();
+        for (Map.Entry<String,NormalizedContentInterface> entry : fields.entries()) {
+            pairs.put(new BulkIngestKey(new Text(table), new Key("row", entry.getKey(), entry.getValue().getEventFieldValue())), new Value("1".getBytes()));
+        }
+        return pairs;
+    }
+    
+    public static class FirstHandler<K> extends SimpleDataTypeHandler<K> {
+        static final String TABLE = "first";
+        
+        @Override
+        public Multimap<BulkIngestKey,Value> processBulk(K key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields,
+                        StatusReporter reporter) {
+            try {
+                handlersOverlapped = secondHandlerDone.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return EventMapperTest.processBulk(TABLE, fields, reporter);
+        }
+    }
+    
+    public static class SecondHandler<K> extends SimpleDataTypeHandler<K> {
+        static final String TABLE = "second";
+        
+        @Override
+        public Multimap<BulkIngestKey,Value> processBulk(K key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields,
+                        StatusReporter reporter) {
+            Multimap<BulkIngestKey,Value> pairs = EventMapperTest.processBulk(TABLE, fields, reporter);
+            secondHandlerDone.countDown();
+            return pairs;
+        }
+    }
+    
+    /**
+     * Records the tables written to, in the order they are written
+     */
+    public static class OrderedTestContextWriter<OK,OV> extends TestContextWriter<OK,OV> {
+        private static final List<String> tables = Collections.synchronizedList(new ArrayList<>());
+        
+        public OrderedTestContextWriter() {
+            tables.clear();
+        }
+        
+        @Override
+        public void write(BulkIngestKey key, Value value, TaskInputOutputContext<?,?,OK,OV> context) throws IOException, InterruptedException {
+            tables.add(key.getTableName().toString());
+            super.write(key, value, context);
+        }
+        
+        @Override
+        public void write(Multimap<BulkIngestKey,Value> entries, TaskInputOutputContext<?,?,OK,OV> context) throws IOException, InterruptedException {
+            for (BulkIngestKey key : entries.keySet()) {
+                tables.add(key.getTableName().toString());
+            }
+            super.write(entries, context);
+        }
+        
+        public static List<String> getTables() {
+            return tables;
+        }
+    }
+    
     private Map.Entry<BulkIngestKey,Value> getMetric(Multimap<BulkIngestKey,Value> written) {
         return getFieldEntry(written, Metric.EVENT_COUNT.toString());
     }
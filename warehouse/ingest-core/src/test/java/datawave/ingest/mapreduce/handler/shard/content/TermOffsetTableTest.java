@@ -0,0 +1,151 @@
+package datawave.ingest.mapreduce.handler.shard.content;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import datawave.ingest.protobuf.TermWeight;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TermOffsetTableTest {
+    
+    @Test
+    public void testAddOffset() {
+        TermOffsetTable table = new TermOffsetTable(20);
+        
+        for (int offset = 0; offset < table.getCapacity(); offset++) {
+            Assert.assertNull("AddOffset unexpectedly evicted an entry", table.addOffset("term-" + offset, "zone-" + offset, offset));
+        }
+        Assert.assertEquals(20, table.size());
+        Assert.assertEquals(20, table.getNumEntries());
+        
+        // each addition past the capacity evicts one of the single offset entries
+        int count = table.getCapacity() - 1;
+        for (int offset = 0; offset < count; offset++) {
+            TermOffsetTable.Entry evicted = table.addOffset("term-0", "zone-0", offset + table.getCapacity());
+            Assert.assertNotNull("AddOffset failed to evict an entry", evicted);
+            Assert.assertEquals(1, evicted.size());
+            Assert.assertNotEquals("term-0", evicted.term);
+        }
+        
+        // and then the only entry left is evicted with all of its offsets
+        TermOffsetTable.Entry evicted = table.addOffset("term-0", "zone-0", 2 * table.getCapacity());
+        Assert.assertNotNull("AddOffset failed to evict an entry", evicted);
+        Assert.assertEquals("term-0", evicted.term);
+        Assert.assertEquals("zone-0", evicted.zone);
+        Assert.assertEquals(21, evicted.size());
+        Assert.assertEquals(0, evicted.offsets[0]);
+        Assert.assertEquals(40, evicted.offsets[20]);
+        Assert.assertEquals(0, table.size());
+        Assert.assertEquals(0, table.getNumEntries());
+        Assert.assertFalse(table.containsKey("term-0", "zone-0"));
+    }
+    
+    @Test
+    public void testEvictsFewestOffsets() {
+        TermOffsetTable table = new TermOffsetTable(6);
+        table.addOffset("a", "Z", 0);
+        table.addOffset("b", "Z", 1);
+        table.addOffset("a", "Z", 2);
+        table.addOffset("c", "Z", 3);
+        table.addOffset("b", "Z", 4);
+        table.addOffset("a", "Z", 5);
+        
+        // a has 3, b has 2 and c has 1
+        TermOffsetTable.Entry evicted = table.addOffset("b", "Z", 6);
+        Assert.assertEquals("c", evicted.term);
+        Assert.assertArrayEquals(new int[] {3}, Arrays.copyOf(evicted.offsets, evicted.size));
+        
+        // now a has 3 and b has 3 so the table is full, and a new term is the smallest
+        evicted = table.addOffset("d", "Z", 7);
+        Assert.assertEquals("d", evicted.term);
+        Assert.assertEquals(1, evicted.size());
+        Assert.assertEquals(6, table.size());
+        
+        // the same term in another zone is a different entry
+        Assert.assertTrue(table.containsKey("a", "Z"));
+        Assert.assertFalse(table.containsKey("a", "Y"));
+        Assert.assertEquals(Arrays.asList(0, 2, 5), table.getOffsets(new TermAndZone("a", "Z")));
+    }
+    
+    @Test
+    public void testEveryOffsetIsReturned() {
+        Random random = new Random(1234);
+        TermOffsetTable table = new TermOffsetTable(500);
+        for (int doc = 0; doc < 3; doc++) {
+            Map<String,List<Integer>> expected = new HashMap<>();
+            Map<String,List<Integer>> actual = new HashMap<>();
+            for (int offset = 0; offset < 5000; offset++) {
+                // a skewed distribution so that some terms stay and others are evicted
+                String term = "t" + (int) Math.abs(random.nextGaussian() * 200);
+                String zone = "ZONE" + random.nextInt(2);
+                expected.computeIfAbsent(term + ':' + zone, k -> new ArrayList<>()).add(offset);
+                TermOffsetTable.Entry evicted = table.addOffset(term, zone, offset);
+                if (evicted != null) {
+                    add(actual, evicted);
+                }
+                Assert.assertTrue(table.size() <= table.getCapacity());
+            }
+            for (TermOffsetTable.Entry entry : table.entries()) {
+                add(actual, entry);
+            }
+            
+            // every offset comes out exactly once, whether evicted early or flushed at the end
+            for (List<Integer> offsets : actual.values()) {
+                offsets.sort(null);
+            }
+            Assert.assertEquals(expected, actual);
+            table.clear();
+            Assert.assertEquals(0, table.size());
+            Assert.assertFalse(table.entries().iterator().hasNext());
+        }
+    }
+    
+    @Test
+    public void testOffsetQueueCompatibility() {
+        OffsetQueue<Integer> queue = new TermOffsetTable(3);
+        TermAndZone taz = new TermAndZone("term", "ZONE");
+        Assert.assertNull(queue.addOffset(taz, 1));
+        Assert.assertNull(queue.addOffset(new TermAndZone("other", "ZONE"), 2));
+        Assert.assertNull(queue.addOffset(taz, 3));
+        Assert.assertTrue(queue.containsKey(taz));
+        
+        BoundedOffsetQueue.OffsetList<Integer> overflow = queue.addOffset(taz, 4);
+        Assert.assertEquals(new TermAndZone("other", "ZONE"), overflow.termAndZone);
+        Assert.assertEquals(Arrays.asList(2), overflow.offsets);
+        
+        int entries = 0;
+        for (BoundedOffsetQueue.OffsetList<Integer> offsets : queue.offsets()) {
+            Assert.assertEquals(taz, offsets.termAndZone);
+            Assert.assertEquals(Arrays.asList(1, 3, 4), offsets.offsets);
+            entries++;
+        }
+        Assert.assertEquals(1, entries);
+    }
+    
+    @Test
+    public void testTermWeightInfo() throws Exception {
+        int[] offsets = {0, 1, 127, 128, 16384, Integer.MAX_VALUE, -1};
+        for (int length = 0; length <= offsets.length; length++) {
+            TermWeight.Info.Builder builder = TermWeight.Info.newBuilder();
+            for (int i = 0; i < length; i++) {
+                builder.addTermOffset(offsets[i]);
+            }
+            byte[] bytes = TermOffsetTable.toTermWeightInfo(offsets, length);
+            Assert.assertArrayEquals(builder.build().toByteArray(), bytes);
+            Assert.assertEquals(length, TermWeight.Info.parseFrom(bytes).getTermOffsetCount());
+        }
+    }
+    
+    private static void add(Map<String,List<Integer>> map, TermOffsetTable.Entry entry) {
+        List<Integer> offsets = map.computeIfAbsent(entry.term + ':' + entry.zone, k -> new ArrayList<>());
+        for (int i = 0; i < entry.size; i++) {
+            offsets.add(entry.offsets[i]);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package datawave.ingest.mapreduce.handler.stats;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import datawave.data.normalizer.DateNormalizer;
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.RawRecordContainerImplTest;
+import datawave.ingest.data.TypeRegistry;
+import datawave.ingest.data.config.BaseNormalizedContent;
+import datawave.ingest.data.config.DataTypeHelper.Properties;
+import datawave.ingest.data.config.NormalizedContentInterface;
+import datawave.ingest.data.config.ingest.BaseIngestHelper;
+import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.util.FieldCardinalitySketch;
+import datawave.policy.IngestPolicyEnforcer;
+import datawave.util.TableName;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
+public class FieldCardinalityDataTypeHandlerTest {
+    
+    private Configuration conf;
+    private FieldCardinalityDataTypeHandler<Text> handler;
+    private DateNormalizer dateNormalizer = new DateNormalizer();
+    private BaseIngestHelper helper;
+    
+    @Before
+    public void setup() throws Exception {
+        conf = new Configuration();
+        conf.set("data.name", "testdatatype");
+        conf.set("testdatatype.ingest.helper.class", TestBaseIngestHelper.class.getName());
+        conf.set("testdatatype.handler.classes", FieldCardinalityDataTypeHandler.class.getName());
+        conf.set("testdatatype.data.category.index", "COLOR,SIZE");
+        conf.set("all" + Properties.INGEST_POLICY_ENFORCER_CLASS, IngestPolicyEnforcer.NoOpIngestPolicyEnforcer.class.getName());
+        conf.set(ShardedDataTypeHandler.METADATA_TABLE_NAME, TableName.METADATA);
+        conf.set(FieldCardinalityDataTypeHandler.FIELD_CARDINALITY_MAX_SKETCHES, "4");
+        
+        TypeRegistry.reset();
+        TypeRegistry.getInstance(conf);
+        
+        helper = new TestBaseIngestHelper();
+        helper.setup(conf);
+        
+        handler = new FieldCardinalityDataTypeHandler<>();
+        handler.setup(new TaskAttemptContextImpl(conf, new TaskAttemptID()));
+    }
+    
+    @Test
+    public void testSketches() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            RawRecordContainer event = getEvent("2019-03-14T12:00:00Z", i);
+            Multimap<String,NormalizedContentInterface> fields = HashMultimap.create();
+            fields.put("COLOR", new BaseNormalizedContent("COLOR", "color" + (i % 10)));
+            fields.put("SIZE", new BaseNormalizedContent("SIZE", "size" + i));
+            fields.put("NAME", new BaseNormalizedContent("NAME", "name" + i));
+            
+            Assert.assertEquals(0, handler.processBulk(new Text("1"), event, fields, null).size());
+            handler.getMetadata().addEvent(helper, event, fields);
+        }
+        
+        // one sketch per indexed field
+        Multimap<BulkIngestKey,Value> metadata = handler.getMetadata().getBulkMetadata();
+        Assert.assertEquals(2, metadata.size());
+        Map<String,FieldCardinalitySketch> sketches = new HashMap<>();
+        for (Map.Entry<BulkIngestKey,Value> entry : metadata.entries()) {
+            Key key = entry.getKey().getKey();
+            Assert.assertEquals(TableName.METADATA, entry.getKey().getTableName().toString());
+            Assert.assertEquals(FieldCardinalityDataTypeHandler.COLF_CARDINALITY, key.getColumnFamily());
+            Assert.assertEquals("testdatatype\u000020190314", key.getColumnQualifier().toString());
+            Assert.assertEquals(dateNormalizer.denormalize("2019-03-14T00:00:00Z").getTime(), key.getTimestamp());
+            sketches.put(key.getRow().toString(), new FieldCardinalitySketch(entry.getValue()));
+        }
+        Assert.assertEquals(100, sketches.get("COLOR").getCount());
+        Assert.assertEquals(10, sketches.get("COLOR").getCardinality(), 1);
+        Assert.assertEquals(100, sketches.get("SIZE").getCount());
+        Assert.assertEquals(100, sketches.get("SIZE").getCardinality(), 2);
+        
+        handler.getMetadata().clear();
+        Assert.assertEquals(0, handler.getMetadata().getBulkMetadata().size());
+    }
+    
+    @Test
+    public void testSketchesWrittenEarly() {
+        // two fields on each of two days reaches the maximum of four sketches
+        for (String date : new String[] {"2019-03-14T12:00:00Z", "2019-03-15T12:00:00Z"}) {
+            RawRecordContainer event = getEvent(date, 0);
+            Multimap<String,NormalizedContentInterface> fields = HashMultimap.create();
+            fields.put("COLOR", new BaseNormalizedContent("COLOR", "red"));
+            fields.put("SIZE", new BaseNormalizedContent("SIZE", "large"));
+            Assert.assertEquals(0, handler.processBulk(new Text("1"), event, fields, null).size());
+            handler.getMetadata().addEvent(helper, event, fields);
+        }
+        
+        Multimap<BulkIngestKey,Value> written = handler.processBulk(new Text("1"), getEvent("2019-03-16T12:00:00Z", 1), HashMultimap.create(), null);
+        Assert.assertEquals(4, written.size());
+        Assert.assertEquals(0, handler.getMetadata().getBulkMetadata().size());
+    }
+    
+    private RawRecordContainer getEvent(String date, int id) {
+        RawRecordContainerImplTest.ValidatingRawRecordContainerImpl event = new RawRecordContainerImplTest.ValidatingRawRecordContainerImpl();
+        event.setDataType(TypeRegistry.getType("testdatatype"));
+        event.setSecurityMarkings(null);
+        event.setVisibility(new ColumnVisibility("A&B"));
+        event.setDate(dateNormalizer.denormalize(date).getTime());
+        event.setRawFileName("FieldCardinalityDataTypeHandlerTest.data");
+        event.setRawRecordNumber(id);
+        event.setRawData(("event" + id).getBytes());
+        event.generateId(null);
+        event.validate();
+        return event;
+    }
+    
+    public static class TestBaseIngestHelper extends BaseIngestHelper {
+        @Override
+        public Multimap<String,NormalizedContentInterface> getEventFields(RawRecordContainer event) {
+            return HashMultimap.create();
+        }
+    }
+}
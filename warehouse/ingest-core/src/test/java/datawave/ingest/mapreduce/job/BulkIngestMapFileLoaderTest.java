@@ -12,9 +12,15 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import datawave.common.test.integration.IntegrationTest;
 import datawave.common.test.logging.CommonTestAppender;
@@ -27,6 +33,7 @@ import datawave.ingest.input.reader.LongLineEventRecordReader;
 
 import org.apache.accumulo.core.client.security.tokens.PasswordToken;
 import org.apache.accumulo.core.client.impl.Credentials;
+import org.apache.commons.io.FileUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileStatus;
@@ -35,7 +42,12 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.PositionedReadable;
 import org.apache.hadoop.fs.RawLocalFileSystem;
 import org.apache.hadoop.fs.Seekable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.CounterGroup;
+import org.apache.hadoop.mapreduce.Counters;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
@@ -2696,4 +2708,203 @@ public class BulkIngestMapFileLoaderTest {
         }
         
     }
+    
+    /**
+     * A loader which reports the major compactions as busy for a number of checks, and records the imports rather than bringing map files online
+     */
+    private static class TestLoader extends BulkIngestMapFileLoader {
+        private final int busyChecks;
+        private final int jobsToLoad;
+        private final AtomicInteger compactionChecks = new AtomicInteger();
+        private final AtomicInteger cleanedUp = new AtomicInteger();
+        private final List<Path> imported = Collections.synchronizedList(new ArrayList<>());
+        
+        private TestLoader(String workDir, Map<String,Integer> tablePriorities, int numConcurrentJobs, int busyChecks, int jobsToLoad) {
+            super(workDir, "job*", null, null, null, FILE_SYSTEM_URI, FILE_SYSTEM_URI, FILE_SYSTEM_URI, null, tablePriorities, new Configuration(), 0, 1, 1,
+                            numConcurrentJobs);
+            this.busyChecks = busyChecks;
+            this.jobsToLoad = jobsToLoad;
+        }
+        
+        @Override
+        public boolean canBringMapFilesOnline(long lastOnlineTime, boolean logInfo) {
+            return compactionChecks.incrementAndGet() > busyChecks;
+        }
+        
+        @Override
+        public void bringMapFilesOnline(Path mapFilesDir) {
+            imported.add(mapFilesDir);
+        }
+        
+        @Override
+        public void cleanUpJobDirectory(Path mapFilesDir) throws IOException {
+            FileSystem.get(FILE_SYSTEM_URI, new Configuration()).delete(mapFilesDir.getParent(), true);
+            if (cleanedUp.incrementAndGet() >= jobsToLoad) {
+                shutdown();
+            }
+        }
+    }
+    
+    @Test
+    public void testImportRunnableOrdering() {
+        Map<String,Integer> tablePriorities = new HashMap<>();
+        tablePriorities.put("shard", 10);
+        tablePriorities.put("shardIndex", 20);
+        BulkIngestMapFileLoader uut = new TestLoader(".", tablePriorities, 2, 0, 0);
+        
+        BulkIngestMapFileLoader.ImportRunnable other = uut.new ImportRunnable(null, "other", null, null);
+        BulkIngestMapFileLoader.ImportRunnable index = uut.new ImportRunnable(null, "shardIndex", null, null);
+        BulkIngestMapFileLoader.ImportRunnable shard1 = uut.new ImportRunnable(null, "shard", null, null);
+        BulkIngestMapFileLoader.ImportRunnable shard2 = uut.new ImportRunnable(null, "shard", null, null);
+        
+        // by table priority, then tables without a priority, then in the order started
+        List<BulkIngestMapFileLoader.ImportRunnable> imports = new ArrayList<>(Arrays.asList(other, index, shard2, shard1));
+        Collections.sort(imports);
+        Assert.assertEquals(Arrays.asList(shard1, shard2, index, other), imports);
+        
+        Assert.assertTrue(shard1.compareTo(index) < 0);
+        Assert.assertTrue(other.compareTo(index) > 0);
+        Assert.assertTrue(shard2.compareTo(shard1) > 0);
+        Assert.assertEquals(0, shard1.compareTo(shard1));
+    }
+    
+    @Test(timeout = 60000)
+    public void testWaitForCompletionBeforeImportStarts() throws Exception {
+        BulkIngestMapFileLoader uut = new TestLoader(".", new HashMap<>(), 2, 0, 0);
+        final BulkIngestMapFileLoader.ImportRunnable task = uut.new ImportRunnable(null, "shard", null, null);
+        
+        final AtomicReference<Exception> waitFailure = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                task.waitForCompletion();
+            } catch (InterruptedException e) {
+                waitFailure.set(e);
+            }
+        });
+        waiter.start();
+        
+        // no thread has taken the import from the queue yet, so the waiter must keep waiting rather than fail
+        waiter.join(500);
+        Assert.assertTrue(waiter.isAlive());
+        
+        // run the import, which fails as there is no table directory
+        task.run();
+        waiter.join(30000);
+        
+        Assert.assertFalse(waiter.isAlive());
+        Assert.assertNull(waitFailure.get());
+        Assert.assertTrue(task.isComplete());
+        Assert.assertNotNull(task.getException());
+    }
+    
+    @Test(timeout = 60000)
+    public void testImportChecksCompactions() throws Exception {
+        int sleepTime = Whitebox.getInternalState(BulkIngestMapFileLoader.class, "SLEEP_TIME");
+        Whitebox.setInternalState(BulkIngestMapFileLoader.class, "SLEEP_TIME", 10);
+        try {
+            // in the pipeline the queued import waits for the compactions to drop
+            TestLoader pipeline = new TestLoader(".", new HashMap<>(), 2, 2, 0);
+            BulkIngestMapFileLoader.ImportRunnable task = pipeline.startImport(null, "shard", null, null);
+            task.waitForCompletion();
+            Assert.assertEquals(3, pipeline.compactionChecks.get());
+            
+            // the default loader checks the compactions once per job, and starts a thread per table
+            TestLoader serial = new TestLoader(".", new HashMap<>(), 1, 2, 0);
+            task = serial.startImport(null, "shard", null, null);
+            task.waitForCompletion();
+            Assert.assertEquals(0, serial.compactionChecks.get());
+        } finally {
+            Whitebox.setInternalState(BulkIngestMapFileLoader.class, "SLEEP_TIME", sleepTime);
+        }
+    }
+    
+    @Test(timeout = 120000)
+    public void testRunPipeline() throws Exception {
+        File workDir = java.nio.file.Files.createTempDirectory("BulkIngestMapFileLoaderTest").toFile();
+        int sleepTime = Whitebox.getInternalState(BulkIngestMapFileLoader.class, "SLEEP_TIME");
+        boolean ingestMetrics = Whitebox.getInternalState(BulkIngestMapFileLoader.class, "INGEST_METRICS");
+        Whitebox.setInternalState(BulkIngestMapFileLoader.class, "SLEEP_TIME", 10);
+        Whitebox.setInternalState(BulkIngestMapFileLoader.class, "INGEST_METRICS", false);
+        try {
+            Set<String> jobs = new HashSet<>(Arrays.asList("job1", "job2", "job3"));
+            for (String job : jobs) {
+                File jobDir = new File(workDir, job);
+                Assert.assertTrue(new File(jobDir, "mapFiles").mkdirs());
+                Assert.assertTrue(new File(jobDir, BulkIngestMapFileLoader.COMPLETE_FILE_MARKER).createNewFile());
+            }
+            
+            TestLoader uut = new TestLoader(workDir.getAbsolutePath(), new HashMap<>(), 2, 0, jobs.size());
+            Thread loader = new Thread(uut);
+            loader.start();
+            loader.join(60000);
+            Assert.assertFalse("The pipeline did not shut down", loader.isAlive());
+            
+            // every job was imported once, and then cleaned up
+            Set<String> imported = new HashSet<>();
+            for (Path mapFilesDir : uut.imported) {
+                Assert.assertEquals("mapFiles", mapFilesDir.getName());
+                Assert.assertTrue(imported.add(mapFilesDir.getParent().getName()));
+            }
+            Assert.assertEquals(jobs, imported);
+            for (String job : jobs) {
+                Assert.assertFalse(new File(workDir, job).exists());
+            }
+        } finally {
+            Whitebox.setInternalState(BulkIngestMapFileLoader.class, "SLEEP_TIME", sleepTime);
+            Whitebox.setInternalState(BulkIngestMapFileLoader.class, "INGEST_METRICS", ingestMetrics);
+            FileUtils.deleteDirectory(workDir);
+        }
+    }
+    
+    @Test(timeout = 60000)
+    public void testRunPipelineWritesStatsPerJob() throws Exception {
+        File workDir = java.nio.file.Files.createTempDirectory("BulkIngestMapFileLoaderTest").toFile();
+        int sleepTime = Whitebox.getInternalState(BulkIngestMapFileLoader.class, "SLEEP_TIME");
+        boolean ingestMetrics = Whitebox.getInternalState(BulkIngestMapFileLoader.class, "INGEST_METRICS");
+        Whitebox.setInternalState(BulkIngestMapFileLoader.class, "SLEEP_TIME", 10);
+        Whitebox.setInternalState(BulkIngestMapFileLoader.class, "INGEST_METRICS", true);
+        try {
+            Set<String> jobs = new HashSet<>(Arrays.asList("job1", "job2", "job3"));
+            for (String job : jobs) {
+                File jobDir = new File(workDir, job);
+                Assert.assertTrue(new File(jobDir, "mapFiles").mkdirs());
+                Assert.assertTrue(new File(jobDir, BulkIngestMapFileLoader.COMPLETE_FILE_MARKER).createNewFile());
+            }
+            
+            TestLoader uut = new TestLoader(workDir.getAbsolutePath(), new HashMap<>(), 2, 0, jobs.size());
+            Thread loader = new Thread(uut);
+            loader.start();
+            loader.join(60000);
+            Assert.assertFalse("The pipeline did not shut down", loader.isAlive());
+            
+            // one metrics file per job, holding all of the times for that job only
+            Configuration conf = new Configuration();
+            Set<String> written = new HashSet<>();
+            File[] metricsFiles = new File(workDir, "MapFileLoaderMetrics").listFiles((dir, name) -> name.endsWith(".metrics"));
+            Assert.assertNotNull(metricsFiles);
+            for (File metricsFile : metricsFiles) {
+                Counters counters = new Counters();
+                try (SequenceFile.Reader reader = new SequenceFile.Reader(conf, SequenceFile.Reader.file(new Path(metricsFile.toURI())))) {
+                    Assert.assertTrue(reader.next(NullWritable.get(), counters));
+                }
+                Set<String> groups = new HashSet<>();
+                Set<String> names = new HashSet<>();
+                for (CounterGroup group : counters) {
+                    groups.add(group.getName());
+                    for (Counter counter : group) {
+                        names.add(counter.getName());
+                    }
+                }
+                Assert.assertEquals(new HashSet<>(Arrays.asList("MapFileLoader.StartTimes", "MapFileLoader.CopyTimes", "MapFileLoader.ImportTimes",
+                                "MapFileLoader.CompleteTimes", "MapFileLoader.EndTimes")), groups);
+                Assert.assertEquals(1, names.size());
+                Assert.assertTrue(written.add(names.iterator().next()));
+            }
+            Assert.assertEquals(jobs, written);
+        } finally {
+            Whitebox.setInternalState(BulkIngestMapFileLoader.class, "SLEEP_TIME", sleepTime);
+            Whitebox.setInternalState(BulkIngestMapFileLoader.class, "INGEST_METRICS", ingestMetrics);
+            FileUtils.deleteDirectory(workDir);
+        }
+    }
 }
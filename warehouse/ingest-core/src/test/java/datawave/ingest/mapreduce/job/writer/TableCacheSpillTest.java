@@ -0,0 +1,120 @@
+package datawave.ingest.mapreduce.job.writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.Text;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
+public class TableCacheSpillTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    // sums the values as numbers
+    private final TableCacheSpill.Reducer sum = (key, values) -> {
+        long total = 0;
+        for (Value value : values) {
+            total += Long.parseLong(value.toString());
+        }
+        return Collections.singleton(new Value(Long.toString(total).getBytes()));
+    };
+    
+    private static BulkIngestKey key(String row) {
+        return new BulkIngestKey(new Text("shardIndex"), new Key(row, "FIELD", "20190314_1\u0000datatype"));
+    }
+    
+    private static Multimap<BulkIngestKey,Value> entries(String... rows) {
+        Multimap<BulkIngestKey,Value> entries = HashMultimap.create();
+        for (String row : rows) {
+            entries.put(key(row), new Value("1".getBytes()));
+        }
+        return entries;
+    }
+    
+    private static List<String> merge(TableCacheSpill spill, TableCacheSpill.Reducer reducer) throws Exception {
+        List<String> merged = new ArrayList<>();
+        spill.merge(reducer, (key, values) -> {
+            for (Value value : values) {
+                merged.add(key.getKey().getRow() + "=" + value);
+            }
+        });
+        return merged;
+    }
+    
+    @Test
+    public void testMergeRuns() throws Exception {
+        TableCacheSpill spill = new TableCacheSpill(folder.getRoot(), "shardIndex");
+        spill.spill(entries("c", "a", "e"));
+        spill.spill(entries("b", "a"));
+        spill.spill(entries("e", "d", "a"));
+        assertEquals(3, spill.getRuns());
+        assertEquals(3, folder.getRoot().list().length);
+        
+        // the keys come out sorted, with the values for the same key reduced
+        List<String> merged = merge(spill, sum);
+        assertEquals(5, merged.size());
+        assertEquals("a=3", merged.get(0));
+        assertEquals("b=1", merged.get(1));
+        assertEquals("c=1", merged.get(2));
+        assertEquals("d=1", merged.get(3));
+        assertEquals("e=2", merged.get(4));
+        
+        spill.close();
+        assertEquals(0, spill.getRuns());
+        assertEquals(0, folder.getRoot().list().length);
+    }
+    
+    @Test
+    public void testCompact() throws Exception {
+        TableCacheSpill spill = new TableCacheSpill(folder.getRoot(), "shardIndex");
+        for (int i = 0; i < 5; i++) {
+            spill.spill(entries("a", "b" + i));
+        }
+        spill.compact(sum);
+        assertEquals(1, spill.getRuns());
+        assertEquals(1, folder.getRoot().list().length);
+        
+        spill.spill(entries("a"));
+        List<String> merged = merge(spill, sum);
+        assertEquals(6, merged.size());
+        assertEquals("a=6", merged.get(0));
+        spill.close();
+    }
+    
+    @Test
+    public void testDeletedKeysAndEmptyValuesSurvive() throws Exception {
+        File dir = new File(folder.getRoot(), "spill");
+        TableCacheSpill spill = new TableCacheSpill(dir, "x");
+        Multimap<BulkIngestKey,Value> entries = HashMultimap.create();
+        Key deleted = new Key("row", "cf", "cq", 5L);
+        deleted.setDeleted(true);
+        entries.put(new BulkIngestKey(new Text("shard"), deleted), new Value(new byte[0]));
+        spill.spill(entries);
+        assertTrue(dir.isDirectory());
+        
+        List<BulkIngestKey> keys = new ArrayList<>();
+        spill.merge(sum, (key, values) -> {
+            keys.add(key);
+            assertEquals(0, values.iterator().next().getSize());
+        });
+        assertEquals(1, keys.size());
+        assertTrue(keys.get(0).getKey().isDeleted());
+        assertEquals(new Text("shard"), keys.get(0).getTableName());
+        spill.close();
+    }
+}
@@ -0,0 +1,133 @@
+package datawave.ingest.mapreduce.partition;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.util.TableName;
+import datawave.util.time.DateHelper;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.commons.lang.time.DateUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Job;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.powermock.reflect.Whitebox;
+
+public class VolumeBalancedShardPartitionerTest {
+    private static final int NUM_REDUCE_TASKS = 2;
+    
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
+    private Configuration conf;
+    private String today;
+    private String yesterday;
+    
+    @Before
+    public void setUp() throws Exception {
+        conf = new Configuration();
+        long now = System.currentTimeMillis();
+        today = DateHelper.format(now);
+        yesterday = DateHelper.format(now - DateUtils.MILLIS_PER_DAY);
+        
+        // today's shards are on tservers 1 and 2, yesterday's shards are on 3 and 4
+        Map<Text,String> locations = new TreeMap<>();
+        locations.put(new Text(today + "_0"), "1");
+        locations.put(new Text(today + "_1"), "2");
+        locations.put(new Text(today + "_2"), "1");
+        locations.put(new Text(today + "_3"), "2");
+        locations.put(new Text(yesterday + "_0"), "3");
+        locations.put(new Text(yesterday + "_1"), "4");
+        locations.put(new Text(yesterday + "_2"), "3");
+        locations.put(new Text(yesterday + "_3"), "3");
+        new TestShardGenerator(conf, locations, TableName.SHARD);
+    }
+    
+    @Test
+    public void testShardsOfATServerGoToOneReducer() {
+        VolumeBalancedShardPartitioner partitioner = getPartitioner();
+        Assert.assertEquals(getPartition(partitioner, today + "_0"), getPartition(partitioner, today + "_2"));
+        Assert.assertEquals(getPartition(partitioner, today + "_1"), getPartition(partitioner, today + "_3"));
+        Assert.assertEquals(getPartition(partitioner, yesterday + "_0"), getPartition(partitioner, yesterday + "_2"));
+        Assert.assertEquals(getPartition(partitioner, yesterday + "_0"), getPartition(partitioner, yesterday + "_3"));
+    }
+    
+    @Test
+    public void testEvenVolumeWithoutEstimates() {
+        // every recent shard counts the same: tserver 3 has the most shards, so tservers 1 and 2 share the other reducer
+        VolumeBalancedShardPartitioner partitioner = getPartitioner();
+        int tserver3 = getPartition(partitioner, yesterday + "_0");
+        Assert.assertNotEquals(tserver3, getPartition(partitioner, today + "_0"));
+        Assert.assertNotEquals(tserver3, getPartition(partitioner, today + "_1"));
+        Assert.assertEquals(tserver3, getPartition(partitioner, yesterday + "_1"));
+    }
+    
+    @Test
+    public void testHotDayIsSpread() throws Exception {
+        // today is much larger than yesterday, so tservers 1 and 2 must be on different reducers
+        Counters counters = new Counters();
+        counters.findCounter(VolumeBalancedShardPartitioner.COUNTER_GROUP_PREFIX + TableName.SHARD, today).increment(1000000);
+        counters.findCounter(VolumeBalancedShardPartitioner.COUNTER_GROUP_PREFIX + TableName.SHARD, yesterday).increment(1000);
+        counters.findCounter("SomeOtherGroup", today).increment(1);
+        conf.set(VolumeBalancedShardPartitioner.VOLUME_FILE, new File(temporaryFolder.getRoot(), "volumes.seq").getAbsolutePath());
+        VolumeBalancedShardPartitioner.writeVolumes(conf, counters);
+        
+        Map<String,Long> volumes = VolumeBalancedShardPartitioner.readVolumes(conf);
+        Map<String,Long> expected = new HashMap<>();
+        expected.put(TableName.SHARD + '\t' + today, 1000000L);
+        expected.put(TableName.SHARD + '\t' + yesterday, 1000L);
+        Assert.assertEquals(expected, volumes);
+        
+        VolumeBalancedShardPartitioner partitioner = getPartitioner();
+        Assert.assertNotEquals(getPartition(partitioner, today + "_0"), getPartition(partitioner, today + "_1"));
+    }
+    
+    @Test
+    public void testReferenceTimeIsSetOnce() throws Exception {
+        Job job = new Job(conf);
+        new VolumeBalancedShardPartitioner().initializeJob(job);
+        long referenceTime = job.getConfiguration().getLong(VolumeBalancedShardPartitioner.REFERENCE_TIME, -1);
+        Assert.assertTrue(referenceTime > 0);
+        
+        new VolumeBalancedShardPartitioner().initializeJob(job);
+        Assert.assertEquals(referenceTime, job.getConfiguration().getLong(VolumeBalancedShardPartitioner.REFERENCE_TIME, -1));
+    }
+    
+    @Test
+    public void testWindowFromReferenceTime() {
+        // the window is measured from the submission of the job rather than from when the task starts
+        long referenceTime = System.currentTimeMillis() - (10 * DateUtils.MILLIS_PER_DAY);
+        conf.setLong(VolumeBalancedShardPartitioner.REFERENCE_TIME, referenceTime);
+        conf.setInt(VolumeBalancedShardPartitioner.VOLUME_DAYS, 3);
+        VolumeBalancedShardPartitioner partitioner = getPartitioner();
+        Assert.assertEquals(DateHelper.format(referenceTime), Whitebox.getInternalState(partitioner, "today"));
+        Assert.assertEquals(DateHelper.format(referenceTime - (2 * DateUtils.MILLIS_PER_DAY)), Whitebox.getInternalState(partitioner, "oldestDay"));
+    }
+    
+    @Test
+    public void testUnknownShardIsHashed() {
+        VolumeBalancedShardPartitioner partitioner = getPartitioner();
+        String shard = "20000101_0";
+        Assert.assertEquals((new Text(shard).hashCode() & Integer.MAX_VALUE) % NUM_REDUCE_TASKS, getPartition(partitioner, shard));
+    }
+    
+    private VolumeBalancedShardPartitioner getPartitioner() {
+        VolumeBalancedShardPartitioner partitioner = new VolumeBalancedShardPartitioner();
+        partitioner.setConf(conf);
+        return partitioner;
+    }
+    
+    private static int getPartition(VolumeBalancedShardPartitioner partitioner, String shardId) {
+        BulkIngestKey key = new BulkIngestKey(new Text(TableName.SHARD), new Key(shardId));
+        return partitioner.getPartition(key, new Value(new byte[0]), NUM_REDUCE_TASKS);
+    }
+}
@@ -0,0 +1,170 @@
+package datawave.ingest.table.aggregator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import datawave.ingest.protobuf.Uid;
+import datawave.ingest.protobuf.Uid.List.Builder;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Test;
+
+import com.google.common.collect.Iterators;
+
+public class StreamingGlobalIndexUidAggregatorTest {
+    
+    PropogatingCombiner agg = new StreamingGlobalIndexUidAggregator();
+    PropogatingCombiner expected = new GlobalIndexUidAggregator();
+    
+    private static Value uids(long count, String... uids) {
+        Builder b = Uid.List.newBuilder();
+        b.setIGNORE(false);
+        b.setCOUNT(count);
+        for (String uid : uids) {
+            b.addUID(uid);
+        }
+        return new Value(b.build().toByteArray());
+    }
+    
+    private static Value removals(String... uids) {
+        Builder b = Uid.List.newBuilder();
+        b.setIGNORE(false);
+        b.setCOUNT(-uids.length);
+        for (String uid : uids) {
+            b.addREMOVEDUID(uid);
+        }
+        return new Value(b.build().toByteArray());
+    }
+    
+    private static Value quarantine(String... uids) {
+        Builder b = Uid.List.newBuilder();
+        b.setIGNORE(false);
+        b.setCOUNT(-uids.length);
+        for (String uid : uids) {
+            b.addQUARANTINEUID(uid);
+        }
+        return new Value(b.build().toByteArray());
+    }
+    
+    private static Value release(String... uids) {
+        Builder b = Uid.List.newBuilder();
+        b.setIGNORE(false);
+        b.setCOUNT(uids.length);
+        for (String uid : uids) {
+            b.addQUARANTINEUID(uid);
+        }
+        return new Value(b.build().toByteArray());
+    }
+    
+    private void assertSameAsExpected(List<Value> values) throws Exception {
+        agg.reset();
+        expected.reset();
+        Uid.List result = Uid.List.parseFrom(agg.reduce(new Key("key"), values.iterator()).get());
+        Uid.List expectedResult = Uid.List.parseFrom(expected.reduce(new Key("key"), values.iterator()).get());
+        
+        assertEquals(expectedResult.getIGNORE(), result.getIGNORE());
+        assertEquals(expectedResult.getCOUNT(), result.getCOUNT());
+        assertEquals(new HashSet<>(expectedResult.getUIDList()), new HashSet<>(result.getUIDList()));
+        assertEquals(new HashSet<>(expectedResult.getREMOVEDUIDList()), new HashSet<>(result.getREMOVEDUIDList()));
+        assertEquals(new HashSet<>(expectedResult.getQUARANTINEUIDList()), new HashSet<>(result.getQUARANTINEUIDList()));
+        assertEquals(expectedResult.getUIDCount(), result.getUIDCount());
+        assertEquals(expected.propogateKey(), agg.propogateKey());
+    }
+    
+    @Test
+    public void testSingleUid() {
+        agg.reset();
+        Value val = uids(1, UUID.randomUUID().toString());
+        Value result = agg.reduce(new Key("key"), Iterators.singletonIterator(val));
+        assertEquals(0, val.compareTo(result.get()));
+    }
+    
+    @Test
+    public void testUidsAreSorted() throws Exception {
+        agg.reset();
+        List<Value> values = new ArrayList<>();
+        values.add(uids(2, "uid3", "uid1"));
+        values.add(uids(2, "uid2", "uid1"));
+        Uid.List result = Uid.List.parseFrom(agg.reduce(new Key("key"), values.iterator()).get());
+        assertEquals(4, result.getCOUNT());
+        assertEquals(3, result.getUIDCount());
+        assertEquals("uid1", result.getUID(0));
+        assertEquals("uid2", result.getUID(1));
+        assertEquals("uid3", result.getUID(2));
+    }
+    
+    @Test
+    public void testMoreThanMax() throws Exception {
+        List<Value> values = new ArrayList<>();
+        for (int i = 0; i < GlobalIndexUidAggregator.MAX + 5; i++) {
+            values.add(uids(1, UUID.randomUUID().toString()));
+        }
+        assertSameAsExpected(values);
+        assertTrue(Uid.List.parseFrom(agg.aggregate().get()).getIGNORE());
+    }
+    
+    @Test
+    public void testRemovalAndQuarantine() throws Exception {
+        List<Value> values = new ArrayList<>();
+        values.add(uids(3, "uid1", "uid2", "uid3"));
+        values.add(removals("uid1"));
+        values.add(quarantine("uid2"));
+        assertSameAsExpected(values);
+        
+        values.add(release("uid2"));
+        assertSameAsExpected(values);
+        
+        values.clear();
+        values.add(removals("uid1", "uid2"));
+        values.add(uids(2, "uid1", "uid2"));
+        assertSameAsExpected(values);
+        assertFalse(agg.propogateKey());
+    }
+    
+    @Test
+    public void testInvalidValueSkipped() throws Exception {
+        List<Value> values = new ArrayList<>();
+        values.add(uids(1, "uid1"));
+        values.add(new Value("not a uid list".getBytes()));
+        values.add(uids(1, "uid2"));
+        assertSameAsExpected(values);
+    }
+    
+    @Test
+    public void testRandomSequences() throws Exception {
+        Random random = new Random(12345);
+        for (int run = 0; run < 500; run++) {
+            List<Value> values = new ArrayList<>();
+            int numValues = 1 + random.nextInt(10);
+            for (int i = 0; i < numValues; i++) {
+                String[] ids = new String[1 + random.nextInt(4)];
+                for (int j = 0; j < ids.length; j++) {
+                    ids[j] = "uid" + random.nextInt(25);
+                }
+                switch (random.nextInt(4)) {
+                    case 0:
+                        values.add(removals(ids));
+                        break;
+                    case 1:
+                        values.add(quarantine(ids));
+                        break;
+                    case 2:
+                        values.add(release(ids));
+                        break;
+                    default:
+                        values.add(uids(ids.length, ids));
+                        break;
+                }
+            }
+            assertSameAsExpected(values);
+        }
+    }
+}
@@ -86,7 +86,7 @@ public class NGramTokenizationStrategyTest {
         int expectedNGramCount = BloomFilterUtil.predictNGramCount(fieldValue, NGramTokenizationStrategy.DEFAULT_MAX_NGRAM_LENGTH);
         
         // Set expectations
-        expect(this.filter.apply(isA(String.class))).andReturn(true).times(expectedNGramCount);
+        expect(this.filter.put(isA(String.class))).andReturn(true).times(expectedNGramCount);
         
         // Run the test
         PowerMock.replayAll();
@@ -108,7 +108,7 @@ public class NGramTokenizationStrategyTest {
         int expectedNGramCount = BloomFilterUtil.predictNGramCount(fieldValue, AbstractNGramTokenizationStrategy.DEFAULT_MAX_NGRAM_LENGTH);
         
         // Set expectations
-        expect(this.filter.apply(isA(String.class))).andReturn(true).times(expectedNGramCount);
+        expect(this.filter.put(isA(String.class))).andReturn(true).times(expectedNGramCount);
         
         // Run the test
         PowerMock.replayAll();
@@ -185,7 +185,7 @@ public class NGramTokenizationStrategyTest {
         final NormalizedContentInterface nci = new NormalizedFieldAndValue("TEST", "test");
         
         // Set expectations
-        expect(this.filter.apply(isA(String.class))).andReturn(true); // Only first token is applied before a thread sleep
+        expect(this.filter.put(isA(String.class))).andReturn(true); // Only first token is applied before a thread sleep
                                                                       // in the substrategy triggers a TimeoutException to be
                                                                       // thrown by the parent TimeoutTokenizationStrategy
         
@@ -231,7 +231,7 @@ public class NGramTokenizationStrategyTest {
         }
         
         // Set expectations
-        expect(this.filter.apply(isA(String.class))).andReturn(true).times(expectedNGramCount);
+        expect(this.filter.put(isA(String.class))).andReturn(true).times(expectedNGramCount);
         
         // Run the test
         PowerMock.replayAll();
@@ -289,7 +289,7 @@ public class NGramTokenizationStrategyTest {
         expectedNGramCount = (expectedNGramCount > maxAllowedNgrams) ? maxAllowedNgrams : expectedNGramCount;
         
         // Set expectations
-        expect(this.filter.apply(isA(String.class))).andReturn(true).times(expectedNGramCount - 4, idealFilterSize); // Allow for rounding errors
+        expect(this.filter.put(isA(String.class))).andReturn(true).times(expectedNGramCount - 4, idealFilterSize); // Allow for rounding errors
         
         // Run the test
         PowerMock.replayAll();
@@ -375,7 +375,7 @@ public class NGramTokenizationStrategyTest {
         expectedNGramCount = (expectedNGramCount > maxAllowedNgrams) ? maxAllowedNgrams : expectedNGramCount;
         
         // Set expectations
-        expect(this.filter.apply(isA(String.class))).andReturn(true).times(expectedNGramCount - 4, idealFilterSize); // Allow for rounding errors
+        expect(this.filter.put(isA(String.class))).andReturn(true).times(expectedNGramCount - 4, idealFilterSize); // Allow for rounding errors
         
         // Run the test
         PowerMock.replayAll();
@@ -448,7 +448,7 @@ public class NGramTokenizationStrategyTest {
         expectedNGramCount = (expectedNGramCount > maxAllowedNgrams) ? maxAllowedNgrams : expectedNGramCount;
         
         // Set expectations
-        expect(this.filter.apply(isA(String.class))).andReturn(true).times(expectedNGramCount - 10, idealFilterSize); // Allow for rounding errors
+        expect(this.filter.put(isA(String.class))).andReturn(true).times(expectedNGramCount - 10, idealFilterSize); // Allow for rounding errors
         
         // Run the test
         PowerMock.replayAll();
@@ -515,7 +515,7 @@ public class NGramTokenizationStrategyTest {
         PowerMock.mockStaticPartial(ResourceAvailabilityUtil.class, "isDiskAvailable");
         expect(ResourceAvailabilityUtil.isDiskAvailable("/", .05f)).andReturn(true).times(1);
         expect(ResourceAvailabilityUtil.isDiskAvailable("/", .05f)).andReturn(false).times(1);
-        expect(this.filter.apply(isA(String.class))).andReturn(true).anyTimes(); // Allow for timeout
+        expect(this.filter.put(isA(String.class))).andReturn(true).anyTimes(); // Allow for timeout
         this.logger.warn(isA(String.class), isA(LowDiskSpaceException.class));
         
         // Run the test
@@ -5,6 +5,7 @@ import com.google.common.collect.Multimap;
 import datawave.data.type.Type;
 import datawave.ingest.data.RawRecordContainer;
 import datawave.ingest.data.config.CSVHelper;
+import datawave.ingest.data.config.CSVLineScanner;
 import datawave.ingest.data.config.NormalizedContentInterface;
 import datawave.ingest.data.config.NormalizedFieldAndValue;
 import datawave.ingest.data.config.ingest.CSVIngestHelper;
@@ -138,6 +139,21 @@ public class ExtendedCSVIngestHelper extends CSVIngestHelper {
         return tokenizer.setTrimmerMatcher(StrMatcher.noneMatcher());
     }
     
+    @Override
+    protected CSVLineScanner createLineScanner() {
+        // as with the tokenizer, trim the start of the record in scanRawData instead
+        return super.createLineScanner().setTrimmed(false);
+    }
+    
+    @Override
+    protected void scanRawData(CSVLineScanner scanner, byte[] data) {
+        int index = 0;
+        while (index < data.length && (data[index] & 0xff) <= 32) {
+            index++;
+        }
+        scanner.scan(data, index, data.length - index);
+    }
+    
     @Override
     protected String preProcessRawData(byte[] data) {
         String buf = new String(data);
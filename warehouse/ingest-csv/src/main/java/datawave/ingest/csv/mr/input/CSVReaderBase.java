@@ -2,6 +2,7 @@ package datawave.ingest.csv.mr.input;
 
 import datawave.ingest.data.RawRecordContainer;
 import datawave.ingest.data.config.CSVHelper;
+import datawave.ingest.data.config.CSVLineScanner;
 import datawave.data.hash.UID;
 import datawave.ingest.input.reader.EventRecordReader;
 import datawave.ingest.input.reader.LongLineEventRecordReader;
@@ -19,6 +20,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * RecordReader that reads events from "Comma"-Separated-Value formats. Here the "Comma" can be any separator.
@@ -45,6 +47,12 @@ public class CSVReaderBase extends LongLineEventRecordReader implements EventRec
     /** Splits raw input records Strings according to the configured separator. */
     private StrTokenizer _tokenizer;
     
+    /** Splits raw input record bytes according to the configured separator, when the fast parse is enabled. */
+    private CSVLineScanner _scanner;
+    
+    /** Whether each header field is needed by this reader, resolved on first use. */
+    private boolean[] _neededFields;
+    
     /** Super class returns the position in bytes in the file as the key. This returns the record number. */
     @Override
     public LongWritable getCurrentKey() {
@@ -100,6 +108,8 @@ public class CSVReaderBase extends LongLineEventRecordReader implements EventRec
     
     public void initializeTokenizer() {
         _tokenizer = createTokenizer();
+        _scanner = csvHelper.newLineScanner();
+        _neededFields = null;
     }
     
     /** Creates a CVSHelper for the RecordReader. */
@@ -119,42 +129,54 @@ public class CSVReaderBase extends LongLineEventRecordReader implements EventRec
         
         processedSize += value.getLength();
         
-        final String rawEventRecordStr = value.toString();
-        _tokenizer.reset(rawEventRecordStr);
-        
-        final String[] rawEventFields = _tokenizer.getTokenArray();
         final String[] header = csvHelper.getHeader();
         
         // If the event date field name is not specified in the configuration, then set the event date to the file modification time.
         if (StringUtils.isEmpty(eventDateFieldName))
             event.setDate(fileModificationTime);
         
-        // We still try to process the event record.
-        final int fields = Math.min(rawEventFields.length, header.length);
-        String field, fieldName;
-        int i;
+        final int dataFields;
+        final byte[] rawData;
         
-        for (i = 0; i < fields; i++) {
-            field = StringEscapeUtils.unescapeCsv(rawEventFields[i]);
-            fieldName = header[i];
+        if (csvHelper.isFastParse()) {
+            dataFields = processScannedFields(header);
+            rawData = Arrays.copyOf(value.getBytes(), value.getLength());
+        } else {
+            final String rawEventRecordStr = value.toString();
+            _tokenizer.reset(rawEventRecordStr);
             
-            field = csvHelper.clean(fieldName, field);
-            if (field != null)
-                processPreSplitField(fieldName, field);
-        }
-        
-        // Check to see if we have data beyond the header specification that should be processed. This is the case for the CSV logs
-        if (csvHelper.processExtraFields() && rawEventFields.length > header.length) {
-            while (i < rawEventFields.length) {
-                processExtraField(rawEventFields[i]);
-                i++;
+            final String[] rawEventFields = _tokenizer.getTokenArray();
+            
+            // We still try to process the event record.
+            final int fields = Math.min(rawEventFields.length, header.length);
+            String field, fieldName;
+            int i;
+            
+            for (i = 0; i < fields; i++) {
+                field = StringEscapeUtils.unescapeCsv(rawEventFields[i]);
+                fieldName = header[i];
+                
+                field = csvHelper.clean(fieldName, field);
+                if (field != null)
+                    processPreSplitField(fieldName, field);
             }
+            
+            // Check to see if we have data beyond the header specification that should be processed. This is the case for the CSV logs
+            if (csvHelper.processExtraFields() && rawEventFields.length > header.length) {
+                while (i < rawEventFields.length) {
+                    processExtraField(rawEventFields[i]);
+                    i++;
+                }
+            }
+            
+            dataFields = rawEventFields.length;
+            rawData = rawEventRecordStr.getBytes();
         }
         
         // decorate with additional data (used by overriding classes)
         decorateEvent();
         
-        event.setRawData(rawEventRecordStr.getBytes());
+        event.setRawData(rawData);
         
         // Check to see if we need to override the UID. The use case for this is that some of the hashes are "enrichment" and the same
         // values will be loaded over and over again. By default, the UID is calculated on the raw byte[]
@@ -167,17 +189,80 @@ public class CSVReaderBase extends LongLineEventRecordReader implements EventRec
         
         enforcePolicy(event);
         
-        if (header.length > rawEventFields.length) {
+        if (header.length > dataFields) {
             event.addError(RawDataErrorNames.NOT_ENOUGH_FIELDS);
-            log.error("More fields in header than in data. Header fields: {}, data fields: {}", header.length, rawEventFields.length);
-        } else if ((!csvHelper.processExtraFields()) && (header.length < rawEventFields.length)) {
+            log.error("More fields in header than in data. Header fields: {}, data fields: {}", header.length, dataFields);
+        } else if ((!csvHelper.processExtraFields()) && (header.length < dataFields)) {
             event.addError(RawDataErrorNames.TOO_MANY_FIELDS);
-            log.error("More fields in data than in header. Header fields: {}, data fields: {}", header.length, rawEventFields.length);
+            log.error("More fields in data than in header. Header fields: {}, data fields: {}", header.length, dataFields);
         }
         
         return event;
     }
     
+    /**
+     * Split the current record with the scanner and process its fields, only creating the values of the header fields that are needed by this reader
+     *
+     * @param header
+     *            the header
+     * @return the number of fields in the record
+     */
+    private int processScannedFields(final String[] header) {
+        final int columns = _scanner.scan(value.getBytes(), 0, value.getLength());
+        
+        if (_neededFields == null) {
+            _neededFields = new boolean[header.length];
+            for (int i = 0; i < header.length; i++) {
+                _neededFields[i] = isHeaderFieldNeeded(header[i]);
+            }
+        }
+        
+        final int fields = Math.min(columns, header.length);
+        String field;
+        int i;
+        
+        for (i = 0; i < fields; i++) {
+            if (_neededFields[i]) {
+                field = StringEscapeUtils.unescapeCsv(_scanner.getString(i));
+                field = csvHelper.clean(header[i], field);
+                if (field != null)
+                    processPreSplitField(header[i], field);
+            }
+        }
+        
+        if (csvHelper.processExtraFields() && columns > header.length) {
+            while (i < columns) {
+                processExtraField(_scanner.getString(i));
+                i++;
+            }
+        }
+        
+        return columns;
+    }
+    
+    private boolean isHeaderFieldNeeded(final String fieldName) {
+        if (isFieldNeeded(fieldName)) {
+            return true;
+        }
+        // multi-valued fields may be renamed before they are checked
+        return csvHelper.isMultiValuedField(fieldName) && !csvHelper.usingMultiValuedFieldsBlacklist()
+                        && isFieldNeeded(csvHelper.getMultiValuedFields().get(fieldName));
+    }
+    
+    /**
+     * Whether the value of a header field is used while reading the record, e.g. for the event date or UID. Only used when the fast parse is enabled, where the
+     * values of the header fields that are not needed are never created. Classes that act on other fields in {@link #checkField(String, String)} must include
+     * them here.
+     *
+     * @param fieldName
+     *            the field name
+     * @return true if the field is needed
+     */
+    protected boolean isFieldNeeded(final String fieldName) {
+        return fieldName.equals(eventDateFieldName) || uidOverrideFields.containsKey(fieldName) || (uuidFields != null && uuidFields.contains(fieldName))
+                        || csvHelper.isFieldRequired(fieldName);
+    }
+    
     /** Decorate the event with additional info post field processing but prior to event validation */
     protected void decorateEvent() { /* default is noop */}
     
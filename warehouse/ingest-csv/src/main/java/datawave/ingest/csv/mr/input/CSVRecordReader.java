@@ -206,6 +206,20 @@ public class CSVRecordReader extends CSVReaderBase implements EventFixer {
         dataTypeHelper.updateEventDataType(event, fieldName, fieldValue);
     }
     
+    @Override
+    protected boolean isFieldNeeded(String fieldName) {
+        if (super.isFieldNeeded(fieldName) || this.csvHelper.getSecurityMarkingFieldDomainMap().containsKey(fieldName)
+                        || fieldName.equals(this.csvHelper.getEventIdFieldName()) || fieldName.equals(this.dataTypeHelper.getEventDataTypeFieldName())) {
+            return true;
+        }
+        for (EventValidator validator : this.csvHelper.getValidators()) {
+            if (validator.validated(fieldName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * Overridden to create a UID with appropriate extra attachment info
      */
@@ -0,0 +1,153 @@
+package datawave.ingest.csv.mr.input;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import datawave.ingest.csv.config.helper.ExtendedCSVIngestHelper;
+import datawave.ingest.csv.mr.handler.ColumnBasedHandlerTestUtil;
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.TypeRegistry;
+import datawave.ingest.data.config.CSVHelper;
+import datawave.ingest.data.config.NormalizedContentInterface;
+import datawave.ingest.data.config.ingest.CSVIngestHelper;
+import datawave.ingest.data.config.ingest.IngestHelperInterface;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Multimap;
+
+/**
+ * Reads the same records with and without {@link CSVHelper#FAST_PARSE}, and verifies that the reader and the ingest helpers produce the same events and
+ * fields either way.
+ */
+public class CSVRecordReaderTest {
+    
+    private static final String INPUT = "/input/fast-parse.csv";
+    
+    private List<Map<String,Object>> defaultRecords;
+    private List<Map<String,Object>> fastRecords;
+    
+    @Before
+    public void setup() throws Exception {
+        defaultRecords = readRecords(false);
+        fastRecords = readRecords(true);
+    }
+    
+    @Test
+    public void testReaderMatchesDefaultParse() {
+        Assert.assertEquals(4, defaultRecords.size());
+        Assert.assertEquals(defaultRecords.size(), fastRecords.size());
+        for (int i = 0; i < defaultRecords.size(); i++) {
+            Assert.assertEquals("record " + (i + 1), defaultRecords.get(i).get("event"), fastRecords.get(i).get("event"));
+        }
+    }
+    
+    @Test
+    public void testIngestHelpersMatchDefaultParse() {
+        for (int i = 0; i < defaultRecords.size(); i++) {
+            Assert.assertEquals("record " + (i + 1), defaultRecords.get(i).get("csv"), fastRecords.get(i).get("csv"));
+            Assert.assertEquals("record " + (i + 1), defaultRecords.get(i).get("extended"), fastRecords.get(i).get("extended"));
+        }
+    }
+    
+    @Test
+    public void testQuotedFields() {
+        Map<String,TreeSet<String>> fields = getFields(fastRecords.get(1), "extended");
+        Assert.assertTrue(fields.get("EVENT_ID").toString(), fields.get("EVENT_ID").toString().startsWith("[trrn.n2016117aamy.0000000180 -> "));
+        // the separator and escaped quotes within the quoted fields are kept in the values
+        String values = fields.values().toString();
+        Assert.assertTrue(values, values.contains("MIME \"BODY\", PART -> "));
+        Assert.assertTrue(values, values.contains("a summary, with a comma -> "));
+    }
+    
+    @Test
+    public void testEmptyTrailingFields() {
+        Map<String,TreeSet<String>> fields = getFields(fastRecords.get(2), "csv");
+        Assert.assertTrue(fields.containsKey("ORIGINAL_SIZE"));
+        Assert.assertFalse(fields.containsKey("PROCESSED_SIZE"));
+        Assert.assertFalse(fields.containsKey("SECURITY_MARKING"));
+        Assert.assertTrue(fields.containsKey("EVENT_DATE"));
+    }
+    
+    @Test
+    public void testSecurityMarkings() {
+        Assert.assertEquals("{columnVisibility=PUBLIC}", getEvent(fastRecords.get(0)).get("markings"));
+        Assert.assertEquals("{columnVisibility=PUBLIC}", getEvent(fastRecords.get(1)).get("markings"));
+        Assert.assertEquals("{columnVisibility=PRIVATE}", getEvent(fastRecords.get(3)).get("markings"));
+    }
+    
+    private List<Map<String,Object>> readRecords(boolean fastParse) throws IOException, URISyntaxException, InterruptedException {
+        Configuration conf = new Configuration();
+        conf.addResource(ClassLoader.getSystemResource("config/ingest/all-config.xml"));
+        conf.addResource(ClassLoader.getSystemResource("config/ingest/csv-ingest-config.xml"));
+        conf.setBoolean("mycsv" + CSVHelper.FAST_PARSE, fastParse);
+        TypeRegistry.reset();
+        TypeRegistry.getInstance(conf);
+        
+        CSVIngestHelper csvHelper = new CSVIngestHelper();
+        csvHelper.setup(conf);
+        ExtendedCSVIngestHelper extendedHelper = new ExtendedCSVIngestHelper();
+        extendedHelper.setup(conf);
+        
+        List<Map<String,Object>> records = new ArrayList<>();
+        CSVRecordReader reader = new CSVRecordReader();
+        try {
+            reader.initialize(ColumnBasedHandlerTestUtil.getSplit(INPUT), new TaskAttemptContextImpl(conf, new TaskAttemptID()));
+            while (reader.nextKeyValue()) {
+                // the reader reuses the event, so capture what it holds now
+                RawRecordContainer event = reader.getEvent();
+                Map<String,Object> record = new TreeMap<>();
+                record.put("event", describe(event));
+                record.put("csv", describe(csvHelper, event));
+                record.put("extended", describe(extendedHelper, event));
+                records.add(record);
+            }
+        } finally {
+            reader.close();
+        }
+        return records;
+    }
+    
+    private static Map<String,Object> describe(RawRecordContainer event) {
+        Map<String,Object> description = new TreeMap<>();
+        description.put("rawData", new String(event.getRawData()));
+        description.put("id", String.valueOf(event.getId()));
+        description.put("dataType", event.getDataType().typeName());
+        description.put("date", event.getDate());
+        description.put("markings", String.valueOf(event.getSecurityMarkings() == null ? null : new TreeMap<>(event.getSecurityMarkings())));
+        description.put("visibility", String.valueOf(event.getVisibility()));
+        description.put("errors", event.getErrors() == null ? null : new TreeSet<>(event.getErrors()));
+        description.put("altIds", event.getAltIds() == null ? null : new TreeSet<>(event.getAltIds()));
+        return description;
+    }
+    
+    private static Map<String,TreeSet<String>> describe(IngestHelperInterface helper, RawRecordContainer event) {
+        Multimap<String,NormalizedContentInterface> fields = helper.getEventFields(event);
+        Map<String,TreeSet<String>> description = new TreeMap<>();
+        for (Map.Entry<String,NormalizedContentInterface> field : fields.entries()) {
+            description.computeIfAbsent(field.getKey(), k -> new TreeSet<>()).add(
+                            field.getValue().getEventFieldValue() + " -> " + field.getValue().getIndexedFieldValue());
+        }
+        return description;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String,Object> getEvent(Map<String,Object> record) {
+        return (Map<String,Object>) record.get("event");
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String,TreeSet<String>> getFields(Map<String,Object> record, String helper) {
+        return (Map<String,TreeSet<String>>) record.get(helper);
+    }
+}
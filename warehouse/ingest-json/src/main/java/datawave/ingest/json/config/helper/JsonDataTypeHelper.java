@@ -21,16 +21,19 @@ public class JsonDataTypeHelper extends CSVHelper {
         
         String COLUMN_VISIBILITY_FIELD = ".data.category.marking.visibility.field";
         String FLATTENER_MODE = ".data.json.flattener.mode";
+        String FLATTENER_STREAMING = ".data.json.flattener.streaming";
         
     }
     
     protected String columnVisibilityField = null;
     protected FlattenMode jsonObjectFlattenMode = FlattenMode.NORMAL;
+    protected boolean jsonObjectFlattenStreaming = false;
     
     @Override
     public void setup(Configuration config) throws IllegalArgumentException {
         super.setup(config);
         this.setJsonObjectFlattenModeByName(config.get(this.getType().typeName() + Properties.FLATTENER_MODE, FlattenMode.NORMAL.name()));
+        this.setJsonObjectFlattenStreaming(config.getBoolean(this.getType().typeName() + Properties.FLATTENER_STREAMING, false));
         this.setColumnVisibilityField(config.get(this.getType().typeName() + Properties.COLUMN_VISIBILITY_FIELD));
     }
     
@@ -54,6 +57,17 @@ public class JsonDataTypeHelper extends CSVHelper {
         this.jsonObjectFlattenMode = mode;
     }
     
+    /**
+     * @return true, if json objects should be flattened directly from the token stream rather than from a parsed object tree
+     */
+    public boolean isJsonObjectFlattenStreaming() {
+        return this.jsonObjectFlattenStreaming;
+    }
+    
+    public void setJsonObjectFlattenStreaming(boolean streaming) {
+        this.jsonObjectFlattenStreaming = streaming;
+    }
+    
     public JsonObjectFlattener newFlattener() {
         
         // Set flattener's whitelist and blacklist according to current state of the helper
@@ -3,7 +3,9 @@ package datawave.ingest.json.config.helper;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 import datawave.ingest.data.RawRecordContainer;
 import datawave.ingest.data.config.NormalizedContentInterface;
 import datawave.ingest.data.config.NormalizedFieldAndValue;
@@ -13,6 +15,9 @@ import datawave.ingest.json.util.JsonObjectFlattener;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.log4j.Logger;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.Map;
 
 /**
@@ -42,14 +47,36 @@ public class JsonIngestHelper extends ContentBaseIngestHelper {
             throw new IllegalStateException("JsonObjectFlattener was not initialized. Method 'setup' must be invoked first");
         }
         
+        return normalizeMap(getGroupNormalizedMap(getFlattenedFields(event)));
+    }
+    
+    /**
+     * Flattens the raw json of the event. When streaming is enabled, the fields are flattened directly from the raw bytes in the same way as the record reader
+     * does, so that a name repeated within an object yields the same fields here as it did there
+     *
+     * @param event
+     *            the event whose raw data holds the json object
+     * @return the flattened field names and values
+     */
+    protected HashMultimap<String,String> getFlattenedFields(RawRecordContainer event) {
         HashMultimap<String,String> fields = HashMultimap.create();
-        String jsonString = new String(event.getRawData());
         
-        JsonParser parser = new JsonParser();
-        JsonElement jsonElement = parser.parse(jsonString);
-        flattener.flatten(jsonElement.getAsJsonObject(), fields);
+        if (helper.isJsonObjectFlattenStreaming()) {
+            try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(event.getRawData())))) {
+                reader.setLenient(true);
+                flattener.flatten(reader, fields, null);
+            } catch (IOException e) {
+                throw new JsonIOException(e);
+            }
+        } else {
+            String jsonString = new String(event.getRawData());
+            
+            JsonParser parser = new JsonParser();
+            JsonElement jsonElement = parser.parse(jsonString);
+            flattener.flatten(jsonElement.getAsJsonObject(), fields);
+        }
         
-        return normalizeMap(getGroupNormalizedMap(fields));
+        return fields;
     }
     
     protected Multimap<String,NormalizedContentInterface> getGroupNormalizedMap(HashMultimap<String,String> fields) {
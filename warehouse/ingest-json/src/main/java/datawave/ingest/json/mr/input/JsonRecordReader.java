@@ -3,6 +3,7 @@ package datawave.ingest.json.mr.input;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringWriter;
 import java.net.URI;
 import java.util.Iterator;
 import java.util.Map;
@@ -15,6 +16,7 @@ import com.google.gson.JsonParser;
 import com.google.gson.stream.JsonReader;
 
 import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import datawave.data.hash.UID;
 import datawave.ingest.data.RawRecordContainer;
 import datawave.ingest.data.config.DataTypeHelper;
@@ -78,6 +80,12 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
     protected JsonDataTypeHelper jsonHelper = null;
     protected JsonObjectFlattener jsonFlattener = null;
     
+    // Streaming mode stuff, where objects are flattened directly from the reader and the raw json is echoed as it is read
+    
+    protected boolean streaming = false;
+    protected boolean inRootArray = false;
+    protected final StringWriter currentJson = new StringWriter();
+    
     @Override
     public void close() throws IOException {
         reader.close();
@@ -92,8 +100,10 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
     
     @Override
     public BytesWritable getCurrentValue() {
-        if (currentJsonObj != null) {
-            return new BytesWritable(currentJsonObj.toString().getBytes());
+        if (streaming) {
+            return currentJson.getBuffer().length() > 0 ? new BytesWritable(getCurrentJson().getBytes()) : null;
+        } else if (currentJsonObj != null) {
+            return new BytesWritable(getCurrentJson().getBytes());
         } else {
             return null;
         }
@@ -133,18 +143,16 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
         
         String normURI = fileURI.getScheme() + "://" + fileURI.getPath();
         
-        setupReader(is);
-        
-        if (logger.isInfoEnabled()) {
-            logger.info("Reading Json records from " + normURI + " via " + is.getClass().getName());
-        }
-        
         jsonHelper = (JsonDataTypeHelper) createHelper(context.getConfiguration());
         this.parseHeaderOnly = !jsonHelper.processExtraFields();
+        this.streaming = jsonHelper.isJsonObjectFlattenStreaming();
         jsonFlattener = jsonHelper.newFlattener();
         
+        setupReader(is);
+        
         if (logger.isInfoEnabled()) {
-            logger.info("Json flattener mode: " + jsonFlattener.getFlattenMode().name());
+            logger.info("Reading Json records from " + normURI + " via " + is.getClass().getName());
+            logger.info("Json flattener mode: " + jsonFlattener.getFlattenMode().name() + (streaming ? " (streaming)" : ""));
         }
     }
     
@@ -152,7 +160,9 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
         countingInputStream = new CountingInputStream(is);
         reader = new JsonReader(new InputStreamReader(countingInputStream));
         reader.setLenient(true);
-        setupIterator(reader);
+        if (!streaming) {
+            setupIterator(reader);
+        }
     }
     
     protected void setupIterator(JsonReader reader) {
@@ -180,6 +190,10 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
         currentValue.clear();
         counter++;
         
+        if (streaming) {
+            return nextStreamedKeyValue();
+        }
+        
         if (!jsonIterator.hasNext()) {
             /*
              * Note that for streaming purposes we support files containing multiple distinct json objects concatenated together, where each object will
@@ -210,6 +224,52 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
         return false;
     }
     
+    /**
+     * Flattens the next object directly from the reader, without building the object tree. As with the tree-based parsing, the input may be a single object,
+     * an array of objects, or any number of either concatenated together
+     *
+     * @return true, if an object was read
+     * @throws IOException
+     *             if the object could not be read
+     */
+    protected boolean nextStreamedKeyValue() throws IOException {
+        
+        currentJson.getBuffer().setLength(0);
+        
+        while (true) {
+            if (inRootArray) {
+                if (reader.hasNext()) {
+                    break;
+                }
+                reader.endArray();
+                inRootArray = false;
+            }
+            JsonToken token = reader.peek();
+            if (token == JsonToken.END_DOCUMENT) {
+                return false;
+            } else if (token == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                inRootArray = true;
+            } else {
+                break;
+            }
+        }
+        
+        JsonWriter echo = new JsonWriter(currentJson);
+        echo.setLenient(true);
+        jsonFlattener.flatten(reader, currentValue, echo);
+        echo.flush();
+        pos = countingInputStream.getCount();
+        return true;
+    }
+    
+    /**
+     * @return the current json object in its serialized form
+     */
+    protected String getCurrentJson() {
+        return streaming ? currentJson.toString() : currentJsonObj.toString();
+    }
+    
     @Override
     public RawRecordContainer getEvent() {
         super.getEvent();
@@ -228,7 +288,7 @@ public class JsonRecordReader extends AbstractEventRecordReader<BytesWritable> {
         
         decorateEvent();
         
-        event.setRawData(currentJsonObj.toString().getBytes());
+        event.setRawData(getCurrentJson().getBytes());
         
         if (0 == event.getDate()) {
             event.setDate(System.currentTimeMillis());
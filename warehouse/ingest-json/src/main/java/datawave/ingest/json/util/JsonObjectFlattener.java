@@ -2,7 +2,12 @@ package datawave.ingest.json.util;
 
 import com.google.common.collect.Multimap;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.internal.Streams;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.IOException;
 import java.util.Set;
 
 /**
@@ -97,6 +102,30 @@ public interface JsonObjectFlattener {
      */
     void flatten(JsonObject object, Multimap<String,String> map) throws IllegalStateException, NullPointerException;
     
+    /**
+     * Flattens the next json object available from the specified reader. By default the object is parsed into a {@link JsonObject} and passed to
+     * {@link #flatten(JsonObject, Multimap)}, but implementations may override this to flatten directly from the token stream without building the tree.
+     * 
+     * @param reader
+     *            {@link JsonReader} positioned at the start of the object to flatten. On return, it will be positioned just after the end of the object
+     * @param map
+     *            {@link com.google.common.collect.Multimap} instance to receive the flattened keys and associated values
+     * @param echo
+     *            (optional) {@link JsonWriter} to receive a copy of the object as it is read, e.g., to retain the raw json without reserializing a tree
+     * @throws IOException
+     *             if the object could not be read
+     * @throws IllegalStateException
+     *             if the next value in the reader is not an object, or if {@link FlattenMode#GROUPED} is used and {@link Builder#pathDelimiter} is found to
+     *             exist already within a json property name
+     */
+    default void flatten(JsonReader reader, Multimap<String,String> map, JsonWriter echo) throws IOException, IllegalStateException {
+        JsonObject object = new JsonParser().parse(reader).getAsJsonObject();
+        if (null != echo) {
+            Streams.write(object, echo);
+        }
+        flatten(object, map);
+    }
+    
     /**
      * <p>
      * Allows clients to specify custom normalization behavior per their needs to affect the final presentation of flattened keys and their values to the
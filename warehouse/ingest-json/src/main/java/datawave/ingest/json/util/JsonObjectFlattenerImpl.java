@@ -7,7 +7,12 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -100,6 +105,24 @@ public class JsonObjectFlattenerImpl implements JsonObjectFlattener {
         addKeysToMap("", object, map, occurrenceCounts);
     }
     
+    /**
+     * Flattens the next object directly from the token stream, applying the same rules as {@link #flatten(JsonObject, Multimap)} without materializing the
+     * object tree. The one difference is that all occurrences of a name repeated within the same object are flattened, whereas the object tree retains only the
+     * last.
+     */
+    @Override
+    public void flatten(JsonReader reader, Multimap<String,String> map, JsonWriter echo) throws IOException, IllegalStateException {
+        Preconditions.checkNotNull(map, "'map' argument cannot be null");
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            throw new IllegalStateException("Expected a json object but was " + reader.peek());
+        }
+        Map<String,Integer> occurrenceCounts = null;
+        if (this.flattenMode == FlattenMode.GROUPED || this.flattenMode == FlattenMode.GROUPED_AND_NORMAL) {
+            occurrenceCounts = new HashMap<>();
+        }
+        addKeysToMap("", reader, echo, map, occurrenceCounts);
+    }
+    
     @Override
     public FlattenMode getFlattenMode() {
         return this.flattenMode;
@@ -160,6 +183,188 @@ public class JsonObjectFlattenerImpl implements JsonObjectFlattener {
         }
     }
     
+    /**
+     * Streaming equivalent of {@link #addKeysToMap(String, JsonElement, Multimap, Map)}, consuming the next value from the reader
+     */
+    protected void addKeysToMap(String currentPath, JsonReader reader, JsonWriter echo, Multimap<String,String> map, Map<String,Integer> occurrenceCounts)
+                    throws IOException {
+        
+        switch (reader.peek()) {
+            case NULL:
+                // Don't add nulls
+                reader.nextNull();
+                if (null != echo) {
+                    echo.nullValue();
+                }
+                break;
+            case BEGIN_OBJECT:
+                
+                switch (this.flattenMode) {
+                    case SIMPLE:
+                        if (!currentPath.isEmpty()) {
+                            // No recursion in simple mode
+                            skipValue(reader, echo);
+                            return;
+                        }
+                        break;
+                    case GROUPED:
+                    case GROUPED_AND_NORMAL:
+                        if (!currentPath.isEmpty()) {
+                            // Append occurrence delimiter + ordinal suffix
+                            currentPath = currentPath + this.occurrenceDelimiter + incrementCount(currentPath, occurrenceCounts);
+                        }
+                        break;
+                }
+                
+                String pathPrefix = currentPath.isEmpty() ? currentPath : currentPath + this.pathDelimiter;
+                
+                reader.beginObject();
+                if (null != echo) {
+                    echo.beginObject();
+                }
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (null != echo) {
+                        echo.name(name);
+                    }
+                    addKeysToMap(pathPrefix + this.nameNormalizer.normalizeElementName(name, currentPath), reader, echo, map, occurrenceCounts);
+                }
+                reader.endObject();
+                if (null != echo) {
+                    echo.endObject();
+                }
+                break;
+            case BEGIN_ARRAY:
+                
+                reader.beginArray();
+                if (null != echo) {
+                    echo.beginArray();
+                }
+                for (int i = 0; reader.hasNext(); i++) {
+                    
+                    switch (reader.peek()) {
+                        case STRING:
+                        case NUMBER:
+                        case BOOLEAN:
+                            mapPut(currentPath, nextPrimitive(reader, echo), map, occurrenceCounts);
+                            break;
+                        default:
+                            if (this.addArrayIndexToFieldName) {
+                                addKeysToMap(currentPath + this.pathDelimiter + i, reader, echo, map, occurrenceCounts);
+                            } else {
+                                addKeysToMap(currentPath, reader, echo, map, occurrenceCounts);
+                            }
+                    }
+                }
+                reader.endArray();
+                if (null != echo) {
+                    echo.endArray();
+                }
+                break;
+            default:
+                mapPut(currentPath, nextPrimitive(reader, echo), map, occurrenceCounts);
+        }
+    }
+    
+    /**
+     * Reads the next primitive value as a string, with numbers retaining their original literal form as {@link JsonPrimitive#getAsString()} does
+     */
+    private static String nextPrimitive(JsonReader reader, JsonWriter echo) throws IOException {
+        switch (reader.peek()) {
+            case BOOLEAN:
+                boolean bool = reader.nextBoolean();
+                if (null != echo) {
+                    echo.value(bool);
+                }
+                return Boolean.toString(bool);
+            case NUMBER:
+                String number = reader.nextString();
+                if (null != echo) {
+                    echo.value(new NumberLiteral(number));
+                }
+                return number;
+            default:
+                String string = reader.nextString();
+                if (null != echo) {
+                    echo.value(string);
+                }
+                return string;
+        }
+    }
+    
+    /**
+     * Skips the next value, copying it to the echo writer if there is one
+     */
+    private static void skipValue(JsonReader reader, JsonWriter echo) throws IOException {
+        if (null == echo) {
+            reader.skipValue();
+            return;
+        }
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                echo.beginObject();
+                while (reader.hasNext()) {
+                    echo.name(reader.nextName());
+                    skipValue(reader, echo);
+                }
+                reader.endObject();
+                echo.endObject();
+                break;
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                echo.beginArray();
+                while (reader.hasNext()) {
+                    skipValue(reader, echo);
+                }
+                reader.endArray();
+                echo.endArray();
+                break;
+            case NULL:
+                reader.nextNull();
+                echo.nullValue();
+                break;
+            default:
+                nextPrimitive(reader, echo);
+        }
+    }
+    
+    /**
+     * Writes a number exactly as it appeared in the input, so that echoed json matches the serialized form of the parsed tree
+     */
+    private static class NumberLiteral extends Number {
+        private final String literal;
+        
+        NumberLiteral(String literal) {
+            this.literal = literal;
+        }
+        
+        @Override
+        public int intValue() {
+            return (int) longValue();
+        }
+        
+        @Override
+        public long longValue() {
+            return new BigDecimal(literal).longValue();
+        }
+        
+        @Override
+        public float floatValue() {
+            return Float.parseFloat(literal);
+        }
+        
+        @Override
+        public double doubleValue() {
+            return Double.parseDouble(literal);
+        }
+        
+        @Override
+        public String toString() {
+            return literal;
+        }
+    }
+    
     protected String defaultNormalizeJsonElementName(String name) {
         switch (this.flattenMode) {
             case GROUPED:
@@ -177,6 +177,53 @@ public class JsonIngestHelperTest {
         reader.close();
     }
     
+    /**
+     * With streaming enabled, the helper should flatten the raw data of each event into exactly the fields the record reader did, including nested objects
+     * and names repeated within an object
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testGetEventFieldsStreamingMatchesRecordReader() throws Exception {
+        for (FlattenMode mode : FlattenMode.values()) {
+            Configuration conf = initConfig(mode);
+            conf.set("myjson.data.json.flattener.streaming", "true");
+            JsonRecordReader reader = initReader(false, conf, "/input/repeated-keys.json");
+            reader.setInputDate(System.currentTimeMillis());
+            
+            JsonIngestHelper ingestHelper = init(conf);
+            
+            int records = 0;
+            while (reader.nextKeyValue()) {
+                RawRecordContainer event = reader.getEvent();
+                Assert.assertEquals(mode.name(), reader.getCurrentFields(), ingestHelper.getFlattenedFields(event));
+                Assert.assertFalse(mode.name(), ingestHelper.getEventFields(event).isEmpty());
+                records++;
+            }
+            Assert.assertEquals(2, records);
+            
+            reader.close();
+        }
+    }
+    
+    @Test
+    public void testGetEventFieldsStreamingRepeatedKeys() throws Exception {
+        Configuration conf = initConfig(FlattenMode.NORMAL);
+        conf.set("myjson.data.json.flattener.streaming", "true");
+        JsonIngestHelper ingestHelper = init(conf);
+        
+        RawRecordContainer event = new RawRecordContainerImpl();
+        event.setDate((new Date()).getTime());
+        event.setRawData(("{ \"HEADER_ID\" : \"ID1\", \"TAG\" : \"one\", \"TAG\" : \"two\", "
+                        + "\"OUTER\" : { \"TAG\" : \"three\", \"TAG\" : \"four\" } }").getBytes());
+        event.generateId(null);
+        
+        Multimap<String,NormalizedContentInterface> fieldMap = ingestHelper.getEventFields(event);
+        
+        Assert.assertEquals(2, fieldMap.get("TAG").size());
+        Assert.assertEquals(2, fieldMap.get("OUTER_TAG").size());
+    }
+    
     protected Configuration initConfig(FlattenMode mode) {
         Configuration conf = new Configuration();
         conf.addResource(ClassLoader.getSystemResource("config/ingest/all-config.xml"));
@@ -202,12 +249,16 @@ public class JsonIngestHelperTest {
     }
     
     protected JsonRecordReader initReader(boolean parseHeaderOnly, Configuration conf) throws Exception {
+        return initReader(parseHeaderOnly, conf, "/input/my.json");
+    }
+    
+    protected JsonRecordReader initReader(boolean parseHeaderOnly, Configuration conf, String resource) throws Exception {
         
         TaskAttemptContext ctx = null;
         InputSplit split = null;
         File dataFile = null;
         
-        URL data = JsonIngestHelperTest.class.getResource("/input/my.json");
+        URL data = JsonIngestHelperTest.class.getResource(resource);
         Assert.assertNotNull(data);
         
         conf.set("myjson.data.process.extra.fields", String.valueOf(!parseHeaderOnly));
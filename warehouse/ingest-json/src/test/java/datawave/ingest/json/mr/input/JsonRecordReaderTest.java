@@ -22,6 +22,10 @@ import org.junit.Test;
 public class JsonRecordReaderTest {
     
     protected JsonRecordReader init(boolean parseHeaderOnly, FlattenMode mode) throws Exception {
+        return init(parseHeaderOnly, mode, false);
+    }
+    
+    protected JsonRecordReader init(boolean parseHeaderOnly, FlattenMode mode, boolean streaming) throws Exception {
         
         Configuration conf = null;
         TaskAttemptContext ctx = null;
@@ -34,6 +38,7 @@ public class JsonRecordReaderTest {
         
         conf.set("myjson.data.json.flattener.mode", mode.name());
         conf.set("myjson.data.process.extra.fields", String.valueOf(!parseHeaderOnly));
+        conf.set("myjson.data.json.flattener.streaming", String.valueOf(streaming));
         
         URL data = JsonRecordReaderTest.class.getResource("/input/my.json");
         Assert.assertNotNull(data);
@@ -230,4 +235,28 @@ public class JsonRecordReaderTest {
         
         reader.close();
     }
+    
+    @Test
+    public void testStreamingMatchesTree() throws Exception {
+        for (FlattenMode mode : FlattenMode.values()) {
+            JsonRecordReader tree = init(false, mode, false);
+            JsonRecordReader streaming = init(false, mode, true);
+            tree.setInputDate(System.currentTimeMillis());
+            streaming.setInputDate(System.currentTimeMillis());
+            
+            int records = 0;
+            while (tree.nextKeyValue()) {
+                Assert.assertTrue(streaming.nextKeyValue());
+                Assert.assertEquals(mode.name(), tree.getCurrentFields(), streaming.getCurrentFields());
+                Assert.assertEquals(mode.name(), tree.getCurrentValue(), streaming.getCurrentValue());
+                Assert.assertArrayEquals(mode.name(), tree.getEvent().getRawData(), streaming.getEvent().getRawData());
+                records++;
+            }
+            Assert.assertFalse(streaming.nextKeyValue());
+            Assert.assertEquals(5, records);
+            
+            tree.close();
+            streaming.close();
+        }
+    }
 }
@@ -1,21 +1,28 @@
 package datawave.ingest.json.util;
 
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.TreeMultimap;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 
 import datawave.ingest.json.util.JsonObjectFlattener.FlattenMode;
@@ -266,6 +273,52 @@ public class JsonObjectFlattenerImplTest {
         }
     }
     
+    @Test
+    public void testStreamingMatchesTree() throws Exception {
+        String[] files = {jsonFile, "/input/my.json", "/input/tvmaze-api.json", "/input/tvmaze-seinfeld.json"};
+        for (String file : files) {
+            String content = new String(Files.readAllBytes(Paths.get(JsonObjectFlattenerImplTest.class.getResource(file).toURI())));
+            for (FlattenMode mode : FlattenMode.values()) {
+                for (boolean addArrayIndex : new boolean[] {true, false}) {
+                    JsonObjectFlattener flattener = new JsonObjectFlattenerImpl.Builder().flattenMode(mode).addArrayIndexToFieldName(addArrayIndex)
+                                    .occurrenceInGroupDelimiter("#").build();
+                    
+                    JsonReader reader = new JsonReader(new StringReader(content));
+                    reader.setLenient(true);
+                    while (reader.peek() != JsonToken.END_DOCUMENT) {
+                        JsonElement element = new JsonParser().parse(reader);
+                        for (JsonElement object : element.isJsonArray() ? element.getAsJsonArray() : Collections.singleton(element)) {
+                            Multimap<String,String> streamed = HashMultimap.create();
+                            StringWriter echo = new StringWriter();
+                            JsonWriter writer = new JsonWriter(echo);
+                            writer.setLenient(true);
+                            flattener.flatten(new JsonReader(new StringReader(object.toString())), streamed, writer);
+                            writer.flush();
+                            
+                            Assert.assertEquals(file + " " + mode, flattener.flatten(object.getAsJsonObject()), streamed);
+                            Assert.assertEquals(file + " " + mode, object.toString(), echo.toString());
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testStreamingKeepsDuplicateNames() throws Exception {
+        JsonObjectFlattener flattener = new JsonObjectFlattenerImpl.Builder().build();
+        Multimap<String,String> fieldMap = HashMultimap.create();
+        flattener.flatten(new JsonReader(new StringReader("{\"a\":1,\"a\":2,\"b\":{\"c\":null}}")), fieldMap, null);
+        Assert.assertEquals(2, fieldMap.size());
+        Assert.assertTrue(fieldMap.containsEntry("A", "1"));
+        Assert.assertTrue(fieldMap.containsEntry("A", "2"));
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testStreamingRejectsNonObject() throws Exception {
+        new JsonObjectFlattenerImpl.Builder().build().flatten(new JsonReader(new StringReader("[1,2]")), HashMultimap.create(), null);
+    }
+    
     private void printMap(Multimap<String,String> fieldMap) {
         TreeMultimap<String,String> sorted = TreeMultimap.create(fieldMap);
         for (String key : sorted.keySet()) {
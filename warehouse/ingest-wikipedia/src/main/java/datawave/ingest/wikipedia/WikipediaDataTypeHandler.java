@@ -3,7 +3,6 @@ package datawave.ingest.wikipedia;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
-import java.util.Arrays;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -21,9 +20,9 @@ import datawave.ingest.mapreduce.ContextWrappedStatusReporter;
 import datawave.ingest.mapreduce.handler.DataTypeHandler;
 import datawave.ingest.mapreduce.handler.ExtendedDataTypeHandler;
 import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
-import datawave.ingest.mapreduce.handler.shard.content.BoundedOffsetQueue.OffsetList;
 import datawave.ingest.mapreduce.handler.shard.content.ContentIndexCounters;
 import datawave.ingest.mapreduce.handler.shard.content.TermAndZone;
+import datawave.ingest.mapreduce.handler.shard.content.TermOffsetTable;
 import datawave.ingest.mapreduce.handler.tokenize.ExtendedContentIndexingColumnBasedHandler;
 import datawave.ingest.mapreduce.job.BulkIngestKey;
 import datawave.ingest.mapreduce.job.writer.ContextWriter;
@@ -264,14 +263,14 @@ public class WikipediaDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> extends ExtendedCon
             }
             
             // now flush out the offset queue
-            if (tokenOffsetCache != null) {
-                for (OffsetList<Integer> offsets : tokenOffsetCache.offsets()) {
+            if (getTokenOffsetCache() != null) {
+                for (TermOffsetTable.Entry offsets : getTokenOffsetCache().entries()) {
                     // no need to normalize as that was already done upon insertion into the token offset cache
-                    NormalizedFieldAndValue nfv = new NormalizedFieldAndValue(offsets.termAndZone.zone, offsets.termAndZone.term);
+                    NormalizedFieldAndValue nfv = new NormalizedFieldAndValue(offsets.zone, offsets.term);
                     byte[] fieldVisibility = getVisibility(event, nfv);
                     
                     // Build the field index key/value
-                    createTermFrequencyIndex(event, contextWriter, context, this.shardId, nfv, offsets.offsets, fieldVisibility, false);
+                    createTermFrequencyIndex(event, contextWriter, context, this.shardId, nfv, offsets.offsets, offsets.size(), fieldVisibility, false);
                 }
             }
             
@@ -304,8 +303,8 @@ public class WikipediaDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> extends ExtendedCon
             throw new RuntimeException("Error processing Wikipedia document", e);
         } finally {
             counters.flush(reporter);
-            if (null != tokenOffsetCache) {
-                tokenOffsetCache.clear();
+            if (null != getTokenOffsetCache()) {
+                getTokenOffsetCache().clear();
             }
         }
         
@@ -436,7 +435,7 @@ public class WikipediaDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> extends ExtendedCon
             // Create a index normalized variant of the term and zone for indexing purposes
             TermAndZone indexedTermAndZone = new TermAndZone(nfv.getIndexedFieldValue(), nfv.getIndexedFieldName());
             
-            if ((tokenOffsetCache != null) && tokenOffsetCache.containsKey(indexedTermAndZone)) {
+            if ((getTokenOffsetCache() != null) && getTokenOffsetCache().containsKey(indexedTermAndZone.term, indexedTermAndZone.zone)) {
                 if (log.isDebugEnabled()) {
                     log.debug("Not creating index mutations for " + term + " as we've already created mutations for it.");
                 }
@@ -447,20 +446,21 @@ public class WikipediaDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> extends ExtendedCon
             }
             
             // Now add the offset to the token offset queue, and if we overflow then output the overflow
-            if (tokenOffsetCache != null) {
-                OffsetList overflow = tokenOffsetCache.addOffset(indexedTermAndZone, position);
+            if (getTokenOffsetCache() != null) {
+                TermOffsetTable.Entry overflow = getTokenOffsetCache().addOffset(indexedTermAndZone.term, indexedTermAndZone.zone, position);
                 if (overflow != null) {
                     // no need to normalize as that was already done upon insertion into the token offset cache
-                    NormalizedFieldAndValue overflowNfv = new NormalizedFieldAndValue(overflow.termAndZone.zone, overflow.termAndZone.term);
+                    NormalizedFieldAndValue overflowNfv = new NormalizedFieldAndValue(overflow.zone, overflow.term);
                     byte[] overflowFieldVisibility = getVisibility(event, overflowNfv);
                     
                     // Build the field index key/value
-                    createTermFrequencyIndex(event, contextWriter, context, this.shardId, overflowNfv, overflow.offsets, overflowFieldVisibility, false);
+                    createTermFrequencyIndex(event, contextWriter, context, this.shardId, overflowNfv, overflow.offsets, overflow.size(),
+                                    overflowFieldVisibility, false);
                     counters.increment(ContentIndexCounters.TOKENIZER_OFFSET_CACHE_OVERFLOWS, reporter);
-                    counters.incrementValue(ContentIndexCounters.TOKENIZER_OFFSET_CACHE_POSITIONS_OVERFLOWED, overflow.offsets.size(), reporter);
+                    counters.incrementValue(ContentIndexCounters.TOKENIZER_OFFSET_CACHE_POSITIONS_OVERFLOWED, overflow.size(), reporter);
                 }
             } else {
-                createTermFrequencyIndex(event, contextWriter, context, this.shardId, nfv, Arrays.asList(position), fieldVisibility, false);
+                createTermFrequencyIndex(event, contextWriter, context, this.shardId, nfv, new int[] {position}, 1, fieldVisibility, false);
             }
         }
     }
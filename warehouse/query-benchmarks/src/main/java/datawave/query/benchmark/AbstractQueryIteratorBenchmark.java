@@ -0,0 +1,123 @@
+package datawave.query.benchmark;
+
+import datawave.mr.bulk.BulkIteratorEnvironment;
+import datawave.query.iterator.QueryIterator;
+import datawave.query.iterator.QueryOptions;
+import datawave.query.util.TypeMetadata;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a full shard scan through one of the query iterators over an in-memory {@link ShardData} shard. Each scan builds the iterator tree from scratch, just
+ * like a new scan session on a tserver, so the scores cover IteratorBuildingVisitor, the AndIterator/OrIterator tree, JexlEvaluation and document
+ * serialization. Subclasses pick the iterator and the query shapes it is measured against.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class AbstractQueryIteratorBenchmark {
+    
+    @Param({"10000"})
+    public int documents;
+    
+    @Param({"20"})
+    public int eventFields;
+    
+    @Param({"100"})
+    public int rareInterval;
+    
+    @Param({"true"})
+    public boolean serialPipeline;
+    
+    protected ShardData shard;
+    protected TypeMetadata typeMetadata;
+    protected Map<String,String> options;
+    protected IteratorEnvironment environment;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        shard = new ShardData(documents, eventFields, getChildren(), rareInterval);
+        environment = new BulkIteratorEnvironment(IteratorScope.scan);
+        
+        typeMetadata = new TypeMetadata();
+        for (String field : ShardData.INDEXED_FIELDS.split(",")) {
+            typeMetadata.put(field, ShardData.DATATYPE, "datawave.data.type.LcNoDiacriticsType");
+        }
+        
+        options = new HashMap<>();
+        options.put(QueryOptions.QUERY, getQuery());
+        options.put(QueryOptions.QUERY_ID, getClass().getSimpleName());
+        options.put(QueryOptions.START_TIME, Long.toString(shard.getTimestamp() - 1));
+        options.put(QueryOptions.END_TIME, Long.toString(shard.getTimestamp() + 1));
+        options.put(QueryOptions.INDEXED_FIELDS, ShardData.INDEXED_FIELDS);
+        options.put(QueryOptions.NON_INDEXED_DATATYPES, ShardData.DATATYPE + ':' + shard.getNonIndexedFields());
+        options.put(QueryOptions.INDEX_ONLY_FIELDS, "");
+        options.put(QueryOptions.SERIAL_EVALUATION_PIPELINE, Boolean.toString(serialPipeline));
+        options.put(QueryOptions.ALLOW_FIELD_INDEX_EVALUATION, "true");
+        options.put(QueryOptions.ALLOW_TERM_FREQUENCY_LOOKUP, "true");
+        options.put(QueryOptions.TERM_FREQUENCY_FIELDS, ShardData.TEXT_FIELD);
+        options.put(QueryOptions.TERM_FREQUENCIES_REQUIRED, Boolean.toString(getQuery().contains("content:")));
+    }
+    
+    /**
+     * @return the JEXL query to evaluate against the shard
+     */
+    protected abstract String getQuery();
+    
+    /**
+     * @return a new, uninitialized query iterator
+     */
+    protected abstract QueryIterator createIterator();
+    
+    /**
+     * @return the number of child documents to generate under every document
+     */
+    protected int getChildren() {
+        return 0;
+    }
+    
+    @Benchmark
+    public void scan(ScanCounters counters, Blackhole blackhole) throws IOException {
+        QueryIterator iterator = createIterator();
+        iterator.setTypeMetadata(typeMetadata);
+        iterator.setEvaluationFilter(null);
+        
+        CountingIterator source = new CountingIterator(new SortedMapIterator(shard.getData()), counters);
+        iterator.init(source, options, environment);
+        iterator.seek(shard.getShardRange(), Collections.emptyList(), false);
+        
+        while (iterator.hasTop()) {
+            Key key = iterator.getTopKey();
+            Value value = iterator.getTopValue();
+            blackhole.consume(key);
+            blackhole.consume(value);
+            counters.documents++;
+            iterator.next();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package datawave.query.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the query benchmarks with the standard JMH command line, always attaching the GC profiler so every run reports the allocation rate (gc.alloc.rate and
+ * gc.alloc.rate.norm) alongside the keys/sec and documents/sec counters.
+ */
+public class BenchmarkRunner {
+    
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        Options options = new OptionsBuilder().parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
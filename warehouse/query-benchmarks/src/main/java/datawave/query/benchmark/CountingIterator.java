@@ -0,0 +1,48 @@
+package datawave.query.benchmark;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.WrappingIterator;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Sits directly on top of the in-memory shard and counts the keys and seeks the query iterators pull from it. Deep copies share the same counters so the
+ * totals cover every source the iterator tree creates.
+ */
+public class CountingIterator extends WrappingIterator {
+    
+    private final ScanCounters counters;
+    
+    public CountingIterator(SortedKeyValueIterator<Key,Value> source, ScanCounters counters) {
+        this.counters = counters;
+        setSource(source);
+    }
+    
+    @Override
+    public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+        return new CountingIterator(getSource().deepCopy(env), counters);
+    }
+    
+    @Override
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+        counters.seeks++;
+        super.seek(range, columnFamilies, inclusive);
+        if (super.hasTop()) {
+            counters.keys++;
+        }
+    }
+    
+    @Override
+    public void next() throws IOException {
+        super.next();
+        if (super.hasTop()) {
+            counters.keys++;
+        }
+    }
+}
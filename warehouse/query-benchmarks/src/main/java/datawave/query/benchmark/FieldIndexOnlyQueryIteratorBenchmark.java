@@ -0,0 +1,37 @@
+package datawave.query.benchmark;
+
+import datawave.query.iterator.FieldIndexOnlyQueryIterator;
+import datawave.query.iterator.QueryIterator;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Throughput of the {@link FieldIndexOnlyQueryIterator}, which builds documents from the field index alone and never touches the event column families
+ */
+public class FieldIndexOnlyQueryIteratorBenchmark extends AbstractQueryIteratorBenchmark {
+    
+    public enum QueryShape {
+        /** a common term intersected with a rare term */
+        INTERSECTION(ShardData.COMMON_FIELD + " == 'common' && " + ShardData.RARE_FIELD + " == 'rare'"),
+        /** a union of two terms that together hit every document */
+        UNION(ShardData.SPLIT_FIELD + " == 'even' || " + ShardData.SPLIT_FIELD + " == 'odd'");
+        
+        private final String query;
+        
+        QueryShape(String query) {
+            this.query = query;
+        }
+    }
+    
+    @Param({"INTERSECTION", "UNION"})
+    public QueryShape shape;
+    
+    @Override
+    protected String getQuery() {
+        return shape.query;
+    }
+    
+    @Override
+    protected QueryIterator createIterator() {
+        return new FieldIndexOnlyQueryIterator();
+    }
+}
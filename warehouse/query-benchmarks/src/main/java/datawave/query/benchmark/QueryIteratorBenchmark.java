@@ -0,0 +1,40 @@
+package datawave.query.benchmark;
+
+import datawave.query.iterator.QueryIterator;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Throughput of the standard {@link QueryIterator} over a shard of events
+ */
+public class QueryIteratorBenchmark extends AbstractQueryIteratorBenchmark {
+    
+    public enum QueryShape {
+        /** a common term intersected with a rare term */
+        INTERSECTION(ShardData.COMMON_FIELD + " == 'common' && " + ShardData.RARE_FIELD + " == 'rare'"),
+        /** a union of two terms that together hit every document */
+        UNION(ShardData.SPLIT_FIELD + " == 'even' || " + ShardData.SPLIT_FIELD + " == 'odd'"),
+        /** an indexed anchor term with an unindexed term that must be evaluated against the event */
+        EVALUATION(ShardData.RARE_FIELD + " == 'rare' && " + ShardData.EVENT_FIELD_PREFIX + "1 == 'value0'"),
+        /** a content phrase function that requires the term frequencies */
+        PHRASE(ShardData.TEXT_FIELD + " == 'brown' && content:phrase(" + ShardData.TEXT_FIELD + ", termOffsetMap, 'quick', 'brown')");
+        
+        private final String query;
+        
+        QueryShape(String query) {
+            this.query = query;
+        }
+    }
+    
+    @Param({"INTERSECTION", "UNION", "EVALUATION", "PHRASE"})
+    public QueryShape shape;
+    
+    @Override
+    protected String getQuery() {
+        return shape.query;
+    }
+    
+    @Override
+    protected QueryIterator createIterator() {
+        return new QueryIterator();
+    }
+}
@@ -0,0 +1,32 @@
+package datawave.query.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary JMH results for a scan. Because these are operation counters JMH reports each of them as a rate, which gives keys/sec, seeks/sec and
+ * documents/sec next to the primary scans/sec score.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ScanCounters {
+    
+    /** keys read from the underlying shard, across all deep copies */
+    public long keys;
+    
+    /** seeks issued against the underlying shard, across all deep copies */
+    public long seeks;
+    
+    /** documents returned by the query iterator */
+    public long documents;
+    
+    @Setup(Level.Iteration)
+    public void reset() {
+        keys = 0;
+        seeks = 0;
+        documents = 0;
+    }
+}
@@ -0,0 +1,157 @@
+package datawave.query.benchmark;
+
+import datawave.ingest.protobuf.TermWeight;
+import datawave.query.Constants;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Builds a synthetic, in-memory shard holding event, field index and term frequency keys in the same layout ingest writes to the shard table. The shard is
+ * meant to be wrapped in a {@link org.apache.accumulo.core.iterators.SortedMapIterator} and handed to the query iterators under benchmark.
+ *
+ * Every document carries:
+ * <ul>
+ * <li>COMMON_FIELD = 'common' (indexed, present in every document)</li>
+ * <li>RARE_FIELD = 'rare' (indexed, present in one document out of {@link #getRareInterval()})</li>
+ * <li>SPLIT_FIELD = 'even' or 'odd' (indexed)</li>
+ * <li>TEXT_FIELD = 'quick brown fox' (indexed, tokenized with term frequencies)</li>
+ * <li>EVENT_FIELD1 .. EVENT_FIELDn (unindexed event only fields)</li>
+ * </ul>
+ * When children are requested each document also gets that many child documents (uid.1, uid.2, ...) with a CHILD_FIELD = 'child' entry, which is the
+ * shape the TLD iterators expect.
+ */
+public class ShardData {
+    
+    public static final String ROW = "20190314_0";
+    public static final String DATATYPE = "dataType1";
+    
+    public static final String COMMON_FIELD = "COMMON_FIELD";
+    public static final String RARE_FIELD = "RARE_FIELD";
+    public static final String SPLIT_FIELD = "SPLIT_FIELD";
+    public static final String TEXT_FIELD = "TEXT_FIELD";
+    public static final String CHILD_FIELD = "CHILD_FIELD";
+    public static final String EVENT_FIELD_PREFIX = "EVENT_FIELD";
+    
+    public static final String INDEXED_FIELDS = COMMON_FIELD + ',' + RARE_FIELD + ',' + SPLIT_FIELD + ',' + TEXT_FIELD + ',' + CHILD_FIELD;
+    
+    private static final String[] TOKENS = {"quick", "brown", "fox"};
+    
+    private static final long TIMESTAMP = 1552521600000L;
+    private static final Value EMPTY_VALUE = new Value(new byte[0]);
+    
+    private final int documents;
+    private final int eventFields;
+    private final int children;
+    private final int rareInterval;
+    
+    private final SortedMap<Key,Value> data = new TreeMap<>();
+    
+    public ShardData(int documents, int eventFields, int children, int rareInterval) {
+        this.documents = documents;
+        this.eventFields = eventFields;
+        this.children = children;
+        this.rareInterval = rareInterval;
+        build();
+    }
+    
+    private void build() {
+        for (int i = 0; i < documents; i++) {
+            String uid = uid(i);
+            addEvent(uid, COMMON_FIELD, "common");
+            addFieldIndex(uid, COMMON_FIELD, "common");
+            
+            if (i % rareInterval == 0) {
+                addEvent(uid, RARE_FIELD, "rare");
+                addFieldIndex(uid, RARE_FIELD, "rare");
+            }
+            
+            String split = (i % 2 == 0) ? "even" : "odd";
+            addEvent(uid, SPLIT_FIELD, split);
+            addFieldIndex(uid, SPLIT_FIELD, split);
+            
+            addEvent(uid, TEXT_FIELD, "quick brown fox");
+            for (int offset = 0; offset < TOKENS.length; offset++) {
+                addFieldIndex(uid, TEXT_FIELD, TOKENS[offset]);
+                addTermFrequency(uid, TEXT_FIELD, TOKENS[offset], offset);
+            }
+            
+            for (int field = 1; field <= eventFields; field++) {
+                addEvent(uid, EVENT_FIELD_PREFIX + field, "value" + (i % 100));
+            }
+            
+            for (int child = 1; child <= children; child++) {
+                String childUid = uid + '.' + child;
+                addEvent(childUid, CHILD_FIELD, "child");
+                addFieldIndex(childUid, CHILD_FIELD, "child");
+            }
+        }
+    }
+    
+    /**
+     * @param index
+     *            the ordinal of the document within the shard
+     * @return a uid that sorts in the same order as the ordinal
+     */
+    public static String uid(int index) {
+        return String.format("-%08x.%08x.%08x", index * 31, index, index * 17);
+    }
+    
+    private void addEvent(String uid, String field, String value) {
+        data.put(new Key(ROW, DATATYPE + Constants.NULL + uid, field + Constants.NULL + value, TIMESTAMP), EMPTY_VALUE);
+    }
+    
+    private void addFieldIndex(String uid, String field, String value) {
+        data.put(new Key(ROW, "fi" + Constants.NULL + field, value + Constants.NULL + DATATYPE + Constants.NULL + uid, TIMESTAMP), EMPTY_VALUE);
+    }
+    
+    private void addTermFrequency(String uid, String field, String value, int offset) {
+        TermWeight.Info info = TermWeight.Info.newBuilder().addTermOffset(offset).addPrevSkips(0).setZeroOffsetMatch(true).build();
+        data.put(new Key(ROW, Constants.TERM_FREQUENCY_COLUMN_FAMILY.toString(), DATATYPE + Constants.NULL + uid + Constants.NULL + value + Constants.NULL
+                        + field, TIMESTAMP), new Value(info.toByteArray()));
+    }
+    
+    /**
+     * @return the names of the unindexed event fields, suitable for the non-indexed datatypes option
+     */
+    public String getNonIndexedFields() {
+        StringBuilder fields = new StringBuilder();
+        for (int field = 1; field <= eventFields; field++) {
+            if (fields.length() > 0) {
+                fields.append(',');
+            }
+            fields.append(EVENT_FIELD_PREFIX).append(field);
+        }
+        return fields.toString();
+    }
+    
+    public SortedMap<Key,Value> getData() {
+        return Collections.unmodifiableSortedMap(data);
+    }
+    
+    public Range getShardRange() {
+        Key start = new Key(ROW);
+        return new Range(start, true, start.followingKey(PartialKey.ROW), false);
+    }
+    
+    public long getTimestamp() {
+        return TIMESTAMP;
+    }
+    
+    public int getDocuments() {
+        return documents;
+    }
+    
+    public int getRareInterval() {
+        return rareInterval;
+    }
+    
+    public int size() {
+        return data.size();
+    }
+}
@@ -0,0 +1,47 @@
+package datawave.query.benchmark;
+
+import datawave.query.iterator.QueryIterator;
+import datawave.query.tld.TLDQueryIterator;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Throughput of the {@link TLDQueryIterator} over a shard where every top level document has child documents
+ */
+public class TLDQueryIteratorBenchmark extends AbstractQueryIteratorBenchmark {
+    
+    public enum QueryShape {
+        /** a common term intersected with a rare term, both on the top level documents */
+        INTERSECTION(ShardData.COMMON_FIELD + " == 'common' && " + ShardData.RARE_FIELD + " == 'rare'"),
+        /** a union of two terms that together hit every top level document */
+        UNION(ShardData.SPLIT_FIELD + " == 'even' || " + ShardData.SPLIT_FIELD + " == 'odd'"),
+        /** a rare parent term intersected with a term that only exists on the children */
+        CHILD(ShardData.RARE_FIELD + " == 'rare' && " + ShardData.CHILD_FIELD + " == 'child'");
+        
+        private final String query;
+        
+        QueryShape(String query) {
+            this.query = query;
+        }
+    }
+    
+    @Param({"INTERSECTION", "UNION", "CHILD"})
+    public QueryShape shape;
+    
+    @Param({"5"})
+    public int children;
+    
+    @Override
+    protected String getQuery() {
+        return shape.query;
+    }
+    
+    @Override
+    protected int getChildren() {
+        return children;
+    }
+    
+    @Override
+    protected QueryIterator createIterator() {
+        return new TLDQueryIterator();
+    }
+}
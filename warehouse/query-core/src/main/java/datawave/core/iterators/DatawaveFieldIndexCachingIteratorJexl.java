@@ -16,6 +16,7 @@ import datawave.query.iterator.profile.SourceTrackingIterator;
 import datawave.query.predicate.TimeFilter;
 import datawave.query.util.TypeMetadata;
 import datawave.query.util.sortedset.FileKeySortedSet;
+import datawave.query.util.sortedset.FileOffHeapKeySortedSet;
 import datawave.query.util.sortedset.FileSortedSet;
 import datawave.query.util.sortedset.HdfsBackedSortedSet;
 import org.apache.accumulo.core.data.ByteSequence;
@@ -294,6 +295,8 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
     private final int numRetries;
     // the persistence options
     private final FileSortedSet.PersistOptions persistOptions;
+    // hold the in-memory buffer off-heap instead of in a TreeSet
+    private final boolean offHeapBuffer;
     
     // the current top key
     private Key topKey = null;
@@ -382,6 +385,7 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
         this.maxRangeSplit = 11;
         this.maxResults = -1;
         this.persistOptions = new FileSortedSet.PersistOptions();
+        this.offHeapBuffer = false;
         
         this.sortedUIDs = true;
     }
@@ -419,6 +423,8 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
         if (ivaratorCacheDirs.size() > 0) {
             this.controlFs = ivaratorCacheDirs.get(0).getFs();
             this.controlDir = new Path(ivaratorCacheDirs.get(0).getPathURI());
+            // the buffer type is configured on the ivarator cache dir config, and the control dir is our primary cache dir
+            this.offHeapBuffer = ivaratorCacheDirs.get(0).getConfig() != null && ivaratorCacheDirs.get(0).getConfig().isOffHeapBuffer();
         } else {
             throw new IllegalStateException("No ivarator cache dirs specified!");
         }
@@ -474,6 +480,7 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
         this.maxOpenFiles = other.maxOpenFiles;
         this.numRetries = other.numRetries;
         this.persistOptions = other.persistOptions;
+        this.offHeapBuffer = other.offHeapBuffer;
         
         this.set = other.set;
         this.keys = other.keys;
@@ -545,7 +552,8 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
                 Key startKey = r.getStartKey();
                 // decide if keyValues needs to be rebuilt or can be reused
                 if (!keys.hasNext() || (keys.peek().compareTo(startKey) > 0)) {
-                    keys = new CachingIterator<>(threadSafeSet.iterator());
+                    // position the merge at the start key so that the persisted sets can seek to it rather than reading from the beginning
+                    keys = new CachingIterator<>(startKey == null ? threadSafeSet.iterator() : threadSafeSet.tailSet(startKey).iterator());
                 }
             }
         }
@@ -1200,7 +1208,8 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
             }
         };
         
-        return IteratorThreadPoolManager.executeIvarator(runnable, DatawaveFieldIndexCachingIteratorJexl.this + " in " + boundingFiRange, this.initEnv);
+        return IteratorThreadPoolManager.executeIvarator(runnable, DatawaveFieldIndexCachingIteratorJexl.this + " in " + boundingFiRange, queryId,
+                        this.initEnv);
         
     }
     
@@ -1261,8 +1270,8 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
                 this.createdRowDir = false;
             }
             
-            this.set = new HdfsBackedSortedSet<>(null, hdfsBackedSetBufferSize, ivaratorCacheDirs, row, maxOpenFiles, numRetries, persistOptions,
-                            new FileKeySortedSet.Factory());
+            FileSortedSet.FileSortedSetFactory<Key> setFactory = (offHeapBuffer ? new FileOffHeapKeySortedSet.Factory() : new FileKeySortedSet.Factory());
+            this.set = new HdfsBackedSortedSet<>(null, hdfsBackedSetBufferSize, ivaratorCacheDirs, row, maxOpenFiles, numRetries, persistOptions, setFactory);
             this.threadSafeSet = Collections.synchronizedSortedSet(this.set);
             this.currentRow = row;
             this.setControl.takeOwnership(row, this);
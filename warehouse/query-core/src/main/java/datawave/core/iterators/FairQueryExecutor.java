@@ -0,0 +1,319 @@
+package datawave.core.iterators;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Schedules tasks from multiple queries onto a shared thread pool such that each query gets a fair share of the threads. Tasks are queued per query id, and
+ * whenever a thread is available the next task is taken from the query currently using the fewest threads, in round robin order. Optionally the number of
+ * threads any one query may use at once can be capped. This keeps one query with a large number of long running tasks from starving the other queries using the
+ * same pool.
+ *
+ * A task which submits another task for its own query and waits on it would deadlock once its query holds all of the threads it may use. Tasks submitted from a
+ * thread running a task of the same query are therefore not subject to the per query cap, and are queued ahead of the other tasks of the query. They are still
+ * subject to the size of the pool, so tasks that wait on children should not share a pool with them (see the speculative scan pool of ScanSessionExecutor).
+ *
+ * Cancelled tasks are removed from the queue as soon as they are cancelled. The queue depth and the time tasks spend waiting for a thread are tracked so that
+ * they can be reported.
+ */
+public class FairQueryExecutor {
+    private static final Logger log = Logger.getLogger(FairQueryExecutor.class);
+    
+    // the key used for tasks that do not supply a query id
+    private static final String NO_QUERY = "";
+    
+    private final String name;
+    private final ThreadPoolExecutor pool;
+    private volatile int maxThreadsPerQuery;
+    
+    // the queries with pending or running tasks, in round robin order
+    private final Map<String,QueryTasks> queries = new LinkedHashMap<>();
+    private int running = 0;
+    private int queued = 0;
+    
+    // the query of the task running on the current thread, used to recognize tasks submitted by a task of the same query
+    private final ThreadLocal<String> currentQuery = new ThreadLocal<>();
+    
+    private final AtomicLong tasksStarted = new AtomicLong();
+    private final AtomicLong totalWaitMs = new AtomicLong();
+    private final AtomicLong maxWaitMs = new AtomicLong();
+    
+    /**
+     * @param name
+     *            the name of the pool, used when reporting
+     * @param pool
+     *            the thread pool to run the tasks on
+     * @param maxThreadsPerQuery
+     *            the maximum number of threads one query may use at once, or a value less than 1 for no limit beyond the pool size
+     */
+    public FairQueryExecutor(String name, ThreadPoolExecutor pool, int maxThreadsPerQuery) {
+        this.name = name;
+        this.pool = pool;
+        this.maxThreadsPerQuery = maxThreadsPerQuery;
+    }
+    
+    /**
+     * Submit a task on behalf of a query
+     *
+     * @param queryId
+     *            the query id, may be null
+     * @param task
+     * @return a future for the task
+     */
+    public Future<?> submit(String queryId, Runnable task) {
+        String key = (queryId == null ? NO_QUERY : queryId);
+        QueuedTask queuedTask = new QueuedTask(task, key.equals(currentQuery.get()));
+        List<QueuedTask> toStart;
+        synchronized (this) {
+            QueryTasks tasks = queries.get(key);
+            if (tasks == null) {
+                tasks = new QueryTasks(key);
+                queries.put(key, tasks);
+            }
+            queuedTask.tasks = tasks;
+            if (queuedTask.nested) {
+                tasks.pending.addFirst(queuedTask);
+            } else {
+                tasks.pending.addLast(queuedTask);
+            }
+            queued++;
+            toStart = dispatch();
+        }
+        start(toStart);
+        return queuedTask;
+    }
+    
+    /**
+     * Take tasks for the idle threads, taking the next task from the eligible query using the fewest threads. The tasks are handed to the pool by
+     * {@link #start(List)} once the lock is released.
+     *
+     * @return the tasks to start
+     */
+    private List<QueuedTask> dispatch() {
+        List<QueuedTask> toStart = null;
+        int poolSize = pool.getMaximumPoolSize();
+        int perQueryLimit = (maxThreadsPerQuery < 1 ? poolSize : Math.min(maxThreadsPerQuery, poolSize));
+        boolean dispatched = true;
+        while (running < poolSize && queued > 0 && dispatched) {
+            dispatched = false;
+            QueryTasks next = null;
+            // prefer the query using the fewest threads, breaking ties in round robin order
+            for (QueryTasks tasks : queries.values()) {
+                if (!tasks.pending.isEmpty() && (tasks.running < perQueryLimit || tasks.pending.peekFirst().nested)
+                                && (next == null || tasks.running < next.running)) {
+                    next = tasks;
+                }
+            }
+            if (next != null) {
+                // move the query to the end of the round robin order
+                queries.remove(next.queryId);
+                queries.put(next.queryId, next);
+                
+                QueuedTask task = next.pending.pollFirst();
+                task.started = true;
+                queued--;
+                next.running++;
+                running++;
+                dispatched = true;
+                if (toStart == null) {
+                    toStart = new ArrayList<>();
+                }
+                toStart.add(task);
+            }
+        }
+        return (toStart == null ? Collections.emptyList() : toStart);
+    }
+    
+    /**
+     * Hand tasks to the pool. This is called without holding the lock.
+     *
+     * @param toStart
+     *            the tasks taken by {@link #dispatch()}
+     */
+    private void start(List<QueuedTask> toStart) {
+        for (QueuedTask task : toStart) {
+            start(task);
+        }
+    }
+    
+    private void start(final QueuedTask task) {
+        final QueryTasks tasks = task.tasks;
+        long waitMs = System.currentTimeMillis() - task.queuedTime;
+        tasksStarted.incrementAndGet();
+        totalWaitMs.addAndGet(waitMs);
+        long max = maxWaitMs.get();
+        while (waitMs > max && !maxWaitMs.compareAndSet(max, waitMs)) {
+            max = maxWaitMs.get();
+        }
+        try {
+            pool.execute(() -> {
+                String previousQuery = currentQuery.get();
+                currentQuery.set(tasks.queryId);
+                try {
+                    task.run();
+                } finally {
+                    currentQuery.set(previousQuery);
+                    finished(tasks);
+                }
+            });
+        } catch (RuntimeException e) {
+            // the pool rejected the task, so fail the future rather than leaving the caller waiting
+            log.error("Unable to execute task for query " + tasks.queryId + " in " + name, e);
+            synchronized (this) {
+                tasks.running--;
+                running--;
+                removeIfIdle(tasks);
+            }
+            task.cancel(false);
+        }
+    }
+    
+    private void finished(QueryTasks tasks) {
+        List<QueuedTask> toStart;
+        synchronized (this) {
+            tasks.running--;
+            running--;
+            removeIfIdle(tasks);
+            toStart = dispatch();
+        }
+        start(toStart);
+    }
+    
+    /**
+     * Remove a task from the queue when it is cancelled before it was started
+     */
+    private synchronized void cancelled(QueuedTask task) {
+        if (!task.started && task.tasks != null && task.tasks.pending.remove(task)) {
+            queued--;
+            removeIfIdle(task.tasks);
+        }
+    }
+    
+    private void removeIfIdle(QueryTasks tasks) {
+        if (tasks.running == 0 && tasks.pending.isEmpty()) {
+            queries.remove(tasks.queryId);
+        }
+    }
+    
+    public void setMaxThreadsPerQuery(int maxThreadsPerQuery) {
+        this.maxThreadsPerQuery = maxThreadsPerQuery;
+        List<QueuedTask> toStart;
+        synchronized (this) {
+            toStart = dispatch();
+        }
+        start(toStart);
+    }
+    
+    /**
+     * Change the number of threads in the underlying pool
+     *
+     * @param threads
+     *            the new number of threads
+     */
+    public void resize(int threads) {
+        List<QueuedTask> toStart = Collections.emptyList();
+        synchronized (this) {
+            if (threads > pool.getMaximumPoolSize()) {
+                pool.setMaximumPoolSize(threads);
+                pool.setCorePoolSize(threads);
+                toStart = dispatch();
+            } else if (threads < pool.getMaximumPoolSize()) {
+                pool.setCorePoolSize(threads);
+                pool.setMaximumPoolSize(threads);
+            }
+        }
+        start(toStart);
+    }
+    
+    public int getMaxThreadsPerQuery() {
+        return maxThreadsPerQuery;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * @return the number of tasks waiting for a thread
+     */
+    public synchronized int getQueueDepth() {
+        return queued;
+    }
+    
+    /**
+     * @return the number of tasks currently running
+     */
+    public synchronized int getRunning() {
+        return running;
+    }
+    
+    /**
+     * @return the number of queries with queued or running tasks
+     */
+    public synchronized int getActiveQueries() {
+        return queries.size();
+    }
+    
+    /**
+     * @return the average time in milliseconds tasks have waited for a thread
+     */
+    public long getAverageWaitMs() {
+        long started = tasksStarted.get();
+        return (started == 0 ? 0 : totalWaitMs.get() / started);
+    }
+    
+    /**
+     * @return the maximum time in milliseconds a task has waited for a thread
+     */
+    public long getMaxWaitMs() {
+        return maxWaitMs.get();
+    }
+    
+    @Override
+    public String toString() {
+        return name + ": queued=" + getQueueDepth() + ", running=" + getRunning() + ", queries=" + getActiveQueries() + ", avgWaitMs=" + getAverageWaitMs()
+                        + ", maxWaitMs=" + getMaxWaitMs();
+    }
+    
+    private static class QueryTasks {
+        private final String queryId;
+        private final Deque<QueuedTask> pending = new ArrayDeque<>();
+        private int running = 0;
+        
+        private QueryTasks(String queryId) {
+            this.queryId = queryId;
+        }
+    }
+    
+    private class QueuedTask extends FutureTask<Object> {
+        private final long queuedTime = System.currentTimeMillis();
+        // submitted by a task of the same query
+        private final boolean nested;
+        // the following are guarded by the executor lock
+        private QueryTasks tasks;
+        private boolean started = false;
+        
+        private QueuedTask(Runnable task, boolean nested) {
+            super(task, null);
+            this.nested = nested;
+        }
+        
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                cancelled(this);
+            }
+        }
+    }
+}
@@ -3,7 +3,6 @@ package datawave.core.iterators;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TreeMap;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -17,17 +16,22 @@ import org.apache.accumulo.server.util.time.SimpleTimer;
 import org.apache.log4j.Logger;
 
 /**
- * 
+ * Manages the thread pools shared by the query iterators on a tserver. Tasks are scheduled per query id using a {@link FairQueryExecutor} so that one query
+ * cannot monopolize a pool, and the queue depth and wait time of each pool is reported periodically.
  */
 public class IteratorThreadPoolManager {
     private static final Logger log = Logger.getLogger(IteratorThreadPoolManager.class);
     private static final String IVARATOR_THREAD_PROP = "tserver.datawave.ivarator.threads";
     private static final String IVARATOR_THREAD_NAME = "DATAWAVE Ivarator";
+    private static final String IVARATOR_THREADS_PER_QUERY_PROP = "tserver.datawave.ivarator.threads.per.query";
     private static final String EVALUATOR_THREAD_PROP = "tserver.datawave.evaluation.threads";
     private static final String EVALUATOR_THREAD_NAME = "DATAWAVE Evaluation";
+    private static final String EVALUATOR_THREADS_PER_QUERY_PROP = "tserver.datawave.evaluation.threads.per.query";
     private static final int DEFAULT_THREAD_POOL_SIZE = 100;
+    // by default a query may use every thread in a pool when no other query is waiting
+    private static final int DEFAULT_THREADS_PER_QUERY = -1;
     
-    private Map<String,ExecutorService> threadPools = new TreeMap<>();
+    private Map<String,FairQueryExecutor> threadPools = new TreeMap<>();
     
     private static final Object instanceSemaphore = new Object();
     private static final String instanceId = Integer.toHexString(instanceSemaphore.hashCode());
@@ -35,11 +39,11 @@ public class IteratorThreadPoolManager {
     
     private IteratorThreadPoolManager(IteratorEnvironment env) {
         // create the thread pools
-        createExecutorService(IVARATOR_THREAD_PROP, IVARATOR_THREAD_NAME, env);
-        createExecutorService(EVALUATOR_THREAD_PROP, EVALUATOR_THREAD_NAME, env);
+        createExecutorService(IVARATOR_THREAD_PROP, IVARATOR_THREADS_PER_QUERY_PROP, IVARATOR_THREAD_NAME, env);
+        createExecutorService(EVALUATOR_THREAD_PROP, EVALUATOR_THREADS_PER_QUERY_PROP, EVALUATOR_THREAD_NAME, env);
     }
     
-    private ThreadPoolExecutor createExecutorService(final String prop, final String name, IteratorEnvironment env) {
+    private FairQueryExecutor createExecutorService(final String prop, final String perQueryProp, final String name, IteratorEnvironment env) {
         final AccumuloConfiguration accumuloConfiguration;
         if (env != null) {
             accumuloConfiguration = env.getConfig();
@@ -47,21 +51,32 @@ public class IteratorThreadPoolManager {
             accumuloConfiguration = DefaultConfiguration.getInstance();
         }
         final ThreadPoolExecutor service = createExecutorService(getMaxThreads(prop, accumuloConfiguration), name + " (" + instanceId + ')');
-        threadPools.put(name, service);
+        final FairQueryExecutor executor = new FairQueryExecutor(name, service, getIntProperty(perQueryProp, DEFAULT_THREADS_PER_QUERY, accumuloConfiguration));
+        threadPools.put(name, executor);
         SimpleTimer.getInstance(accumuloConfiguration).schedule(() -> {
             try {
                 
                 int max = getMaxThreads(prop, accumuloConfiguration);
                 if (service.getMaximumPoolSize() != max) {
                     log.info("Changing " + prop + " to " + max);
-                    service.setCorePoolSize(max);
-                    service.setMaximumPoolSize(max);
+                    executor.resize(max);
+                }
+                int perQuery = getIntProperty(perQueryProp, DEFAULT_THREADS_PER_QUERY, accumuloConfiguration);
+                if (executor.getMaxThreadsPerQuery() != perQuery) {
+                    log.info("Changing " + perQueryProp + " to " + perQuery);
+                    executor.setMaxThreadsPerQuery(perQuery);
+                }
+                
+                if (executor.getQueueDepth() > 0) {
+                    log.info(executor);
+                } else if (log.isDebugEnabled()) {
+                    log.debug(executor);
                 }
             } catch (Throwable t) {
                 log.error(t, t);
             }
         }, 1000, 10 * 1000);
-        return service;
+        return executor;
     }
     
     private ThreadPoolExecutor createExecutorService(int maxThreads, String name) {
@@ -72,6 +87,10 @@ public class IteratorThreadPoolManager {
     }
     
     private int getMaxThreads(final String prop, AccumuloConfiguration conf) {
+        return getIntProperty(prop, DEFAULT_THREAD_POOL_SIZE, conf);
+    }
+    
+    private int getIntProperty(final String prop, int defaultValue, AccumuloConfiguration conf) {
         if (conf != null) {
             Map<String,String> properties = new TreeMap<>();
             conf.getProperties(properties, k -> Objects.equals(k, prop));
@@ -79,7 +98,7 @@ public class IteratorThreadPoolManager {
                 return Integer.parseInt(properties.get(prop));
             }
         }
-        return DEFAULT_THREAD_POOL_SIZE;
+        return defaultValue;
     }
     
     private static IteratorThreadPoolManager instance(IteratorEnvironment env) {
@@ -93,8 +112,8 @@ public class IteratorThreadPoolManager {
         return instance;
     }
     
-    private Future<?> execute(String name, final Runnable task, final String taskName) {
-        return threadPools.get(name).submit(() -> {
+    private Future<?> execute(String name, final Runnable task, final String taskName, final String queryId) {
+        return threadPools.get(name).submit(queryId, () -> {
             String oldName = Thread.currentThread().getName();
             Thread.currentThread().setName(oldName + " -> " + taskName);
             try {
@@ -106,11 +125,19 @@ public class IteratorThreadPoolManager {
     }
     
     public static Future<?> executeIvarator(Runnable task, String taskName, IteratorEnvironment env) {
-        return instance(env).execute(IVARATOR_THREAD_NAME, task, taskName);
+        return executeIvarator(task, taskName, null, env);
+    }
+    
+    public static Future<?> executeIvarator(Runnable task, String taskName, String queryId, IteratorEnvironment env) {
+        return instance(env).execute(IVARATOR_THREAD_NAME, task, taskName, queryId);
     }
     
     public static Future<?> executeEvaluation(Runnable task, String taskName, IteratorEnvironment env) {
-        return instance(env).execute(EVALUATOR_THREAD_NAME, task, taskName);
+        return executeEvaluation(task, taskName, null, env);
+    }
+    
+    public static Future<?> executeEvaluation(Runnable task, String taskName, String queryId, IteratorEnvironment env) {
+        return instance(env).execute(EVALUATOR_THREAD_NAME, task, taskName, queryId);
     }
     
 }
@@ -11,12 +11,14 @@ import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
 
 import datawave.query.function.deserializer.DocumentDeserializer;
+import datawave.query.function.deserializer.FlatDocumentDeserializer;
 import datawave.query.function.serializer.KryoDocumentSerializer;
 import datawave.query.exceptions.InvalidDocumentHeader;
 import datawave.query.exceptions.NoSuchDeserializerException;
 import datawave.query.function.deserializer.KryoDocumentDeserializer;
 import datawave.query.function.deserializer.WritableDocumentDeserializer;
 import datawave.query.function.serializer.DocumentSerializer;
+import datawave.query.function.serializer.FlatDocumentSerializer;
 import datawave.query.function.serializer.WritableDocumentSerializer;
 import datawave.webservice.query.Query;
 import datawave.webservice.query.QueryImpl.Parameter;
@@ -31,13 +33,18 @@ import datawave.webservice.query.exception.QueryException;
 public class DocumentSerialization {
     
     public enum ReturnType {
-        writable, kryo, tostring, noop
+        writable, kryo, tostring, noop, flat
     }
     
     public static final ReturnType DEFAULT_RETURN_TYPE = ReturnType.kryo;
     
     private static final int DOC_MAGIC = 0x8b2f;
     
+    /**
+     * The length of the header: the magic number (short) followed by the compression (byte)
+     */
+    public static final int HEADER_LENGTH = 3;
+    
     public static final byte NONE = 0;
     public static final byte GZIP = 1;
     
@@ -67,6 +74,8 @@ public class DocumentSerialization {
             return new KryoDocumentDeserializer();
         } else if (ReturnType.writable.equals(rt)) {
             return new WritableDocumentDeserializer();
+        } else if (ReturnType.flat.equals(rt)) {
+            return new FlatDocumentDeserializer();
         } else {
             QueryException qe = new QueryException(DatawaveErrorCode.DESERIALIZER_CREATE_ERROR);
             throw new NoSuchDeserializerException(qe);
@@ -82,6 +91,8 @@ public class DocumentSerialization {
             return new KryoDocumentSerializer();
         } else if (ReturnType.writable.equals(rt)) {
             return new WritableDocumentSerializer(false);
+        } else if (ReturnType.flat.equals(rt)) {
+            return new FlatDocumentSerializer();
         } else {
             QueryException qe = new QueryException(DatawaveErrorCode.DESERIALIZER_CREATE_ERROR);
             throw new NoSuchDeserializerException(qe);
@@ -122,7 +133,7 @@ public class DocumentSerialization {
     }
     
     public static InputStream consumeHeader(byte[] data) throws InvalidDocumentHeader {
-        if (null == data || 3 > data.length) {
+        if (null == data || HEADER_LENGTH > data.length) {
             QueryException qe = new QueryException(DatawaveErrorCode.DATA_INVALID_ERROR, MessageFormat.format("Length: {0}",
                             (null != data ? data.length : null)));
             throw new InvalidDocumentHeader(qe);
@@ -139,9 +150,9 @@ public class DocumentSerialization {
         int compression = readUByte(bais);
         
         if (NONE == compression) {
-            return new ByteArrayInputStream(data, 3, data.length - 3);
+            return new ByteArrayInputStream(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
         } else if (GZIP == compression) {
-            ByteArrayInputStream bytes = new ByteArrayInputStream(data, 3, data.length - 3);
+            ByteArrayInputStream bytes = new ByteArrayInputStream(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
             return new InflaterInputStream(bytes, new Inflater(), 1024);
         } else {
             BadRequestQueryException qe = new BadRequestQueryException(DatawaveErrorCode.UNKNOWN_COMPRESSION_SCHEME, MessageFormat.format("{0}", compression));
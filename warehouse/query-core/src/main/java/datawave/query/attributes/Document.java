@@ -462,6 +462,10 @@ public class Document extends AttributeBag<Document> implements Serializable {
         return _count;
     }
     
+    public boolean isTrackSizes() {
+        return trackSizes;
+    }
+    
     @Override
     public long sizeInBytes() {
         if (trackSizes) {
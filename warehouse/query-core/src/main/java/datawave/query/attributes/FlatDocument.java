@@ -0,0 +1,526 @@
+package datawave.query.attributes;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import datawave.data.type.NoOpType;
+import datawave.data.type.Type;
+import org.apache.accumulo.core.data.Key;
+import org.apache.log4j.Logger;
+
+/**
+ * A read only view over a {@link Document} that was serialized in a flat, length prefixed binary format. The format starts with a directory of the fields in
+ * the document, which allows the field names and values to be read directly from the serialized bytes without rebuilding the {@link Attribute} objects that
+ * make up the document. The full document can still be rebuilt using {@link #toDocument()}.
+ * <p>
+ * The format is:
+ *
+ * <pre>
+ * version(byte) flags(byte) sizeInBytes(long) shardTimestamp(long)
+ * numClasses(int) (length(int) className)*
+ * numFields(int) (nameOffset(int) valuesOffset(int) numValues(int))*
+ * body
+ * </pre>
+ *
+ * The field directory is sorted by field name and the offsets are relative to the start of the body. Each field name is written as length(int) name, and each
+ * of the values of a field follow one another as:
+ *
+ * <pre>
+ * kind(byte) flags(byte) classIndex(int) [rowLength(int) row cfLength(int) cf cvLength(int) cv timestamp(long)] dataLength(int) data
+ * </pre>
+ *
+ * The optional section holds the metadata key of the value (see {@link Attribute#getMetadata()}), which keeps the shard and the datatype\0uid of the value
+ * along with its column visibility and timestamp.
+ *
+ * {@link Content} values are written as their content, {@link TypeAttribute} values as the delegate of their type, and any other attribute as its
+ * {@link Attribute#write(java.io.DataOutput, boolean)} form. Multi-valued fields are flattened, so an {@link Attributes} is written as its values.
+ */
+public class FlatDocument {
+    private static final Logger log = Logger.getLogger(FlatDocument.class);
+    
+    public static final byte VERSION = 2;
+    
+    // version, flags, sizeInBytes, shardTimestamp, numClasses, and numFields
+    private static final int MIN_LENGTH = 1 + 1 + 8 + 8 + 4 + 4;
+    
+    private static final byte TRACK_SIZES = 1;
+    
+    private static final byte CONTENT = 0;
+    private static final byte TYPE = 1;
+    private static final byte WRITABLE = 2;
+    
+    private static final byte TO_KEEP = 1;
+    private static final byte HAS_METADATA = 2;
+    
+    private static final byte[] EMPTY = new byte[0];
+    
+    private static final Map<String,Class<?>> classCache = new ConcurrentHashMap<>();
+    
+    private final ByteBuffer data;
+    private final boolean trackSizes;
+    private final long sizeInBytes;
+    private final long shardTimestamp;
+    private final String[] classes;
+    private final int directory;
+    private final int numFields;
+    private final int body;
+    private final String[] fieldNames;
+    
+    public FlatDocument(byte[] data) {
+        this(data, 0, data.length);
+    }
+    
+    public FlatDocument(byte[] data, int offset, int length) {
+        if (length < MIN_LENGTH) {
+            throw new IllegalArgumentException("Flat document of " + length + " bytes is shorter than its header");
+        }
+        this.data = ByteBuffer.wrap(data, offset, length).slice();
+        
+        int position = 0;
+        byte version = this.data.get(position++);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unknown flat document version " + version);
+        }
+        this.trackSizes = (this.data.get(position++) & TRACK_SIZES) != 0;
+        this.sizeInBytes = this.data.getLong(position);
+        position += 8;
+        this.shardTimestamp = this.data.getLong(position);
+        position += 8;
+        
+        this.classes = new String[this.data.getInt(position)];
+        position += 4;
+        for (int i = 0; i < classes.length; i++) {
+            int classLength = this.data.getInt(position);
+            if (classLength < 0 || position + 4 + classLength > length) {
+                throw new IllegalArgumentException("Flat document class names extend past the end of the document");
+            }
+            classes[i] = getString(position + 4, classLength);
+            position += 4 + classLength;
+        }
+        
+        this.numFields = this.data.getInt(position);
+        this.directory = position + 4;
+        this.body = this.directory + (numFields * 12);
+        if (numFields < 0 || body > length) {
+            throw new IllegalArgumentException("Flat document field directory extends past the end of the document");
+        }
+        this.fieldNames = new String[numFields];
+    }
+    
+    /**
+     * @return the number of fields in the document
+     */
+    public int getNumFields() {
+        return numFields;
+    }
+    
+    /**
+     * @param field
+     *            the index of the field in the directory
+     * @return the name of the field
+     */
+    public String getFieldName(int field) {
+        String name = fieldNames[field];
+        if (name == null) {
+            int offset = body + data.getInt(directory + (field * 12));
+            name = getString(offset + 4, data.getInt(offset));
+            fieldNames[field] = name;
+        }
+        return name;
+    }
+    
+    /**
+     * @param fieldName
+     *            the name of a field
+     * @return the index of the field in the directory, or a negative value if the field is not in the document
+     */
+    public int indexOf(String fieldName) {
+        int low = 0;
+        int high = numFields - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = getFieldName(mid).compareTo(fieldName);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+    
+    /**
+     * @param field
+     *            the index of the field in the directory
+     * @return the number of values the field has
+     */
+    public int getNumValues(int field) {
+        return data.getInt(directory + (field * 12) + 8);
+    }
+    
+    /**
+     * Get the values of a field. Only the headers of the values are read, the data of a value is not read until requested.
+     *
+     * @param field
+     *            the index of the field in the directory
+     * @return the values of the field
+     */
+    public List<Value> getValues(int field) {
+        int numValues = getNumValues(field);
+        List<Value> values = new ArrayList<>(numValues);
+        int offset = body + data.getInt(directory + (field * 12) + 4);
+        for (int i = 0; i < numValues; i++) {
+            Value value = new Value(offset);
+            values.add(value);
+            offset = value.end;
+        }
+        return values;
+    }
+    
+    /**
+     * @return the estimated size of the original document
+     * @see Document#sizeInBytes()
+     */
+    public long sizeInBytes() {
+        return sizeInBytes;
+    }
+    
+    /**
+     * Rebuild the full document.
+     *
+     * @return the document
+     */
+    public Document toDocument() {
+        Document document = new Document(null, true, trackSizes);
+        for (int field = 0; field < numFields; field++) {
+            String fieldName = getFieldName(field);
+            for (Value value : getValues(field)) {
+                document.put(fieldName, value.toAttribute(), true, false);
+            }
+        }
+        document.shardTimestamp = shardTimestamp;
+        return document;
+    }
+    
+    private String getString(int offset, int length) {
+        return new String(data.array(), data.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+    }
+    
+    private static Class<?> getClass(String className) {
+        Class<?> clz = classCache.get(className);
+        if (clz == null) {
+            try {
+                clz = Class.forName(className);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("Unknown class " + className, e);
+            }
+            classCache.put(className, clz);
+        }
+        return clz;
+    }
+    
+    /**
+     * A single value of a field
+     */
+    public class Value {
+        private final byte kind;
+        private final byte flags;
+        private final int classIndex;
+        private final int rowOffset;
+        private final int rowLength;
+        private final int cfOffset;
+        private final int cfLength;
+        private final int cvOffset;
+        private final int cvLength;
+        private final long timestamp;
+        private final int dataOffset;
+        private final int dataLength;
+        private final int end;
+        
+        private Value(int offset) {
+            kind = data.get(offset);
+            flags = data.get(offset + 1);
+            classIndex = data.getInt(offset + 2);
+            offset += 6;
+            if ((flags & HAS_METADATA) != 0) {
+                rowLength = data.getInt(offset);
+                rowOffset = offset + 4;
+                offset = rowOffset + rowLength;
+                cfLength = data.getInt(offset);
+                cfOffset = offset + 4;
+                offset = cfOffset + cfLength;
+                cvLength = data.getInt(offset);
+                cvOffset = offset + 4;
+                offset = cvOffset + cvLength;
+                timestamp = data.getLong(offset);
+                offset += 8;
+            } else {
+                rowLength = 0;
+                rowOffset = offset;
+                cfLength = 0;
+                cfOffset = offset;
+                cvLength = 0;
+                cvOffset = offset;
+                timestamp = -1;
+            }
+            dataLength = data.getInt(offset);
+            dataOffset = offset + 4;
+            end = dataOffset + dataLength;
+        }
+        
+        /**
+         * @return the class of the attribute this value was written from
+         */
+        public Class<?> getAttributeClass() {
+            if (kind == CONTENT) {
+                return Content.class;
+            } else if (kind == TYPE) {
+                return TypeAttribute.class;
+            } else {
+                return FlatDocument.getClass(classes[classIndex]);
+            }
+        }
+        
+        /**
+         * @return true if this value is a {@link Metadata} attribute rather than field data
+         */
+        public boolean isMetadata() {
+            return kind == WRITABLE && Metadata.class.isAssignableFrom(getAttributeClass());
+        }
+        
+        public boolean isToKeep() {
+            return (flags & TO_KEEP) != 0;
+        }
+        
+        public boolean isMetadataSet() {
+            return (flags & HAS_METADATA) != 0;
+        }
+        
+        public byte[] getColumnVisibility() {
+            return getBytes(cvOffset, cvLength);
+        }
+        
+        /**
+         * @return the metadata key of the value (shard, datatype\0uid, column visibility, and timestamp), or null if the metadata was not written
+         */
+        public Key getMetadata() {
+            if (!isMetadataSet()) {
+                return null;
+            }
+            return new Key(getBytes(rowOffset, rowLength), getBytes(cfOffset, cfLength), EMPTY, getColumnVisibility(), timestamp);
+        }
+        
+        private byte[] getBytes(int offset, int length) {
+            byte[] bytes = new byte[length];
+            System.arraycopy(data.array(), data.arrayOffset() + offset, bytes, 0, length);
+            return bytes;
+        }
+        
+        public long getTimestamp() {
+            return timestamp;
+        }
+        
+        /**
+         * @return the data of this value as it would be returned by {@link Attribute#getData()}
+         */
+        public Object getData() {
+            if (kind == CONTENT) {
+                return getString(dataOffset, dataLength);
+            } else if (kind == TYPE) {
+                return newType();
+            } else {
+                return toAttribute().getData();
+            }
+        }
+        
+        /**
+         * @return the data of this value as a string, without building a type or an attribute if possible
+         */
+        public String getDataAsString() {
+            if (kind == WRITABLE) {
+                return String.valueOf(toAttribute().getData());
+            }
+            return getString(dataOffset, dataLength);
+        }
+        
+        /**
+         * Rebuild the attribute this value was written from.
+         *
+         * @return the attribute
+         */
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        public Attribute<?> toAttribute() {
+            Key metadata = getMetadata();
+            if (kind == CONTENT) {
+                return new Content(getString(dataOffset, dataLength), metadata, isToKeep());
+            } else if (kind == TYPE) {
+                return new TypeAttribute(newType(), metadata, isToKeep());
+            }
+            
+            Class<?> clz = getAttributeClass();
+            if (!Attribute.class.isAssignableFrom(clz)) {
+                throw new ClassCastException("Found class that was not an instance of Attribute");
+            }
+            try {
+                Attribute<?> attr = (Attribute<?>) clz.newInstance();
+                attr.readFields(new DataInputStream(new ByteArrayInputStream(data.array(), data.arrayOffset() + dataOffset, dataLength)));
+                if (metadata != null) {
+                    // the writable form only carries the column visibility and timestamp
+                    attr.setMetadata(metadata);
+                }
+                return attr;
+            } catch (InstantiationException | IllegalAccessException | IOException e) {
+                throw new IllegalArgumentException("Could not read attribute of " + clz, e);
+            }
+        }
+        
+        @SuppressWarnings("rawtypes")
+        private Type<?> newType() {
+            Type<?> type;
+            try {
+                type = (Type<?>) FlatDocument.getClass(classes[classIndex]).newInstance();
+            } catch (InstantiationException | IllegalAccessException | IllegalArgumentException e) {
+                log.error("Could not create the datawaveType " + e);
+                type = (Type) new NoOpType();
+            }
+            type.setDelegateFromString(getString(dataOffset, dataLength));
+            return type;
+        }
+    }
+    
+    /**
+     * Writes documents in the flat format. A writer reuses its buffers and is therefore not thread safe.
+     */
+    public static class Writer {
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(4096);
+        private final DataOutputStream bodyOut = new DataOutputStream(body);
+        private final ByteArrayOutputStream attribute = new ByteArrayOutputStream(256);
+        private final DataOutputStream attributeOut = new DataOutputStream(attribute);
+        private final Map<String,Integer> classes = new HashMap<>();
+        private final List<String> classNames = new ArrayList<>();
+        private final List<Attribute<?>> values = new ArrayList<>();
+        
+        /**
+         * Serialize a document
+         *
+         * @param document
+         *            the document
+         * @param reducedResponse
+         *            if true, the column visibility and timestamp of the values are not written
+         * @return the serialized document
+         * @throws IOException
+         */
+        public byte[] write(Document document, boolean reducedResponse) throws IOException {
+            body.reset();
+            classes.clear();
+            classNames.clear();
+            
+            Map<String,Attribute<? extends Comparable<?>>> dictionary = document.getDictionary();
+            int[] directory = new int[dictionary.size() * 3];
+            int i = 0;
+            for (Entry<String,Attribute<? extends Comparable<?>>> entry : dictionary.entrySet()) {
+                directory[i++] = body.size();
+                writeBytes(bodyOut, entry.getKey().getBytes(StandardCharsets.UTF_8));
+                
+                values.clear();
+                flatten(entry.getValue(), values);
+                directory[i++] = body.size();
+                directory[i++] = values.size();
+                for (Attribute<?> value : values) {
+                    writeValue(value, reducedResponse);
+                }
+            }
+            
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + (classNames.size() * 64) + (directory.length * 4) + body.size());
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            out.writeByte(document.isTrackSizes() ? TRACK_SIZES : 0);
+            out.writeLong(document.sizeInBytes());
+            out.writeLong(document.shardTimestamp);
+            out.writeInt(classNames.size());
+            for (String className : classNames) {
+                writeBytes(out, className.getBytes(StandardCharsets.UTF_8));
+            }
+            out.writeInt(dictionary.size());
+            for (int entry : directory) {
+                out.writeInt(entry);
+            }
+            body.writeTo(out);
+            out.close();
+            return bytes.toByteArray();
+        }
+        
+        private void flatten(Attribute<?> attr, List<Attribute<?>> values) {
+            if (attr instanceof Attributes) {
+                for (Attribute<?> value : ((Attributes) attr).getAttributes()) {
+                    flatten(value, values);
+                }
+            } else {
+                values.add(attr);
+            }
+        }
+        
+        private void writeValue(Attribute<?> value, boolean reducedResponse) throws IOException {
+            byte kind;
+            int classIndex;
+            byte[] bytes;
+            if (value.getClass() == Content.class) {
+                kind = CONTENT;
+                classIndex = -1;
+                bytes = ((Content) value).getContent().getBytes(StandardCharsets.UTF_8);
+            } else if (value.getClass() == TypeAttribute.class) {
+                Type<?> type = ((TypeAttribute<?>) value).getType();
+                kind = TYPE;
+                classIndex = getClassIndex(type.getClass().getName());
+                bytes = type.getDelegateAsString().getBytes(StandardCharsets.UTF_8);
+            } else {
+                kind = WRITABLE;
+                classIndex = getClassIndex(value.getClass().getName());
+                attribute.reset();
+                value.write(attributeOut, reducedResponse);
+                bytes = attribute.toByteArray();
+            }
+            
+            boolean writeMetadata = !reducedResponse && value.isMetadataSet();
+            bodyOut.writeByte(kind);
+            bodyOut.writeByte((value.isToKeep() ? TO_KEEP : 0) | (writeMetadata ? HAS_METADATA : 0));
+            bodyOut.writeInt(classIndex);
+            if (writeMetadata) {
+                Key metadata = value.getMetadata();
+                writeBytes(bodyOut, metadata.getRowData().toArray());
+                writeBytes(bodyOut, metadata.getColumnFamilyData().toArray());
+                writeBytes(bodyOut, value.getColumnVisibility().getExpression());
+                bodyOut.writeLong(value.getTimestamp());
+            }
+            writeBytes(bodyOut, bytes);
+        }
+        
+        private int getClassIndex(String className) {
+            Integer index = classes.get(className);
+            if (index == null) {
+                index = classNames.size();
+                classes.put(className, index);
+                classNames.add(className);
+            }
+            return index;
+        }
+        
+        private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
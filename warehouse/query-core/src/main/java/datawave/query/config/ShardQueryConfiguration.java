@@ -266,6 +266,11 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
      * By default enable using term frequency instead of field index when possible for value lookup
      */
     private boolean allowTermFrequencyLookup = true;
+    /**
+     * By default gather the term frequencies of every document for content functions. When enabled, the field index and the bloom filters stored in it are
+     * checked first to skip documents which cannot contain the content function terms.
+     */
+    private boolean termFrequencyBloomFilterPruning = false;
     /**
      * By default we will expand unfielded expressions in a negation. May want to disable if there are non-indexed fields.
      */
@@ -302,6 +307,15 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
     private long maxIvaratorResults = -1;
     private int maxEvaluationPipelines = 25;
     private int maxPipelineCachedResults = 25;
+    private int maxPipelineBatchSize = 1;
+    // cache the global index lookups for terms across queries
+    private boolean indexLookupCacheEnabled = false;
+    private long indexLookupCacheMaxBytes = 64L * 1024 * 1024;
+    private long indexLookupCacheTTL = 5 * 60 * 1000L;
+    // run the scan sessions on thread pools shared by all queries rather than on pools per query, 0 to disable. A single query may use at most
+    // sharedScanThreadsPerQuery of the shared threads at once, 0 for no limit
+    private int sharedScanThreads = 0;
+    private int sharedScanThreadsPerQuery = 8;
     private boolean expandAllTerms = false;
     // Adding the ability to pre-cache the query model for performance sake. If this is null
     // then the query model will be pulled from the MetadataHelper
@@ -326,6 +340,11 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
      */
     private boolean trackSizes = true;
     
+    /**
+     * should event aggregation skip the fields which are neither evaluated nor returned
+     */
+    private boolean seekingEventAggregation = false;
+    
     private List<String> contentFieldNames = Collections.emptyList();
     
     /**
@@ -452,6 +471,7 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setContainsCompositeTerms(other.isContainsCompositeTerms());
         this.setAllowFieldIndexEvaluation(other.isAllowFieldIndexEvaluation());
         this.setAllowTermFrequencyLookup(other.isAllowTermFrequencyLookup());
+        this.setTermFrequencyBloomFilterPruning(other.isTermFrequencyBloomFilterPruning());
         this.setExpandUnfieldedNegations(other.isExpandUnfieldedNegations());
         this.setReturnType(other.getReturnType());
         this.setEventPerDayThreshold(other.getEventPerDayThreshold());
@@ -485,6 +505,12 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setMaxIvaratorResults(other.getMaxIvaratorResults());
         this.setMaxEvaluationPipelines(other.getMaxEvaluationPipelines());
         this.setMaxPipelineCachedResults(other.getMaxPipelineCachedResults());
+        this.setMaxPipelineBatchSize(other.getMaxPipelineBatchSize());
+        this.setIndexLookupCacheEnabled(other.isIndexLookupCacheEnabled());
+        this.setIndexLookupCacheMaxBytes(other.getIndexLookupCacheMaxBytes());
+        this.setIndexLookupCacheTTL(other.getIndexLookupCacheTTL());
+        this.setSharedScanThreads(other.getSharedScanThreads());
+        this.setSharedScanThreadsPerQuery(other.getSharedScanThreadsPerQuery());
         this.setExpandAllTerms(other.isExpandAllTerms());
         this.setQueryModel(null == other.getQueryModel() ? null : new QueryModel(other.getQueryModel()));
         this.setModelName(other.getModelName());
@@ -500,6 +526,7 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setUniqueFields(null == other.getUniqueFields() ? null : Sets.newHashSet(other.getUniqueFields()));
         this.setCacheModel(other.getCacheModel());
         this.setTrackSizes(other.isTrackSizes());
+        this.setSeekingEventAggregation(other.isSeekingEventAggregation());
         this.setContentFieldNames(null == other.getContentFieldNames() ? null : Lists.newArrayList(other.getContentFieldNames()));
         this.setEvaluationOnlyFields(other.getEvaluationOnlyFields());
     }
@@ -1284,6 +1311,54 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.maxPipelineCachedResults = maxCachedResults;
     }
     
+    public int getMaxPipelineBatchSize() {
+        return maxPipelineBatchSize;
+    }
+    
+    public void setMaxPipelineBatchSize(int maxPipelineBatchSize) {
+        this.maxPipelineBatchSize = maxPipelineBatchSize;
+    }
+    
+    public boolean isIndexLookupCacheEnabled() {
+        return indexLookupCacheEnabled;
+    }
+    
+    public void setIndexLookupCacheEnabled(boolean indexLookupCacheEnabled) {
+        this.indexLookupCacheEnabled = indexLookupCacheEnabled;
+    }
+    
+    public long getIndexLookupCacheMaxBytes() {
+        return indexLookupCacheMaxBytes;
+    }
+    
+    public void setIndexLookupCacheMaxBytes(long indexLookupCacheMaxBytes) {
+        this.indexLookupCacheMaxBytes = indexLookupCacheMaxBytes;
+    }
+    
+    public long getIndexLookupCacheTTL() {
+        return indexLookupCacheTTL;
+    }
+    
+    public void setIndexLookupCacheTTL(long indexLookupCacheTTL) {
+        this.indexLookupCacheTTL = indexLookupCacheTTL;
+    }
+    
+    public int getSharedScanThreads() {
+        return sharedScanThreads;
+    }
+    
+    public void setSharedScanThreads(int sharedScanThreads) {
+        this.sharedScanThreads = sharedScanThreads;
+    }
+    
+    public int getSharedScanThreadsPerQuery() {
+        return sharedScanThreadsPerQuery;
+    }
+    
+    public void setSharedScanThreadsPerQuery(int sharedScanThreadsPerQuery) {
+        this.sharedScanThreadsPerQuery = sharedScanThreadsPerQuery;
+    }
+    
     public boolean isExpandAllTerms() {
         return expandAllTerms;
     }
@@ -1690,6 +1765,14 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.allowTermFrequencyLookup = allowTermFrequencyLookup;
     }
     
+    public boolean isTermFrequencyBloomFilterPruning() {
+        return termFrequencyBloomFilterPruning;
+    }
+    
+    public void setTermFrequencyBloomFilterPruning(boolean termFrequencyBloomFilterPruning) {
+        this.termFrequencyBloomFilterPruning = termFrequencyBloomFilterPruning;
+    }
+    
     public boolean isExpandUnfieldedNegations() {
         return expandUnfieldedNegations;
     }
@@ -2041,6 +2124,14 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.trackSizes = trackSizes;
     }
     
+    public boolean isSeekingEventAggregation() {
+        return seekingEventAggregation;
+    }
+    
+    public void setSeekingEventAggregation(boolean seekingEventAggregation) {
+        this.seekingEventAggregation = seekingEventAggregation;
+    }
+    
     public List<String> getContentFieldNames() {
         return contentFieldNames;
     }
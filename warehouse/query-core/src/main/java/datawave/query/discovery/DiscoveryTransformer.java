@@ -88,6 +88,8 @@ public class DiscoveryTransformer extends BaseQueryLogicTransformer<DiscoveredTh
         metadata.setRow(thing.getTerm()); // duplicate
         metadata.setTable(logic.getTableName());
         event.setMetadata(metadata);
+        // estimate the size of the event for page size trigger purposes
+        event.setSizeInBytes(event.estimateSizeInBytes());
         return event;
     }
     
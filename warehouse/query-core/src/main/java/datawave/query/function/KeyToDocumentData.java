@@ -54,6 +54,11 @@ public class KeyToDocumentData implements Function<Entry<Key,Document>,Entry<Doc
     protected static final Collection<ByteSequence> columnFamilies = Lists.<ByteSequence> newArrayList(new ArrayByteSequence("tf"), new ArrayByteSequence("d"));
     protected static final boolean inclusive = false;
     
+    /**
+     * The number of keys to next through between the documents of a batch before seeking to the next document instead
+     */
+    public static final int MAX_NEXTS_BEFORE_SEEK = 10;
+    
     private final DescendantCountFunction countFunction;
     
     protected Equality equality;
@@ -148,6 +153,107 @@ public class KeyToDocumentData implements Function<Entry<Key,Document>,Entry<Doc
         
     }
     
+    /**
+     * Aggregate a batch of documents in one ordered sweep over the source. The source is seeked once over the range covering all of the documents, and then
+     * advanced from one document to the next. The source is only seeked again if the next document is more than {@link #MAX_NEXTS_BEFORE_SEEK} keys away, or
+     * if the source was repositioned while collecting the previous document.
+     *
+     * @param batch
+     *            the document keys in sorted order
+     * @return the document data for the documents in the same order, skipping any null inputs
+     */
+    public List<Entry<DocumentData,Document>> apply(List<Entry<Key,Document>> batch) {
+        final List<Entry<DocumentData,Document>> documents = new ArrayList<>(batch.size());
+        Range sweepRange = null;
+        Range lastRange = null;
+        for (int i = 0; i < batch.size(); i++) {
+            Entry<Key,Document> from = batch.get(i);
+            if (null == from || null == from.getKey() || null == from.getValue()) {
+                continue;
+            }
+            Range keyRange = getKeyRange(from);
+            
+            try {
+                if (sweepRange == null || !canSweepTo(lastRange, keyRange, sweepRange)) {
+                    sweepRange = getSweepRange(keyRange, batch, i);
+                    source.seek(sweepRange, columnFamilies, inclusive);
+                } else {
+                    skipTo(keyRange, sweepRange);
+                }
+                
+                if (log.isDebugEnabled())
+                    log.debug(source.hasTop() + " Key range is " + keyRange + " within " + sweepRange);
+                
+                final List<Entry<Key,Value>> attrs;
+                final Set<Key> docKeys = new HashSet<>();
+                if (source.hasTop() && !keyRange.afterEndKey(source.getTopKey())) {
+                    attrs = this.collectDocumentAttributes(from.getKey(), docKeys, keyRange);
+                    this.appendHierarchyFields(attrs, keyRange, from.getKey());
+                    if (countFunction != null) {
+                        // the descendant count may have repositioned the source
+                        sweepRange = null;
+                    }
+                } else {
+                    attrs = Collections.emptyList();
+                }
+                lastRange = keyRange;
+                
+                documents.add(Maps.immutableEntry(new DocumentData(from.getKey(), docKeys, attrs), from.getValue()));
+            } catch (IOException e) {
+                log.error("Unable to collection document attributes for evaluation: " + keyRange, e);
+                QueryException qe = new QueryException(DatawaveErrorCode.DOCUMENT_EVALUATION_ERROR, e);
+                throw new DatawaveFatalQueryException(qe);
+            }
+        }
+        return documents;
+    }
+    
+    /**
+     * Determine if the source can be advanced to the next document without seeking. This requires that the source still has a top key within the sweep, and
+     * that the next document starts at or after the end of the previous one such that no keys for it can have been consumed.
+     */
+    private boolean canSweepTo(Range lastRange, Range keyRange, Range sweepRange) {
+        if (lastRange == null || lastRange.getEndKey() == null || keyRange.getStartKey() == null || !source.hasTop()
+                        || sweepRange.afterEndKey(keyRange.getStartKey())) {
+            return false;
+        }
+        int cmp = lastRange.getEndKey().compareTo(keyRange.getStartKey());
+        return cmp < 0 || (cmp == 0 && !(lastRange.isEndKeyInclusive() && keyRange.isStartKeyInclusive()));
+    }
+    
+    /**
+     * Get the range from the start of this document through the end of the last document in the batch
+     */
+    private Range getSweepRange(Range keyRange, List<Entry<Key,Document>> batch, int index) {
+        for (int i = batch.size() - 1; i > index; i--) {
+            Entry<Key,Document> last = batch.get(i);
+            if (null != last && null != last.getKey() && null != last.getValue()) {
+                Range lastRange = getKeyRange(last);
+                if (lastRange.getEndKey() != null && keyRange.getEndKey() != null && lastRange.getEndKey().compareTo(keyRange.getEndKey()) > 0) {
+                    return new Range(keyRange.getStartKey(), keyRange.isStartKeyInclusive(), lastRange.getEndKey(), lastRange.isEndKeyInclusive());
+                }
+                break;
+            }
+        }
+        return keyRange;
+    }
+    
+    /**
+     * Advance the source to the start of the specified document, seeking if it is more than a few keys away
+     */
+    private void skipTo(Range keyRange, Range sweepRange) throws IOException {
+        int nexts = 0;
+        while (source.hasTop() && keyRange.beforeStartKey(source.getTopKey())) {
+            if (nexts++ < MAX_NEXTS_BEFORE_SEEK) {
+                source.next();
+            } else {
+                source.seek(new Range(keyRange.getStartKey(), keyRange.isStartKeyInclusive(), sweepRange.getEndKey(), sweepRange.isEndKeyInclusive()),
+                                columnFamilies, inclusive);
+                break;
+            }
+        }
+    }
+    
     /**
      * Given a Key pointing to the start of an document to aggregate, construct a list of attributes, adding the names of the attributes to the specified set of
      * "docKeys".
@@ -190,6 +296,11 @@ public class KeyToDocumentData implements Function<Entry<Key,Document>,Entry<Doc
             WeakReference<Key> docAttrKey = new WeakReference<>(source.getTopKey());
             
             while (docAttrKey != null) {
+                // the source may be positioned within a sweep over several documents
+                if (keyRange.afterEndKey(docAttrKey.get())) {
+                    break;
+                }
+                
                 boolean seeked = false;
                 if (equality.partOf(documentStartKey, docAttrKey.get())) {
                     if (filter == null || filter.keep(docAttrKey.get())) {
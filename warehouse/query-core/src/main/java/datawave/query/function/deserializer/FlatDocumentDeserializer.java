@@ -0,0 +1,58 @@
+package datawave.query.function.deserializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map.Entry;
+
+import datawave.query.DocumentSerialization;
+import datawave.query.attributes.Document;
+import datawave.query.attributes.FlatDocument;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Transform bytes in the {@link FlatDocument} format back into a Document. Callers that only need the field names and values can use {@link #applyFlat(Entry)}
+ * to read them directly from the serialized bytes instead.
+ */
+public class FlatDocumentDeserializer extends DocumentDeserializer {
+    
+    @Override
+    public Document deserialize(InputStream data) {
+        return deserializeFlat(data).toDocument();
+    }
+    
+    /**
+     * Wrap a serialized document without rebuilding it. If the document was not compressed, then the bytes of the value are used as is.
+     *
+     * @param from
+     *            the serialized document
+     * @return the flat document
+     */
+    public Entry<Key,FlatDocument> applyFlat(Entry<Key,Value> from) {
+        byte[] data = from.getValue().get();
+        InputStream is = DocumentSerialization.consumeHeader(data);
+        
+        FlatDocument document;
+        // consumeHeader has validated the magic number and length of the header, and the compression is its last byte
+        if (DocumentSerialization.NONE == data[DocumentSerialization.HEADER_LENGTH - 1]) {
+            document = new FlatDocument(data, DocumentSerialization.HEADER_LENGTH, data.length - DocumentSerialization.HEADER_LENGTH);
+        } else {
+            document = deserializeFlat(is);
+        }
+        
+        return Maps.immutableEntry(from.getKey(), document);
+    }
+    
+    public FlatDocument deserializeFlat(InputStream data) {
+        try {
+            return new FlatDocument(ByteStreams.toByteArray(data));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read flat Document", e);
+        }
+    }
+    
+}
@@ -0,0 +1,35 @@
+package datawave.query.function.serializer;
+
+import java.io.IOException;
+
+import datawave.query.attributes.Document;
+import datawave.query.attributes.FlatDocument;
+
+/**
+ * Convert a Document to a Value in the {@link FlatDocument} format, which can be read on the web tier without rebuilding the Attributes of the Document.
+ */
+public class FlatDocumentSerializer extends DocumentSerializer {
+    final FlatDocument.Writer writer = new FlatDocument.Writer();
+    
+    public FlatDocumentSerializer() {
+        this(false, false);
+    }
+    
+    public FlatDocumentSerializer(boolean reducedResponse) {
+        this(reducedResponse, false);
+    }
+    
+    public FlatDocumentSerializer(boolean reducedResponse, boolean compress) {
+        super(reducedResponse, compress);
+    }
+    
+    @Override
+    public byte[] serialize(Document doc) {
+        try {
+            return writer.write(doc, reducedResponse);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not convert Document to the flat format.", e);
+        }
+    }
+    
+}
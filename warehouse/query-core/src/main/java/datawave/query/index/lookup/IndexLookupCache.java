@@ -0,0 +1,202 @@
+package datawave.query.index.lookup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import datawave.query.config.ShardQueryConfiguration;
+import datawave.util.time.DateHelper;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.log4j.Logger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+
+/**
+ * A cache of the global index entries returned for a term by the {@link RangeStream}. Dashboard style workloads issue the same terms over the same date ranges
+ * repeatedly, and for hot terms the index scans dominate the planning time. The entries are cached rather than the {@link IndexInfo} objects as those are tied
+ * to the query tree they were created for, so each query still parses the cached entries against its own nodes.
+ *
+ * The cache is shared by all queries, is bounded by the approximate number of bytes in the cached entries, and expires entries after a configured time. As the
+ * cache cannot see new data being loaded into the index, the time to live bounds how stale a result may be. The cache may also be cleared explicitly, which is
+ * done whenever the metadata caches are evicted.
+ */
+public class IndexLookupCache {
+    
+    private static final Logger log = Logger.getLogger(IndexLookupCache.class);
+    
+    private static IndexLookupCache instance = null;
+    
+    // incremented whenever the cache is cleared so that lookups started beforehand are not cached
+    private static final AtomicLong generation = new AtomicLong();
+    
+    private final long maxBytes;
+    private final long ttlMs;
+    private final Cache<String,List<Entry<Key,Value>>> cache;
+    
+    private IndexLookupCache(long maxBytes, long ttlMs) {
+        this.maxBytes = maxBytes;
+        this.ttlMs = ttlMs;
+        this.cache = CacheBuilder.newBuilder().maximumWeight(maxBytes).weigher(new Weigher<String,List<Entry<Key,Value>>>() {
+            @Override
+            public int weigh(String key, List<Entry<Key,Value>> entries) {
+                return (int) Math.min(Integer.MAX_VALUE, key.length() + sizeInBytes(entries));
+            }
+        }).expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS).concurrencyLevel(10).build();
+    }
+    
+    /**
+     * Get the shared cache, recreating it if the size or time to live has changed
+     *
+     * @param maxBytes
+     *            the max approximate number of bytes to cache
+     * @param ttlMs
+     *            the time in milliseconds after which a cached lookup expires
+     * @return the cache
+     */
+    public static synchronized IndexLookupCache getInstance(long maxBytes, long ttlMs) {
+        if (instance == null || instance.maxBytes != maxBytes || instance.ttlMs != ttlMs) {
+            instance = new IndexLookupCache(maxBytes, ttlMs);
+        }
+        return instance;
+    }
+    
+    /**
+     * Clear the cached lookups, for example when new data has been loaded into the index
+     */
+    public static synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        if (instance != null) {
+            instance.cache.invalidateAll();
+        }
+    }
+    
+    /**
+     * Create the key for a term lookup. This includes everything that affects the entries returned by the index scan.
+     *
+     * @param config
+     *            the query configuration
+     * @param fieldName
+     *            the field
+     * @param literal
+     *            the normalized value
+     * @param options
+     *            any other options which affect the scan, such as the iterator settings
+     * @return the key
+     */
+    public static String createKey(ShardQueryConfiguration config, String fieldName, String literal, Object... options) {
+        StringBuilder key = new StringBuilder();
+        key.append(config.getIndexTableName()).append('\0');
+        key.append(fieldName).append('\0').append(literal).append('\0');
+        key.append(DateHelper.format(config.getBeginDate())).append('\0').append(DateHelper.format(config.getEndDate())).append('\0');
+        key.append(config.getDatatypeFilterAsString()).append('\0');
+        // the auths in a canonical order
+        Set<String> auths = new TreeSet<>();
+        if (config.getAuthorizations() != null) {
+            for (Authorizations authorizations : config.getAuthorizations()) {
+                auths.add(toStrings(authorizations).toString());
+            }
+        }
+        key.append(auths);
+        for (Object option : options) {
+            key.append('\0').append(option);
+        }
+        return key.toString();
+    }
+    
+    private static Set<String> toStrings(Authorizations authorizations) {
+        Set<String> auths = new TreeSet<>();
+        for (byte[] auth : authorizations.getAuthorizations()) {
+            auths.add(new String(auth));
+        }
+        return auths;
+    }
+    
+    /**
+     * @param key
+     *            the lookup key
+     * @return the cached entries for the lookup, or null if not cached
+     */
+    public List<Entry<Key,Value>> get(String key) {
+        List<Entry<Key,Value>> entries = cache.getIfPresent(key);
+        if (log.isDebugEnabled()) {
+            log.debug("Index lookup cache " + (entries == null ? "miss" : "hit") + " for " + key.replace('\0', ' '));
+        }
+        return entries;
+    }
+    
+    /**
+     * Wrap the entries returned by an index scan such that they are cached once the scan has been completely consumed. Scans which are abandoned part way
+     * through, or which are larger than the cache, are not cached.
+     *
+     * @param key
+     *            the lookup key
+     * @param entries
+     *            the entries returned by the scan
+     * @return an iterator over the same entries
+     */
+    public Iterator<Entry<Key,Value>> cache(final String key, final Iterator<Entry<Key,Value>> entries) {
+        final long startGeneration = generation.get();
+        return new Iterator<Entry<Key,Value>>() {
+            private List<Entry<Key,Value>> recorded = new ArrayList<>();
+            private long bytes = 0;
+            
+            @Override
+            public boolean hasNext() {
+                boolean hasNext = entries.hasNext();
+                if (!hasNext && recorded != null) {
+                    if (startGeneration == generation.get()) {
+                        cache.put(key, Collections.unmodifiableList(recorded));
+                    }
+                    recorded = null;
+                }
+                return hasNext;
+            }
+            
+            @Override
+            public Entry<Key,Value> next() {
+                Entry<Key,Value> entry = entries.next();
+                if (recorded != null) {
+                    bytes += sizeInBytes(entry);
+                    if (bytes > maxBytes) {
+                        // too large to be cached
+                        recorded = null;
+                    } else {
+                        recorded.add(entry);
+                    }
+                }
+                return entry;
+            }
+            
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+    
+    public long size() {
+        return cache.size();
+    }
+    
+    private static long sizeInBytes(List<Entry<Key,Value>> entries) {
+        long bytes = 0;
+        for (Entry<Key,Value> entry : entries) {
+            bytes += sizeInBytes(entry);
+        }
+        return bytes;
+    }
+    
+    private static long sizeInBytes(Entry<Key,Value> entry) {
+        return entry.getKey().getSize() + entry.getValue().getSize();
+    }
+}
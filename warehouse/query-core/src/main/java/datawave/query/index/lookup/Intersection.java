@@ -10,12 +10,16 @@ import com.google.common.collect.TreeMultimap;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.concurrent.ExecutorService;
 import datawave.query.exceptions.DatawaveFatalQueryException;
+import datawave.query.jexl.JexlASTHelper;
 import datawave.query.jexl.JexlNodeFactory;
 import datawave.query.jexl.nodes.ExceededTermThresholdMarkerJexlNode;
 import datawave.query.jexl.nodes.ExceededValueThresholdMarkerJexlNode;
@@ -26,8 +30,10 @@ import datawave.query.util.Tuples;
 import datawave.util.StringUtils;
 import datawave.webservice.query.exception.DatawaveErrorCode;
 import datawave.webservice.query.exception.QueryException;
+import org.apache.commons.jexl2.parser.ASTAndNode;
 import org.apache.commons.jexl2.parser.ASTDelayedPredicate;
 import org.apache.commons.jexl2.parser.JexlNode;
+import org.apache.commons.jexl2.parser.JexlNodes;
 import org.apache.log4j.Logger;
 
 /**
@@ -54,6 +60,11 @@ public class Intersection implements IndexStream {
     
     private static final Logger log = Logger.getLogger(Intersection.class);
     
+    /**
+     * Orders index info by increasing count, with those of an unknown count last
+     */
+    static final Comparator<IndexInfo> CARDINALITY_ORDER = Comparator.comparingLong(info -> info.count() < 0 ? Long.MAX_VALUE : info.count());
+    
     public Intersection(Iterable<? extends IndexStream> children, UidIntersector uidIntersector) {
         this.children = TreeMultimap.create(Ordering.natural(), Ordering.arbitrary());
         this.uidIntersector = uidIntersector;
@@ -225,7 +236,11 @@ public class Intersection implements IndexStream {
     }
     
     IndexInfo intersect(Iterable<? extends PeekingIterator<Tuple2<String,IndexInfo>>> iterators) {
-        Iterator<IndexInfo> infos = convert(iterators).iterator();
+        // order the terms by their counts in the global index so that the rarest term leads the intersection
+        List<IndexInfo> sorted = Lists.newArrayList(convert(iterators));
+        sorted.sort(CARDINALITY_ORDER);
+        
+        Iterator<IndexInfo> infos = sorted.iterator();
         IndexInfo merged = infos.next();
         
         nodeSet.clear();
@@ -259,9 +274,53 @@ public class Intersection implements IndexStream {
             log.trace("can't add children");
             merged.setNode(currNode);
         }
+        
+        orderByCardinality(currNode, sorted);
+        if (merged.getNode() != currNode) {
+            orderByCardinality(merged.getNode(), sorted);
+        }
         return merged;
     }
     
+    /**
+     * Reorder the children of an intersection to follow the order of the supplied index info, which is sorted by cardinality. The iterators on the tablet
+     * servers are built in the order of the query tree and the first term of an intersection is used to drive the others, so this places the rarest term
+     * first. Terms that do not correspond to any of the index info, such as delayed terms, are left in their current order after the others.
+     *
+     * @param node
+     *            the intersection
+     * @param infos
+     *            the index info of the terms, ordered by cardinality
+     */
+    static void orderByCardinality(JexlNode node, List<IndexInfo> infos) {
+        if (null == node) {
+            return;
+        }
+        JexlNode and = JexlASTHelper.dereference(node);
+        if (!(and instanceof ASTAndNode) || and.jjtGetNumChildren() < 2) {
+            return;
+        }
+        
+        Map<String,Integer> ranks = new HashMap<>();
+        for (int i = 0; i < infos.size(); i++) {
+            JexlNode infoNode = infos.get(i).getNode();
+            if (null != infoNode) {
+                JexlNode source = JexlASTHelper.dereference(infoNode);
+                ranks.putIfAbsent(JexlASTHelper.nodeToKey(source), i);
+                // the terms of a nested intersection may have been flattened into this one
+                if (source instanceof ASTAndNode) {
+                    for (JexlNode child : JexlNodes.children(source)) {
+                        ranks.putIfAbsent(JexlASTHelper.nodeToKey(JexlASTHelper.dereference(child)), i);
+                    }
+                }
+            }
+        }
+        
+        List<JexlNode> children = Lists.newArrayList(JexlNodes.children(and));
+        children.sort(Comparator.comparingInt(child -> ranks.getOrDefault(JexlASTHelper.nodeToKey(JexlASTHelper.dereference(child)), infos.size())));
+        JexlNodes.children(and, children.toArray(new JexlNode[0]));
+    }
+    
     static boolean allChildrenAreUnindexed(Iterable<IndexStream> stuff) {
         for (IndexStream is : stuff) {
             if (StreamContext.UNINDEXED != is.context()) {
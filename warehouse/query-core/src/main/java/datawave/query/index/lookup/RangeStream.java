@@ -6,6 +6,7 @@ import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import datawave.core.iterators.FairQueryExecutor;
 import datawave.data.type.Type;
 import datawave.query.CloseableIterable;
 import datawave.query.Constants;
@@ -30,6 +31,7 @@ import datawave.query.planner.QueryPlan;
 import datawave.query.tables.RangeStreamScanner;
 import datawave.query.tables.ScannerFactory;
 import datawave.query.tables.SessionOptions;
+import datawave.query.tables.async.ScanSessionExecutor;
 import datawave.query.util.MetadataHelper;
 import datawave.query.util.QueryScannerHelper;
 import datawave.query.util.Tuple2;
@@ -84,6 +86,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
@@ -144,8 +147,17 @@ public class RangeStream extends BaseVisitor implements CloseableIterable<QueryP
         int maxLookup = (int) Math.max(config.getNumIndexLookupThreads(), 1);
         executor = Executors.newFixedThreadPool(maxLookup);
         runnables = new LinkedBlockingDeque<>();
-        int executeLookupMin = (int) Math.max(maxLookup / 2, 1);
-        streamExecutor = new ThreadPoolExecutor(executeLookupMin, maxLookup, 100, TimeUnit.MILLISECONDS, runnables);
+        if (config.getSharedScanThreads() > 0) {
+            // the index scans run on the pool shared with the scanner sessions. The lookups themselves stay on the executor above, as they wait on one
+            // another and could otherwise occupy every thread of a bounded pool
+            FairQueryExecutor pool = ScanSessionExecutor.getSharedPool(ScanSessionExecutor.SCAN_POOL, config.getSharedScanThreads(),
+                            config.getSharedScanThreadsPerQuery());
+            String queryId = (config.getQuery() == null || config.getQuery().getId() == null) ? null : config.getQuery().getId().toString();
+            streamExecutor = new ScanSessionExecutor(pool, queryId);
+        } else {
+            int executeLookupMin = (int) Math.max(maxLookup / 2, 1);
+            streamExecutor = new ThreadPoolExecutor(executeLookupMin, maxLookup, 100, TimeUnit.MILLISECONDS, runnables);
+        }
         fieldDataTypes = config.getQueryFieldsDatatypes();
         collapseUids = config.getCollapseUids();
         try {
@@ -442,8 +454,23 @@ public class RangeStream extends BaseVisitor implements CloseableIterable<QueryP
             
             // two scenarios
             Iterator<Tuple2<String,IndexInfo>> itr = null;
+            Iterator<Entry<Key,Value>> entries = null;
             int stackStart = config.getBaseIteratorPriority();
             
+            // check for a recent lookup of the same term
+            IndexLookupCache cache = null;
+            String cacheKey = null;
+            if (config.isIndexLookupCacheEnabled()) {
+                cache = IndexLookupCache.getInstance(config.getIndexLookupCacheMaxBytes(), config.getIndexLookupCacheTTL());
+                cacheKey = IndexLookupCache.createKey(config, fieldName, literal, limitScanners, config.getShardsPerDayThreshold(), collapseUids,
+                                config.getParseTldUids(), createUidsIteratorClass.getName());
+                List<Entry<Key,Value>> cached = cache.get(cacheKey);
+                if (cached != null) {
+                    itr = Iterators.transform(cached.iterator(), new EntryParser(node, fieldName, literal, indexOnlyFields));
+                    return ScannerStream.initialized(itr, node);
+                }
+            }
+            
             if (limitScanners) {
                 // Setup the CreateUidsIterator
                 RangeStreamScanner scanSession = scanners.newRangeScanner(config.getIndexTableName(), config.getAuthorizations(), config.getQuery(),
@@ -468,7 +495,7 @@ public class RangeStream extends BaseVisitor implements CloseableIterable<QueryP
                 
                 scanSession.setRanges(Collections.singleton(rangeForTerm(literal, fieldName, config))).setOptions(options);
                 
-                itr = Iterators.transform(scanSession, new EntryParser(node, fieldName, literal, indexOnlyFields));
+                entries = scanSession;
                 
             } else {
                 
@@ -482,8 +509,13 @@ public class RangeStream extends BaseVisitor implements CloseableIterable<QueryP
                 uidSetting.addOption(CreateUidsIterator.PARSE_TLD_UIDS, Boolean.valueOf(config.getParseTldUids()).toString());
                 scanner.addScanIterator(uidSetting);
                 
-                itr = Iterators.transform(scanner.iterator(), new EntryParser(node, fieldName, literal, indexOnlyFields));
+                entries = scanner.iterator();
+            }
+            
+            if (cache != null) {
+                entries = cache.cache(cacheKey, entries);
             }
+            itr = Iterators.transform(entries, new EntryParser(node, fieldName, literal, indexOnlyFields));
             
             /*
              * Create a scanner in the initialized state so that we can scan immediately
@@ -5,6 +5,7 @@ import org.apache.accumulo.core.data.Key;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -12,6 +13,8 @@ import java.util.Map;
  */
 public class DocumentSpecificNestedIterator extends NestedQueryIterator<Key> {
     private Map.Entry<Key,Document> documentKey;
+    private List<Map.Entry<Key,Document>> documentKeys;
+    private int nextIndex;
     private Map.Entry<Key,Document> next;
     private Map.Entry<Key,Document> current;
     
@@ -20,22 +23,48 @@ public class DocumentSpecificNestedIterator extends NestedQueryIterator<Key> {
     }
     
     public void setDocumentKey(Map.Entry<Key,Document> documentKey) {
-        this.documentKey = documentKey;
-        this.next = documentKey;
+        setDocumentKeys(Collections.singletonList(documentKey));
     }
     
+    /**
+     * Set a batch of documents to iterate over
+     *
+     * @param documentKeys
+     *            the document keys in sorted order
+     */
+    public void setDocumentKeys(List<Map.Entry<Key,Document>> documentKeys) {
+        this.documentKeys = documentKeys;
+        this.documentKey = (documentKeys.isEmpty() ? null : documentKeys.get(documentKeys.size() - 1));
+        this.nextIndex = 0;
+        advance();
+    }
+    
+    /**
+     * @return the document key, or the last document key when iterating over a batch
+     */
     public Map.Entry<Key,Document> getDocumentKey() {
         return documentKey;
     }
     
+    public List<Map.Entry<Key,Document>> getDocumentKeys() {
+        return documentKeys;
+    }
+    
+    private void advance() {
+        this.next = (nextIndex < documentKeys.size() ? documentKeys.get(nextIndex++) : null);
+    }
+    
     @Override
     public void initialize() {}
     
     @Override
     public Key move(Key minimum) {
-        if (minimum.compareTo(this.documentKey.getKey()) <= 0) {
-            this.next = documentKey;
-        } else {
+        this.nextIndex = 0;
+        do {
+            advance();
+        } while (this.next != null && this.next.getKey() != null && minimum.compareTo(this.next.getKey()) > 0);
+        
+        if (this.next != null && this.next.getKey() == null) {
             this.next = null;
         }
         return this.next == null ? null : this.next.getKey();
@@ -64,7 +93,7 @@ public class DocumentSpecificNestedIterator extends NestedQueryIterator<Key> {
     @Override
     public Key next() {
         this.current = this.next;
-        this.next = null;
+        advance();
         return (this.current == null ? null : this.current.getKey());
     }
     
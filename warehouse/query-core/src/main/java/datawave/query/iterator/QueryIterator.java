@@ -34,10 +34,12 @@ import datawave.query.function.MaskedValueFilterFactory;
 import datawave.query.function.MaskedValueFilterInterface;
 import datawave.query.function.RemoveGroupingContext;
 import datawave.query.function.deserializer.KryoDocumentDeserializer;
+import datawave.query.function.serializer.FlatDocumentSerializer;
 import datawave.query.function.serializer.KryoDocumentSerializer;
 import datawave.query.function.serializer.ToStringDocumentSerializer;
 import datawave.query.function.serializer.WritableDocumentSerializer;
 import datawave.query.iterator.aggregation.DocumentData;
+import datawave.query.iterator.pipeline.BatchedDocumentDataIterator;
 import datawave.query.iterator.pipeline.PipelineFactory;
 import datawave.query.iterator.pipeline.PipelineIterator;
 import datawave.query.iterator.profile.EvaluationTrackingFunction;
@@ -62,6 +64,8 @@ import datawave.query.jexl.visitors.SatisfactionVisitor;
 import datawave.query.jexl.visitors.VariableNameVisitor;
 import datawave.query.postprocessing.tf.TFFactory;
 import datawave.query.predicate.EmptyDocumentFilter;
+import datawave.query.predicate.EventDataProjectionFilter;
+import datawave.query.predicate.EventDataQueryFilter;
 import datawave.query.statsd.QueryStatsDClient;
 import datawave.query.tracking.ActiveQuery;
 import datawave.query.tracking.ActiveQueryLog;
@@ -75,6 +79,7 @@ import datawave.query.util.Tuple3;
 import datawave.query.util.TupleToEntry;
 import datawave.query.util.TypeMetadata;
 import datawave.util.StringUtils;
+import datawave.util.UniversalSet;
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
@@ -106,6 +111,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -173,6 +179,8 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
     
     protected ASTJexlScript script = null;
     
+    protected EventDataQueryFilter eventAggregationFilter = null;
+    
     protected JexlEvaluation myEvaluationFunction = null;
     
     protected QuerySpan trackingSpan = null;
@@ -400,6 +408,7 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
                             yield, yieldThresholdMs, columnFamilies, inclusive);
             
             pipelineIter.setCollectTimingDetails(collectTimingDetails);
+            pipelineIter.setMaxBatchSize(getMaxPipelineBatchSize());
             // TODO pipelineIter.setStatsdHostAndPort(statsdHostAndPort);
             
             pipelineIter.startPipeline();
@@ -451,6 +460,9 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
             } else if (this.getReturnType() == ReturnType.writable) {
                 // Use the Writable interface to serialize the Document
                 this.serializedDocuments = Iterators.transform(pipelineDocuments, new WritableDocumentSerializer(isReducedResponse()));
+            } else if (this.getReturnType() == ReturnType.flat) {
+                // Serialize the Document in the flat format
+                this.serializedDocuments = Iterators.transform(pipelineDocuments, new FlatDocumentSerializer(isReducedResponse(), isCompressResults()));
             } else if (this.getReturnType() == ReturnType.tostring) {
                 // Just return a toString() representation of the document
                 this.serializedDocuments = Iterators.transform(pipelineDocuments, new ToStringDocumentSerializer(isReducedResponse()));
@@ -788,14 +800,20 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
                 }
             };
         } else {
-            docMapper = new KeyToDocumentData(deepSourceCopy, myEnvironment, documentOptions, super.equality, getEvaluationFilter(),
+            docMapper = new KeyToDocumentData(deepSourceCopy, myEnvironment, documentOptions, super.equality, getEventAggregationFilter(),
                             this.includeHierarchyFields, this.includeHierarchyFields);
         }
         
-        Iterator<Entry<DocumentData,Document>> sourceIterator = Iterators.transform(documentSpecificSource, from -> {
-            Entry<Key,Document> entry = Maps.immutableEntry(from, documentSpecificSource.document());
-            return docMapper.apply(entry);
-        });
+        Iterator<Entry<DocumentData,Document>> sourceIterator;
+        if (getMaxPipelineBatchSize() > 1 && docMapper instanceof KeyToDocumentData) {
+            // fetch the batch of documents given to the pipeline in one sweep over the source
+            sourceIterator = new BatchedDocumentDataIterator(documentSpecificSource, (KeyToDocumentData) docMapper);
+        } else {
+            sourceIterator = Iterators.transform(documentSpecificSource, from -> {
+                Entry<Key,Document> entry = Maps.immutableEntry(from, documentSpecificSource.document());
+                return docMapper.apply(entry);
+            });
+        }
         
         // Take the document Keys and transform it into Entry<Key,Document>,
         // removing Attributes for this Document
@@ -950,7 +968,7 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
             if (this.isTermFrequenciesRequired()) {
                 Function<Tuple2<Key,Document>,Tuple3<Key,Document,Map<String,Object>>> tfFunction;
                 tfFunction = TFFactory.getFunction(getScript(documentSource), getContentExpansionFields(), getTermFrequencyFields(), this.getTypeMetadata(),
-                                super.equality, getEvaluationFilter(), sourceDeepCopy.deepCopy(myEnvironment));
+                                super.equality, getEvaluationFilter(), sourceDeepCopy.deepCopy(myEnvironment), isTermFrequencyBloomFilterPruning());
                 
                 itrWithContext = TraceIterators.transform(tupleItr, tfFunction, "Term Frequency Lookup");
             } else {
@@ -1052,7 +1070,7 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
         }
         if (fieldIndexSatisfiesQuery) {
             final KeyToDocumentData docMapper = new KeyToDocumentData(deepSourceCopy, this.myEnvironment, this.documentOptions, super.equality,
-                            getEvaluationFilter(), this.includeHierarchyFields, this.includeHierarchyFields);
+                            getEventAggregationFilter(), this.includeHierarchyFields, this.includeHierarchyFields);
             Iterator<Tuple2<Key,Document>> mappedDocuments = Iterators.transform(
                             documents,
                             new GetDocument(docMapper, new Aggregation(this.getTimeFilter(), typeMetadataWithNonIndexed, compositeMetadata, this
@@ -1333,6 +1351,62 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
         return this.fieldIndexSatisfiesQuery;
     }
     
+    /**
+     * Get the filter used when aggregating the keys of an event into a document. This is the evaluation filter if there is one. Otherwise, if enabled and the
+     * results are being projected, a filter that only accepts the fields required for evaluation, post processing, or return to the user is used so that the
+     * remaining fields are skipped rather than parsed and later removed by the projection.
+     *
+     * @return the filter, or null if all keys of the event should be aggregated
+     */
+    protected EventDataQueryFilter getEventAggregationFilter() {
+        EventDataQueryFilter filter = getEvaluationFilter();
+        if (filter != null || !isSeekingEventAggregation() || !this.projectResults || script == null || !getDocumentPermutations().isEmpty()) {
+            return filter;
+        }
+        
+        if (this.eventAggregationFilter == null) {
+            Set<String> whitelist = null;
+            Set<String> blacklist = null;
+            if (this.useWhiteListedFields) {
+                if (this.whiteListedFields instanceof UniversalSet) {
+                    return null;
+                }
+                whitelist = new HashSet<>(this.whiteListedFields);
+                whitelist.addAll(getPostProcessingFields());
+            } else if (this.useBlackListedFields) {
+                blacklist = new HashSet<>(this.blackListedFields);
+                blacklist.removeAll(getPostProcessingFields());
+            }
+            
+            int maxKeys = this.maxKeysBeforeSeek;
+            if (this.maxFieldHitsBeforeSeek == -1 && maxKeys == -1) {
+                maxKeys = EventDataProjectionFilter.DEFAULT_MAX_KEYS_BEFORE_SEEK;
+            }
+            this.eventAggregationFilter = new EventDataProjectionFilter(script, typeMetadataWithNonIndexed, whitelist, blacklist,
+                            this.maxFieldHitsBeforeSeek, maxKeys, getNonEventFields());
+        }
+        return this.eventAggregationFilter.clone();
+    }
+    
+    /**
+     * The event fields needed after aggregation other than the query fields and the projection: the grouping and unique fields, and the components of any
+     * composite field
+     *
+     * @return the fields
+     */
+    private Set<String> getPostProcessingFields() {
+        Set<String> fields = new HashSet<>(getGroupFields());
+        fields.addAll(getUniqueFields());
+        
+        CompositeMetadata compositeMetadata = getCompositeMetadata();
+        if (compositeMetadata != null && compositeMetadata.getCompositeFieldMapByType() != null) {
+            for (Multimap<String,String> compositeToFields : compositeMetadata.getCompositeFieldMapByType().values()) {
+                fields.addAll(compositeToFields.values());
+            }
+        }
+        return fields;
+    }
+    
     protected NestedIterator<Key> getEventDataNestedIterator(SortedKeyValueIterator<Key,Value> source) {
         return new EventDataScanNestedIterator(source, getEventEntryKeyDataTypeFilter());
     }
@@ -128,6 +128,7 @@ public class QueryOptions implements OptionDescriber {
     public static final String DOCUMENT_PERMUTATION_CLASSES = "document.permutation.classes";
     public static final String TERM_FREQUENCY_FIELDS = "term.frequency.fields";
     public static final String TERM_FREQUENCIES_REQUIRED = "term.frequencies.are.required";
+    public static final String TERM_FREQUENCY_BLOOM_FILTER_PRUNING = "term.frequency.bloom.filter.pruning";
     public static final String CONTENT_EXPANSION_FIELDS = "content.expansion.fields";
     public static final String LIMIT_FIELDS = "limit.fields";
     public static final String LIMIT_FIELDS_PRE_QUERY_EVALUATION = "limit.fields.pre.query.evaluation";
@@ -151,6 +152,7 @@ public class QueryOptions implements OptionDescriber {
     public static final String STATSD_MAX_QUEUE_SIZE = "statsd.max.queue.size";
     public static final String DATATYPE_FIELDNAME = "include.datatype.fieldname";
     public static final String TRACK_SIZES = "track.sizes";
+    public static final String SEEKING_EVENT_AGGREGATION = "seeking.event.aggregation";
     
     // pass through to Evaluating iterator to ensure consistency between query
     // logics
@@ -227,6 +229,8 @@ public class QueryOptions implements OptionDescriber {
     
     public static final String MAX_PIPELINE_CACHED_RESULTS = "max.pipeline.cached.results";
     
+    public static final String MAX_PIPELINE_BATCH_SIZE = "max.pipeline.batch.size";
+    
     public static final String BATCHED_QUERY = "query.iterator.batch";
     
     public static final String BATCHED_QUERY_RANGE_PREFIX = "query.iterator.batch.range.";
@@ -281,6 +285,7 @@ public class QueryOptions implements OptionDescriber {
     
     protected int maxEvaluationPipelines = 25;
     protected int maxPipelineCachedResults = 25;
+    protected int maxPipelineBatchSize = 1;
     
     protected Set<String> indexOnlyFields = Sets.newHashSet();
     protected Set<String> indexedFields = Sets.newHashSet();
@@ -341,6 +346,7 @@ public class QueryOptions implements OptionDescriber {
     protected Map<String,Set<String>> nonIndexedDataTypeMap = Maps.newHashMap();
     
     protected boolean termFrequenciesRequired = false;
+    protected boolean termFrequencyBloomFilterPruning = false;
     protected Set<String> termFrequencyFields = Collections.emptySet();
     protected Set<String> contentExpansionFields;
     
@@ -380,6 +386,15 @@ public class QueryOptions implements OptionDescriber {
      */
     protected boolean trackSizes = true;
     
+    /**
+     * should event aggregation skip the fields which are neither evaluated nor returned
+     */
+    protected boolean seekingEventAggregation = false;
+    
+    // SeekingQueryPlanner thresholds, -1 if not configured
+    protected int maxFieldHitsBeforeSeek = -1;
+    protected int maxKeysBeforeSeek = -1;
+    
     public void deepCopy(QueryOptions other) {
         this.options = other.options;
         this.query = other.query;
@@ -481,18 +496,23 @@ public class QueryOptions implements OptionDescriber {
         this.sortedUIDs = other.sortedUIDs;
         
         this.termFrequenciesRequired = other.termFrequenciesRequired;
+        this.termFrequencyBloomFilterPruning = other.termFrequencyBloomFilterPruning;
         this.termFrequencyFields = other.termFrequencyFields;
         this.contentExpansionFields = other.contentExpansionFields;
         
         this.batchedQueries = other.batchedQueries;
         this.batchStack = other.batchStack;
         this.maxEvaluationPipelines = other.maxEvaluationPipelines;
+        this.maxPipelineBatchSize = other.maxPipelineBatchSize;
         
         this.dateIndexTimeTravel = other.dateIndexTimeTravel;
         
         this.debugMultithreadedSources = other.debugMultithreadedSources;
         
         this.trackSizes = other.trackSizes;
+        this.seekingEventAggregation = other.seekingEventAggregation;
+        this.maxFieldHitsBeforeSeek = other.maxFieldHitsBeforeSeek;
+        this.maxKeysBeforeSeek = other.maxKeysBeforeSeek;
     }
     
     public String getQuery() {
@@ -583,6 +603,30 @@ public class QueryOptions implements OptionDescriber {
         this.trackSizes = trackSizes;
     }
     
+    public boolean isSeekingEventAggregation() {
+        return seekingEventAggregation;
+    }
+    
+    public void setSeekingEventAggregation(boolean seekingEventAggregation) {
+        this.seekingEventAggregation = seekingEventAggregation;
+    }
+    
+    public int getMaxFieldHitsBeforeSeek() {
+        return maxFieldHitsBeforeSeek;
+    }
+    
+    public void setMaxFieldHitsBeforeSeek(int maxFieldHitsBeforeSeek) {
+        this.maxFieldHitsBeforeSeek = maxFieldHitsBeforeSeek;
+    }
+    
+    public int getMaxKeysBeforeSeek() {
+        return maxKeysBeforeSeek;
+    }
+    
+    public void setMaxKeysBeforeSeek(int maxKeysBeforeSeek) {
+        this.maxKeysBeforeSeek = maxKeysBeforeSeek;
+    }
+    
     public void setTypeMetadata(TypeMetadata typeMetadata) {
         this.typeMetadata = typeMetadata;
     }
@@ -1050,6 +1094,8 @@ public class QueryOptions implements OptionDescriber {
                         "Allow the evaluation to occur purely on values pulled from the field index for queries only accessing indexed fields (default is true)");
         options.put(ALLOW_TERM_FREQUENCY_LOOKUP, "Allow the evaluation to use the term frequencies in lieu of the field index when appropriate");
         options.put(TERM_FREQUENCIES_REQUIRED, "Does the query require gathering term frequencies");
+        options.put(TERM_FREQUENCY_BLOOM_FILTER_PRUNING,
+                        "Use the field index and document bloom filters to skip gathering term frequencies for documents without the content function terms");
         options.put(TERM_FREQUENCY_FIELDS, "comma-delimited list of fields that contain term frequencies");
         options.put(CONTENT_EXPANSION_FIELDS, "comma-delimited list of fields used for content function expansions");
         options.put(HDFS_SITE_CONFIG_URLS, "URLs (comma delimited) of where to find the hadoop hdfs and core site configuration files");
@@ -1066,6 +1112,8 @@ public class QueryOptions implements OptionDescriber {
                         "The maximum number of files that can be opened at one time during a merge sort.  If more that this number of files are created, then compactions will occur");
         options.put(IVARATOR_NUM_RETRIES,
                         "The number of times an ivarator should attempt to persist a sorted set to a given ivarator cache directory.  We will use the specified number of retries for each of the configured ivarator cache directories.");
+        options.put(SEEKING_EVENT_AGGREGATION,
+                        "When projecting results, skip the event fields that are neither evaluated nor returned while aggregating an event instead of parsing them.  Default is false.");
         options.put(MAX_IVARATOR_SOURCES,
                         " The maximum number of sources to use for ivarators across all ivarated terms within the query.  Note the thread pool size is controlled via an accumulo property.");
         options.put(YIELD_THRESHOLD_MS,
@@ -1074,6 +1122,7 @@ public class QueryOptions implements OptionDescriber {
         options.put(MAX_EVALUATION_PIPELINES, "The max number of evaluation pipelines");
         options.put(SERIAL_EVALUATION_PIPELINE, "Forces us to use the serial pipeline. Allows us to still have a single thread for evaluation");
         options.put(MAX_PIPELINE_CACHED_RESULTS, "The max number of non-null evaluated results to cache beyond the evaluation pipelines in queue");
+        options.put(MAX_PIPELINE_BATCH_SIZE, "The max number of documents an evaluation pipeline will fetch in one sweep over the event data; 1 to disable batching");
         options.put(DATE_INDEX_TIME_TRAVEL, "Whether the shards from before the event should be gathered from the dateIndex");
         
         options.put(SORTED_UIDS,
@@ -1184,6 +1233,19 @@ public class QueryOptions implements OptionDescriber {
             setTrackSizes(Boolean.parseBoolean(options.get(TRACK_SIZES)));
         }
         
+        if (options.containsKey(SEEKING_EVENT_AGGREGATION)) {
+            setSeekingEventAggregation(Boolean.parseBoolean(options.get(SEEKING_EVENT_AGGREGATION)));
+        }
+        
+        // extract SeekingQueryPlanner fields if available
+        if (options.get(SeekingQueryPlanner.MAX_FIELD_HITS_BEFORE_SEEK) != null) {
+            setMaxFieldHitsBeforeSeek(Integer.parseInt(options.get(SeekingQueryPlanner.MAX_FIELD_HITS_BEFORE_SEEK)));
+        }
+        
+        if (options.get(SeekingQueryPlanner.MAX_KEYS_BEFORE_SEEK) != null) {
+            setMaxKeysBeforeSeek(Integer.parseInt(options.get(SeekingQueryPlanner.MAX_KEYS_BEFORE_SEEK)));
+        }
+        
         if (options.containsKey(PROJECTION_FIELDS)) {
             this.projectResults = true;
             this.useWhiteListedFields = true;
@@ -1494,9 +1556,16 @@ public class QueryOptions implements OptionDescriber {
             this.setMaxPipelineCachedResults(Integer.parseInt(options.get(MAX_PIPELINE_CACHED_RESULTS)));
         }
         
+        if (options.containsKey(MAX_PIPELINE_BATCH_SIZE)) {
+            this.setMaxPipelineBatchSize(Integer.parseInt(options.get(MAX_PIPELINE_BATCH_SIZE)));
+        }
+        
         if (options.containsKey(TERM_FREQUENCIES_REQUIRED)) {
             this.setTermFrequenciesRequired(Boolean.parseBoolean(options.get(TERM_FREQUENCIES_REQUIRED)));
         }
+        if (options.containsKey(TERM_FREQUENCY_BLOOM_FILTER_PRUNING)) {
+            this.setTermFrequencyBloomFilterPruning(Boolean.parseBoolean(options.get(TERM_FREQUENCY_BLOOM_FILTER_PRUNING)));
+        }
         this.setTermFrequencyFields(parseTermFrequencyFields(options));
         this.setContentExpansionFields(parseContentExpansionFields(options));
         
@@ -1831,6 +1900,14 @@ public class QueryOptions implements OptionDescriber {
         this.termFrequenciesRequired = termFrequenciesRequired;
     }
     
+    public boolean isTermFrequencyBloomFilterPruning() {
+        return termFrequencyBloomFilterPruning;
+    }
+    
+    public void setTermFrequencyBloomFilterPruning(boolean termFrequencyBloomFilterPruning) {
+        this.termFrequencyBloomFilterPruning = termFrequencyBloomFilterPruning;
+    }
+    
     public Set<String> parseTermFrequencyFields(Map<String,String> options) {
         String val = options.get(TERM_FREQUENCY_FIELDS);
         if (val == null) {
@@ -1881,6 +1958,14 @@ public class QueryOptions implements OptionDescriber {
         this.maxPipelineCachedResults = maxCachedResults;
     }
     
+    public int getMaxPipelineBatchSize() {
+        return maxPipelineBatchSize;
+    }
+    
+    public void setMaxPipelineBatchSize(int maxPipelineBatchSize) {
+        this.maxPipelineBatchSize = maxPipelineBatchSize;
+    }
+    
     public String getStatsdHostAndPort() {
         return statsdHostAndPort;
     }
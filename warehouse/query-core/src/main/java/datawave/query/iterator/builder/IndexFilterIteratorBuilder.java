@@ -63,6 +63,7 @@ public class IndexFilterIteratorBuilder extends IvaratorBuilder implements Itera
                 // create a field index caching ivarator
                 // @formatter:off
                 DatawaveFieldIndexFilterIteratorJexl rangeIterator = DatawaveFieldIndexFilterIteratorJexl.builder()
+                        .withQueryId(queryId)
                         .withFieldName(new Text(range.getFieldName()))
                         .withFilter(filter)
                         .withLowerBound(range.getLower().toString())
@@ -75,6 +75,7 @@ public class IndexListIteratorBuilder extends IvaratorBuilder implements Iterato
                 // create a field index caching ivarator
                 // @formatter:off
                 DatawaveFieldIndexListIteratorJexl.Builder builder = DatawaveFieldIndexListIteratorJexl.builder()
+                        .withQueryId(queryId)
                         .withFieldName(new Text(field))
                         .withTimeFilter(timeFilter)
                         .withDatatypeFilter(datatypeFilter)
@@ -66,6 +66,7 @@ public class IndexRangeIteratorBuilder extends IvaratorBuilder implements Iterat
                 // create a field index caching ivarator
                 // @formatter:off
                 DatawaveFieldIndexRangeIteratorJexl rangeIterator = DatawaveFieldIndexRangeIteratorJexl.builder()
+                        .withQueryId(queryId)
                         .withFieldName(new Text(range.getFieldName()))
                         .withLowerBound(range.getLower().toString())
                         .lowerInclusive(range.isLowerInclusive())
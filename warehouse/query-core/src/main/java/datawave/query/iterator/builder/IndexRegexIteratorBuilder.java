@@ -50,6 +50,7 @@ public class IndexRegexIteratorBuilder extends IvaratorBuilder implements Iterat
                 // create a field index caching ivarator
                 // @formatter:off
                 DatawaveFieldIndexRegexIteratorJexl regexIterator = DatawaveFieldIndexRegexIteratorJexl.builder()
+                        .withQueryId(queryId)
                         .withFieldName(new Text(field))
                         .withFieldValue(new Text(value))
                         .withTimeFilter(timeFilter)
@@ -36,6 +36,7 @@ import datawave.query.function.DocumentCountCardinality;
 import datawave.query.function.JexlEvaluation;
 import datawave.query.function.KeyToDocumentData;
 import datawave.query.function.MinimumEstimation;
+import datawave.query.function.serializer.FlatDocumentSerializer;
 import datawave.query.function.serializer.KryoDocumentSerializer;
 import datawave.query.function.serializer.ToStringDocumentSerializer;
 import datawave.query.function.serializer.WritableDocumentSerializer;
@@ -258,6 +259,9 @@ public class DynamicFacetIterator extends FieldIndexOnlyQueryIterator {
         } else if (this.getReturnType() == ReturnType.writable) {
             // Use the Writable interface to serialize the Document
             this.serializedDocuments = Iterators.transform(fieldIndexDocuments, new WritableDocumentSerializer(isReducedResponse()));
+        } else if (this.getReturnType() == ReturnType.flat) {
+            // Serialize the Document in the flat format
+            this.serializedDocuments = Iterators.transform(fieldIndexDocuments, new FlatDocumentSerializer(isReducedResponse(), isCompressResults()));
         } else if (this.getReturnType() == ReturnType.tostring) {
             // Just return a toString() representation of the document
             this.serializedDocuments = Iterators.transform(fieldIndexDocuments, new ToStringDocumentSerializer(isReducedResponse()));
@@ -19,6 +19,7 @@ public class IvaratorCacheDirConfig {
     public static final int DEFAULT_PRIORITY = Integer.MAX_VALUE;
     public static final long DEFAULT_MIN_AVAILABLE_STORAGE_MiB = 0L;
     public static final double DEFAULT_MIN_AVAILABLE_STORAGE_PERCENT = 0f;
+    public static final boolean DEFAULT_OFF_HEAP_BUFFER = false;
     
     private static final ObjectMapper objectMapper = new ObjectMapper();
     
@@ -34,6 +35,9 @@ public class IvaratorCacheDirConfig {
     // the minimum percent of available storage required to use this filesystem
     final protected double minAvailableStoragePercent;
     
+    // whether ivarators using this filesystem hold their cache buffer off-heap instead of in a TreeSet of keys
+    final protected boolean offHeapBuffer;
+    
     static {
         objectMapper.configure(SerializationFeature.WRITE_SINGLE_ELEM_ARRAYS_UNWRAPPED, true);
         objectMapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
@@ -48,22 +52,31 @@ public class IvaratorCacheDirConfig {
     }
     
     public IvaratorCacheDirConfig(String basePathURI, int priority) {
-        this(basePathURI, priority, DEFAULT_MIN_AVAILABLE_STORAGE_MiB, DEFAULT_MIN_AVAILABLE_STORAGE_PERCENT);
+        this(basePathURI, priority, DEFAULT_MIN_AVAILABLE_STORAGE_MiB, DEFAULT_MIN_AVAILABLE_STORAGE_PERCENT, DEFAULT_OFF_HEAP_BUFFER);
     }
     
     public IvaratorCacheDirConfig(String basePathURI, int priority, long minAvailableStorageMiB) {
-        this(basePathURI, priority, minAvailableStorageMiB, DEFAULT_MIN_AVAILABLE_STORAGE_PERCENT);
+        this(basePathURI, priority, minAvailableStorageMiB, DEFAULT_OFF_HEAP_BUFFER);
     }
     
     public IvaratorCacheDirConfig(String basePathURI, int priority, double minAvailableStoragePercent) {
-        this(basePathURI, priority, DEFAULT_MIN_AVAILABLE_STORAGE_MiB, minAvailableStoragePercent);
+        this(basePathURI, priority, minAvailableStoragePercent, DEFAULT_OFF_HEAP_BUFFER);
+    }
+    
+    public IvaratorCacheDirConfig(String basePathURI, int priority, long minAvailableStorageMiB, boolean offHeapBuffer) {
+        this(basePathURI, priority, minAvailableStorageMiB, DEFAULT_MIN_AVAILABLE_STORAGE_PERCENT, offHeapBuffer);
     }
     
-    private IvaratorCacheDirConfig(String basePathURI, int priority, long minAvailableStorageMiB, double minAvailableStoragePercent) {
+    public IvaratorCacheDirConfig(String basePathURI, int priority, double minAvailableStoragePercent, boolean offHeapBuffer) {
+        this(basePathURI, priority, DEFAULT_MIN_AVAILABLE_STORAGE_MiB, minAvailableStoragePercent, offHeapBuffer);
+    }
+    
+    private IvaratorCacheDirConfig(String basePathURI, int priority, long minAvailableStorageMiB, double minAvailableStoragePercent, boolean offHeapBuffer) {
         this.basePathURI = basePathURI;
         this.priority = priority;
         this.minAvailableStorageMiB = minAvailableStorageMiB;
         this.minAvailableStoragePercent = minAvailableStoragePercent;
+        this.offHeapBuffer = offHeapBuffer;
     }
     
     @JsonIgnore
@@ -104,6 +117,10 @@ public class IvaratorCacheDirConfig {
         return minAvailableStoragePercent;
     }
     
+    public boolean isOffHeapBuffer() {
+        return offHeapBuffer;
+    }
+    
     public static String toJson(IvaratorCacheDirConfig ivaratorCacheDirConfig) throws JsonProcessingException {
         return toJson(Collections.singletonList(ivaratorCacheDirConfig));
     }
@@ -119,7 +136,7 @@ public class IvaratorCacheDirConfig {
     @Override
     public String toString() {
         return "IvaratorCacheDirConfig: [basePathURI: " + basePathURI + ", priority: " + priority + ", minAvailableStorageMiB: " + minAvailableStorageMiB
-                        + ", minAvailableStoragePercent: " + minAvailableStoragePercent + "]";
+                        + ", minAvailableStoragePercent: " + minAvailableStoragePercent + ", offHeapBuffer: " + offHeapBuffer + "]";
     }
     
     @Override
@@ -130,11 +147,12 @@ public class IvaratorCacheDirConfig {
             return false;
         IvaratorCacheDirConfig that = (IvaratorCacheDirConfig) o;
         return priority == that.priority && minAvailableStorageMiB == that.minAvailableStorageMiB
-                        && Double.compare(that.minAvailableStoragePercent, minAvailableStoragePercent) == 0 && Objects.equals(basePathURI, that.basePathURI);
+                        && Double.compare(that.minAvailableStoragePercent, minAvailableStoragePercent) == 0 && offHeapBuffer == that.offHeapBuffer
+                        && Objects.equals(basePathURI, that.basePathURI);
     }
     
     @Override
     public int hashCode() {
-        return Objects.hash(basePathURI, priority, minAvailableStorageMiB, minAvailableStoragePercent);
+        return Objects.hash(basePathURI, priority, minAvailableStorageMiB, minAvailableStoragePercent, offHeapBuffer);
     }
 }
@@ -219,7 +219,7 @@ public class AndIterator<T extends Comparable<T>> implements NestedIterator<T>,
                         // found a match, set next/document and advance
                         next = transforms.get(lowest);
                         document = Util.buildNewDocument(includeHeads.values());
-                        includeHeads = advanceIterators(lowest);
+                        includeHeads = advanceFromLead(lowest);
                         break;
                     }
                 } else {
@@ -396,6 +396,68 @@ public class AndIterator<T extends Comparable<T>> implements NestedIterator<T>,
         return includeHeads;
     }
     
+    /**
+     * Advances past a key on which all of the includes intersect. Only the lead include is advanced with <code>next</code>, and the remaining includes are
+     * moved directly to the position of the lead. The lead is the first include, which the query planner orders to be the term with the lowest estimated
+     * cardinality, so the more common terms are probed with seeks instead of being scanned one document at a time.
+     *
+     * @param key
+     *            the key all of the includes are currently positioned on
+     * @return the include heads, or an empty multimap if a sub-tree has been exhausted
+     */
+    protected TreeMultimap<T,NestedIterator<T>> advanceFromLead(T key) {
+        List<NestedIterator<T>> matched = new ArrayList<>(includeHeads.get(key));
+        NestedIterator<T> lead = null;
+        for (NestedIterator<T> include : includes) {
+            if (matched.remove(include)) {
+                lead = include;
+                break;
+            }
+        }
+        if (lead == null || matched.isEmpty()) {
+            return advanceIterators(key);
+        }
+        
+        transforms.remove(key);
+        includeHeads.removeAll(key);
+        
+        T to = null;
+        try {
+            if (!lead.hasNext()) {
+                return Util.getEmpty();
+            }
+            T next = lead.next();
+            to = transformer.transform(next);
+            transforms.put(to, next);
+            includeHeads.put(to, lead);
+        } catch (Exception e) {
+            // the remaining includes are still in the AND clause, so drop the lead and advance them instead
+            log.warn("Failed include lookup, but dropping in lieu of other terms", e);
+        }
+        
+        // if the lead did not leave the current key (or was dropped), then the remaining includes can only be advanced
+        boolean move = (to != null && to.compareTo(key) > 0);
+        for (NestedIterator<T> itr : matched) {
+            try {
+                T itrNext = (move ? itr.move(to) : (itr.hasNext() ? itr.next() : null));
+                if (itrNext == null) {
+                    return Util.getEmpty();
+                }
+                T transform = transformer.transform(itrNext);
+                transforms.put(transform, itrNext);
+                includeHeads.put(transform, itr);
+            } catch (Exception e) {
+                // only need to actually fail if we have nothing left in the AND clause
+                if (includeHeads.isEmpty()) {
+                    throw e;
+                } else {
+                    log.warn("Failed include lookup, but dropping in lieu of other terms", e);
+                }
+            }
+        }
+        return includeHeads;
+    }
+    
     /**
      * Similar to <code>advanceIterators</code>, but instead of calling <code>next</code> on each sub-tree, this calls <code>move</code> with the supplied
      * <code>to</code> parameter.
@@ -0,0 +1,60 @@
+package datawave.query.iterator.pipeline;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+import datawave.query.attributes.Document;
+import datawave.query.function.KeyToDocumentData;
+import datawave.query.iterator.NestedIterator;
+import datawave.query.iterator.aggregation.DocumentData;
+import org.apache.accumulo.core.data.Key;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Fetches the event data for all of the documents currently available from the document source in one ordered sweep over the source, and then hands them down
+ * the pipeline one at a time in the same order. Once the fetched documents have been consumed, the next call to hasNext will fetch whatever documents have
+ * since been added to the document source, so this iterator may be reused by a pipeline in the same way as a transformed iterator.
+ */
+public class BatchedDocumentDataIterator implements Iterator<Entry<DocumentData,Document>> {
+    
+    private final NestedIterator<Key> documentSource;
+    private final KeyToDocumentData docMapper;
+    private final Queue<Entry<DocumentData,Document>> fetched = new LinkedList<>();
+    
+    public BatchedDocumentDataIterator(NestedIterator<Key> documentSource, KeyToDocumentData docMapper) {
+        this.documentSource = documentSource;
+        this.docMapper = docMapper;
+    }
+    
+    @Override
+    public boolean hasNext() {
+        if (fetched.isEmpty() && documentSource.hasNext()) {
+            List<Entry<Key,Document>> batch = new ArrayList<>();
+            while (documentSource.hasNext()) {
+                Key key = documentSource.next();
+                batch.add(Maps.immutableEntry(key, documentSource.document()));
+            }
+            fetched.addAll(docMapper.apply(batch));
+        }
+        return !fetched.isEmpty();
+    }
+    
+    @Override
+    public Entry<DocumentData,Document> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return fetched.poll();
+    }
+    
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
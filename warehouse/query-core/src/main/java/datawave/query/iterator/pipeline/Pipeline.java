@@ -1,6 +1,9 @@
 package datawave.query.iterator.pipeline;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -27,6 +30,9 @@ public class Pipeline implements Runnable {
     
     // the result
     private Entry<Key,Document> result = null;
+    // the results when evaluating a batch of documents
+    private final List<Entry<Key,Document>> results = new ArrayList<>();
+    private boolean batched = false;
     // the pipeline
     private Iterator<Entry<Key,Document>> iterator = null;
     
@@ -47,14 +53,35 @@ public class Pipeline implements Runnable {
     
     public void setSource(Map.Entry<Key,Document> documentKey) {
         this.documentSpecificSource.setDocumentKey(documentKey);
+        this.batched = false;
     }
     
+    /**
+     * Set a batch of documents to be evaluated by one run of this pipeline
+     *
+     * @param documentKeys
+     *            the document keys in sorted order
+     */
+    public void setSource(List<Map.Entry<Key,Document>> documentKeys) {
+        this.documentSpecificSource.setDocumentKeys(documentKeys);
+        this.batched = true;
+    }
+    
+    /**
+     * @return the document key, or the last document key of a batch
+     */
     public Map.Entry<Key,Document> getSource() {
         return this.documentSpecificSource.getDocumentKey();
     }
     
+    public List<Map.Entry<Key,Document>> getSources() {
+        return this.documentSpecificSource.getDocumentKeys();
+    }
+    
     public void clear() {
         this.result = null;
+        this.results.clear();
+        this.batched = false;
         this.documentSpecificSource.setDocumentKey(null);
     }
     
@@ -62,16 +89,34 @@ public class Pipeline implements Runnable {
         return result;
     }
     
+    /**
+     * @return the non-null results in document order, which for a single document is the result if non-null
+     */
+    public List<Entry<Key,Document>> getResults() {
+        if (!batched) {
+            return (result == null ? Collections.emptyList() : Collections.singletonList(result));
+        }
+        return results;
+    }
+    
     @Override
     public void run() {
-        if (iterator.hasNext()) {
+        if (batched) {
+            while (iterator.hasNext()) {
+                Entry<Key,Document> next = iterator.next();
+                if (null != next) {
+                    results.add(next);
+                }
+            }
+            result = (results.isEmpty() ? null : results.get(0));
+        } else if (iterator.hasNext()) {
             result = iterator.next();
         } else {
             result = null;
         }
         
         if (log.isTraceEnabled()) {
-            log.trace("next() returned " + result);
+            log.trace("next() returned " + (batched ? results : result));
         }
     }
     
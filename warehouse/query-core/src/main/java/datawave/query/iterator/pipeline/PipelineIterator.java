@@ -1,5 +1,6 @@
 package datawave.query.iterator.pipeline;
 
+import com.google.common.collect.Maps;
 import datawave.core.iterators.IteratorThreadPoolManager;
 import datawave.query.attributes.Document;
 import datawave.query.iterator.NestedIterator;
@@ -18,9 +19,11 @@ import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.YieldCallback;
 import org.apache.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.concurrent.ExecutionException;
@@ -35,6 +38,13 @@ import java.util.concurrent.TimeoutException;
 public class PipelineIterator implements Iterator<Entry<Key,Document>> {
     
     private static final Logger log = Logger.getLogger(PipelineIterator.class);
+    
+    /**
+     * When batching, the number of attributes to aim for across the documents in one batch. The batch size is derived from the average number of attributes in
+     * the documents returned so far.
+     */
+    public static final int TARGET_BATCH_ATTRIBUTES = 5000;
+    
     protected final YieldCallback<Key> yield;
     protected final long yieldThresholdMs;
     protected final NestedIterator<Key> docSource;
@@ -47,8 +57,12 @@ public class PipelineIterator implements Iterator<Entry<Key,Document>> {
     protected final QuerySpan querySpan;
     protected boolean collectTimingDetails = false;
     protected IteratorEnvironment env;
+    protected final String queryId;
     protected Collection<ByteSequence> columnFamilies;
     protected boolean inclusive;
+    protected int maxBatchSize = 1;
+    protected long documentsReturned = 0;
+    protected long attributesReturned = 0;
     
     public PipelineIterator(NestedIterator<Key> documents, int maxPipelines, int maxCachedResults, QuerySpanCollector querySpanCollector, QuerySpan querySpan,
                     QueryIterator sourceIterator, SortedKeyValueIterator<Key,Value> sourceForDeepCopy, IteratorEnvironment env,
@@ -61,6 +75,7 @@ public class PipelineIterator implements Iterator<Entry<Key,Document>> {
         this.querySpanCollector = querySpanCollector;
         this.querySpan = querySpan;
         this.env = env;
+        this.queryId = (sourceIterator == null ? null : sourceIterator.getQueryId());
         this.yield = yieldCallback;
         this.yieldThresholdMs = yieldThresholdMs;
         this.columnFamilies = columnFamilies;
@@ -71,6 +86,34 @@ public class PipelineIterator implements Iterator<Entry<Key,Document>> {
         this.collectTimingDetails = collectTimingDetails;
     }
     
+    /**
+     * Set the max number of documents to hand to a pipeline at once. A pipeline given a batch of documents will fetch their event data in one ordered sweep
+     * over the source instead of seeking to each document separately, which pays off when there are many small documents. Batching is not used with nested
+     * queries.
+     *
+     * @param maxBatchSize
+     *            the max batch size, 1 to evaluate one document per pipeline
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+    
+    /**
+     * Get the number of documents to hand to the next pipeline, based on the average size of the documents returned so far
+     *
+     * @return the batch size
+     */
+    protected int getBatchSize() {
+        if (maxBatchSize <= 1 || docSource instanceof NestedQueryIterator) {
+            return 1;
+        }
+        if (documentsReturned == 0) {
+            return maxBatchSize;
+        }
+        long averageAttributes = Math.max(1, attributesReturned / documentsReturned);
+        return (int) Math.max(1, Math.min(maxBatchSize, TARGET_BATCH_ATTRIBUTES / averageAttributes));
+    }
+    
     /*
      * (non-Javadoc)
      * 
@@ -230,6 +273,7 @@ public class PipelineIterator implements Iterator<Entry<Key,Document>> {
         Tuple2<Future<?>,Pipeline> nextFuture = evaluationQueue.poll();
         
         Entry<Key,Document> result = null;
+        List<Entry<Key,Document>> evaluated = null;
         try {
             if (log.isTraceEnabled()) {
                 Key docKey = nextFuture.second().getSource().getKey();
@@ -251,8 +295,9 @@ public class PipelineIterator implements Iterator<Entry<Key,Document>> {
             // call get to ensure that we throw any exception that occurred
             nextFuture.first().get();
             
-            // pull the result
+            // pull the result, and all of the results when the pipeline evaluated a batch
             result = nextFuture.second().getResult();
+            evaluated = new ArrayList<>(nextFuture.second().getResults());
             
             if (log.isTraceEnabled()) {
                 Key docKey = nextFuture.second().getSource().getKey();
@@ -273,21 +318,30 @@ public class PipelineIterator implements Iterator<Entry<Key,Document>> {
         
         // start a new evaluation if we can
         if (docSource.hasNext()) {
-            Key keySource = docSource.next();
-            NestedQuery<Key> nestedQuery = null;
-            if (docSource instanceof NestedQueryIterator) {
-                nestedQuery = ((NestedQueryIterator) this.docSource).getNestedQuery();
+            int batchSize = getBatchSize();
+            if (batchSize > 1) {
+                evaluateBatch(batchSize, columnFamilies, inclusive);
+            } else {
+                Key keySource = docSource.next();
+                NestedQuery<Key> nestedQuery = null;
+                if (docSource instanceof NestedQueryIterator) {
+                    nestedQuery = ((NestedQueryIterator) this.docSource).getNestedQuery();
+                }
+                
+                evaluate(keySource, docSource.document(), nestedQuery, columnFamilies, inclusive);
             }
-            
-            evaluate(keySource, docSource.document(), nestedQuery, columnFamilies, inclusive);
             if (collectTimingDetails) {
                 querySpanCollector.addQuerySpan(querySpan);
             }
         }
         
-        // put the result into the queue if non-null
-        if (result != null) {
-            results.add(result);
+        // put the non-null results into the queue in document order
+        for (Entry<Key,Document> entry : evaluated) {
+            if (entry.getValue() != null) {
+                documentsReturned++;
+                attributesReturned += entry.getValue().size();
+            }
+            results.add(entry);
         }
         
         return result;
@@ -319,6 +373,12 @@ public class PipelineIterator implements Iterator<Entry<Key,Document>> {
         }
         
         for (int i = 0; i < maxPipelines && this.docSource.hasNext(); i++) {
+            int batchSize = getBatchSize();
+            if (batchSize > 1) {
+                evaluateBatch(batchSize, columnFamilies, inclusive);
+                continue;
+            }
+            
             Key keySource = this.docSource.next();
             if (isNested) {
                 nestedQuery = ((NestedQueryIterator) this.docSource).getNestedQuery();
@@ -336,7 +396,25 @@ public class PipelineIterator implements Iterator<Entry<Key,Document>> {
         }
         Pipeline pipeline = pipelines.checkOut(key, document, nestedQuery, columnFamilies, inclusive);
         
-        evaluationQueue.add(new Tuple2<>(IteratorThreadPoolManager.executeEvaluation(pipeline, pipeline.toString(), env), pipeline));
+        evaluationQueue.add(new Tuple2<>(IteratorThreadPoolManager.executeEvaluation(pipeline, pipeline.toString(), queryId, env), pipeline));
+    }
+    
+    /**
+     * Hand the next batch of documents to a pipeline. As the pipelines are polled in the order they were started, the results are still returned in document
+     * order.
+     */
+    private void evaluateBatch(int batchSize, Collection<ByteSequence> columnFamilies, boolean inclusive) {
+        List<Entry<Key,Document>> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize && this.docSource.hasNext()) {
+            Key keySource = this.docSource.next();
+            batch.add(Maps.immutableEntry(keySource, this.docSource.document()));
+        }
+        if (log.isTraceEnabled()) {
+            log.trace("Adding evaluation of " + batch.size() + " documents through " + batch.get(batch.size() - 1).getKey() + " to pipeline");
+        }
+        Pipeline pipeline = pipelines.checkOut(batch, null, columnFamilies, inclusive);
+        
+        evaluationQueue.add(new Tuple2<>(IteratorThreadPoolManager.executeEvaluation(pipeline, pipeline.toString(), queryId, env), pipeline));
     }
     
     /*
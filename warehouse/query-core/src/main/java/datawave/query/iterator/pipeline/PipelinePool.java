@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.apache.accumulo.core.data.ByteSequence;
@@ -57,6 +58,33 @@ public class PipelinePool {
         if (log.isTraceEnabled()) {
             log.trace("checkOut(" + key + ") " + nestedQuery);
         }
+        Pipeline pipeline = checkOut(nestedQuery, columnFamilies, inclusive);
+        if (pipeline != null) {
+            pipeline.setSource(Maps.immutableEntry(key, doc));
+        }
+        return pipeline;
+    }
+    
+    /**
+     * Checkout a pipeline initialized with the specified batch of documents, creating a new pipeline if needed
+     * 
+     * @param documents
+     *            the document keys in sorted order
+     * @param nestedQuery
+     * @return a new pipeline initialized and ready to execute
+     */
+    public Pipeline checkOut(List<Entry<Key,Document>> documents, NestedQuery<Key> nestedQuery, Collection<ByteSequence> columnFamilies, boolean inclusive) {
+        if (log.isTraceEnabled()) {
+            log.trace("checkOut(" + documents.size() + " documents) " + nestedQuery);
+        }
+        Pipeline pipeline = checkOut(nestedQuery, columnFamilies, inclusive);
+        if (pipeline != null) {
+            pipeline.setSource(documents);
+        }
+        return pipeline;
+    }
+    
+    private Pipeline checkOut(NestedQuery<Key> nestedQuery, Collection<ByteSequence> columnFamilies, boolean inclusive) {
         Pipeline pipeline = null;
         if (!this.checkedIn.isEmpty()) {
             pipeline = checkedIn.remove(checkedIn.size() - 1);
@@ -78,7 +106,6 @@ public class PipelinePool {
         }
         if (pipeline != null) {
             checkedOut.add(pipeline);
-            pipeline.setSource(Maps.immutableEntry(key, doc));
         }
         return pipeline;
     }
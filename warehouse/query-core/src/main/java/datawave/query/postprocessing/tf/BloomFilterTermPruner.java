@@ -0,0 +1,157 @@
+package datawave.query.postprocessing.tf;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import datawave.query.Constants;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.hadoop.io.Text;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.Multimap;
+import com.google.common.hash.BloomFilter;
+
+/**
+ * Determines whether a document can possibly satisfy the phrase content functions of a query before its term frequencies are gathered. For each zone and
+ * function the field index entry of the first term is looked up for the document. The lookup range covers exactly one field name and value, which is the
+ * shape of range that the shard table bloom filters (see the ingest ShardKeyFunctor) are consulted for, so files that do not contain the term are not read.
+ * The value of a field index entry is the bloom filter that ingest computed over the values of the document, which is then used to check the remaining terms
+ * without any further seeks.
+ * <p>
+ * A document is only pruned if every function in every zone is definitely missing a term. The field index lookup is exact; the bloom filter check assumes the
+ * document filters were created with all of the n-grams of the content (i.e. no n-gram pruning strategy dropped any). Field index entries without a filter
+ * (bloom filters disabled during ingest) simply skip the bloom filter check, as do empty filters. Filters written before MemberShipTest.update added the terms
+ * to the filter have no bits set, and would otherwise appear to be missing every term.
+ */
+public class BloomFilterTermPruner {
+    private static final Logger log = Logger.getLogger(BloomFilterTermPruner.class);
+    
+    private static final Collection<ByteSequence> NO_COLUMN_FAMILIES = Collections.emptyList();
+    
+    /**
+     * zone to the term groups of the content functions in that zone. Each group is the list of terms of one function, and each term is the set of its
+     * normalized forms.
+     */
+    private final Multimap<String,List<Set<String>>> termGroups;
+    private final SortedKeyValueIterator<Key,Value> source;
+    
+    public BloomFilterTermPruner(Multimap<String,List<Set<String>>> termGroups, SortedKeyValueIterator<Key,Value> source) {
+        this.termGroups = termGroups;
+        this.source = source;
+    }
+    
+    /**
+     * Determine whether a document definitely does not contain the terms of any content function
+     *
+     * @param docKey
+     *            the document key (row and datatype\0uid column family)
+     * @return true if the term frequencies of this document do not need to be gathered
+     */
+    public boolean canPrune(Key docKey) {
+        Text row = docKey.getRow();
+        String dataTypeUid = docKey.getColumnFamily().toString();
+        
+        for (Map.Entry<String,List<Set<String>>> entry : termGroups.entries()) {
+            try {
+                if (mightContain(row, entry.getKey(), dataTypeUid, entry.getValue())) {
+                    return false;
+                }
+            } catch (IOException e) {
+                log.warn("Unable to check the field index for " + docKey + ", gathering term frequencies", e);
+                return false;
+            }
+        }
+        
+        if (log.isTraceEnabled()) {
+            log.trace("Content function terms are not present in " + docKey);
+        }
+        return true;
+    }
+    
+    /**
+     * Determine whether a document might contain all of the terms of a function in a zone
+     */
+    protected boolean mightContain(Text row, String zone, String dataTypeUid, List<Set<String>> terms) throws IOException {
+        if (terms.isEmpty()) {
+            return true;
+        }
+        
+        Text columnFamily = new Text(Constants.FI_PREFIX_WITH_NULL_STRING + zone);
+        Value filterValue = null;
+        for (String value : terms.get(0)) {
+            Key key = new Key(row, columnFamily, new Text(value + Constants.NULL_BYTE_STRING + dataTypeUid));
+            source.seek(new Range(key, true, key.followingKey(PartialKey.ROW_COLFAM_COLQUAL), false), NO_COLUMN_FAMILIES, false);
+            if (source.hasTop()) {
+                filterValue = source.getTopValue();
+                break;
+            }
+        }
+        
+        // the field index is authoritative
+        if (filterValue == null) {
+            return false;
+        }
+        
+        BloomFilter<String> filter = getBloomFilter(filterValue);
+        if (filter == null) {
+            return true;
+        }
+        for (int i = 1; i < terms.size(); i++) {
+            if (!mightContainAny(filter, terms.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean mightContainAny(BloomFilter<String> filter, Set<String> values) {
+        for (String value : values) {
+            if (filter.mightContain(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Deserialize the bloom filter stored in a field index value
+     *
+     * @param value
+     *            a field index value
+     * @return the bloom filter, or null if there is none or it is empty
+     */
+    @SuppressWarnings("unchecked")
+    public static BloomFilter<String> getBloomFilter(Value value) {
+        if (value == null || value.getSize() == 0) {
+            return null;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(value.get(), 0, value.getSize()))) {
+            BloomFilter<String> filter = (BloomFilter<String>) in.readObject();
+            // a filter without any bits set holds no terms, which is the case for every filter written before the terms were put into them
+            if (filter.expectedFpp() == 0) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Field index value is an empty bloom filter");
+                }
+                return null;
+            }
+            return filter;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Field index value is not a bloom filter", e);
+            }
+            return null;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package datawave.query.postprocessing.tf;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -27,6 +28,12 @@ public class TFFactory {
     public static com.google.common.base.Function<Tuple2<Key,Document>,Tuple3<Key,Document,Map<String,Object>>> getFunction(ASTJexlScript query,
                     Set<String> contentExpansionFields, Set<String> termFrequencyFields, TypeMetadata typeMetadata, Equality equality,
                     EventDataQueryFilter evaluationFilter, SortedKeyValueIterator<Key,Value> sourceCopy) {
+        return getFunction(query, contentExpansionFields, termFrequencyFields, typeMetadata, equality, evaluationFilter, sourceCopy, false);
+    }
+    
+    public static com.google.common.base.Function<Tuple2<Key,Document>,Tuple3<Key,Document,Map<String,Object>>> getFunction(ASTJexlScript query,
+                    Set<String> contentExpansionFields, Set<String> termFrequencyFields, TypeMetadata typeMetadata, Equality equality,
+                    EventDataQueryFilter evaluationFilter, SortedKeyValueIterator<Key,Value> sourceCopy, boolean bloomFilterPruning) {
         
         Multimap<String,Class<? extends Type<?>>> fieldMappings = LinkedListMultimap.create();
         for (Entry<String,String> dataType : typeMetadata.fold().entries()) {
@@ -40,7 +47,7 @@ public class TFFactory {
             
         }
         
-        return getFunction(query, contentExpansionFields, termFrequencyFields, fieldMappings, equality, evaluationFilter, sourceCopy);
+        return getFunction(query, contentExpansionFields, termFrequencyFields, fieldMappings, equality, evaluationFilter, sourceCopy, bloomFilterPruning);
     }
     
     /**
@@ -54,6 +61,23 @@ public class TFFactory {
     public static com.google.common.base.Function<Tuple2<Key,Document>,Tuple3<Key,Document,Map<String,Object>>> getFunction(ASTJexlScript query,
                     Set<String> contentExpansionFields, Set<String> termFrequencyFields, Multimap<String,Class<? extends Type<?>>> dataTypes,
                     Equality equality, EventDataQueryFilter evaluationFilter, SortedKeyValueIterator<Key,Value> sourceDeepCopy) {
+        return getFunction(query, contentExpansionFields, termFrequencyFields, dataTypes, equality, evaluationFilter, sourceDeepCopy, false);
+    }
+    
+    /**
+     * Factory method for creating the TF function used for generating the map context.
+     * 
+     * @param query
+     * @param dataTypes
+     * @param sourceDeepCopy
+     * @param bloomFilterPruning
+     *            if true, skip gathering the term frequencies of documents which the field index and document bloom filters show cannot satisfy the content
+     *            functions
+     * @return
+     */
+    public static com.google.common.base.Function<Tuple2<Key,Document>,Tuple3<Key,Document,Map<String,Object>>> getFunction(ASTJexlScript query,
+                    Set<String> contentExpansionFields, Set<String> termFrequencyFields, Multimap<String,Class<? extends Type<?>>> dataTypes,
+                    Equality equality, EventDataQueryFilter evaluationFilter, SortedKeyValueIterator<Key,Value> sourceDeepCopy, boolean bloomFilterPruning) {
         
         Multimap<String,String> termFrequencyFieldValues = TermOffsetPopulator.getTermFrequencyFieldValues(query, contentExpansionFields, termFrequencyFields,
                         dataTypes);
@@ -61,7 +85,17 @@ public class TFFactory {
         if (termFrequencyFieldValues.isEmpty()) {
             return new EmptyTermFrequencyFunction();
         } else {
-            return new TermOffsetFunction(new TermOffsetPopulator(termFrequencyFieldValues, contentExpansionFields, evaluationFilter, sourceDeepCopy));
+            TermOffsetPopulator populator = new TermOffsetPopulator(termFrequencyFieldValues, contentExpansionFields, evaluationFilter, sourceDeepCopy);
+            if (bloomFilterPruning) {
+                // if the content expansion fields is empty, then the term frequency field set is used for unfielded functions
+                Set<String> zones = (contentExpansionFields == null || contentExpansionFields.isEmpty()) ? termFrequencyFields : contentExpansionFields;
+                Multimap<String,List<Set<String>>> termGroups = TermOffsetPopulator.getContentTermGroups(zones, dataTypes,
+                                TermOffsetPopulator.getContentFunctions(query), termFrequencyFieldValues);
+                if (termGroups != null) {
+                    populator.setPruner(new BloomFilterTermPruner(termGroups, sourceDeepCopy));
+                }
+            }
+            return new TermOffsetFunction(populator);
         }
     }
 }
@@ -35,6 +35,7 @@ import org.apache.commons.jexl2.parser.ParseException;
 import org.apache.hadoop.io.Text;
 import org.apache.log4j.Logger;
 
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
@@ -61,6 +62,7 @@ public class TermOffsetPopulator {
     private SortedKeyValueIterator<Key,Value> source;
     private Document document;
     private Set<String> contentExpansionFields;
+    private BloomFilterTermPruner pruner;
     
     public TermOffsetPopulator(Multimap<String,String> termFrequencyFieldValues, Set<String> contentExpansionFields, EventDataQueryFilter evaluationFilter,
                     SortedKeyValueIterator<Key,Value> source) {
@@ -70,6 +72,16 @@ public class TermOffsetPopulator {
         this.evaluationFilter = evaluationFilter;
     }
     
+    /**
+     * Set a pruner used to skip gathering the term frequencies of documents that cannot satisfy the content functions
+     * 
+     * @param pruner
+     *            the pruner, or null to always gather the term frequencies
+     */
+    public void setPruner(BloomFilterTermPruner pruner) {
+        this.pruner = pruner;
+    }
+    
     public Document document() {
         return document;
     }
@@ -132,6 +144,13 @@ public class TermOffsetPopulator {
     public Map<String,Object> getContextMap(Key docKey, Set<Key> keys) {
         document = new Document();
         
+        if (pruner != null && canPrune(keys)) {
+            // none of the documents contain the content function terms, so there are no offsets to gather
+            Map<String,Object> map = new HashMap<>();
+            map.put(Constants.TERM_OFFSET_MAP_JEXL_VARIABLE_NAME, Maps.<String,TermFrequencyList> newHashMap());
+            return map;
+        }
+        
         TermFrequencyIterator tfSource = new TermFrequencyIterator(termFrequencyFieldValues);
         
         Range range = getRange(keys);
@@ -211,6 +230,15 @@ public class TermOffsetPopulator {
         return map;
     }
     
+    private boolean canPrune(Set<Key> keys) {
+        for (Key key : keys) {
+            if (!pruner.canPrune(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
     public static boolean isContentFunctionTerm(String functionName) {
         return phraseFunctions.contains(functionName);
     }
@@ -272,6 +300,56 @@ public class TermOffsetPopulator {
         return contentFieldValues;
     }
     
+    /**
+     * Get the terms of each content function by zone, for use by the {@link BloomFilterTermPruner}. The normalized forms of each term are limited to the term
+     * frequency field values, as those are the only values for which offsets will be gathered.
+     * 
+     * @return a map of zone to the list of terms of each function, where each term is the set of its normalized forms
+     */
+    public static Multimap<String,List<Set<String>>> getContentTermGroups(Set<String> contentExpansionFields,
+                    Multimap<String,Class<? extends Type<?>>> dataTypes, Multimap<String,Function> functions,
+                    Multimap<String,String> termFrequencyFieldValues) {
+        
+        Multimap<String,List<Set<String>>> termGroups = ArrayListMultimap.create();
+        Map<Class<? extends Type<?>>,Type<?>> dataTypeCacheMap = Maps.newHashMap();
+        
+        for (Function function : functions.values()) {
+            ContentFunctionArguments args;
+            try {
+                args = new ContentFunctionArguments(function);
+            } catch (ParseException e) {
+                log.warn("Could not parse the content function", e);
+                return null;
+            }
+            if (args.terms() == null || args.terms().size() < 2) {
+                return null;
+            }
+            
+            Set<String> zones = new HashSet<>();
+            if (args.zone() != null && !args.zone().isEmpty()) {
+                zones.addAll(args.zone());
+            } else {
+                zones.addAll(contentExpansionFields);
+            }
+            
+            for (String zone : zones) {
+                Collection<String> zoneValues = termFrequencyFieldValues.get(zone);
+                if (zoneValues.isEmpty()) {
+                    continue;
+                }
+                List<Set<String>> terms = new ArrayList<>();
+                for (String term : args.terms()) {
+                    Set<String> normalizedTerms = getNormalizedTerms(term, zone, dataTypes, dataTypeCacheMap);
+                    normalizedTerms.retainAll(zoneValues);
+                    terms.add(normalizedTerms);
+                }
+                termGroups.put(zone, terms);
+            }
+        }
+        
+        return termGroups;
+    }
+    
     private static Set<String> getNormalizedTerms(String originalTerm, String zone, Multimap<String,Class<? extends Type<?>>> dataTypes,
                     Map<Class<? extends Type<?>>,Type<?>> dataTypeCacheMap) {
         
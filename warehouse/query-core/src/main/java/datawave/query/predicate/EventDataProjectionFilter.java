@@ -0,0 +1,84 @@
+package datawave.query.predicate;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import datawave.query.util.TypeMetadata;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.commons.jexl2.parser.ASTJexlScript;
+
+/**
+ * This filter will filter the event data keys of a single event by the fields which are either required to evaluate the query or are to be returned to the
+ * user, as defined by the whitelist or blacklist. Keys for any other field are rejected before they are turned into attributes, and once the configured
+ * threshold of rejected keys has been met the filter will provide a range to seek past them to the next field of interest. Unlike the
+ * {@link TLDEventDataFilter}, every event key is treated as belonging to the document itself, so this filter can be used when aggregating plain events.
+ */
+public class EventDataProjectionFilter extends TLDEventDataFilter {
+    
+    /**
+     * The number of rejected keys to next through before seeking when no seek thresholds are configured. A seek costs about as much as several calls to next,
+     * so short runs of rejected keys are cheaper to next through.
+     */
+    public static final int DEFAULT_MAX_KEYS_BEFORE_SEEK = 10;
+    
+    /**
+     * Initialize the filter with the fields required to evaluate the query and the fields to be returned
+     *
+     * @param script
+     *            the query
+     * @param typeMetadata
+     *            the type metadata
+     * @param whitelist
+     *            the fields to return or null if not using a whitelist
+     * @param blacklist
+     *            the fields to exclude or null if not using a blacklist
+     * @param maxFieldsBeforeSeek
+     *            the number of keys of one field to next through before seeking, or -1 to disable
+     * @param maxKeysBeforeSeek
+     *            the number of rejected keys to next through before seeking, or -1 to disable
+     * @param nonEventFields
+     *            the non event fields
+     */
+    public EventDataProjectionFilter(ASTJexlScript script, TypeMetadata typeMetadata, Set<String> whitelist, Set<String> blacklist, long maxFieldsBeforeSeek,
+                    long maxKeysBeforeSeek, Set<String> nonEventFields) {
+        // copy the lists as the query fields will be added to the whitelist and removed from the blacklist
+        super(script, typeMetadata, whitelist == null ? null : new HashSet<>(whitelist), blacklist == null ? null : new HashSet<>(blacklist),
+                        maxFieldsBeforeSeek, maxKeysBeforeSeek, Collections.emptyMap(), null, nonEventFields);
+    }
+    
+    public EventDataProjectionFilter(EventDataProjectionFilter other) {
+        super(other);
+    }
+    
+    /**
+     * Every key within the range of an event belongs to the event itself
+     *
+     * @param current
+     *            the key to get ParseInfo for
+     * @return the non-null ParseInfo for the Key
+     */
+    @Override
+    protected ParseInfo getParseInfo(Key current) {
+        ParseInfo parseInfo = super.getParseInfo(current);
+        parseInfo.setRoot(true);
+        return parseInfo;
+    }
+    
+    /**
+     * Define the end key given the from condition. The document is a single event.
+     *
+     * @param from
+     * @return
+     */
+    @Override
+    public Key getStopKey(Key from) {
+        return from.followingKey(PartialKey.ROW_COLFAM);
+    }
+    
+    @Override
+    public EventDataQueryFilter clone() {
+        return new EventDataProjectionFilter(this);
+    }
+}
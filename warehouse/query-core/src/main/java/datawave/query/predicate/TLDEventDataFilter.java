@@ -121,6 +121,9 @@ public class TLDEventDataFilter extends EventDataQueryExpressionFilter {
         super.startNewDocument(document);
         // clear the parse info so a length comparison can't be made against a new document
         lastParseInfo = null;
+        // a seek that ran past the end of the previous document leaves the list index on the field it was seeking to, start the new document from the
+        // beginning of the whitelist or blacklist so that field is not skipped
+        lastListSeekIndex = -1;
     }
     
     /**
@@ -12,6 +12,8 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -40,8 +42,10 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.Service;
 
+import datawave.core.iterators.FairQueryExecutor;
 import datawave.mr.bulk.RfileResource;
 import datawave.query.tables.async.Scan;
+import datawave.query.tables.async.ScanSessionExecutor;
 import datawave.query.tables.async.ScannerChunk;
 import datawave.query.tables.async.SessionArbiter;
 import datawave.query.tables.async.SpeculativeScan;
@@ -106,6 +110,24 @@ public class BatchScannerSession extends ScannerSession implements Iterator<Entr
     
     protected int threadCount = 5;
     
+    /**
+     * Shared pools to run the scans on instead of pools of our own, if set
+     */
+    protected FairQueryExecutor sharedScanPool = null;
+    
+    protected FairQueryExecutor sharedSpeculativePool = null;
+    
+    /**
+     * The delay before a scan that yielded on a full result queue is submitted again
+     */
+    protected static final long YIELD_RESUBMIT_MS = 25;
+    
+    private static final ScheduledExecutorService yieldScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Datawave BatchScanner Session resubmit");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
     private class BatchReaderThreadFactory implements ThreadFactory {
         
         private ThreadFactory dtf = Executors.defaultThreadFactory();
@@ -189,11 +211,43 @@ public class BatchScannerSession extends ScannerSession implements Iterator<Entr
         if (service != null)
             service.shutdownNow();
         this.threadCount = threads;
-        service = new ThreadPoolExecutor(threads, threads, 120, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), new BatchReaderThreadFactory(threadId, this));
+        if (sharedScanPool != null) {
+            // the thread count still limits the number of scans we keep submitted
+            service = new ScanSessionExecutor(sharedScanPool, getQueryId());
+        } else {
+            service = new ThreadPoolExecutor(threads, threads, 120, TimeUnit.MINUTES, new LinkedBlockingQueue<>(),
+                            new BatchReaderThreadFactory(threadId, this));
+        }
         service = MoreExecutors.listeningDecorator(service);
         return this;
     }
     
+    /**
+     * Run the scans on pools shared with other queries rather than creating pools for this session
+     * 
+     * @param scanPool
+     *            the pool for the scans
+     * @param speculativePool
+     *            the pool for the child scans of speculative scans
+     * @return this session
+     */
+    public BatchScannerSession setSharedPools(FairQueryExecutor scanPool, FairQueryExecutor speculativePool) {
+        this.sharedScanPool = scanPool;
+        this.sharedSpeculativePool = speculativePool;
+        return setThreads(threadCount);
+    }
+    
+    protected String getQueryId() {
+        return (settings == null || settings.getId() == null) ? null : settings.getId().toString();
+    }
+    
+    /**
+     * @return the service for the child scans of a speculative scan, or null if the speculative scan should create its own
+     */
+    protected ExecutorService getSpeculativeService() {
+        return sharedSpeculativePool == null ? null : new ScanSessionExecutor(sharedSpeculativePool, getQueryId());
+    }
+    
     public BatchScannerSession updateIdentifier(String threadId) {
         this.threadId.append(threadId);
         return this;
@@ -368,7 +422,8 @@ public class BatchScannerSession extends ScannerSession implements Iterator<Entr
                 
                 chunk.setQueryId(settings.getId().toString());
                 
-                scan = new SpeculativeScan(localTableName, localAuths, chunk, delegatorReference, delegatedResourceInitializer, resultQueue, listenerService);
+                scan = new SpeculativeScan(localTableName, localAuths, chunk, delegatorReference, delegatedResourceInitializer, resultQueue, listenerService,
+                                getSpeculativeService());
                 
                 scan.setVisitors(visitorFunctions);
                 
@@ -388,6 +443,8 @@ public class BatchScannerSession extends ScannerSession implements Iterator<Entr
                 
             } else {
                 scan = new Scan(localTableName, localAuths, chunk, delegatorReference, delegatedResourceInitializer, resultQueue, listenerService);
+                // don't hold a thread of the shared pool while our results are full
+                scan.setYieldWhenFull(sharedScanPool != null);
             }
             
             if (backoffEnabled) {
@@ -428,7 +485,8 @@ public class BatchScannerSession extends ScannerSession implements Iterator<Entr
                 if (log.isTraceEnabled()) {
                     log.trace("Using speculative execution");
                 }
-                scan = new SpeculativeScan(localTableName, localAuths, chunk, delegatorReference, delegatedResourceInitializer, resultQueue, listenerService);
+                scan = new SpeculativeScan(localTableName, localAuths, chunk, delegatorReference, delegatedResourceInitializer, resultQueue, listenerService,
+                                getSpeculativeService());
                 
                 ((SpeculativeScan) scan).addScan(new Scan(localTableName, localAuths, new ScannerChunk(chunk), delegatorReference, BatchResource.class,
                                 ((SpeculativeScan) scan).getQueue(), listenerService));
@@ -438,6 +496,8 @@ public class BatchScannerSession extends ScannerSession implements Iterator<Entr
                 
             } else {
                 scan = new Scan(localTableName, localAuths, chunk, delegatorReference, delegatedResourceInitializer, resultQueue, listenerService);
+                // don't hold a thread of the shared pool while our results are full
+                scan.setYieldWhenFull(sharedScanPool != null);
             }
             
             if (backoffEnabled) {
@@ -508,7 +568,10 @@ public class BatchScannerSession extends ScannerSession implements Iterator<Entr
          * In the event that we are not finished (i.e. time sliced ) we should resubmit
          */
         
-        if (finishedScan.finished()) {
+        if (finishedScan.isYielded() && !finishedScan.finished()) {
+            // the results are full, submit the scan again once the consumer has had a chance to catch up
+            yieldScheduler.schedule(() -> resubmitScan(finishedScan), YIELD_RESUBMIT_MS, TimeUnit.MILLISECONDS);
+        } else if (finishedScan.finished()) {
             runnableCount.decrementAndGet();
             
             finishedScan.close();
@@ -534,6 +597,16 @@ public class BatchScannerSession extends ScannerSession implements Iterator<Entr
         
     }
     
+    private void resubmitScan(Scan scan) {
+        try {
+            submitScan(scan, false);
+        } catch (RejectedExecutionException e) {
+            // the session was stopped while the scan was waiting
+            runnableCount.decrementAndGet();
+            scan.close();
+        }
+    }
+    
     /*
      * (non-Javadoc)
      * 
@@ -10,6 +10,7 @@ import datawave.mr.bulk.BulkInputFormat;
 import datawave.mr.bulk.MultiRfileInputformat;
 import datawave.mr.bulk.RfileScanner;
 import datawave.query.config.ShardQueryConfiguration;
+import datawave.query.tables.async.ScanSessionExecutor;
 import datawave.query.tables.stats.ScanSessionStats;
 import datawave.query.util.QueryScannerHelper;
 import datawave.webservice.common.connection.WrappedConnector;
@@ -142,7 +143,14 @@ public class ScannerFactory {
      */
     public synchronized BatchScannerSession newQueryScanner(final String tableName, final Set<Authorizations> auths, Query settings) throws Exception {
         
-        return newLimitedScanner(BatchScannerSession.class, tableName, auths, settings).setThreads(scanQueue.getCapacity());
+        BatchScannerSession session = newLimitedScanner(BatchScannerSession.class, tableName, auths, settings);
+        if (config != null && config.getSharedScanThreads() > 0) {
+            int threads = config.getSharedScanThreads();
+            int perQuery = config.getSharedScanThreadsPerQuery();
+            session.setSharedPools(ScanSessionExecutor.getSharedPool(ScanSessionExecutor.SCAN_POOL, threads, perQuery),
+                            ScanSessionExecutor.getSharedPool(ScanSessionExecutor.SPECULATIVE_SCAN_POOL, threads, perQuery));
+        }
+        return session.setThreads(scanQueue.getCapacity());
     }
     
     /**
@@ -1714,6 +1714,54 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> {
         getConfig().setMaxPipelineCachedResults(maxCachedResults);
     }
     
+    public int getMaxPipelineBatchSize() {
+        return getConfig().getMaxPipelineBatchSize();
+    }
+    
+    public void setMaxPipelineBatchSize(int maxPipelineBatchSize) {
+        getConfig().setMaxPipelineBatchSize(maxPipelineBatchSize);
+    }
+    
+    public boolean isIndexLookupCacheEnabled() {
+        return getConfig().isIndexLookupCacheEnabled();
+    }
+    
+    public void setIndexLookupCacheEnabled(boolean indexLookupCacheEnabled) {
+        getConfig().setIndexLookupCacheEnabled(indexLookupCacheEnabled);
+    }
+    
+    public long getIndexLookupCacheMaxBytes() {
+        return getConfig().getIndexLookupCacheMaxBytes();
+    }
+    
+    public void setIndexLookupCacheMaxBytes(long indexLookupCacheMaxBytes) {
+        getConfig().setIndexLookupCacheMaxBytes(indexLookupCacheMaxBytes);
+    }
+    
+    public long getIndexLookupCacheTTL() {
+        return getConfig().getIndexLookupCacheTTL();
+    }
+    
+    public void setIndexLookupCacheTTL(long indexLookupCacheTTL) {
+        getConfig().setIndexLookupCacheTTL(indexLookupCacheTTL);
+    }
+    
+    public int getSharedScanThreads() {
+        return getConfig().getSharedScanThreads();
+    }
+    
+    public void setSharedScanThreads(int sharedScanThreads) {
+        getConfig().setSharedScanThreads(sharedScanThreads);
+    }
+    
+    public int getSharedScanThreadsPerQuery() {
+        return getConfig().getSharedScanThreadsPerQuery();
+    }
+    
+    public void setSharedScanThreadsPerQuery(int sharedScanThreadsPerQuery) {
+        getConfig().setSharedScanThreadsPerQuery(sharedScanThreadsPerQuery);
+    }
+    
     public double getMinimumSelectivity() {
         return getConfig().getMinSelectivity();
     }
@@ -2033,6 +2081,14 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> {
         getConfig().setAllowTermFrequencyLookup(allowTermFrequencyLookup);
     }
     
+    public boolean isTermFrequencyBloomFilterPruning() {
+        return getConfig().isTermFrequencyBloomFilterPruning();
+    }
+    
+    public void setTermFrequencyBloomFilterPruning(boolean termFrequencyBloomFilterPruning) {
+        getConfig().setTermFrequencyBloomFilterPruning(termFrequencyBloomFilterPruning);
+    }
+    
     public boolean isExpandUnfieldedNegations() {
         return getConfig().isExpandUnfieldedNegations();
     }
@@ -2241,6 +2297,14 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> {
         getConfig().setTrackSizes(trackSizes);
     }
     
+    public boolean isSeekingEventAggregation() {
+        return getConfig().isSeekingEventAggregation();
+    }
+    
+    public void setSeekingEventAggregation(boolean seekingEventAggregation) {
+        getConfig().setSeekingEventAggregation(seekingEventAggregation);
+    }
+    
     public Profile getSelectedProfile() {
         return this.selectedProfile;
     }
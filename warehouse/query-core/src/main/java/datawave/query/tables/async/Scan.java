@@ -73,6 +73,14 @@ public class Scan implements Callable<Scan> {
     
     private AccumuloResource delegatedResource = null;
     
+    /**
+     * Return from {@link #call()} when the result queue is full rather than waiting on it, so that a thread of a shared pool is not held while the consumer
+     * catches up. The entry that could not be queued is kept and queued first when the scan is submitted again.
+     */
+    protected boolean yieldWhenFull = false;
+    
+    private Entry<Key,Value> pendingEntry = null;
+    
     public Scan(String localTableName, Set<Authorizations> localAuths, ScannerChunk chunk, ResourceQueue delegatorReference,
                     Class<? extends AccumuloResource> delegatedResourceInitializer, BlockingQueue<Entry<Key,Value>> results, ExecutorService callingService) {
         myScan = chunk;
@@ -101,6 +109,17 @@ public class Scan implements Callable<Scan> {
         return this.visitorFunctions;
     }
     
+    public void setYieldWhenFull(boolean yieldWhenFull) {
+        this.yieldWhenFull = yieldWhenFull;
+    }
+    
+    /**
+     * @return true if the scan returned because the result queue was full, and should be submitted again once there is room
+     */
+    public boolean isYielded() {
+        return pendingEntry != null;
+    }
+    
     public boolean finished() {
         if (caller.isShutdown() && log.isTraceEnabled()) {
             log.trace("Prematurely shutting down because we were forced to stop");
@@ -136,6 +155,19 @@ public class Scan implements Callable<Scan> {
                 initialized = true;
             }
             
+            if (null != pendingEntry) {
+                if (caller.isShutdown()) {
+                    pendingEntry = null;
+                    return this;
+                }
+                if (!results.offer(pendingEntry, 25, TimeUnit.MILLISECONDS)) {
+                    // still full, give the thread back again
+                    return this;
+                }
+                lastSeenKey = pendingEntry.getKey();
+                pendingEntry = null;
+            }
+            
             do {
                 if (null != myStats)
                     myStats.getTimer(TIMERS.SCANNER_START).resume();
@@ -268,10 +300,22 @@ public class Scan implements Callable<Scan> {
                     myEntry = iter.next();
                     
                     while (!caller.isShutdown() && !results.offer(myEntry, 25, TimeUnit.MILLISECONDS)) {
+                        if (yieldWhenFull) {
+                            pendingEntry = myEntry;
+                            break;
+                        }
                         if (log.isTraceEnabled())
                             log.trace("offering");
                     }
                     
+                    if (null != pendingEntry) {
+                        if (log.isTraceEnabled())
+                            log.trace("results are full, yielding after " + lastSeenKey);
+                        if (null != myStats)
+                            myStats.getTimer(TIMERS.SCANNER_ITERATE).suspend();
+                        return this;
+                    }
+                    
                     if (log.isTraceEnabled())
                         log.trace("size of results " + results.size() + " is shutdown? " + caller.isShutdown());
                     
@@ -0,0 +1,204 @@
+package datawave.query.tables.async;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.accumulo.core.util.NamingThreadFactory;
+import org.apache.log4j.Logger;
+
+import datawave.core.iterators.FairQueryExecutor;
+
+/**
+ * An executor for a single scan session which runs its tasks on a thread pool shared by all queries rather than on threads of its own. Creating pools per
+ * session means the number of threads grows with the number of concurrent queries, whereas the shared pools keep the thread count bounded. Tasks are
+ * scheduled on the shared pool using a {@link FairQueryExecutor} keyed by the query id, so that no one query can starve the others.
+ *
+ * Shutting down this executor only affects the tasks submitted through it: {@link #shutdownNow()} cancels them, and {@link #awaitTermination(long, TimeUnit)}
+ * waits for them alone to complete, which is what the scan sessions expect of their own pools.
+ */
+public class ScanSessionExecutor extends AbstractExecutorService {
+    
+    private static final Logger log = Logger.getLogger(ScanSessionExecutor.class);
+    
+    /**
+     * The shared pool running the scans of the scanner sessions and the range stream
+     */
+    public static final String SCAN_POOL = "Datawave Shared Scan";
+    
+    /**
+     * The shared pool running the child scans of a speculative scan. This is kept separate from the scan pool as the speculative scan waits on its children,
+     * and would otherwise be able to occupy every thread the children need.
+     */
+    public static final String SPECULATIVE_SCAN_POOL = "Datawave Shared Speculative Scan";
+    
+    private static final Map<String,FairQueryExecutor> sharedPools = new TreeMap<>();
+    
+    private static final int NEW = 0;
+    private static final int RUNNING = 1;
+    private static final int CANCELLED = 2;
+    
+    private final FairQueryExecutor pool;
+    private final String queryId;
+    private final Set<SessionTask> tasks = ConcurrentHashMap.newKeySet();
+    private volatile boolean shutdown = false;
+    
+    /**
+     * @param pool
+     *            the shared pool to run the tasks on
+     * @param queryId
+     *            the id of the query the session belongs to, may be null
+     */
+    public ScanSessionExecutor(FairQueryExecutor pool, String queryId) {
+        this.pool = pool;
+        this.queryId = queryId;
+    }
+    
+    /**
+     * Get a shared pool, creating it if needed. The size of an existing pool is updated to match the size requested.
+     *
+     * @param name
+     *            the name of the pool
+     * @param threads
+     *            the number of threads in the pool
+     * @param maxThreadsPerQuery
+     *            the maximum number of threads one query may use at once, or a value less than 1 for no limit beyond the pool size
+     * @return the shared pool
+     */
+    public static synchronized FairQueryExecutor getSharedPool(String name, int threads, int maxThreadsPerQuery) {
+        FairQueryExecutor executor = sharedPools.get(name);
+        if (executor == null) {
+            ThreadPoolExecutor service = new ThreadPoolExecutor(threads, threads, 5 * 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                            new NamingThreadFactory(name));
+            // release the threads when there are no queries running
+            service.allowCoreThreadTimeOut(true);
+            executor = new FairQueryExecutor(name, service, maxThreadsPerQuery);
+            sharedPools.put(name, executor);
+            log.info("Created shared pool " + name + " with " + threads + " threads");
+        } else {
+            executor.resize(threads);
+            if (executor.getMaxThreadsPerQuery() != maxThreadsPerQuery) {
+                executor.setMaxThreadsPerQuery(maxThreadsPerQuery);
+            }
+        }
+        return executor;
+    }
+    
+    @Override
+    public void execute(Runnable command) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Scan session executor has been shut down");
+        }
+        SessionTask task = new SessionTask(command);
+        tasks.add(task);
+        if (shutdown && task.state.compareAndSet(NEW, CANCELLED)) {
+            // shut down concurrently, and not seen by shutdownNow
+            tasks.remove(task);
+            signalIfTerminated();
+            throw new RejectedExecutionException("Scan session executor has been shut down");
+        }
+        // the future is set before the task can be cancelled by shutdownNow, as both happen under the task lock
+        synchronized (task) {
+            task.future = pool.submit(queryId, task);
+        }
+    }
+    
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        signalIfTerminated();
+    }
+    
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        List<Runnable> notRun = new ArrayList<>();
+        for (SessionTask task : tasks) {
+            if (task.state.compareAndSet(NEW, CANCELLED)) {
+                // never started, so it will not remove itself
+                tasks.remove(task);
+                notRun.add(task.command);
+            }
+            synchronized (task) {
+                if (task.future != null) {
+                    task.future.cancel(true);
+                }
+            }
+        }
+        signalIfTerminated();
+        return notRun;
+    }
+    
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+    
+    @Override
+    public boolean isTerminated() {
+        return shutdown && tasks.isEmpty();
+    }
+    
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (this) {
+            while (!isTerminated()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * @return the number of tasks submitted through this executor which have not completed
+     */
+    public int getActiveTasks() {
+        return tasks.size();
+    }
+    
+    private void signalIfTerminated() {
+        if (isTerminated()) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+    
+    private class SessionTask implements Runnable {
+        private final Runnable command;
+        private final AtomicInteger state = new AtomicInteger(NEW);
+        private Future<?> future;
+        
+        private SessionTask(Runnable command) {
+            this.command = command;
+        }
+        
+        @Override
+        public void run() {
+            if (!state.compareAndSet(NEW, RUNNING)) {
+                return;
+            }
+            try {
+                command.run();
+            } finally {
+                tasks.remove(this);
+                signalIfTerminated();
+            }
+        }
+    }
+}
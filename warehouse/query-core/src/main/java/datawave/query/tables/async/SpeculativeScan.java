@@ -83,11 +83,25 @@ public class SpeculativeScan extends Scan implements FutureCallback<Scan>, Uncau
     
     public SpeculativeScan(String localTableName, Set<Authorizations> localAuths, ScannerChunk chunk, ResourceQueue delegatorReference,
                     Class<? extends AccumuloResource> delegatedResourceInitializer, ArrayBlockingQueue<Entry<Key,Value>> results, ExecutorService callingService) {
+        this(localTableName, localAuths, chunk, delegatorReference, delegatedResourceInitializer, results, callingService, null);
+    }
+    
+    /**
+     * @param scanService
+     *            the service to run the child scans on, which is shut down when this scan is closed, or null to create one for this scan
+     */
+    public SpeculativeScan(String localTableName, Set<Authorizations> localAuths, ScannerChunk chunk, ResourceQueue delegatorReference,
+                    Class<? extends AccumuloResource> delegatedResourceInitializer, ArrayBlockingQueue<Entry<Key,Value>> results,
+                    ExecutorService callingService, ExecutorService scanService) {
         super(localTableName, localAuths, chunk, delegatorReference, delegatedResourceInitializer, results, callingService);
         scans = Lists.newArrayList();
         scanFutures = Lists.newArrayList();
         myResultQueue = new LinkedBlockingDeque<>();
-        service = Executors.newFixedThreadPool(2, new SpeculativeScanThreadFactory(new StringBuilder(chunk.getQueryId()), this));
+        if (scanService != null) {
+            service = scanService;
+        } else {
+            service = Executors.newFixedThreadPool(2, new SpeculativeScanThreadFactory(new StringBuilder(chunk.getQueryId()), this));
+        }
         service = MoreExecutors.listeningDecorator(service);
         disableStats();
     }
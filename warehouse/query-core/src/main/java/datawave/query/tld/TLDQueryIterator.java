@@ -10,7 +10,6 @@ import datawave.query.iterator.QueryIterator;
 import datawave.query.iterator.SourcedOptions;
 import datawave.query.iterator.logic.IndexIterator;
 import datawave.query.jexl.visitors.IteratorBuildingVisitor;
-import datawave.query.planner.SeekingQueryPlanner;
 import datawave.query.predicate.ChainableEventDataQueryFilter;
 import datawave.query.predicate.ConfiguredPredicate;
 import datawave.query.predicate.EventDataQueryFilter;
@@ -40,9 +39,6 @@ import java.util.Map;
 public class TLDQueryIterator extends QueryIterator {
     private static final Logger log = Logger.getLogger(TLDQueryIterator.class);
     
-    protected int maxFieldHitsBeforeSeek = -1;
-    protected int maxKeysBeforeSeek = -1;
-    
     public TLDQueryIterator() {}
     
     public TLDQueryIterator(TLDQueryIterator other, IteratorEnvironment env) {
@@ -68,15 +64,6 @@ public class TLDQueryIterator extends QueryIterator {
             log.trace("TLDQueryIterator init()");
         }
         
-        // extract SeekingQueryPlanner fields if available
-        if (options.get(SeekingQueryPlanner.MAX_FIELD_HITS_BEFORE_SEEK) != null) {
-            maxFieldHitsBeforeSeek = Integer.parseInt(options.get(SeekingQueryPlanner.MAX_FIELD_HITS_BEFORE_SEEK));
-        }
-        
-        if (options.get(SeekingQueryPlanner.MAX_KEYS_BEFORE_SEEK) != null) {
-            maxKeysBeforeSeek = Integer.parseInt(options.get(SeekingQueryPlanner.MAX_KEYS_BEFORE_SEEK));
-        }
-        
         super.init(source, options, env);
         
         super.fiAggregator = new TLDFieldIndexAggregator(getNonEventFields(), getFIEvaluationFilter(), maxKeysBeforeSeek);
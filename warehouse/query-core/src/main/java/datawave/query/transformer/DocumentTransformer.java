@@ -3,6 +3,8 @@ package datawave.query.transformer;
 import com.google.common.base.Preconditions;
 import datawave.marking.MarkingFunctions;
 import datawave.query.attributes.Document;
+import datawave.query.attributes.FlatDocument;
+import datawave.query.function.deserializer.FlatDocumentDeserializer;
 import datawave.util.StringUtils;
 import datawave.webservice.query.Query;
 import datawave.webservice.query.exception.EmptyObjectException;
@@ -88,6 +90,11 @@ public class DocumentTransformer extends DocumentTransformerSupport<Entry<Key,Va
     @Override
     public EventBase transform(Entry<Key,Value> entry) throws EmptyObjectException {
         
+        // flat documents can be turned into events without rebuilding the document when nothing needs to inspect the document itself
+        if (transforms.isEmpty() && cardinalityConfiguration == null && deserializer instanceof FlatDocumentDeserializer) {
+            return _transform(((FlatDocumentDeserializer) deserializer).applyFlat(entry));
+        }
+        
         Entry<Key,Document> documentEntry = deserializer.apply(entry);
         for (DocumentTransform transform : transforms) {
             if (documentEntry != null) {
@@ -150,6 +157,41 @@ public class DocumentTransformer extends DocumentTransformerSupport<Entry<Key,Va
         return output;
     }
     
+    private EventBase _transform(Entry<Key,FlatDocument> documentEntry) throws EmptyObjectException {
+        Key documentKey = correctKey(documentEntry.getKey());
+        FlatDocument document = documentEntry.getValue();
+        
+        if (null == documentKey || null == document)
+            throw new IllegalArgumentException("Null key or value. Key:" + documentKey + ", Value: " + documentEntry.getValue());
+        
+        extractMetrics(document, documentKey);
+        
+        String row = documentKey.getRow().toString();
+        String colf = documentKey.getColumnFamily().toString();
+        Preconditions.checkArgument(-1 != colf.indexOf("\0"));
+        
+        ColumnVisibility eventCV = new ColumnVisibility(documentKey.getColumnVisibility());
+        
+        EventBase output = null;
+        try {
+            Map<String,String> markings = this.markingFunctions.translateFromColumnVisibility(eventCV);
+            final Collection<FieldBase<?>> documentFields = buildDocumentFields(documentKey, document, eventCV, this.markingFunctions);
+            // if documentFields is empty, then the response contained only timing metadata
+            if (!documentFields.isEmpty()) {
+                output = buildEvent(markings, documentFields, colf, row, document.sizeInBytes());
+            }
+        } catch (Exception ex) {
+            log.error("Error building response document", ex);
+            throw new RuntimeException(ex);
+        }
+        
+        if (output == null) {
+            throw new EmptyObjectException();
+        }
+        
+        return output;
+    }
+    
     protected EventBase buildResponse(Document document, Key documentKey, ColumnVisibility eventCV, String colf, String row, MarkingFunctions mf)
                     throws MarkingFunctions.Exception {
         
@@ -159,36 +201,42 @@ public class DocumentTransformer extends DocumentTransformerSupport<Entry<Key,Va
         final Collection<FieldBase<?>> documentFields = buildDocumentFields(documentKey, null, document, eventCV, mf);
         // if documentFields is empty, then the response contained only timing metadata
         if (!documentFields.isEmpty()) {
-            event = this.responseObjectFactory.getEvent();
-            event.setMarkings(markings);
-            event.setFields(new ArrayList<>(documentFields));
-            
-            Metadata metadata = new Metadata();
-            String[] colfParts = StringUtils.split(colf, '\0');
-            if (colfParts.length >= 1) {
-                metadata.setDataType(colfParts[0]);
-            }
-            
-            if (colfParts.length >= 2) {
-                metadata.setInternalId(colfParts[1]);
-            }
-            
-            if (this.tableName != null) {
-                metadata.setTable(this.tableName);
-            }
-            metadata.setRow(row);
-            event.setMetadata(metadata);
-            
-            if (eventQueryDataDecoratorTransformer != null) {
-                event = (EventBase) eventQueryDataDecoratorTransformer.transform(event);
-            }
-            
-            // assign an estimate of the event size based on the document size
-            // in practice this is about 2.5 times the size of the document estimated size
-            // we need to set something here for page size trigger purposes.
-            event.setSizeInBytes(Math.round(document.sizeInBytes() * 2.5d));
+            event = buildEvent(markings, documentFields, colf, row, document.sizeInBytes());
+        }
+        
+        return event;
+    }
+    
+    private EventBase buildEvent(Map<String,String> markings, Collection<FieldBase<?>> documentFields, String colf, String row, long documentSize) {
+        EventBase event = this.responseObjectFactory.getEvent();
+        event.setMarkings(markings);
+        event.setFields(new ArrayList<>(documentFields));
+        
+        Metadata metadata = new Metadata();
+        String[] colfParts = StringUtils.split(colf, '\0');
+        if (colfParts.length >= 1) {
+            metadata.setDataType(colfParts[0]);
+        }
+        
+        if (colfParts.length >= 2) {
+            metadata.setInternalId(colfParts[1]);
         }
         
+        if (this.tableName != null) {
+            metadata.setTable(this.tableName);
+        }
+        metadata.setRow(row);
+        event.setMetadata(metadata);
+        
+        if (eventQueryDataDecoratorTransformer != null) {
+            event = (EventBase) eventQueryDataDecoratorTransformer.transform(event);
+        }
+        
+        // assign an estimate of the event size based on the document size
+        // in practice this is about 2.5 times the size of the document estimated size
+        // we need to set something here for page size trigger purposes.
+        event.setSizeInBytes(Math.round(documentSize * 2.5d));
+        
         return event;
     }
     
@@ -3,11 +3,13 @@ package datawave.query.transformer;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import datawave.marking.MarkingFunctions;
+import datawave.query.Constants;
 import datawave.query.DocumentSerialization;
 import datawave.query.attributes.Attribute;
 import datawave.query.attributes.Attributes;
 import datawave.query.attributes.Content;
 import datawave.query.attributes.Document;
+import datawave.query.attributes.FlatDocument;
 import datawave.query.attributes.TimingMetadata;
 import datawave.query.cardinality.CardinalityConfiguration;
 import datawave.query.cardinality.CardinalityRecord;
@@ -170,16 +172,7 @@ public abstract class DocumentTransformerSupport<I,O> extends EventQueryTransfor
     protected Collection<FieldBase<?>> buildDocumentFields(Key documentKey, String documentName, Document document, ColumnVisibility topLevelColumnVisibility,
                     MarkingFunctions markingFunctions) {
         
-        // Whether the fields were added to projectFields or removed from blacklistedFields, they user does not want them returned
-        // If neither a projection nor a blacklist was used then the suppressFields set should remain empty
-        Set<String> suppressFields = Collections.emptySet();
-        if (cardinalityConfiguration != null) {
-            if (!projectFields.isEmpty()) {
-                suppressFields = cardinalityConfiguration.getStoredProjectFieldsToAdd(getQm(), projectFields);
-            } else if (!blacklistedFields.isEmpty()) {
-                suppressFields = cardinalityConfiguration.getStoredBlacklistedFieldsToRemove(getQm(), blacklistedFields);
-            }
-        }
+        Set<String> suppressFields = getSuppressFields();
         
         Set<FieldBase<?>> Fields = new HashSet<>();
         final Map<String,Attribute<? extends Comparable<?>>> documentData = document.getDictionary();
@@ -208,10 +201,93 @@ public abstract class DocumentTransformerSupport<I,O> extends EventQueryTransfor
         return Fields;
     }
     
-    protected void extractMetrics(Document document, Key documentKey) {
+    /**
+     * Builds the document's fields directly from the serialized fields of a flat document, without rebuilding the attributes of the document.
+     *
+     * @param documentKey
+     * @param document
+     * @return
+     */
+    protected Collection<FieldBase<?>> buildDocumentFields(Key documentKey, FlatDocument document, ColumnVisibility topLevelColumnVisibility,
+                    MarkingFunctions markingFunctions) {
         
+        Set<String> suppressFields = getSuppressFields();
+        
+        Set<FieldBase<?>> Fields = new HashSet<>();
+        for (int i = 0; i < document.getNumFields(); i++) {
+            String fn = document.getFieldName(i);
+            
+            // Some fields were added by the queryPlanner. This will ensure that the original projectFields and blacklistFields are honored
+            // remove any grouping context (only return the field up until the first dot)
+            if (suppressFields.contains(JexlASTHelper.removeGroupingContext(fn))) {
+                continue;
+            }
+            
+            // Apply the reverse mapping to make the field name human-readable again
+            if (null != this.getQm()) {
+                fn = this.getQm().aliasFieldNameReverseModel(fn);
+            }
+            
+            for (FlatDocument.Value value : document.getValues(i)) {
+                // skip metadata fields
+                if (value.isMetadata()) {
+                    continue;
+                }
+                
+                // Use the markings on the Field if we're returning the markings to the client
+                if (!this.reducedResponse) {
+                    try {
+                        ColumnVisibility columnVisibility = (value.isMetadataSet() ? new ColumnVisibility(value.getColumnVisibility())
+                                        : Constants.EMPTY_VISIBILITY);
+                        Map<String,String> markings = markingFunctions.translateFromColumnVisibility(columnVisibility);
+                        FieldBase<?> field = this.makeField(fn, markings, columnVisibility, value.getTimestamp(), value.getData());
+                        MarkingFunctions.Util.populate(field, markings);
+                        Fields.add(field);
+                    } catch (Exception ex) {
+                        log.error("unable to process markings:" + ex);
+                    }
+                } else if (this.transformValuePrefixFields.contains(fn)) {
+                    // noinspection RedundantCast
+                    Fields.add(createField(fn, (Long) null, value.toAttribute(), EMPTY_MARKINGS, (String) null));
+                } else {
+                    Fields.add(this.makeField(fn, EMPTY_MARKINGS, (String) null, null, value.getData()));
+                }
+            }
+        }
+        return Fields;
+    }
+    
+    /**
+     * Whether the fields were added to projectFields or removed from blacklistedFields, they user does not want them returned. If neither a projection nor a
+     * blacklist was used then the suppressFields set should remain empty
+     *
+     * @return the fields to suppress
+     */
+    protected Set<String> getSuppressFields() {
+        Set<String> suppressFields = Collections.emptySet();
+        if (cardinalityConfiguration != null) {
+            if (!projectFields.isEmpty()) {
+                suppressFields = cardinalityConfiguration.getStoredProjectFieldsToAdd(getQm(), projectFields);
+            } else if (!blacklistedFields.isEmpty()) {
+                suppressFields = cardinalityConfiguration.getStoredBlacklistedFieldsToRemove(getQm(), blacklistedFields);
+            }
+        }
+        return suppressFields;
+    }
+    
+    protected void extractMetrics(Document document, Key documentKey) {
         Map<String,Attribute<? extends Comparable<?>>> dictionary = document.getDictionary();
-        Attribute<? extends Comparable<?>> timingMetadataAttribute = dictionary.get(LogTiming.TIMING_METADATA);
+        extractMetrics(dictionary.get(LogTiming.TIMING_METADATA), dictionary.size(), documentKey);
+    }
+    
+    protected void extractMetrics(FlatDocument document, Key documentKey) {
+        int index = document.indexOf(LogTiming.TIMING_METADATA);
+        if (index >= 0) {
+            extractMetrics(document.getValues(index).get(0).toAttribute(), document.getNumFields(), documentKey);
+        }
+    }
+    
+    private void extractMetrics(Attribute<?> timingMetadataAttribute, int numFields, Key documentKey) {
         if (timingMetadataAttribute != null && timingMetadataAttribute instanceof TimingMetadata) {
             TimingMetadata timingMetadata = (TimingMetadata) timingMetadataAttribute;
             long currentSourceCount = timingMetadata.getSourceCount();
@@ -242,7 +318,7 @@ public abstract class DocumentTransformerSupport<I,O> extends EventQueryTransfor
                     log.info(sb.toString());
                 }
             }
-            if (dictionary.size() == 1) {
+            if (numFields == 1) {
                 // this document contained only timing metadata
                 throw new EmptyObjectException();
             }
@@ -122,6 +122,8 @@ public class FieldIndexCountQueryTransformer extends BaseQueryLogicTransformer<E
         metadata.setRow(Constants.EMPTY_STRING);
         metadata.setTable(logic.getTableName());
         event.setMetadata(metadata);
+        // estimate the size of the event for page size trigger purposes
+        event.setSizeInBytes(event.estimateSizeInBytes());
         
         if (log.isTraceEnabled()) {
             log.trace("Transformer returning: ");
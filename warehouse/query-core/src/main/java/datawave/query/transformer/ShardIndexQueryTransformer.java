@@ -111,6 +111,8 @@ public class ShardIndexQueryTransformer extends BaseQueryLogicTransformer<Entry<
         metadata.setRow(entry.getKey().getRow().toString());
         metadata.setTable(logic.getTableName());
         event.setMetadata(metadata);
+        // estimate the size of the event for page size trigger purposes
+        event.setSizeInBytes(event.estimateSizeInBytes());
         return event;
     }
     
@@ -69,6 +69,8 @@ public class ShardQueryCountTableTransformer extends BaseQueryLogicTransformer<E
         metadata.setInternalId(field.getName()); // There is only one item returned for the entire query logic.
         metadata.setRow(Constants.EMPTY_STRING);
         e.setMetadata(metadata);
+        // estimate the size of the event for page size trigger purposes
+        e.setSizeInBytes(e.estimateSizeInBytes());
         
         return e;
     }
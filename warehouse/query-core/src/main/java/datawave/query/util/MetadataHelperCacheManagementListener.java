@@ -2,6 +2,7 @@ package datawave.query.util;
 
 import java.util.ArrayList;
 
+import datawave.query.index.lookup.IndexLookupCache;
 import datawave.webservice.common.cache.SharedCacheCoordinator;
 
 import org.apache.accumulo.core.client.Connector;
@@ -72,6 +73,8 @@ public class MetadataHelperCacheManagementListener {
                     if (!watcher.checkCounter(metadataTableName, newCount)) {
                         log.debug("will evictCaches for " + metadataTableName);
                         metadataCacheManager.evictCaches();
+                        // new data may have been loaded, so drop the cached global index lookups as well
+                        IndexLookupCache.invalidateAll();
                     } else {
                         log.debug("did not evictCaches for " + metadataTableName);
                     }
@@ -0,0 +1,292 @@
+package datawave.query.util.sortedset;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes Keys as compact byte entries that can be compared, copied and decoded without creating any intermediate objects. Every entry is relative to a
+ * shared row: the row of the first key written to a set. Ivarator sets are built per row, so the row is almost always dropped from the entry entirely.
+ *
+ * <pre>
+ * entry := length flags [rowLength row] cfLength cf cqLength cq cvLength cv timestamp
+ * </pre>
+ *
+ * The length and all component lengths are unsigned varints, and the timestamp is 8 bytes big endian. The flags mark whether the row was elided in favor of
+ * the shared row, and whether the key is a delete.
+ */
+public final class CompactKeyEncoding {
+    
+    static final byte SHARED_ROW = 0x01;
+    static final byte DELETED = 0x02;
+    
+    private static final ByteBuffer EMPTY = ByteBuffer.wrap(new byte[0]);
+    
+    private CompactKeyEncoding() {}
+    
+    /**
+     * Get the number of bytes needed to encode a key, including its length prefix
+     *
+     * @param key
+     * @param sharedRow
+     *            the shared row, may be null
+     * @return the encoded length
+     */
+    public static int encodedLength(Key key, ByteBuffer sharedRow) {
+        int length = bodyLength(key, sharedRow);
+        return varIntLength(length) + length;
+    }
+    
+    private static int bodyLength(Key key, ByteBuffer sharedRow) {
+        int length = 1;
+        if (!isSharedRow(key.getRowData(), sharedRow)) {
+            length += sequenceLength(key.getRowData());
+        }
+        length += sequenceLength(key.getColumnFamilyData());
+        length += sequenceLength(key.getColumnQualifierData());
+        length += sequenceLength(key.getColumnVisibilityData());
+        return length + 8;
+    }
+    
+    private static int sequenceLength(ByteSequence sequence) {
+        return varIntLength(sequence.length()) + sequence.length();
+    }
+    
+    /**
+     * Encode a key, including its length prefix, into the destination buffer
+     *
+     * @param key
+     * @param sharedRow
+     *            the shared row, may be null
+     * @param dest
+     * @param offset
+     *            the position in dest to start writing
+     * @return the position in dest following the entry
+     */
+    public static int encode(Key key, ByteBuffer sharedRow, ByteBuffer dest, int offset) {
+        boolean shared = isSharedRow(key.getRowData(), sharedRow);
+        offset = writeVarInt(dest, offset, bodyLength(key, sharedRow));
+        
+        byte flags = 0;
+        if (shared) {
+            flags |= SHARED_ROW;
+        }
+        if (key.isDeleted()) {
+            flags |= DELETED;
+        }
+        dest.put(offset++, flags);
+        
+        if (!shared) {
+            offset = writeSequence(dest, offset, key.getRowData());
+        }
+        offset = writeSequence(dest, offset, key.getColumnFamilyData());
+        offset = writeSequence(dest, offset, key.getColumnQualifierData());
+        offset = writeSequence(dest, offset, key.getColumnVisibilityData());
+        dest.putLong(offset, key.getTimestamp());
+        return offset + 8;
+    }
+    
+    private static int writeSequence(ByteBuffer dest, int offset, ByteSequence sequence) {
+        int length = sequence.length();
+        offset = writeVarInt(dest, offset, length);
+        for (int i = 0; i < length; i++) {
+            dest.put(offset++, sequence.byteAt(i));
+        }
+        return offset;
+    }
+    
+    private static boolean isSharedRow(ByteSequence row, ByteBuffer sharedRow) {
+        if (sharedRow == null || sharedRow.limit() != row.length()) {
+            return false;
+        }
+        for (int i = 0; i < row.length(); i++) {
+            if (sharedRow.get(i) != row.byteAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * @param buffer
+     * @param offset
+     *            the position of an entry's length prefix
+     * @return the total number of bytes used by the entry, including its length prefix
+     */
+    public static int entryLength(ByteBuffer buffer, int offset) {
+        int length = readVarInt(buffer, offset);
+        return varIntLength(length) + length;
+    }
+    
+    /**
+     * Decode the entry at the specified offset
+     *
+     * @param buffer
+     * @param offset
+     *            the position of the entry's length prefix
+     * @param sharedRow
+     *            the shared row the entry was encoded against
+     * @return the key
+     */
+    public static Key decode(ByteBuffer buffer, int offset, ByteBuffer sharedRow) {
+        offset += varIntLength(readVarInt(buffer, offset));
+        byte flags = buffer.get(offset++);
+        
+        byte[] row;
+        if ((flags & SHARED_ROW) != 0) {
+            row = copy(sharedRow, 0, sharedRow.limit());
+        } else {
+            int length = readVarInt(buffer, offset);
+            offset += varIntLength(length);
+            row = copy(buffer, offset, length);
+            offset += length;
+        }
+        
+        int length = readVarInt(buffer, offset);
+        offset += varIntLength(length);
+        byte[] cf = copy(buffer, offset, length);
+        offset += length;
+        
+        length = readVarInt(buffer, offset);
+        offset += varIntLength(length);
+        byte[] cq = copy(buffer, offset, length);
+        offset += length;
+        
+        length = readVarInt(buffer, offset);
+        offset += varIntLength(length);
+        byte[] cv = copy(buffer, offset, length);
+        offset += length;
+        
+        return new Key(row, cf, cq, cv, buffer.getLong(offset), (flags & DELETED) != 0, false);
+    }
+    
+    private static byte[] copy(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return bytes;
+    }
+    
+    /**
+     * Compare two encoded entries in Key order. Both entries must have been encoded against the same shared row.
+     *
+     * @param a
+     * @param aOffset
+     *            the position of the first entry's length prefix
+     * @param b
+     * @param bOffset
+     *            the position of the second entry's length prefix
+     * @param sharedRow
+     *            the shared row both entries were encoded against
+     * @return the comparison, consistent with {@link Key#compareTo(Key)}
+     */
+    public static int compare(ByteBuffer a, int aOffset, ByteBuffer b, int bOffset, ByteBuffer sharedRow) {
+        aOffset += varIntLength(readVarInt(a, aOffset));
+        bOffset += varIntLength(readVarInt(b, bOffset));
+        byte aFlags = a.get(aOffset++);
+        byte bFlags = b.get(bOffset++);
+        
+        // rows
+        boolean aShared = (aFlags & SHARED_ROW) != 0;
+        boolean bShared = (bFlags & SHARED_ROW) != 0;
+        if (!aShared || !bShared) {
+            ByteBuffer aRow = sharedRow;
+            int aRowOffset = 0;
+            int aRowLength = (sharedRow == null ? 0 : sharedRow.limit());
+            if (!aShared) {
+                aRowLength = readVarInt(a, aOffset);
+                aOffset += varIntLength(aRowLength);
+                aRow = a;
+                aRowOffset = aOffset;
+                aOffset += aRowLength;
+            }
+            ByteBuffer bRow = sharedRow;
+            int bRowOffset = 0;
+            int bRowLength = (sharedRow == null ? 0 : sharedRow.limit());
+            if (!bShared) {
+                bRowLength = readVarInt(b, bOffset);
+                bOffset += varIntLength(bRowLength);
+                bRow = b;
+                bRowOffset = bOffset;
+                bOffset += bRowLength;
+            }
+            int result = compareBytes(aRow == null ? EMPTY : aRow, aRowOffset, aRowLength, bRow == null ? EMPTY : bRow, bRowOffset, bRowLength);
+            if (result != 0) {
+                return result;
+            }
+        }
+        
+        // column family, qualifier and visibility
+        for (int i = 0; i < 3; i++) {
+            int aLength = readVarInt(a, aOffset);
+            aOffset += varIntLength(aLength);
+            int bLength = readVarInt(b, bOffset);
+            bOffset += varIntLength(bLength);
+            int result = compareBytes(a, aOffset, aLength, b, bOffset, bLength);
+            if (result != 0) {
+                return result;
+            }
+            aOffset += aLength;
+            bOffset += bLength;
+        }
+        
+        // newer timestamps sort first
+        int result = Long.compare(b.getLong(bOffset), a.getLong(aOffset));
+        if (result != 0) {
+            return result;
+        }
+        
+        // deletes sort first
+        boolean aDeleted = (aFlags & DELETED) != 0;
+        boolean bDeleted = (bFlags & DELETED) != 0;
+        if (aDeleted == bDeleted) {
+            return 0;
+        }
+        return aDeleted ? -1 : 1;
+    }
+    
+    private static int compareBytes(ByteBuffer a, int aOffset, int aLength, ByteBuffer b, int bOffset, int bLength) {
+        int length = Math.min(aLength, bLength);
+        for (int i = 0; i < length; i++) {
+            int result = (a.get(aOffset + i) & 0xff) - (b.get(bOffset + i) & 0xff);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return aLength - bLength;
+    }
+    
+    /********* varints ***********/
+    
+    public static int varIntLength(int value) {
+        int length = 1;
+        while ((value & ~0x7f) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+    
+    public static int writeVarInt(ByteBuffer dest, int offset, int value) {
+        while ((value & ~0x7f) != 0) {
+            dest.put(offset++, (byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        dest.put(offset++, (byte) value);
+        return offset;
+    }
+    
+    public static int readVarInt(ByteBuffer buffer, int offset) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(offset++);
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,78 @@
+package datawave.query.util.sortedset;
+
+import org.apache.log4j.Logger;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Releases the native memory of a direct buffer immediately instead of waiting for the buffer to be garbage collected. Waiting on the collector means that
+ * freed buffers pile up off-heap, and once the direct memory limit is reached every allocateDirect call falls back to calling System.gc().
+ *
+ * On java 9 and later this uses Unsafe.invokeCleaner, and on java 8 the cleaner of the buffer itself. If neither is available then the buffer is left to the
+ * garbage collector.
+ */
+public final class DirectBufferCleaner {
+    private static final Logger log = Logger.getLogger(DirectBufferCleaner.class);
+    
+    private static final Cleaner CLEANER = createCleaner();
+    
+    private DirectBufferCleaner() {}
+    
+    /**
+     * Free the native memory of a direct buffer. The buffer, and any view of it, must not be used afterwards.
+     *
+     * @param buffer
+     *            the buffer to free, ignored if null or not direct
+     * @return true if the memory was freed, false if it is left to the garbage collector
+     */
+    public static boolean free(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || CLEANER == null) {
+            return false;
+        }
+        try {
+            CLEANER.clean(buffer);
+            return true;
+        } catch (Exception e) {
+            log.debug("Unable to free direct buffer, leaving it to the garbage collector", e);
+            return false;
+        }
+    }
+    
+    private interface Cleaner {
+        void clean(ByteBuffer buffer) throws Exception;
+    }
+    
+    private static Cleaner createCleaner() {
+        try {
+            // java 9+
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Object unsafe = theUnsafe.get(null);
+            return buffer -> invokeCleaner.invoke(unsafe, buffer);
+        } catch (Exception e) {
+            // fall through to the java 8 cleaner
+        }
+        try {
+            // java 8
+            ByteBuffer probe = ByteBuffer.allocateDirect(1);
+            Method cleanerMethod = probe.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Method cleanMethod = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            cleanMethod.setAccessible(true);
+            cleanMethod.invoke(cleanerMethod.invoke(probe));
+            return buffer -> {
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleanMethod.invoke(cleaner);
+                }
+            };
+        } catch (Exception e) {
+            log.warn("Unable to free direct buffers explicitly, off-heap memory will be released by the garbage collector", e);
+            return null;
+        }
+    }
+}
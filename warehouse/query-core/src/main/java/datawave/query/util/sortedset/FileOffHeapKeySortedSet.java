@@ -0,0 +1,223 @@
+package datawave.query.util.sortedset;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SortedSet;
+import org.apache.accumulo.core.data.Key;
+import org.apache.log4j.Logger;
+
+/**
+ * A sorted set of keys that can be persisted into a file and still be read in its persisted state. While in memory, the keys are held off-heap in an
+ * {@link OffHeapKeySortedSet}, and persisting the set copies the encoded keys directly to the file without materializing them.
+ *
+ * The persisted file will contain the shared row, the encoded entries, and the actual size (see {@link OffHeapKeyOutputStream}).
+ */
+public class FileOffHeapKeySortedSet extends FileSortedSet<Key> {
+    private static Logger log = Logger.getLogger(FileOffHeapKeySortedSet.class);
+    
+    /**
+     * Create a file sorted set from another one
+     *
+     * @param other
+     */
+    public FileOffHeapKeySortedSet(FileOffHeapKeySortedSet other) {
+        super(other);
+    }
+    
+    /**
+     * Create a file sorted subset from another one
+     *
+     * @param other
+     * @param from
+     * @param to
+     */
+    public FileOffHeapKeySortedSet(FileOffHeapKeySortedSet other, Key from, Key to) {
+        super(other, from, to);
+    }
+    
+    /**
+     * Create a persisted sorted set
+     *
+     * @param handler
+     * @param persisted
+     */
+    public FileOffHeapKeySortedSet(SortedSetFileHandler handler, boolean persisted) {
+        super(new OffHeapKeyFileHandler(handler), new FileOffHeapKeySortedSet.Factory(), persisted);
+    }
+    
+    /**
+     * Create a persisted sorted set
+     *
+     * @param comparator
+     * @param handler
+     * @param persisted
+     */
+    public FileOffHeapKeySortedSet(Comparator<? super Key> comparator, SortedSetFileHandler handler, boolean persisted) {
+        this(handler, persisted);
+        if (comparator != null) {
+            throw new UnsupportedOperationException("Cannot supply a comparator for a FileOffHeapKeySortedSet.  Only a Key comparator will work");
+        }
+    }
+    
+    /**
+     * Create an unpersisted sorted set (still in memory)
+     *
+     * @param set
+     * @param handler
+     */
+    public FileOffHeapKeySortedSet(SortedSet<Key> set, SortedSetFileHandler handler) {
+        super(set, new OffHeapKeyFileHandler(handler), new FileOffHeapKeySortedSet.Factory());
+    }
+    
+    /**
+     * Create an sorted set out of another sorted set. If persist is true, then the set will be directly persisted using the set's iterator which avoid pulling
+     * all of its entries into memory at once.
+     *
+     * @param set
+     * @param handler
+     */
+    public FileOffHeapKeySortedSet(SortedSet<Key> set, SortedSetFileHandler handler, boolean persist) throws IOException {
+        super(set, new OffHeapKeyFileHandler(handler), new FileOffHeapKeySortedSet.Factory(), persist);
+    }
+    
+    @Override
+    protected SortedSet<Key> newSet(Comparator<? super Key> comparator) {
+        return new OffHeapKeySortedSet();
+    }
+    
+    @Override
+    protected SortedSet<Key> newSet(SortedSet<Key> other) {
+        return new OffHeapKeySortedSet(other);
+    }
+    
+    /**
+     * Write the set to the stream. An off-heap set is copied to the stream in bulk.
+     */
+    @Override
+    protected int write(SortedSet<Key> set, SortedSetOutputStream<Key> stream, List<Key> setToVerify, int numElementsToVerify) throws IOException {
+        if (set instanceof OffHeapKeySortedSet && stream instanceof OffHeapKeyOutputStream) {
+            OffHeapKeySortedSet offHeapSet = (OffHeapKeySortedSet) set;
+            ((OffHeapKeyOutputStream) stream).writeEntries(offHeapSet);
+            for (int i = 0; i < numElementsToVerify && i < offHeapSet.size(); i++) {
+                setToVerify.add(offHeapSet.get(i));
+            }
+            return offHeapSet.size();
+        }
+        return super.write(set, stream, setToVerify, numElementsToVerify);
+    }
+    
+    /**
+     * This will dump the set to the file, making the set "persisted"
+     *
+     * @throws IOException
+     */
+    public void persist(SortedSetFileHandler handler) throws IOException {
+        // ensure this handler is wrapped with our handler
+        super.persist(new OffHeapKeyFileHandler(handler));
+    }
+    
+    /**
+     * Clone this set
+     */
+    @Override
+    public FileOffHeapKeySortedSet clone() {
+        return (FileOffHeapKeySortedSet) super.clone();
+    }
+    
+    /**
+     * A sortedsetfilehandler that can bound the input stream. The block index of the file is read on the first bounded read and cached for subsequent reads.
+     */
+    public static class OffHeapKeyFileHandler implements BoundedTypedSortedSetFileHandler<Key> {
+        private static final OffHeapKeyBlockIndex NO_INDEX = new OffHeapKeyBlockIndex(new Key[0], new long[0]);
+        
+        SortedSetFileHandler delegate;
+        private volatile OffHeapKeyBlockIndex blockIndex = null;
+        
+        public OffHeapKeyFileHandler(SortedSetFileHandler handler) {
+            this.delegate = handler;
+        }
+        
+        protected OffHeapKeyBlockIndex getBlockIndex() {
+            OffHeapKeyBlockIndex index = blockIndex;
+            if (index == null) {
+                try {
+                    index = OffHeapKeyBlockIndex.read(delegate.getInputStream(), delegate.getSize());
+                } catch (IOException e) {
+                    log.warn("Unable to read the block index for " + delegate + ", bounded reads will scan from the start of the file", e);
+                    index = NO_INDEX;
+                }
+                blockIndex = index;
+            }
+            return index;
+        }
+        
+        @Override
+        public SortedSetInputStream<Key> getInputStream() throws IOException {
+            return new OffHeapKeyInputStream(delegate.getInputStream(), delegate.getSize());
+        }
+        
+        @Override
+        public SortedSetInputStream<Key> getInputStream(Key start, Key end) throws IOException {
+            return new OffHeapKeyInputStream(delegate.getInputStream(), delegate.getSize(), start, end, (start == null ? null : getBlockIndex()));
+        }
+        
+        @Override
+        public SortedSetOutputStream getOutputStream() throws IOException {
+            blockIndex = null;
+            return new OffHeapKeyOutputStream(delegate.getOutputStream());
+        }
+        
+        @Override
+        public PersistOptions getPersistOptions() {
+            return delegate.getPersistOptions();
+        }
+        
+        @Override
+        public long getSize() {
+            return delegate.getSize();
+        }
+        
+        @Override
+        public void deleteFile() {
+            blockIndex = null;
+            delegate.deleteFile();
+        }
+    }
+    
+    /**
+     * A factory for these file sorted sets
+     */
+    public static class Factory implements FileSortedSetFactory<Key> {
+        
+        @Override
+        public FileOffHeapKeySortedSet newInstance(FileSortedSet<Key> other) {
+            return new FileOffHeapKeySortedSet((FileOffHeapKeySortedSet) other);
+        }
+        
+        @Override
+        public FileOffHeapKeySortedSet newInstance(FileSortedSet<Key> other, Key from, Key to) {
+            return new FileOffHeapKeySortedSet((FileOffHeapKeySortedSet) other, from, to);
+        }
+        
+        @Override
+        public FileOffHeapKeySortedSet newInstance(SortedSetFileHandler handler, boolean persisted) {
+            return new FileOffHeapKeySortedSet(handler, persisted);
+        }
+        
+        @Override
+        public FileOffHeapKeySortedSet newInstance(Comparator<? super Key> comparator, SortedSetFileHandler handler, boolean persisted) {
+            return new FileOffHeapKeySortedSet(comparator, handler, persisted);
+        }
+        
+        @Override
+        public FileOffHeapKeySortedSet newInstance(SortedSet<Key> set, SortedSetFileHandler handler) {
+            return new FileOffHeapKeySortedSet(set, handler);
+        }
+        
+        @Override
+        public FileOffHeapKeySortedSet newInstance(SortedSet<Key> set, SortedSetFileHandler handler, boolean persist) throws IOException {
+            return new FileOffHeapKeySortedSet(set, handler, persist);
+        }
+    }
+}
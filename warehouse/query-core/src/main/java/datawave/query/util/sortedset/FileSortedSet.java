@@ -60,7 +60,7 @@ public abstract class FileSortedSet<E> implements SortedSet<E>, Cloneable {
     public FileSortedSet(FileSortedSet<E> other) {
         this.handler = other.handler;
         this.factory = other.factory;
-        this.set = new TreeSet<>(other.set);
+        this.set = newSet(other.set);
         this.persisted = other.persisted;
         this.range = other.range;
     }
@@ -97,7 +97,7 @@ public abstract class FileSortedSet<E> implements SortedSet<E>, Cloneable {
     public FileSortedSet(TypedSortedSetFileHandler handler, FileSortedSetFactory factory, boolean persisted) {
         this.handler = handler;
         this.factory = factory;
-        this.set = new TreeSet<>();
+        this.set = newSet((Comparator<? super E>) null);
         this.persisted = persisted;
     }
     
@@ -113,7 +113,7 @@ public abstract class FileSortedSet<E> implements SortedSet<E>, Cloneable {
     public FileSortedSet(Comparator<? super E> comparator, TypedSortedSetFileHandler handler, FileSortedSetFactory factory, boolean persisted) {
         this.handler = handler;
         this.factory = factory;
-        this.set = new TreeSet<>(comparator);
+        this.set = newSet(comparator);
         this.persisted = persisted;
     }
     
@@ -126,7 +126,7 @@ public abstract class FileSortedSet<E> implements SortedSet<E>, Cloneable {
     public FileSortedSet(SortedSet<E> set, TypedSortedSetFileHandler handler, FileSortedSetFactory factory) {
         this.handler = handler;
         this.factory = factory;
-        this.set = new TreeSet<>(set);
+        this.set = newSet(set);
         this.persisted = false;
     }
     
@@ -141,15 +141,37 @@ public abstract class FileSortedSet<E> implements SortedSet<E>, Cloneable {
         this.handler = handler;
         this.factory = factory;
         if (!persist) {
-            this.set = new TreeSet<>(set);
+            this.set = newSet(set);
             this.persisted = false;
         } else {
-            this.set = new TreeSet<>(set.comparator());
+            this.set = newSet(set.comparator());
             persist(set, handler);
             persisted = true;
         }
     }
     
+    /**
+     * Create the in-memory set that holds the entries while this set is not persisted. Extending classes can override this to use a different in-memory
+     * representation. Note this is called from the constructors.
+     *
+     * @param comparator
+     * @return an empty set
+     */
+    protected SortedSet<E> newSet(Comparator<? super E> comparator) {
+        return new TreeSet<>(comparator);
+    }
+    
+    /**
+     * Create the in-memory set that holds the entries while this set is not persisted, initially containing the entries of another set. Note this is called
+     * from the constructors.
+     *
+     * @param other
+     * @return a set containing the entries of other
+     */
+    protected SortedSet<E> newSet(SortedSet<E> other) {
+        return new TreeSet<>(other);
+    }
+    
     /**
      * This will dump the set to the file, making the set "persisted"
      *
@@ -195,17 +217,11 @@ public abstract class FileSortedSet<E> implements SortedSet<E>, Cloneable {
             // if we can't persist, we will reset to null
             this.handler = handler;
             
-            int actualSize = 0;
+            int actualSize;
             PersistOptions persistOptions = handler.getPersistOptions();
             List<E> setToVerify = new ArrayList<>();
             try (SortedSetOutputStream<E> stream = handler.getOutputStream()) {
-                for (E t : set) {
-                    stream.writeObject(t);
-                    if (persistOptions.isVerifyElements() && setToVerify.size() < persistOptions.getNumElementsToVerify()) {
-                        setToVerify.add(t);
-                    }
-                    actualSize++;
-                }
+                actualSize = write(set, stream, setToVerify, persistOptions.isVerifyElements() ? persistOptions.getNumElementsToVerify() : 0);
                 stream.writeSize(actualSize);
             }
             // verify we wrote at least the size....
@@ -244,6 +260,33 @@ public abstract class FileSortedSet<E> implements SortedSet<E>, Cloneable {
         }
     }
     
+    /**
+     * Write the entries of a set to the output stream. Extending classes can override this when their in-memory set can be written more efficiently than one
+     * object at a time.
+     *
+     * @param set
+     *            the set to write
+     * @param stream
+     *            the output stream
+     * @param setToVerify
+     *            a list to fill with the first entries written, used to verify the persisted file
+     * @param numElementsToVerify
+     *            the number of entries to add to setToVerify
+     * @return the number of entries written
+     * @throws IOException
+     */
+    protected int write(SortedSet<E> set, SortedSetOutputStream<E> stream, List<E> setToVerify, int numElementsToVerify) throws IOException {
+        int size = 0;
+        for (E t : set) {
+            stream.writeObject(t);
+            if (setToVerify.size() < numElementsToVerify) {
+                setToVerify.add(t);
+            }
+            size++;
+        }
+        return size;
+    }
+    
     /**
      * Read the size from the file which is in the last 4 bytes.
      * 
@@ -0,0 +1,85 @@
+package datawave.query.util.sortedset;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.apache.accumulo.core.data.Key;
+import org.apache.hadoop.fs.Seekable;
+
+/**
+ * The sparse block index of a file written by the {@link OffHeapKeyOutputStream}: the first key of every block and the file offset at which the block starts.
+ * This allows a bounded read of the file to seek directly to the block that may contain the start key instead of reading every entry that precedes it.
+ */
+public class OffHeapKeyBlockIndex {
+    private final Key[] firstKeys;
+    private final long[] offsets;
+    
+    public OffHeapKeyBlockIndex(Key[] firstKeys, long[] offsets) {
+        if (firstKeys.length != offsets.length) {
+            throw new IllegalArgumentException("Expected one offset per key");
+        }
+        this.firstKeys = firstKeys;
+        this.offsets = offsets;
+    }
+    
+    public int getNumBlocks() {
+        return firstKeys.length;
+    }
+    
+    /**
+     * Get the offset of the block that may contain the start key, which is the last block whose first key is less than or equal to the start key.
+     *
+     * @param start
+     * @return the offset of the block, or -1 if every key in the file is greater than start
+     */
+    public long getOffset(Key start) {
+        int index = Arrays.binarySearch(firstKeys, start);
+        if (index < 0) {
+            index = -2 - index;
+        }
+        return (index < 0 ? -1 : offsets[index]);
+    }
+    
+    /**
+     * Read the block index from a file. The footer of the file holds the offset of the index, followed by the size.
+     *
+     * @param stream
+     *            a seekable stream over the file, which is closed by this method
+     * @param length
+     *            the length of the file
+     * @return the block index
+     * @throws IOException
+     */
+    public static OffHeapKeyBlockIndex read(InputStream stream, long length) throws IOException {
+        if (!(stream instanceof Seekable)) {
+            stream.close();
+            throw new IOException("Unable to read the block index from a stream that is not seekable");
+        }
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+            ByteBuffer sharedRow = ByteBuffer.wrap(OffHeapKeyInputStream.readHeader(in));
+            
+            ((Seekable) stream).seek(length - OffHeapKeyOutputStream.FOOTER_SIZE);
+            in = new DataInputStream(stream);
+            long indexOffset = in.readLong();
+            
+            ((Seekable) stream).seek(indexOffset);
+            in = new DataInputStream(new BufferedInputStream(stream));
+            int numBlocks = in.readInt();
+            Key[] firstKeys = new Key[numBlocks];
+            long[] offsets = new long[numBlocks];
+            ByteBuffer entry = ByteBuffer.allocate(OffHeapKeySortedSet.AVERAGE_KEY_SIZE * 4);
+            for (int i = 0; i < numBlocks; i++) {
+                offsets[i] = in.readLong();
+                entry = OffHeapKeyInputStream.readEntry(in, entry);
+                firstKeys[i] = CompactKeyEncoding.decode(entry, 0, sharedRow);
+            }
+            return new OffHeapKeyBlockIndex(firstKeys, offsets);
+        } finally {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package datawave.query.util.sortedset;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import org.apache.accumulo.core.data.Key;
+import org.apache.hadoop.fs.Seekable;
+import org.apache.log4j.Logger;
+
+/**
+ * Reads keys written by the {@link OffHeapKeyOutputStream}, optionally bounded by a start key (inclusive) and an end key (exclusive). If a block index is
+ * supplied and the underlying stream is seekable, then a bounded read will seek directly to the block that may contain the start key.
+ */
+public class OffHeapKeyInputStream implements FileSortedSet.SortedSetInputStream<Key> {
+    private static Logger log = Logger.getLogger(OffHeapKeyInputStream.class);
+    
+    private final InputStream stream;
+    private final long length;
+    private Key start;
+    private Key end;
+    private OffHeapKeyBlockIndex blockIndex;
+    private DataInputStream delegate;
+    private ByteBuffer sharedRow = null;
+    private ByteBuffer entry = ByteBuffer.allocate(OffHeapKeySortedSet.AVERAGE_KEY_SIZE * 4);
+    private boolean done = false;
+    
+    public OffHeapKeyInputStream(InputStream stream, long length) throws IOException {
+        this.stream = stream;
+        this.length = length;
+    }
+    
+    public OffHeapKeyInputStream(InputStream stream, long length, Key start, Key end) throws IOException {
+        this(stream, length, start, end, null);
+    }
+    
+    public OffHeapKeyInputStream(InputStream stream, long length, Key start, Key end, OffHeapKeyBlockIndex blockIndex) throws IOException {
+        this(stream, length);
+        this.start = start;
+        this.end = end;
+        this.blockIndex = blockIndex;
+    }
+    
+    private DataInputStream getDelegate() throws IOException {
+        if (delegate == null) {
+            delegate = new DataInputStream(new BufferedInputStream(stream));
+            sharedRow = ByteBuffer.wrap(readHeader(delegate));
+            if (start != null && blockIndex != null && stream instanceof Seekable) {
+                long offset = blockIndex.getOffset(start);
+                if (offset >= 0) {
+                    // discard the buffered header and jump to the block
+                    ((Seekable) stream).seek(offset);
+                    delegate = new DataInputStream(new BufferedInputStream(stream));
+                }
+            }
+        }
+        return delegate;
+    }
+    
+    @Override
+    public Key readObject() throws IOException {
+        if (done) {
+            return null;
+        }
+        Key next = readNext();
+        while (next != null && start != null && next.compareTo(start) < 0) {
+            next = readNext();
+        }
+        if (next != null && end != null && next.compareTo(end) >= 0) {
+            next = null;
+        }
+        if (next == null) {
+            done = true;
+        }
+        return next;
+    }
+    
+    private Key readNext() throws IOException {
+        DataInputStream in = getDelegate();
+        ByteBuffer next = readEntry(in, entry);
+        if (next == null) {
+            return null;
+        }
+        entry = next;
+        return CompactKeyEncoding.decode(entry, 0, sharedRow);
+    }
+    
+    /**
+     * Read the shared row at the start of the file
+     *
+     * @param in
+     * @return the shared row
+     * @throws IOException
+     */
+    static byte[] readHeader(DataInputStream in) throws IOException {
+        byte[] row = new byte[readVarInt(in)];
+        in.readFully(row);
+        return row;
+    }
+    
+    /**
+     * Read the next encoded entry, including its length prefix, into the start of a buffer
+     *
+     * @param in
+     * @param entry
+     *            the buffer to read into
+     * @return the buffer holding the entry, which is a new buffer if the entry did not fit, or null if the end of the entries was reached
+     * @throws IOException
+     */
+    static ByteBuffer readEntry(DataInputStream in, ByteBuffer entry) throws IOException {
+        int bodyLength = readVarInt(in);
+        if (bodyLength == 0) {
+            return null;
+        }
+        int prefixLength = CompactKeyEncoding.varIntLength(bodyLength);
+        if (entry.capacity() < prefixLength + bodyLength) {
+            entry = ByteBuffer.allocate(Math.max(prefixLength + bodyLength, entry.capacity() * 2));
+        }
+        CompactKeyEncoding.writeVarInt(entry, 0, bodyLength);
+        in.readFully(entry.array(), prefixLength, bodyLength);
+        return entry;
+    }
+    
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.read();
+            if (b < 0) {
+                throw new EOFException("Unexpected end of stream");
+            }
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+    
+    @Override
+    public int readSize() throws IOException {
+        if (delegate != null) {
+            throw new IllegalStateException("Cannot read size from undetermined location in stream");
+        }
+        long bytesToSkip = length - 4;
+        long total = 0;
+        long cur = 0;
+        
+        while ((total < bytesToSkip) && ((cur = stream.skip(bytesToSkip - total)) > 0)) {
+            total += cur;
+        }
+        
+        return new DataInputStream(stream).readInt();
+    }
+    
+    @Override
+    public void close() {
+        try {
+            if (delegate != null) {
+                delegate.close();
+            } else {
+                stream.close();
+            }
+        } catch (Exception e) {
+            log.error("Failed to close input stream", e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package datawave.query.util.sortedset;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import org.apache.accumulo.core.data.Key;
+
+/**
+ * Writes keys using the {@link CompactKeyEncoding}. The file format is:
+ *
+ * <pre>
+ * file   := rowLength row entry* 0 index footer
+ * index  := numBlocks (blockOffset entry)*
+ * footer := indexOffset size
+ * </pre>
+ *
+ * where row is the shared row all of the entries are encoded against and the 0 is a zero length varint marking the end of the entries. The entries are split
+ * into blocks of roughly blockSize bytes, and the index holds the offset and first entry of every block (see {@link OffHeapKeyBlockIndex}). The numBlocks and
+ * size are 4 bytes big endian, and the offsets are 8 bytes big endian. The size is always the last 4 bytes of the file.
+ */
+public class OffHeapKeyOutputStream implements FileSortedSet.SortedSetOutputStream<Key> {
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    public static final int FOOTER_SIZE = 12;
+    
+    private DataOutputStream delegate;
+    private final int blockSize;
+    private long position = 0;
+    private long blockStart = -1;
+    private int numBlocks = 0;
+    private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+    private final DataOutputStream indexStream = new DataOutputStream(index);
+    private ByteBuffer sharedRow = null;
+    private ByteBuffer scratch = ByteBuffer.allocate(OffHeapKeySortedSet.AVERAGE_KEY_SIZE * 4);
+    
+    public OffHeapKeyOutputStream(OutputStream stream) throws IOException {
+        this(stream, DEFAULT_BLOCK_SIZE);
+    }
+    
+    public OffHeapKeyOutputStream(OutputStream stream, int blockSize) throws IOException {
+        this.delegate = new DataOutputStream(new BufferedOutputStream(stream));
+        this.blockSize = blockSize;
+    }
+    
+    /**
+     * Write all of the entries of an off-heap set. The encoded entries are copied as is.
+     *
+     * @param set
+     * @throws IOException
+     */
+    public void writeEntries(OffHeapKeySortedSet set) throws IOException {
+        if (sharedRow != null) {
+            throw new IllegalStateException("Entries have already been written to this stream");
+        }
+        ByteBuffer row = set.getSharedRow();
+        writeHeader(row == null ? ByteBuffer.allocate(0) : row);
+        for (int i = 0; i < set.size(); i++) {
+            ByteBuffer entry = set.getEntry(i);
+            int length = entry.remaining();
+            ensureScratchCapacity(length);
+            entry.get(scratch.array(), 0, length);
+            writeEntry(length);
+        }
+    }
+    
+    @Override
+    public void writeObject(Key o) throws IOException {
+        if (sharedRow == null) {
+            writeHeader(ByteBuffer.wrap(o.getRowData().toArray()));
+        }
+        int length = CompactKeyEncoding.encodedLength(o, sharedRow);
+        ensureScratchCapacity(length);
+        CompactKeyEncoding.encode(o, sharedRow, scratch, 0);
+        writeEntry(length);
+    }
+    
+    @Override
+    public void writeSize(int size) throws IOException {
+        if (sharedRow == null) {
+            writeHeader(ByteBuffer.allocate(0));
+        }
+        writeVarInt(0);
+        long indexOffset = position;
+        delegate.writeInt(numBlocks);
+        index.writeTo(delegate);
+        delegate.writeLong(indexOffset);
+        delegate.writeInt(size);
+    }
+    
+    /**
+     * Write the entry in the scratch buffer, starting a new block if the current one is full
+     */
+    private void writeEntry(int length) throws IOException {
+        if (blockStart < 0 || position - blockStart >= blockSize) {
+            blockStart = position;
+            numBlocks++;
+            indexStream.writeLong(position);
+            indexStream.write(scratch.array(), 0, length);
+        }
+        delegate.write(scratch.array(), 0, length);
+        position += length;
+    }
+    
+    private void writeHeader(ByteBuffer row) throws IOException {
+        sharedRow = row;
+        writeVarInt(row.limit());
+        for (int i = 0; i < row.limit(); i++) {
+            delegate.write(row.get(i));
+        }
+        position += row.limit();
+    }
+    
+    private void writeVarInt(int value) throws IOException {
+        int length = CompactKeyEncoding.writeVarInt(scratch, 0, value);
+        delegate.write(scratch.array(), 0, length);
+        position += length;
+    }
+    
+    private void ensureScratchCapacity(int length) {
+        if (scratch.capacity() < length) {
+            scratch = ByteBuffer.allocate(Math.max(length, scratch.capacity() * 2));
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+        delegate = null;
+    }
+}
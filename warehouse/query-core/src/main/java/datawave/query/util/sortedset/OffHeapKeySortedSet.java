@@ -0,0 +1,514 @@
+package datawave.query.util.sortedset;
+
+import org.apache.accumulo.core.data.Key;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+/**
+ * This is a sorted set of Keys which keeps the keys, encoded with {@link CompactKeyEncoding}, in one large direct (off-heap) buffer and a separate array of
+ * entry offsets in sorted key order. The reason for building this sorted set structure is to keep large ivarator buffers out of the tserver heap: a TreeSet of
+ * Keys costs several objects per entry, whereas this costs one int per entry on heap. Keys are only materialized when they are read back out of the set.
+ *
+ * Because the entries are already encoded, persisting this set is a copy of the encoded bytes in offset order (see {@link #getEntry(int)}).
+ *
+ * Removing an entry removes its offset and counts its bytes as free. Once more than half of the buffer is free, the remaining entries are compacted into a
+ * new buffer. The buffer is allocated on the first add and freed explicitly (see {@link DirectBufferCleaner}) when it is replaced, when the set is cleared,
+ * and when the last entry is removed, so that a set that has been persisted does not hold onto off-heap memory until the next garbage collection.
+ */
+public class OffHeapKeySortedSet extends AbstractSet<Key> implements SortedSet<Key> {
+    public static final int AVERAGE_KEY_SIZE = 64;
+    public static final int DEFAULT_CAPACITY = 1024;
+    
+    protected final int initialCapacity;
+    protected ByteBuffer data = null;
+    protected int dataSize = 0;
+    protected int freeBytes = 0;
+    protected int[] sortedOffsets;
+    protected int size = 0;
+    protected ByteBuffer sharedRow = null;
+    protected int modCount = 0;
+    
+    // scratch space used to encode keys being added or searched for
+    private ByteBuffer scratch = ByteBuffer.allocate(AVERAGE_KEY_SIZE * 4);
+    
+    public OffHeapKeySortedSet() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    public OffHeapKeySortedSet(int capacity) {
+        this.initialCapacity = Math.max(capacity, 1);
+        this.sortedOffsets = new int[initialCapacity];
+    }
+    
+    /**
+     * Create a set containing the keys of another set. If the other set is an OffHeapKeySortedSet, then its buffer is copied as is.
+     *
+     * @param other
+     */
+    public OffHeapKeySortedSet(Collection<? extends Key> other) {
+        this(other instanceof OffHeapKeySortedSet ? ((OffHeapKeySortedSet) other).size : other.size());
+        if (other instanceof OffHeapKeySortedSet) {
+            OffHeapKeySortedSet otherSet = (OffHeapKeySortedSet) other;
+            if (otherSet.dataSize > 0) {
+                ensureDataCapacity(otherSet.dataSize);
+                slice(data, 0, otherSet.dataSize).put(slice(otherSet.data, 0, otherSet.dataSize));
+            }
+            System.arraycopy(otherSet.sortedOffsets, 0, sortedOffsets, 0, otherSet.size);
+            this.dataSize = otherSet.dataSize;
+            this.freeBytes = otherSet.freeBytes;
+            this.size = otherSet.size;
+            this.sharedRow = otherSet.sharedRow;
+        } else {
+            addAll(other);
+        }
+    }
+    
+    /************************** Overridden methods *************************/
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    @Override
+    public boolean contains(Object o) {
+        if (o instanceof Key) {
+            encodeProbe((Key) o);
+            return binarySearch(scratch, 0, size) >= 0;
+        }
+        return false;
+    }
+    
+    @Override
+    public Iterator<Key> iterator() {
+        return new OffHeapKeyIterator(0, size);
+    }
+    
+    @Override
+    public boolean add(Key key) {
+        if (size == 0 && sharedRow == null) {
+            sharedRow = ByteBuffer.wrap(key.getRowData().toArray());
+        }
+        int length = encodeProbe(key);
+        int index = binarySearch(scratch, 0, size);
+        if (index < 0) {
+            add(-1 - index, length);
+            return true;
+        }
+        return false;
+    }
+    
+    @Override
+    public boolean remove(Object o) {
+        if (o instanceof Key) {
+            encodeProbe((Key) o);
+            int index = binarySearch(scratch, 0, size);
+            if (index >= 0) {
+                remove(index);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public void clear() {
+        modCount++;
+        releaseData();
+        sortedOffsets = new int[initialCapacity];
+        size = 0;
+        sharedRow = null;
+    }
+    
+    @Override
+    public Comparator<? super Key> comparator() {
+        // natural Key ordering
+        return null;
+    }
+    
+    @Override
+    public SortedSet<Key> subSet(Key fromElement, Key toElement) {
+        return new OffHeapKeySubSet(fromElement, toElement);
+    }
+    
+    @Override
+    public SortedSet<Key> headSet(Key toElement) {
+        return new OffHeapKeySubSet(null, toElement);
+    }
+    
+    @Override
+    public SortedSet<Key> tailSet(Key fromElement) {
+        return new OffHeapKeySubSet(fromElement, null);
+    }
+    
+    @Override
+    public Key first() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return get(0);
+    }
+    
+    @Override
+    public Key last() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return get(size - 1);
+    }
+    
+    /***************************** Other public methods *************************/
+    
+    public Key get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+        }
+        return CompactKeyEncoding.decode(data, sortedOffsets[index], sharedRow);
+    }
+    
+    /**
+     * @return the shared row all of the entries were encoded against, or null if the set is empty
+     */
+    public ByteBuffer getSharedRow() {
+        return (sharedRow == null ? null : sharedRow.asReadOnlyBuffer());
+    }
+    
+    /**
+     * @return the number of off-heap bytes held by this set
+     */
+    public long getMemoryUsage() {
+        return (data == null ? 0 : data.capacity());
+    }
+    
+    /**
+     * @return the number of bytes in the buffer held by removed entries
+     */
+    public int getFreeBytes() {
+        return freeBytes;
+    }
+    
+    /**
+     * Get the encoded entry at an index. No key is materialized; the returned buffer is a read-only view of the entry in the direct buffer, including its
+     * length prefix. The view is only valid until the set is next modified, as the buffer may be freed.
+     *
+     * @param index
+     * @return the encoded entry
+     */
+    public ByteBuffer getEntry(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+        }
+        int offset = sortedOffsets[index];
+        return slice(data, offset, CompactKeyEncoding.entryLength(data, offset)).asReadOnlyBuffer();
+    }
+    
+    /******************************* The protected stuff ***************************/
+    
+    /**
+     * Encode a key into the scratch buffer
+     *
+     * @param key
+     * @return the encoded length
+     */
+    protected int encodeProbe(Key key) {
+        int length = CompactKeyEncoding.encodedLength(key, sharedRow);
+        if (scratch.capacity() < length) {
+            scratch = ByteBuffer.allocate(Math.max(length, scratch.capacity() * 2));
+        }
+        CompactKeyEncoding.encode(key, sharedRow, scratch, 0);
+        return length;
+    }
+    
+    protected void ensureDataCapacity(int required) {
+        if (data == null) {
+            data = ByteBuffer.allocateDirect(Math.max(required, initialCapacity * AVERAGE_KEY_SIZE));
+        } else if (data.capacity() < required) {
+            ByteBuffer newData = ByteBuffer.allocateDirect(Math.max(required, data.capacity() + (data.capacity() >> 1)));
+            slice(newData, 0, dataSize).put(slice(data, 0, dataSize));
+            DirectBufferCleaner.free(data);
+            data = newData;
+        }
+    }
+    
+    /**
+     * Free the buffer
+     */
+    protected void releaseData() {
+        DirectBufferCleaner.free(data);
+        data = null;
+        dataSize = 0;
+        freeBytes = 0;
+    }
+    
+    /**
+     * Copy the live entries, in sorted order, into a new buffer sized for them and free the old buffer
+     */
+    protected void compact() {
+        int liveBytes = dataSize - freeBytes;
+        ByteBuffer newData = ByteBuffer.allocateDirect(Math.max(liveBytes, initialCapacity * AVERAGE_KEY_SIZE));
+        int newDataSize = 0;
+        for (int i = 0; i < size; i++) {
+            int offset = sortedOffsets[i];
+            int length = CompactKeyEncoding.entryLength(data, offset);
+            slice(newData, newDataSize, length).put(slice(data, offset, length));
+            sortedOffsets[i] = newDataSize;
+            newDataSize += length;
+        }
+        DirectBufferCleaner.free(data);
+        data = newData;
+        dataSize = newDataSize;
+        freeBytes = 0;
+    }
+    
+    protected void add(int index, int length) {
+        modCount++;
+        ensureDataCapacity(dataSize + length);
+        slice(data, dataSize, length).put(slice(scratch, 0, length));
+        if (size == sortedOffsets.length) {
+            int[] newOffsets = new int[sortedOffsets.length + (sortedOffsets.length >> 1) + 1];
+            System.arraycopy(sortedOffsets, 0, newOffsets, 0, size);
+            sortedOffsets = newOffsets;
+        }
+        System.arraycopy(sortedOffsets, index, sortedOffsets, index + 1, size - index);
+        sortedOffsets[index] = dataSize;
+        dataSize += length;
+        size++;
+    }
+    
+    protected void remove(int index) {
+        modCount++;
+        freeBytes += CompactKeyEncoding.entryLength(data, sortedOffsets[index]);
+        System.arraycopy(sortedOffsets, index + 1, sortedOffsets, index, size - index - 1);
+        size--;
+        if (size == 0) {
+            releaseData();
+        } else if (freeBytes > (dataSize >> 1)) {
+            compact();
+        }
+    }
+    
+    /**
+     * Binary search for an encoded key
+     *
+     * @param probe
+     *            the buffer holding the encoded key at position 0
+     * @param start
+     *            the first index to search
+     * @param end
+     *            the index after the last one to search
+     * @return the index of the key if found, otherwise (-(insertion point) - 1)
+     */
+    protected int binarySearch(ByteBuffer probe, int start, int end) {
+        int low = start;
+        int high = end - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = CompactKeyEncoding.compare(data, sortedOffsets[mid], probe, 0, sharedRow);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+    
+    /**
+     * @param key
+     * @return the index of the first entry greater than or equal to key
+     */
+    protected int lowerBound(Key key) {
+        encodeProbe(key);
+        int index = binarySearch(scratch, 0, size);
+        return (index < 0 ? -1 - index : index);
+    }
+    
+    /**
+     * Get a view of a region of a buffer, positioned at offset. This goes through Buffer to stay binary compatible with java 8.
+     */
+    protected static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        ((Buffer) slice).limit(offset + length);
+        ((Buffer) slice).position(offset);
+        return slice;
+    }
+    
+    protected class OffHeapKeyIterator implements Iterator<Key> {
+        protected int index;
+        protected int end;
+        protected int expectedModCount;
+        protected int last = -1;
+        
+        public OffHeapKeyIterator(int start, int end) {
+            this.index = start;
+            this.end = end;
+            this.expectedModCount = modCount;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return index < end;
+        }
+        
+        @Override
+        public Key next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = index++;
+            return get(last);
+        }
+        
+        @Override
+        public void remove() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            OffHeapKeySortedSet.this.remove(last);
+            expectedModCount = modCount;
+            index = last;
+            end--;
+            last = -1;
+        }
+    }
+    
+    /**
+     * A view of a range of the set, from inclusive to exclusive. The bounds are resolved against the set each time the view is used.
+     */
+    protected class OffHeapKeySubSet extends AbstractSet<Key> implements SortedSet<Key> {
+        protected Key from;
+        protected Key to;
+        
+        public OffHeapKeySubSet(Key from, Key to) {
+            if (from != null && to != null && from.compareTo(to) > 0) {
+                throw new IllegalArgumentException("Start of subset is greater than the end");
+            }
+            this.from = from;
+            this.to = to;
+        }
+        
+        protected int start() {
+            return (from == null ? 0 : lowerBound(from));
+        }
+        
+        protected int end() {
+            return (to == null ? size : lowerBound(to));
+        }
+        
+        protected boolean inRange(Key key) {
+            return (from == null || key.compareTo(from) >= 0) && (to == null || key.compareTo(to) < 0);
+        }
+        
+        @Override
+        public int size() {
+            return Math.max(0, end() - start());
+        }
+        
+        @Override
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+        
+        @Override
+        public boolean contains(Object o) {
+            return (o instanceof Key) && inRange((Key) o) && OffHeapKeySortedSet.this.contains(o);
+        }
+        
+        @Override
+        public Iterator<Key> iterator() {
+            int start = start();
+            return new OffHeapKeyIterator(start, Math.max(start, end()));
+        }
+        
+        @Override
+        public boolean add(Key key) {
+            if (!inRange(key)) {
+                throw new IllegalArgumentException("Key is outside of the range of this subset");
+            }
+            return OffHeapKeySortedSet.this.add(key);
+        }
+        
+        @Override
+        public boolean remove(Object o) {
+            return (o instanceof Key) && inRange((Key) o) && OffHeapKeySortedSet.this.remove(o);
+        }
+        
+        @Override
+        public Comparator<? super Key> comparator() {
+            return null;
+        }
+        
+        @Override
+        public SortedSet<Key> subSet(Key fromElement, Key toElement) {
+            return new OffHeapKeySubSet(max(from, fromElement), min(to, toElement));
+        }
+        
+        @Override
+        public SortedSet<Key> headSet(Key toElement) {
+            return new OffHeapKeySubSet(from, min(to, toElement));
+        }
+        
+        @Override
+        public SortedSet<Key> tailSet(Key fromElement) {
+            return new OffHeapKeySubSet(max(from, fromElement), to);
+        }
+        
+        @Override
+        public Key first() {
+            int start = start();
+            if (start >= end()) {
+                throw new NoSuchElementException();
+            }
+            return get(start);
+        }
+        
+        @Override
+        public Key last() {
+            int start = start();
+            int end = end();
+            if (start >= end) {
+                throw new NoSuchElementException();
+            }
+            return get(end - 1);
+        }
+        
+        private Key max(Key a, Key b) {
+            if (a == null) {
+                return b;
+            } else if (b == null) {
+                return a;
+            }
+            return (a.compareTo(b) >= 0 ? a : b);
+        }
+        
+        private Key min(Key a, Key b) {
+            if (a == null) {
+                return b;
+            } else if (b == null) {
+                return a;
+            }
+            return (a.compareTo(b) <= 0 ? a : b);
+        }
+    }
+}
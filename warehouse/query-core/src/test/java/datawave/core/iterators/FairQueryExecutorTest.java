@@ -0,0 +1,160 @@
+package datawave.core.iterators;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FairQueryExecutorTest {
+    
+    private ThreadPoolExecutor pool;
+    
+    @Before
+    public void setUp() {
+        pool = new ThreadPoolExecutor(4, 4, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>());
+    }
+    
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+    
+    @Test
+    public void testRoundRobin() throws Exception {
+        FairQueryExecutor executor = new FairQueryExecutor("test", pool, -1);
+        CountDownLatch release = new CountDownLatch(1);
+        
+        // one query fills the pool and queues a large backlog
+        List<Future<?>> heavy = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            heavy.add(executor.submit("heavy", () -> await(release)));
+        }
+        assertEquals(4, executor.getRunning());
+        assertEquals(96, executor.getQueueDepth());
+        
+        // a second query should get the next free thread rather than waiting behind the backlog
+        CountDownLatch lightStarted = new CountDownLatch(1);
+        Future<?> light = executor.submit("light", lightStarted::countDown);
+        assertEquals(97, executor.getQueueDepth());
+        assertEquals(2, executor.getActiveQueries());
+        
+        heavy.get(0).cancel(true);
+        assertTrue(lightStarted.await(10, TimeUnit.SECONDS));
+        light.get(10, TimeUnit.SECONDS);
+        
+        release.countDown();
+        for (Future<?> future : heavy) {
+            if (!future.isCancelled()) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        }
+        waitForIdle(executor);
+        assertEquals(0, executor.getActiveQueries());
+    }
+    
+    @Test
+    public void testMaxThreadsPerQuery() throws Exception {
+        FairQueryExecutor executor = new FairQueryExecutor("test", pool, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        AtomicInteger concurrent = new AtomicInteger();
+        
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(executor.submit("heavy", () -> {
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                await(release);
+                concurrent.decrementAndGet();
+            }));
+        }
+        assertEquals(2, executor.getRunning());
+        assertEquals(8, executor.getQueueDepth());
+        
+        // another query can use the remaining threads immediately
+        CountDownLatch otherStarted = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            futures.add(executor.submit("other", () -> {
+                otherStarted.countDown();
+                await(release);
+            }));
+        }
+        assertTrue(otherStarted.await(10, TimeUnit.SECONDS));
+        assertEquals(4, executor.getRunning());
+        
+        release.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(2, maxConcurrent.get());
+        waitForIdle(executor);
+        assertEquals(0, executor.getQueueDepth());
+    }
+    
+    @Test
+    public void testCancelRemovesQueuedTask() throws Exception {
+        FairQueryExecutor executor = new FairQueryExecutor("test", pool, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> running = executor.submit("query", () -> await(release));
+        Future<?> queued = executor.submit("query", () -> {});
+        assertEquals(1, executor.getQueueDepth());
+        
+        // the cancelled task leaves the queue immediately
+        queued.cancel(false);
+        assertEquals(0, executor.getQueueDepth());
+        assertEquals(1, executor.getActiveQueries());
+        
+        release.countDown();
+        running.get(10, TimeUnit.SECONDS);
+        waitForIdle(executor);
+        assertEquals(0, executor.getActiveQueries());
+    }
+    
+    @Test
+    public void testNestedTaskIgnoresQueryCap() throws Exception {
+        FairQueryExecutor executor = new FairQueryExecutor("test", pool, 1);
+        CountDownLatch siblingQueued = new CountDownLatch(1);
+        Future<?> parent = executor.submit("query", () -> {
+            await(siblingQueued);
+            // the query is at its cap, but waiting on a child of the same query must not deadlock
+            Future<?> child = executor.submit("query", () -> {});
+            try {
+                child.get(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        // the child is run ahead of a task of the query that was queued before it
+        Future<?> sibling = executor.submit("query", () -> {});
+        siblingQueued.countDown();
+        parent.get(10, TimeUnit.SECONDS);
+        sibling.get(10, TimeUnit.SECONDS);
+        waitForIdle(executor);
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void waitForIdle(FairQueryExecutor executor) throws InterruptedException {
+        long end = System.currentTimeMillis() + 10000;
+        while (executor.getRunning() > 0 && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, executor.getRunning());
+    }
+}
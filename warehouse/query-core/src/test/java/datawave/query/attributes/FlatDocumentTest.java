@@ -0,0 +1,151 @@
+package datawave.query.attributes;
+
+import com.google.common.collect.Maps;
+import datawave.data.type.LcNoDiacriticsType;
+import datawave.query.exceptions.InvalidDocumentHeader;
+import datawave.query.function.deserializer.FlatDocumentDeserializer;
+import datawave.query.function.serializer.FlatDocumentSerializer;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FlatDocumentTest {
+    
+    private final Key docKey = new Key("20190314_0", "datatype\u0000uid1", "", "A&B", 1234L);
+    private Document document;
+    
+    @Before
+    public void setUp() {
+        document = new Document(docKey, true);
+        document.put("FIELD_B", new Content("value b", docKey, true));
+        document.put("FIELD_A", new TypeAttribute<>(new LcNoDiacriticsType("Value A"), docKey, true));
+        document.put("FIELD_C", new Content("value c1", docKey, true));
+        document.put("FIELD_C", new Content("value c2", docKey, true));
+    }
+    
+    @Test
+    public void testLazyAccess() {
+        Entry<Key,FlatDocument> entry = roundTrip(false);
+        assertEquals(docKey, entry.getKey());
+        
+        FlatDocument flat = entry.getValue();
+        assertEquals(3, flat.getNumFields());
+        assertTrue(flat.indexOf("FIELD_D") < 0);
+        
+        int fieldA = flat.indexOf("FIELD_A");
+        assertEquals("FIELD_A", flat.getFieldName(fieldA));
+        List<FlatDocument.Value> values = flat.getValues(fieldA);
+        assertEquals(1, values.size());
+        assertEquals(TypeAttribute.class, values.get(0).getAttributeClass());
+        assertEquals("Value A", values.get(0).getDataAsString());
+        assertTrue(values.get(0).getData() instanceof LcNoDiacriticsType);
+        assertTrue(values.get(0).isMetadataSet());
+        assertEquals("A&B", new String(values.get(0).getColumnVisibility()));
+        assertEquals(1234L, values.get(0).getTimestamp());
+        
+        int fieldC = flat.indexOf("FIELD_C");
+        assertEquals(2, flat.getNumValues(fieldC));
+        for (FlatDocument.Value value : flat.getValues(fieldC)) {
+            assertEquals(Content.class, value.getAttributeClass());
+            assertTrue(value.getDataAsString().startsWith("value c"));
+        }
+    }
+    
+    @Test
+    public void testToDocument() {
+        Document rebuilt = roundTrip(false).getValue().toDocument();
+        assertEquals(document.getDictionary().keySet(), rebuilt.getDictionary().keySet());
+        for (String field : document.getDictionary().keySet()) {
+            assertEquals(values(document.get(field)), values(rebuilt.get(field)));
+        }
+    }
+    
+    @Test
+    public void testMetadataKeepsKeyComponents() {
+        FlatDocument flat = roundTrip(false).getValue();
+        Key expected = new Key("20190314_0", "datatype\u0000uid1", "", "A&B", 1234L);
+        
+        FlatDocument.Value value = flat.getValues(flat.indexOf("FIELD_B")).get(0);
+        assertEquals(expected, value.getMetadata());
+        
+        // the shard and datatype\0uid survive rebuilding the document
+        Document rebuilt = flat.toDocument();
+        for (String field : document.getDictionary().keySet()) {
+            Attribute<?> attr = rebuilt.get(field);
+            if (attr instanceof Attributes) {
+                attr = ((Attributes) attr).getAttributes().iterator().next();
+            }
+            assertEquals(expected, attr.getMetadata());
+        }
+    }
+    
+    @Test
+    public void testInvalidHeader() throws IOException {
+        byte[] bytes = new FlatDocument.Writer().write(document, false);
+        
+        try {
+            new FlatDocument(Arrays.copyOf(bytes, 10));
+            fail("Expected a truncated document to be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        
+        byte[] otherVersion = bytes.clone();
+        otherVersion[0] = FlatDocument.VERSION + 1;
+        try {
+            new FlatDocument(otherVersion);
+            fail("Expected an unknown version to be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        
+        try {
+            new FlatDocumentDeserializer().applyFlat(Maps.immutableEntry(docKey, new Value(new byte[] {1, 2})));
+            fail("Expected a value without a header to be rejected");
+        } catch (InvalidDocumentHeader e) {
+            // expected
+        }
+    }
+    
+    @Test
+    public void testReducedResponse() {
+        FlatDocument flat = roundTrip(true).getValue();
+        assertEquals(3, flat.getNumFields());
+        for (int i = 0; i < flat.getNumFields(); i++) {
+            for (FlatDocument.Value value : flat.getValues(i)) {
+                assertFalse(value.isMetadataSet());
+            }
+        }
+    }
+    
+    private static Set<String> values(Attribute<?> attr) {
+        Set<String> values = new TreeSet<>();
+        if (attr instanceof Attributes) {
+            for (Attribute<?> value : ((Attributes) attr).getAttributes()) {
+                values.addAll(values(value));
+            }
+        } else {
+            values.add(attr.getClass().getName() + ':' + attr.getData() + ':' + attr.getColumnVisibility() + ':' + attr.getTimestamp());
+        }
+        return values;
+    }
+    
+    private Entry<Key,FlatDocument> roundTrip(boolean reducedResponse) {
+        FlatDocumentSerializer serializer = new FlatDocumentSerializer(reducedResponse);
+        Entry<Key,Value> serialized = serializer.apply(Maps.immutableEntry(docKey, document));
+        return new FlatDocumentDeserializer().applyFlat(serialized);
+    }
+}
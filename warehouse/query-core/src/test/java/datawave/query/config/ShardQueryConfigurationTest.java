@@ -148,6 +148,7 @@ public class ShardQueryConfigurationTest {
         Assert.assertFalse(config.isContainsCompositeTerms());
         Assert.assertTrue(config.isAllowFieldIndexEvaluation());
         Assert.assertTrue(config.isAllowTermFrequencyLookup());
+        Assert.assertFalse(config.isTermFrequencyBloomFilterPruning());
         Assert.assertEquals(DocumentSerialization.DEFAULT_RETURN_TYPE, config.getReturnType());
         Assert.assertEquals(10000, config.getEventPerDayThreshold());
         Assert.assertEquals(10, config.getShardsPerDayThreshold());
@@ -177,6 +178,12 @@ public class ShardQueryConfigurationTest {
         Assert.assertEquals(33, config.getMaxIvaratorSources());
         Assert.assertEquals(25, config.getMaxEvaluationPipelines());
         Assert.assertEquals(25, config.getMaxPipelineCachedResults());
+        Assert.assertEquals(1, config.getMaxPipelineBatchSize());
+        Assert.assertFalse(config.isIndexLookupCacheEnabled());
+        Assert.assertEquals(64L * 1024 * 1024, config.getIndexLookupCacheMaxBytes());
+        Assert.assertEquals(300000L, config.getIndexLookupCacheTTL());
+        Assert.assertEquals(0, config.getSharedScanThreads());
+        Assert.assertEquals(8, config.getSharedScanThreadsPerQuery());
         Assert.assertFalse(config.isExpandAllTerms());
         Assert.assertNull(config.getQueryModel());
         Assert.assertNull(config.getModelName());
@@ -192,6 +199,7 @@ public class ShardQueryConfigurationTest {
         Assert.assertEquals(Sets.newHashSet(), config.getUniqueFields());
         Assert.assertFalse(config.getCacheModel());
         Assert.assertTrue(config.isTrackSizes());
+        Assert.assertFalse(config.isSeekingEventAggregation());
         Assert.assertEquals(Lists.newArrayList(), config.getContentFieldNames());
     }
     
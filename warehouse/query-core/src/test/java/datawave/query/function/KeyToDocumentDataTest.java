@@ -0,0 +1,117 @@
+package datawave.query.function;
+
+import com.google.common.collect.Maps;
+import datawave.query.attributes.Document;
+import datawave.query.iterator.SortedListKeyValueIterator;
+import datawave.query.iterator.aggregation.DocumentData;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KeyToDocumentDataTest {
+    
+    private static final String ROW = "20190314_0";
+    
+    @Test
+    public void testBatchMatchesSingleDocuments() {
+        TreeMap<Key,Value> data = new TreeMap<>();
+        List<Entry<Key,Document>> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String cf = "datatype\u0000uid" + i;
+            addEvent(data, cf, 3);
+            // term frequencies are not aggregated
+            data.put(new Key(ROW, "tf", "datatype\u0000uid" + i + "\u0000value\u0000FIELD"), new Value(new byte[0]));
+            batch.add(Maps.immutableEntry(new Key(ROW, cf), new Document()));
+        }
+        
+        CountingIterator source = new CountingIterator(data);
+        List<Entry<DocumentData,Document>> batched = new KeyToDocumentData(source).apply(batch);
+        assertEquals(1, source.seeks);
+        
+        assertEquals(batch.size(), batched.size());
+        KeyToDocumentData single = new KeyToDocumentData(new SortedListKeyValueIterator(data));
+        for (int i = 0; i < batch.size(); i++) {
+            Entry<DocumentData,Document> expected = single.apply(batch.get(i));
+            assertEquals(expected.getKey().getKey(), batched.get(i).getKey().getKey());
+            assertEquals(expected.getKey().getDocKeys(), batched.get(i).getKey().getDocKeys());
+            assertEquals(expected.getKey().getData(), batched.get(i).getKey().getData());
+            assertEquals(3, batched.get(i).getKey().getData().size());
+        }
+    }
+    
+    @Test
+    public void testBatchSeeksPastUnrequestedDocuments() {
+        TreeMap<Key,Value> data = new TreeMap<>();
+        addEvent(data, "datatype\u0000uid0", 2);
+        // more keys between the documents than are worth calling next through
+        for (int i = 0; i < KeyToDocumentData.MAX_NEXTS_BEFORE_SEEK + 5; i++) {
+            addEvent(data, "datatype\u0000uid1." + i, 1);
+        }
+        addEvent(data, "datatype\u0000uid2", 2);
+        
+        List<Entry<Key,Document>> batch = new ArrayList<>();
+        batch.add(Maps.immutableEntry(new Key(ROW, "datatype\u0000uid0"), new Document()));
+        batch.add(Maps.immutableEntry(new Key(ROW, "datatype\u0000uid2"), new Document()));
+        
+        CountingIterator source = new CountingIterator(data);
+        List<Entry<DocumentData,Document>> batched = new KeyToDocumentData(source).apply(batch);
+        assertEquals(2, source.seeks);
+        
+        assertEquals(2, batched.size());
+        for (Entry<DocumentData,Document> entry : batched) {
+            assertEquals(2, entry.getKey().getData().size());
+            for (Entry<Key,Value> attr : entry.getKey().getData()) {
+                assertEquals(entry.getKey().getKey().getColumnFamily(), attr.getKey().getColumnFamily());
+            }
+        }
+    }
+    
+    @Test
+    public void testBatchWithEmptyDocument() {
+        TreeMap<Key,Value> data = new TreeMap<>();
+        addEvent(data, "datatype\u0000uid0", 2);
+        addEvent(data, "datatype\u0000uid2", 2);
+        
+        List<Entry<Key,Document>> batch = new ArrayList<>();
+        batch.add(Maps.immutableEntry(new Key(ROW, "datatype\u0000uid0"), new Document()));
+        batch.add(Maps.immutableEntry(new Key(ROW, "datatype\u0000uid1"), new Document()));
+        batch.add(Maps.immutableEntry(new Key(ROW, "datatype\u0000uid2"), new Document()));
+        
+        List<Entry<DocumentData,Document>> batched = new KeyToDocumentData(new CountingIterator(data)).apply(batch);
+        assertEquals(3, batched.size());
+        assertEquals(2, batched.get(0).getKey().getData().size());
+        assertTrue(batched.get(1).getKey().getData().isEmpty());
+        assertEquals(2, batched.get(2).getKey().getData().size());
+    }
+    
+    private static void addEvent(TreeMap<Key,Value> data, String cf, int numFields) {
+        for (int i = 0; i < numFields; i++) {
+            data.put(new Key(ROW, cf, "FIELD" + i + "\u0000value" + i), new Value(("value" + i).getBytes()));
+        }
+    }
+    
+    private static class CountingIterator extends SortedListKeyValueIterator {
+        private int seeks = 0;
+        
+        private CountingIterator(TreeMap<Key,Value> data) {
+            super(data);
+        }
+        
+        @Override
+        public void seek(Range range, Collection columnFamilies, boolean inclusive) throws IOException {
+            seeks++;
+            super.seek(range, columnFamilies, inclusive);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package datawave.query.index.lookup;
+
+import com.google.common.collect.Maps;
+import datawave.query.config.ShardQueryConfiguration;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class IndexLookupCacheTest {
+    
+    private ShardQueryConfiguration config;
+    private IndexLookupCache cache;
+    
+    @Before
+    public void setup() {
+        config = new ShardQueryConfiguration();
+        config.setBeginDate(new Date(0));
+        config.setEndDate(new Date(24L * 60 * 60 * 1000));
+        config.setAuthorizations(Collections.singleton(new Authorizations("A", "B")));
+        cache = IndexLookupCache.getInstance(1024 * 1024, 60 * 1000);
+    }
+    
+    @After
+    public void cleanup() {
+        IndexLookupCache.invalidateAll();
+    }
+    
+    @Test
+    public void testCreateKey() {
+        String key = IndexLookupCache.createKey(config, "FOO", "bar", true, 20);
+        assertEquals(key, IndexLookupCache.createKey(config, "FOO", "bar", true, 20));
+        
+        // auths in a different order map to the same key
+        config.setAuthorizations(Collections.singleton(new Authorizations("B", "A")));
+        assertEquals(key, IndexLookupCache.createKey(config, "FOO", "bar", true, 20));
+        
+        assertNotEquals(key, IndexLookupCache.createKey(config, "FOO", "baz", true, 20));
+        assertNotEquals(key, IndexLookupCache.createKey(config, "FOO", "bar", false, 20));
+        
+        config.setAuthorizations(Collections.singleton(new Authorizations("A")));
+        assertNotEquals(key, IndexLookupCache.createKey(config, "FOO", "bar", true, 20));
+    }
+    
+    @Test
+    public void testCachedOnceConsumed() {
+        String key = IndexLookupCache.createKey(config, "FOO", "bar");
+        List<Entry<Key,Value>> entries = createEntries(3);
+        
+        Iterator<Entry<Key,Value>> itr = cache.cache(key, entries.iterator());
+        List<Entry<Key,Value>> consumed = new ArrayList<>();
+        while (itr.hasNext()) {
+            // not cached until the scan has been consumed
+            assertNull(cache.get(key));
+            consumed.add(itr.next());
+        }
+        assertEquals(entries, consumed);
+        assertEquals(entries, cache.get(key));
+    }
+    
+    @Test
+    public void testAbandonedScanNotCached() {
+        String key = IndexLookupCache.createKey(config, "FOO", "bar");
+        Iterator<Entry<Key,Value>> itr = cache.cache(key, createEntries(3).iterator());
+        itr.next();
+        assertNull(cache.get(key));
+    }
+    
+    @Test
+    public void testInvalidate() {
+        String key = IndexLookupCache.createKey(config, "FOO", "bar");
+        Iterator<Entry<Key,Value>> itr = cache.cache(key, createEntries(3).iterator());
+        itr.next();
+        
+        // a scan started before the cache was cleared is not cached
+        IndexLookupCache.invalidateAll();
+        while (itr.hasNext()) {
+            itr.next();
+        }
+        assertNull(cache.get(key));
+        
+        itr = cache.cache(key, createEntries(3).iterator());
+        while (itr.hasNext()) {
+            itr.next();
+        }
+        assertFalse(cache.get(key).isEmpty());
+        
+        IndexLookupCache.invalidateAll();
+        assertNull(cache.get(key));
+    }
+    
+    @Test
+    public void testTooLargeNotCached() {
+        IndexLookupCache small = IndexLookupCache.getInstance(100, 60 * 1000);
+        String key = IndexLookupCache.createKey(config, "FOO", "bar");
+        Iterator<Entry<Key,Value>> itr = small.cache(key, createEntries(100).iterator());
+        int count = 0;
+        while (itr.hasNext()) {
+            itr.next();
+            count++;
+        }
+        assertEquals(100, count);
+        assertNull(small.get(key));
+        assertTrue(small.size() == 0);
+    }
+    
+    private static List<Entry<Key,Value>> createEntries(int count) {
+        List<Entry<Key,Value>> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entries.add(Maps.immutableEntry(new Key("bar", "FOO", "20190314_" + i + "\u0000datatype"), new Value(("uid" + i).getBytes())));
+        }
+        return entries;
+    }
+}
@@ -134,6 +134,37 @@ public class IntersectionTest {
         assertFalse(intersection.hasNext());
     }
     
+    /**
+     * Intersection of high cardinality terms should lead with the rarest term.
+     */
+    @Test
+    public void testIntersection_OrderedByCardinality() {
+        List<IndexStream> indexStreams = new ArrayList<>();
+        String[] fields = {"FIELD_A", "FIELD_B", "FIELD_C"};
+        long[] counts = {500L, 50L, 5000L};
+        for (int i = 0; i < fields.length; i++) {
+            IndexInfo info = new IndexInfo(counts[i]);
+            info.setNode(JexlNodeFactory.buildEQNode(fields[i], "VALUE"));
+            Tuple2<String,IndexInfo> tuple = Tuples.tuple("20190314_0", info);
+            PeekingIterator<Tuple2<String,IndexInfo>> iter = Iterators.peekingIterator(Collections.singleton(tuple).iterator());
+            indexStreams.add(ScannerStream.withData(iter, JexlNodeFactory.buildEQNode(fields[i], "VALUE")));
+        }
+        
+        Intersection intersection = new Intersection(indexStreams, new IndexInfo());
+        assertTrue(intersection.hasNext());
+        
+        Tuple2<String,IndexInfo> nextedTuple = intersection.next();
+        assertEquals("20190314_0", nextedTuple.first());
+        assertEquals(50L, nextedTuple.second().count());
+        
+        JexlNode and = JexlASTHelper.dereference(nextedTuple.second().getNode());
+        assertEquals(3, and.jjtGetNumChildren());
+        assertEquals("FIELD_B", JexlASTHelper.getIdentifier(JexlASTHelper.dereference(and.jjtGetChild(0))));
+        assertEquals("FIELD_A", JexlASTHelper.getIdentifier(JexlASTHelper.dereference(and.jjtGetChild(1))));
+        assertEquals("FIELD_C", JexlASTHelper.getIdentifier(JexlASTHelper.dereference(and.jjtGetChild(2))));
+        assertFalse(intersection.hasNext());
+    }
+    
     /**
      * Cannot intersect two disjoint shards.
      */
@@ -15,16 +15,20 @@ public class IvaratorCacheDirConfigTest {
         
         ivaratorCacheDirConfigs.add(new IvaratorCacheDirConfig("file:/some/path", 0, 1024));
         ivaratorCacheDirConfigs.add(new IvaratorCacheDirConfig("hdfs:/some/other/path", 1, 0.5));
+        ivaratorCacheDirConfigs.add(new IvaratorCacheDirConfig("file:/some/off/heap/path", 2, 1024L, true));
         
         String json = IvaratorCacheDirConfig.toJson(ivaratorCacheDirConfigs);
         List<IvaratorCacheDirConfig> parsedConfigs = IvaratorCacheDirConfig.fromJson(json);
         
         Assert.assertNotNull(parsedConfigs);
-        Assert.assertEquals(2, parsedConfigs.size());
+        Assert.assertEquals(3, parsedConfigs.size());
         
         // ensure order is preserved
         Assert.assertEquals(ivaratorCacheDirConfigs.get(0), parsedConfigs.get(0));
         Assert.assertEquals(ivaratorCacheDirConfigs.get(1), parsedConfigs.get(1));
+        Assert.assertEquals(ivaratorCacheDirConfigs.get(2), parsedConfigs.get(2));
+        Assert.assertFalse(parsedConfigs.get(0).isOffHeapBuffer());
+        Assert.assertTrue(parsedConfigs.get(2).isOffHeapBuffer());
         
         String singleJson = IvaratorCacheDirConfig.toJson(ivaratorCacheDirConfigs.get(0));
         parsedConfigs = IvaratorCacheDirConfig.fromJson(singleJson);
@@ -43,5 +47,6 @@ public class IvaratorCacheDirConfigTest {
         Assert.assertEquals(IvaratorCacheDirConfig.DEFAULT_PRIORITY, config.getPriority());
         Assert.assertEquals(IvaratorCacheDirConfig.DEFAULT_MIN_AVAILABLE_STORAGE_MiB, config.getMinAvailableStorageMiB());
         Assert.assertEquals(IvaratorCacheDirConfig.DEFAULT_MIN_AVAILABLE_STORAGE_PERCENT, config.getMinAvailableStoragePercent(), 0.0);
+        Assert.assertEquals(IvaratorCacheDirConfig.DEFAULT_OFF_HEAP_BUFFER, config.isOffHeapBuffer());
     }
 }
@@ -7,6 +7,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
@@ -294,6 +295,60 @@ public class AndIteratorTest {
         Assert.assertFalse(iterator.hasNext());
     }
     
+    @Test
+    public void testLeadInclude() {
+        List<String> common = Lists.newArrayList("a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k");
+        List<String> rare = Lists.newArrayList("b", "f", "g", "k", "z");
+        
+        // the results should not depend on which include leads the intersection
+        for (boolean rareFirst : new boolean[] {true, false}) {
+            List<NestedIterator<String>> includes = new LinkedList<>();
+            includes.add(getItr(rareFirst ? rare : common, false));
+            includes.add(getItr(rareFirst ? common : rare, false));
+            includes.add(getItr(Lists.newArrayList("b", "c", "f", "g", "h", "k"), false));
+            
+            AndIterator iterator = new AndIterator(includes);
+            iterator.initialize();
+            
+            for (String expected : Lists.newArrayList("b", "f", "g", "k")) {
+                Assert.assertTrue(iterator.hasNext());
+                Assert.assertEquals(expected, iterator.next());
+            }
+            Assert.assertFalse(iterator.hasNext());
+        }
+    }
+    
+    @Test
+    public void testFailedIncludeDroppedWhenAdvancingFromLead() {
+        // an include that fails on any lookup after its first
+        NestedIterator<String> failing = new NegationFilterTest.Itr<String>(Lists.newArrayList("b", "c", "f", "g")) {
+            private int calls = 0;
+            
+            @Override
+            public String next() {
+                if (++calls > 1) {
+                    throw new IllegalStateException("failed lookup");
+                }
+                return super.next();
+            }
+        };
+        
+        List<NestedIterator<String>> includes = new LinkedList<>();
+        includes.add(getItr(Lists.newArrayList("b", "f", "g"), false));
+        includes.add(failing);
+        includes.add(getItr(Lists.newArrayList("a", "b", "c", "f", "g", "h"), false));
+        
+        AndIterator iterator = new AndIterator(includes);
+        iterator.initialize();
+        
+        // the failing include is dropped, and the remaining terms still intersect
+        for (String expected : Lists.newArrayList("b", "f", "g")) {
+            Assert.assertTrue(iterator.hasNext());
+            Assert.assertEquals(expected, iterator.next());
+        }
+        Assert.assertFalse(iterator.hasNext());
+    }
+    
     private NegationFilterTest.Itr<String> getItr(List<String> source, boolean contextRequired) {
         return new NegationFilterTest.Itr<>(source, contextRequired);
     }
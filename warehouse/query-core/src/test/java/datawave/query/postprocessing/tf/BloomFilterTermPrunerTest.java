@@ -0,0 +1,146 @@
+package datawave.query.postprocessing.tf;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+import datawave.ingest.mapreduce.MemberShipTest;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.google.common.hash.BloomFilter;
+
+public class BloomFilterTermPrunerTest {
+    
+    private TreeMap<Key,Value> data;
+    
+    @Before
+    public void setup() {
+        data = new TreeMap<>();
+        
+        // doc1 contains "quick brown fox"
+        Value doc1Filter = filter("quick", "brown", "fox");
+        data.put(getFi("BODY", "brown", "doc1"), doc1Filter);
+        data.put(getFi("BODY", "fox", "doc1"), doc1Filter);
+        data.put(getFi("BODY", "quick", "doc1"), doc1Filter);
+        
+        // doc2 contains "quick red fox"
+        Value doc2Filter = filter("quick", "red", "fox");
+        data.put(getFi("BODY", "fox", "doc2"), doc2Filter);
+        data.put(getFi("BODY", "quick", "doc2"), doc2Filter);
+        data.put(getFi("BODY", "red", "doc2"), doc2Filter);
+        
+        // doc3 contains "brown fox", but was ingested without bloom filters
+        data.put(getFi("BODY", "brown", "doc3"), new Value(new byte[0]));
+        data.put(getFi("BODY", "fox", "doc3"), new Value(new byte[0]));
+        
+        // doc5 contains "brown fox", but was ingested when the terms were never put into the bloom filters
+        Value doc5Filter = MemberShipTest.toValue(MemberShipTest.create(2));
+        data.put(getFi("BODY", "brown", "doc5"), doc5Filter);
+        data.put(getFi("BODY", "fox", "doc5"), doc5Filter);
+    }
+    
+    @Test
+    public void testPrune() {
+        BloomFilterTermPruner pruner = getPruner(group("quick", "brown"));
+        
+        assertFalse(pruner.canPrune(getDocKey("doc1")));
+        // the bloom filter shows brown is missing
+        assertTrue(pruner.canPrune(getDocKey("doc2")));
+        // the field index shows quick is missing
+        assertTrue(pruner.canPrune(getDocKey("doc3")));
+        assertTrue(pruner.canPrune(getDocKey("doc4")));
+    }
+    
+    @Test
+    public void testNoBloomFilter() {
+        // without a bloom filter only the first term can be checked
+        BloomFilterTermPruner pruner = getPruner(group("brown", "quick"));
+        assertFalse(pruner.canPrune(getDocKey("doc3")));
+        assertTrue(pruner.canPrune(getDocKey("doc2")));
+    }
+    
+    @Test
+    public void testEmptyBloomFilter() {
+        // an empty filter is treated as no filter rather than as missing every term
+        BloomFilterTermPruner pruner = getPruner(group("brown", "fox"));
+        assertFalse(pruner.canPrune(getDocKey("doc5")));
+        
+        // the field index is still checked
+        pruner = getPruner(group("quick", "fox"));
+        assertTrue(pruner.canPrune(getDocKey("doc5")));
+    }
+    
+    @Test
+    public void testAnyFunction() {
+        // (quick brown) or (red fox)
+        BloomFilterTermPruner pruner = getPruner(group("quick", "brown"), group("red", "fox"));
+        assertFalse(pruner.canPrune(getDocKey("doc1")));
+        assertFalse(pruner.canPrune(getDocKey("doc2")));
+        assertTrue(pruner.canPrune(getDocKey("doc3")));
+    }
+    
+    @Test
+    public void testAnyNormalizedForm() {
+        List<Set<String>> terms = Arrays.asList(Sets.newHashSet("QUICK", "quick"), Sets.newHashSet("BROWN", "brown"));
+        BloomFilterTermPruner pruner = getPruner(terms);
+        assertFalse(pruner.canPrune(getDocKey("doc1")));
+        assertTrue(pruner.canPrune(getDocKey("doc2")));
+    }
+    
+    @Test
+    public void testGetBloomFilter() {
+        BloomFilter<String> filter = BloomFilterTermPruner.getBloomFilter(filter("quick"));
+        assertTrue(filter.mightContain("quick"));
+        assertNull(BloomFilterTermPruner.getBloomFilter(new Value(new byte[0])));
+        assertNull(BloomFilterTermPruner.getBloomFilter(new Value("not a filter".getBytes())));
+        assertNull(BloomFilterTermPruner.getBloomFilter(MemberShipTest.toValue(MemberShipTest.create(2))));
+    }
+    
+    @SafeVarargs
+    private final BloomFilterTermPruner getPruner(List<Set<String>>... groups) {
+        Multimap<String,List<Set<String>>> termGroups = ArrayListMultimap.create();
+        for (List<Set<String>> group : groups) {
+            termGroups.put("BODY", group);
+        }
+        SortedMapIterator source = new SortedMapIterator(data);
+        return new BloomFilterTermPruner(termGroups, source);
+    }
+    
+    private static List<Set<String>> group(String... terms) {
+        Set<String>[] sets = new Set[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            sets[i] = Collections.singleton(terms[i]);
+        }
+        return Arrays.asList(sets);
+    }
+    
+    private static Value filter(String... terms) {
+        BloomFilter<String> filter = MemberShipTest.create(terms.length);
+        for (String term : terms) {
+            MemberShipTest.update(filter, term);
+        }
+        return MemberShipTest.toValue(filter);
+    }
+    
+    private static Key getFi(String field, String value, String uid) {
+        return new Key("20190314_0", "fi\u0000" + field, value + "\u0000datatype\u0000" + uid, "A&B", 1000L);
+    }
+    
+    private static Key getDocKey(String uid) {
+        return new Key("20190314_0", "datatype\u0000" + uid);
+    }
+}
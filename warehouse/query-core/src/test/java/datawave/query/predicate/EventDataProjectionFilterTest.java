@@ -0,0 +1,126 @@
+package datawave.query.predicate;
+
+import datawave.query.Constants;
+import datawave.query.jexl.JexlASTHelper;
+import datawave.query.util.TypeMetadata;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.commons.jexl2.parser.ASTJexlScript;
+import org.apache.commons.jexl2.parser.ParseException;
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EventDataProjectionFilterTest {
+    
+    private static final String CHILD_CF = "datatype" + Constants.NULL + "123.234.345.11";
+    
+    @Test
+    public void apply_whitelistTest() throws ParseException {
+        ASTJexlScript query = JexlASTHelper.parseJexlQuery("FOO == 'bar'");
+        Set<String> whitelist = new HashSet<>(Collections.singleton("BAR"));
+        EventDataProjectionFilter filter = new EventDataProjectionFilter(query, new TypeMetadata(), whitelist, null, -1, -1, Collections.emptySet());
+        
+        // the whitelist passed in is not modified
+        assertEquals(Collections.singleton("BAR"), whitelist);
+        
+        // a child event is aggregated as a document of its own
+        Key bar = new Key("row", CHILD_CF, "BAR" + Constants.NULL_BYTE_STRING + "baz");
+        Key baz = new Key("row", CHILD_CF, "BAZ" + Constants.NULL_BYTE_STRING + "baz");
+        Key foo = new Key("row", CHILD_CF, "FOO.1" + Constants.NULL_BYTE_STRING + "baz");
+        filter.startNewDocument(bar);
+        assertTrue(filter.apply(new AbstractMap.SimpleEntry<>(bar, null)));
+        assertFalse(filter.apply(new AbstractMap.SimpleEntry<>(baz, null)));
+        assertTrue(filter.apply(new AbstractMap.SimpleEntry<>(foo, null)));
+        
+        assertEquals(bar.followingKey(PartialKey.ROW_COLFAM), filter.getStopKey(bar));
+    }
+    
+    @Test
+    public void apply_blacklistTest() throws ParseException {
+        ASTJexlScript query = JexlASTHelper.parseJexlQuery("FOO == 'bar'");
+        Set<String> blacklist = new HashSet<>();
+        blacklist.add("FOO");
+        blacklist.add("BAZ");
+        EventDataProjectionFilter filter = new EventDataProjectionFilter(query, new TypeMetadata(), null, blacklist, -1, -1, Collections.emptySet());
+        
+        Key bar = new Key("row", CHILD_CF, "BAR" + Constants.NULL_BYTE_STRING + "baz");
+        Key baz = new Key("row", CHILD_CF, "BAZ" + Constants.NULL_BYTE_STRING + "baz");
+        Key foo = new Key("row", CHILD_CF, "FOO" + Constants.NULL_BYTE_STRING + "baz");
+        filter.startNewDocument(bar);
+        assertTrue(filter.apply(new AbstractMap.SimpleEntry<>(bar, null)));
+        assertFalse(filter.apply(new AbstractMap.SimpleEntry<>(baz, null)));
+        // query fields are always kept
+        assertTrue(filter.apply(new AbstractMap.SimpleEntry<>(foo, null)));
+        assertEquals(2, blacklist.size());
+    }
+    
+    @Test
+    public void getSeekRange_whitelistTest() throws ParseException {
+        ASTJexlScript query = JexlASTHelper.parseJexlQuery("FOO == 'bar'");
+        EventDataProjectionFilter filter = new EventDataProjectionFilter(query, new TypeMetadata(), Collections.singleton("BAR"), null, -1, 2,
+                        Collections.emptySet());
+        
+        Key alpha = new Key("row", CHILD_CF, "ALPHA" + Constants.NULL_BYTE_STRING + "1");
+        Key alpha2 = new Key("row", CHILD_CF, "ALPHA" + Constants.NULL_BYTE_STRING + "2");
+        Key bar = new Key("row", CHILD_CF, "BAR" + Constants.NULL_BYTE_STRING + "baz");
+        Key zeta = new Key("row", CHILD_CF, "ZETA" + Constants.NULL_BYTE_STRING + "1");
+        Key zeta2 = new Key("row", CHILD_CF, "ZETA" + Constants.NULL_BYTE_STRING + "2");
+        Key end = filter.getStopKey(alpha);
+        
+        filter.startNewDocument(alpha);
+        
+        // the first miss does not meet the threshold
+        assertFalse(filter.apply(new AbstractMap.SimpleEntry<>(alpha, null)));
+        assertNull(filter.getSeekRange(alpha, end, false));
+        
+        // seek to the next field in the whitelist
+        assertFalse(filter.apply(new AbstractMap.SimpleEntry<>(alpha2, null)));
+        Range seekRange = filter.getSeekRange(alpha2, end, false);
+        assertNotNull(seekRange);
+        assertEquals(new Key("row", CHILD_CF, "BAR" + Constants.NULL_BYTE_STRING), seekRange.getStartKey());
+        
+        assertTrue(filter.apply(new AbstractMap.SimpleEntry<>(bar, null)));
+        assertNull(filter.getSeekRange(bar, end, false));
+        
+        // no more fields to return, so skip the rest of the event
+        assertFalse(filter.apply(new AbstractMap.SimpleEntry<>(zeta, null)));
+        assertFalse(filter.apply(new AbstractMap.SimpleEntry<>(zeta2, null)));
+        seekRange = filter.getSeekRange(zeta2, end, false);
+        assertNotNull(seekRange);
+        assertTrue(seekRange.afterEndKey(zeta2) || seekRange.beforeStartKey(zeta2));
+        assertFalse(seekRange.contains(end));
+    }
+    
+    @Test
+    public void getSeekRange_newDocumentTest() throws ParseException {
+        ASTJexlScript query = JexlASTHelper.parseJexlQuery("FOO == 'bar'");
+        EventDataProjectionFilter filter = new EventDataProjectionFilter(query, new TypeMetadata(), Collections.singleton("BAR"), null, -1, 1,
+                        Collections.emptySet());
+        
+        String otherCf = "datatype" + Constants.NULL + "123.234.346";
+        Key alpha = new Key("row", CHILD_CF, "ALPHA" + Constants.NULL_BYTE_STRING + "1");
+        Key other = new Key("row", otherCf, "ALPHA" + Constants.NULL_BYTE_STRING + "1");
+        
+        filter.startNewDocument(alpha);
+        assertFalse(filter.apply(new AbstractMap.SimpleEntry<>(alpha, null)));
+        Range seekRange = filter.getSeekRange(alpha, filter.getStopKey(alpha), false);
+        assertEquals(new Key("row", CHILD_CF, "BAR" + Constants.NULL_BYTE_STRING), seekRange.getStartKey());
+        
+        // the next document starts again from the beginning of the whitelist
+        filter.startNewDocument(other);
+        assertFalse(filter.apply(new AbstractMap.SimpleEntry<>(other, null)));
+        seekRange = filter.getSeekRange(other, filter.getStopKey(other), false);
+        assertEquals(new Key("row", otherCf, "BAR" + Constants.NULL_BYTE_STRING), seekRange.getStartKey());
+    }
+}
@@ -418,6 +418,33 @@ public class TLDEventDataFilterTest extends EasyMockSupport {
         verifyAll();
     }
     
+    @Test
+    public void getSeekRange_newDocumentResetsWhitelistTest() throws ParseException {
+        ASTJexlScript query = JexlASTHelper.parseJexlQuery("FOO == 'bar'");
+        expect(mockAttributeFactory.getTypeMetadata("FOO", "datatype")).andReturn(Collections.emptyList()).anyTimes();
+        
+        replayAll();
+        
+        // the whitelist is sorted as [BAR, FOO]
+        filter = new TLDEventDataFilter(query, mockAttributeFactory, new HashSet<>(Collections.singleton("BAR")), null, -1, 1);
+        
+        Key key1 = new Key("row", "datatype" + Constants.NULL + "123.234.345", "ALPHA" + Constants.NULL_BYTE_STRING + "value");
+        Key key2 = new Key("row", "datatype" + Constants.NULL + "123.234.346", "ALPHA" + Constants.NULL_BYTE_STRING + "value");
+        
+        filter.startNewDocument(key1);
+        assertFalse(filter.apply(new AbstractMap.SimpleEntry<>(key1, null)));
+        Range seekRange = filter.getSeekRange(key1, key1.followingKey(PartialKey.ROW), false);
+        assertEquals(new Key("row", "datatype" + Constants.NULL + "123.234.345", "BAR" + Constants.NULL_BYTE_STRING), seekRange.getStartKey());
+        
+        // the seek to BAR ran past the end of the first document, the next document must not skip BAR and seek to FOO
+        filter.startNewDocument(key2);
+        assertFalse(filter.apply(new AbstractMap.SimpleEntry<>(key2, null)));
+        seekRange = filter.getSeekRange(key2, key2.followingKey(PartialKey.ROW), false);
+        assertEquals(new Key("row", "datatype" + Constants.NULL + "123.234.346", "BAR" + Constants.NULL_BYTE_STRING), seekRange.getStartKey());
+        
+        verifyAll();
+    }
+    
     @Test
     public void apply_acceptSuperRejectTest() throws ParseException {
         ASTJexlScript query = JexlASTHelper.parseJexlQuery("FOO == 'bar'");
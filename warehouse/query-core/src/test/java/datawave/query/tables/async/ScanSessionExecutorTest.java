@@ -0,0 +1,125 @@
+package datawave.query.tables.async;
+
+import datawave.core.iterators.FairQueryExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScanSessionExecutorTest {
+    
+    private ThreadPoolExecutor pool;
+    private FairQueryExecutor shared;
+    
+    @Before
+    public void setUp() {
+        pool = new ThreadPoolExecutor(2, 2, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>());
+        shared = new FairQueryExecutor("test", pool, -1);
+    }
+    
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+    
+    @Test
+    public void testSessionsShareThePool() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(20);
+        for (int i = 0; i < 10; i++) {
+            ScanSessionExecutor session = new ScanSessionExecutor(shared, "query" + i);
+            session.submit(() -> count.incrementAndGet()).get(10, TimeUnit.SECONDS);
+            session.execute(done::countDown);
+            session.execute(done::countDown);
+            session.shutdown();
+            assertTrue(session.awaitTermination(10, TimeUnit.SECONDS));
+            assertTrue(session.isTerminated());
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(10, count.get());
+        // no threads beyond the shared pool were needed
+        assertEquals(2, pool.getLargestPoolSize());
+    }
+    
+    @Test
+    public void testShutdownNowOnlyAffectsTheSession() throws Exception {
+        ScanSessionExecutor first = new ScanSessionExecutor(shared, "first");
+        ScanSessionExecutor second = new ScanSessionExecutor(shared, "second");
+        
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        // occupy both threads with the first session, and queue more behind them
+        for (int i = 0; i < 5; i++) {
+            first.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        CountDownLatch secondRan = new CountDownLatch(1);
+        second.execute(secondRan::countDown);
+        
+        List<Runnable> notRun = first.shutdownNow();
+        assertEquals(3, notRun.size());
+        assertTrue(first.isShutdown());
+        // the running tasks are interrupted
+        assertTrue(first.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, first.getActiveTasks());
+        
+        // the other session is unaffected
+        assertTrue(secondRan.await(10, TimeUnit.SECONDS));
+        assertFalse(second.isShutdown());
+        Future<?> future = second.submit(() -> {});
+        future.get(10, TimeUnit.SECONDS);
+        assertEquals(0, shared.getQueueDepth());
+    }
+    
+    @Test(expected = RejectedExecutionException.class)
+    public void testRejectedAfterShutdown() {
+        ScanSessionExecutor session = new ScanSessionExecutor(shared, "query");
+        session.shutdown();
+        session.execute(() -> {});
+    }
+    
+    @Test
+    public void testAwaitTerminationTimesOut() throws Exception {
+        ScanSessionExecutor session = new ScanSessionExecutor(shared, "query");
+        CountDownLatch release = new CountDownLatch(1);
+        session.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        session.shutdown();
+        assertFalse(session.awaitTermination(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(session.awaitTermination(10, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void testSharedPoolResized() {
+        FairQueryExecutor executor = ScanSessionExecutor.getSharedPool("ScanSessionExecutorTest", 2, 1);
+        assertEquals(1, executor.getMaxThreadsPerQuery());
+        FairQueryExecutor again = ScanSessionExecutor.getSharedPool("ScanSessionExecutorTest", 4, 2);
+        assertTrue(executor == again);
+        assertEquals(2, again.getMaxThreadsPerQuery());
+    }
+}
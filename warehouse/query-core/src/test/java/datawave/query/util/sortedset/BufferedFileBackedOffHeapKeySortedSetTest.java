@@ -0,0 +1,341 @@
+package datawave.query.util.sortedset;
+
+import java.util.TreeSet;
+import org.apache.accumulo.core.data.Key;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.SortedSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BufferedFileBackedOffHeapKeySortedSetTest {
+    
+    private Key[] data = null;
+    private int[] sortedOrder = null;
+    private BufferedFileBackedSortedSet<Key> set = null;
+    
+    @Before
+    public void setUp() throws Exception {
+        byte[] template = new byte[] {5, 2, 78, 4, 8, 3, 54, 23, 6, 21, 7, 16};
+        int[] sortedTemplate = new int[] {1, 5, 3, 0, 8, 10, 4, 11, 9, 7, 6, 2};
+        data = new Key[template.length * 2];
+        for (int i = 0; i < template.length; i++) {
+            byte[] buffer = new byte[i + 11];
+            Arrays.fill(buffer, template[i]);
+            data[i] = new Key(buffer);
+        }
+        for (int i = 0; i < template.length; i++) {
+            byte[] buffer = new byte[10];
+            Arrays.fill(buffer, template[i]);
+            data[i + template.length] = new Key(buffer);
+        }
+        sortedOrder = new int[data.length];
+        for (int i = 0; i < template.length; i++) {
+            sortedOrder[i * 2] = sortedTemplate[i] + sortedTemplate.length;
+            sortedOrder[i * 2 + 1] = sortedTemplate[i];
+        }
+        set = new BufferedFileBackedSortedSet<>(null, 5, 7, 2, Collections.singletonList(new BufferedFileBackedSortedSet.SortedSetFileHandlerFactory() {
+            @Override
+            public FileSortedSet.SortedSetFileHandler createHandler() throws IOException {
+                return new SortedSetTempFileHandler();
+            }
+            
+            @Override
+            public boolean isValid() {
+                return true;
+            }
+        }), new FileOffHeapKeySortedSet.Factory());
+        
+        // adding in the data set multiple times to create underlying files with duplicate values making the
+        // MergeSortIterator's job a little tougher...
+        for (int d = 0; d < 11; d++) {
+            Collections.addAll(set, data);
+        }
+    }
+    
+    @After
+    public void tearDown() throws Exception {
+        data = null;
+        sortedOrder = null;
+        set.clear();
+        set = null;
+    }
+    
+    @Test
+    public void testSize() {
+        int expectedSize = data.length;
+        assertEquals(expectedSize, set.size());
+        for (int i = (data.length / 2); i < data.length; i++) {
+            set.remove(data[i]);
+            expectedSize--;
+            assertEquals(expectedSize, set.size());
+        }
+        for (int i = 0; i < (data.length / 2); i++) {
+            set.remove(data[i]);
+            expectedSize--;
+            assertEquals(expectedSize, set.size());
+        }
+        assertEquals(0, set.size());
+        for (int i = 0; i < data.length; i++) {
+            set.add(data[i]);
+            expectedSize++;
+            assertEquals(expectedSize, set.size());
+        }
+    }
+    
+    @Test
+    public void testIsEmpty() {
+        assertFalse(set.isEmpty());
+        for (int i = (data.length / 2); i < data.length; i++) {
+            set.remove(data[i]);
+            assertFalse(set.isEmpty());
+        }
+        for (int i = 1; i < (data.length / 2); i++) {
+            set.remove(data[i]);
+            assertFalse(set.isEmpty());
+        }
+        set.remove(data[0]);
+        assertTrue(set.isEmpty());
+        for (int i = 0; i < data.length; i++) {
+            set.add(data[i]);
+            assertFalse(set.isEmpty());
+        }
+    }
+    
+    @Test
+    public void testClear() {
+        set.clear();
+        assertTrue(set.isEmpty());
+    }
+    
+    @Test
+    public void testContainsObject() {
+        for (int i = (data.length / 2); i < data.length; i++) {
+            set.remove(data[i]);
+        }
+        for (int i = 1; i < (data.length / 2); i++) {
+            assertTrue(set.contains(data[i]));
+        }
+        for (int i = (data.length / 2); i < data.length; i++) {
+            assertFalse(set.contains(data[i]));
+        }
+    }
+    
+    @Test
+    public void testIterator() {
+        int index = 0;
+        for (Iterator<Key> it = set.iterator(); it.hasNext();) {
+            Key value = it.next();
+            Key expected = data[sortedOrder[index++]];
+            assertEquals(expected, value);
+        }
+        set.clear();
+        for (Key value : set) {
+            fail();
+        }
+    }
+    
+    @Test
+    public void testIteratorRemove() {
+        int size = set.size();
+        int failCount = 0;
+        assertFalse(set.isPersisted());
+        // calling iterator() will force persistence
+        for (Iterator<Key> it = set.iterator(); it.hasNext();) {
+            assertTrue(set.isPersisted());
+            Key value = it.next();
+            assertTrue(set.contains(value));
+            try {
+                it.remove();
+                fail("Expected iterator remove to fail with a persisted set");
+            } catch (Exception e) {
+                // expected that some of the underlying FileSortedSets are persisted and hence the remove will fail
+                failCount++;
+                assertTrue(set.contains(value));
+                assertEquals(size, set.size());
+            }
+        }
+        assertEquals(size, failCount);
+        assertFalse(set.isEmpty());
+    }
+    
+    @Test
+    public void testSubSet() {
+        int start = sortedOrder.length / 3;
+        int end = start * 2;
+        SortedSet<Key> subSet = set.subSet(data[sortedOrder[start]], data[sortedOrder[end]]);
+        SortedSet<Key> expected = new TreeSet<>();
+        for (int i = start; i < end; i++) {
+            expected.add(data[sortedOrder[i]]);
+        }
+        assertEquals(expected, subSet);
+    }
+    
+    @Test
+    public void testHeadSet() {
+        int end = sortedOrder.length / 3;
+        SortedSet<Key> subSet = set.headSet(data[sortedOrder[end]]);
+        SortedSet<Key> expected = new TreeSet<>();
+        for (int i = 0; i < end; i++) {
+            expected.add(data[sortedOrder[i]]);
+        }
+        assertEquals(expected, subSet);
+    }
+    
+    @Test
+    public void testTailSet() {
+        int start = sortedOrder.length / 3;
+        SortedSet<Key> subSet = set.tailSet(data[sortedOrder[start]]);
+        SortedSet<Key> expected = new TreeSet<>();
+        for (int i = start; i < sortedOrder.length; i++) {
+            expected.add(data[sortedOrder[i]]);
+        }
+        assertEquals(expected, subSet);
+    }
+    
+    @Test
+    public void testLast() {
+        Key expected = data[sortedOrder[data.length - 1]];
+        Key value = set.last();
+        assertEquals(expected, value);
+    }
+    
+    @Test
+    public void testFirst() {
+        Key expected = data[sortedOrder[0]];
+        Key value = set.first();
+        assertEquals(expected, value);
+    }
+    
+    @Test
+    public void testCompaction() throws IOException {
+        assertEquals(8, set.getSets().size());
+        set.persist();
+        assertEquals(3, set.getSets().size());
+    }
+    
+    @Test
+    public void testSharedRow() throws IOException {
+        set.clear();
+        SortedSet<Key> expected = new TreeSet<>();
+        for (int i = 0; i < 50; i++) {
+            Key key = new Key("20190314_0", "datatype\u0000uid" + (i % 17), "FIELD\u0000value" + (i % 3), "A&B", i % 5);
+            key.setDeleted(i % 7 == 0);
+            expected.add(key);
+            set.add(key);
+        }
+        set.add(new Key("20190314_1", "datatype\u0000uid"));
+        expected.add(new Key("20190314_1", "datatype\u0000uid"));
+        assertEquals(expected.size(), set.size());
+        set.persist();
+        assertTrue(set.isPersisted());
+        Iterator<Key> it = set.iterator();
+        for (Key key : expected) {
+            Key value = it.next();
+            assertEquals(key, value);
+            assertEquals(key.isDeleted(), value.isDeleted());
+        }
+        assertFalse(it.hasNext());
+    }
+    
+    @Test
+    public void testSpill() throws IOException {
+        set.clear();
+        SortedSet<Key> expected = new TreeSet<>();
+        for (int i = 0; i < 12; i++) {
+            Key key = new Key("20190314_0", "datatype\u0000uid" + i);
+            expected.add(key);
+            set.add(key);
+        }
+        // the buffer holds 5 keys before it is spilled into a persisted off-heap set
+        int persisted = 0;
+        for (FileSortedSet<Key> fileSet : set.getSets()) {
+            if (fileSet.isPersisted()) {
+                persisted++;
+                // a persisted set no longer holds its buffer
+                assertEquals(0, ((OffHeapKeySortedSet) fileSet.set).getMemoryUsage());
+            } else {
+                assertTrue(((OffHeapKeySortedSet) fileSet.set).getMemoryUsage() > 0);
+            }
+        }
+        assertEquals(2, persisted);
+        assertEquals(expected, set);
+    }
+    
+    @Test
+    public void testOffHeapClearAndReuse() {
+        OffHeapKeySortedSet offHeapSet = new OffHeapKeySortedSet(4);
+        for (Key key : data) {
+            offHeapSet.add(key);
+        }
+        assertEquals(data.length, offHeapSet.size());
+        assertTrue(offHeapSet.getMemoryUsage() > 0);
+        
+        offHeapSet.clear();
+        assertTrue(offHeapSet.isEmpty());
+        assertEquals(0, offHeapSet.getMemoryUsage());
+        assertFalse(offHeapSet.iterator().hasNext());
+        
+        // a cleared set starts over with a new buffer and shared row
+        SortedSet<Key> expected = new TreeSet<>();
+        for (int i = 0; i < 20; i++) {
+            Key key = new Key("20190314_1", "datatype\u0000uid" + i, "FIELD\u0000value");
+            expected.add(key);
+            offHeapSet.add(key);
+        }
+        assertEquals(expected, offHeapSet);
+        assertEquals(ByteBuffer.wrap("20190314_1".getBytes()), offHeapSet.getSharedRow());
+    }
+    
+    @Test
+    public void testOffHeapRemoveReclaimsSpace() {
+        OffHeapKeySortedSet offHeapSet = new OffHeapKeySortedSet(4);
+        SortedSet<Key> expected = new TreeSet<>();
+        for (int i = 0; i < 100; i++) {
+            Key key = new Key("20190314_0", "datatype\u0000uid" + i);
+            expected.add(key);
+            offHeapSet.add(key);
+        }
+        long fullUsage = offHeapSet.getMemoryUsage();
+        
+        // removing half of the entries leaves their space free
+        Iterator<Key> it = offHeapSet.iterator();
+        for (int i = 0; i < 50; i++) {
+            expected.remove(it.next());
+            it.remove();
+        }
+        assertTrue(offHeapSet.getFreeBytes() > 0);
+        
+        // removing past half compacts the remaining entries into a smaller buffer
+        for (int i = 0; i < 10; i++) {
+            Key key = it.next();
+            expected.remove(key);
+            it.remove();
+        }
+        assertTrue(offHeapSet.getFreeBytes() < offHeapSet.getMemoryUsage() / 2);
+        assertTrue(offHeapSet.getMemoryUsage() < fullUsage);
+        assertEquals(expected, offHeapSet);
+        for (Key key : expected) {
+            assertTrue(offHeapSet.contains(key));
+        }
+        
+        // removing everything releases the buffer
+        offHeapSet.removeAll(new TreeSet<>(expected));
+        assertTrue(offHeapSet.isEmpty());
+        assertEquals(0, offHeapSet.getMemoryUsage());
+        assertEquals(0, offHeapSet.getFreeBytes());
+        offHeapSet.add(data[0]);
+        assertEquals(Collections.singleton(data[0]), offHeapSet);
+    }
+    
+}
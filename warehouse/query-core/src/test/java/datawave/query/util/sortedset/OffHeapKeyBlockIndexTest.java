@@ -0,0 +1,98 @@
+package datawave.query.util.sortedset;
+
+import org.apache.accumulo.core.data.Key;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapKeyBlockIndexTest {
+    
+    private SortedSet<Key> keys = null;
+    private SortedSetTempFileHandler handler = null;
+    
+    @Before
+    public void setUp() throws Exception {
+        keys = new TreeSet<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add(new Key("20190314_0", "datatype\u0000" + String.format("uid%05d", i), "FIELD\u0000value", "A&B", 0));
+        }
+        handler = new SortedSetTempFileHandler();
+        try (OffHeapKeyOutputStream out = new OffHeapKeyOutputStream(handler.getOutputStream(), 1024)) {
+            for (Key key : keys) {
+                out.writeObject(key);
+            }
+            out.writeSize(keys.size());
+        }
+    }
+    
+    @After
+    public void tearDown() throws Exception {
+        handler.deleteFile();
+    }
+    
+    @Test
+    public void testReadIndex() throws IOException {
+        OffHeapKeyBlockIndex index = OffHeapKeyBlockIndex.read(handler.getInputStream(), handler.getSize());
+        assertTrue(index.getNumBlocks() > 10);
+        assertEquals(-1, index.getOffset(new Key("20190314_0")));
+        
+        try (OffHeapKeyInputStream in = new OffHeapKeyInputStream(handler.getInputStream(), handler.getSize())) {
+            assertEquals(keys.size(), in.readSize());
+        }
+    }
+    
+    @Test
+    public void testBoundedRead() throws IOException {
+        OffHeapKeyBlockIndex index = OffHeapKeyBlockIndex.read(handler.getInputStream(), handler.getSize());
+        List<Key> sorted = new ArrayList<>(keys);
+        for (int i = 0; i < sorted.size(); i += 37) {
+            Key start = sorted.get(i);
+            Key end = (i + 100 < sorted.size() ? sorted.get(i + 100) : null);
+            
+            // a start key that is not in the file
+            Key before = new Key(start.getRow(), start.getColumnFamily(), start.getColumnQualifier(), start.getColumnVisibility(), 1);
+            for (Key from : new Key[] {start, before}) {
+                Iterator<Key> expected = (end == null ? keys.tailSet(from) : keys.subSet(from, end)).iterator();
+                try (OffHeapKeyInputStream in = new OffHeapKeyInputStream(handler.getInputStream(), handler.getSize(), from, end, index)) {
+                    Key key = in.readObject();
+                    while (key != null) {
+                        assertEquals(expected.next(), key);
+                        key = in.readObject();
+                    }
+                    assertFalse(expected.hasNext());
+                    assertNull(in.readObject());
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testPersistedTailSet() throws IOException {
+        FileOffHeapKeySortedSet set = new FileOffHeapKeySortedSet(new OffHeapKeySortedSet(keys), new SortedSetTempFileHandler(), true);
+        assertTrue(set.isPersisted());
+        List<Key> sorted = new ArrayList<>(keys);
+        for (int i = 0; i < sorted.size(); i += 101) {
+            SortedSet<Key> expected = keys.tailSet(sorted.get(i));
+            SortedSet<Key> tailSet = set.tailSet(sorted.get(i));
+            assertEquals(expected.first(), tailSet.first());
+            Iterator<Key> it = tailSet.iterator();
+            for (Key key : expected) {
+                assertEquals(key, it.next());
+            }
+            assertFalse(it.hasNext());
+        }
+    }
+    
+}
@@ -192,6 +192,10 @@ public class CachedResultsBean {
     @Resource(lookup = "java:jboss/datasources/CachedResultsDS")
     protected DataSource ds;
     
+    // only this data source is allowed to load local files, and only from the load directory
+    @Resource(lookup = "java:jboss/datasources/CachedResultsBulkLoadDS")
+    protected DataSource bulkLoadDs;
+    
     @Inject
     private QueryCache runningQueryCache;
     
@@ -359,6 +363,7 @@ public class CachedResultsBean {
         String viewName = "v" + nameBase;
         Connection con = null;
         PreparedStatement ps = null;
+        CachedResultsBulkLoader bulkLoader = null;
         boolean tableCreated = false;
         boolean viewCreated = false;
         CachedRunningQuery crq = null;
@@ -504,10 +509,16 @@ public class CachedResultsBean {
                 s.execute(createTable);
                 s.close();
                 tableCreated = true;
-                // Parse the PreparedStatement
-                String insert = cachedResultsConfiguration.getParameters().get("INSERT");
-                insert = insert.replace(TABLE, tableName);
-                ps = con.prepareStatement(insert);
+                // Use the bulk load statement if one is configured, otherwise parse the PreparedStatement
+                String loadTemplate = cachedResultsConfiguration.getParameters().get("LOAD");
+                if (!StringUtils.isBlank(loadTemplate)) {
+                    bulkLoader = new CachedResultsBulkLoader(bulkLoadDs, executor, loadTemplate, tableName, cachedResultsConfiguration.getRowsPerLoad(),
+                                    cachedResultsConfiguration.getParameters().get("LOAD_DIR"));
+                } else {
+                    String insert = cachedResultsConfiguration.getParameters().get("INSERT");
+                    insert = insert.replace(TABLE, tableName);
+                    ps = con.prepareStatement(insert);
+                }
             } catch (SQLException sqle) {
                 throw new QueryException(DatawaveErrorCode.CACHED_RESULTS_TABLE_CREATE_ERROR, sqle);
             }
@@ -555,6 +566,12 @@ public class CachedResultsBean {
                     
                     for (CacheableQueryRow cacheableQueryObject : cacheableQueryRowList) {
                         
+                        // the bulk loader loads files of rows in the background while the query continues
+                        if (bulkLoader != null) {
+                            bulkLoader.addRow(owner, queryId, logic.getLogicName(), fieldMap, cacheableQueryObject);
+                            continue;
+                        }
+                        
                         Collection<String> values = ((CacheableQueryRow) cacheableQueryObject).getColumnValues().values();
                         int maxValueLength = 0;
                         for (String s : values) {
@@ -611,6 +628,11 @@ public class CachedResultsBean {
                 ps.clearBatch();
                 rowsWritten = 0;
             }
+            if (bulkLoader != null) {
+                // a load that did not load every row fails here, which drops the table
+                long rowsLoaded = bulkLoader.flush();
+                log.debug("Bulk loaded " + rowsLoaded + " rows into " + tableName);
+            }
             
             // Dump the fieldMap for debugging
             if (log.isTraceEnabled()) {
@@ -725,6 +747,9 @@ public class CachedResultsBean {
             }
             throw new DatawaveWebApplicationException(t, response, statusCode);
         } finally {
+            if (bulkLoader != null) {
+                bulkLoader.close();
+            }
             DbUtils.closeQuietly(con, ps, null);
             if (queryLockedException == false) {
                 CachedResultsBean.loadingQueryMap.remove(queryId);
@@ -0,0 +1,307 @@
+package datawave.webservice.results.cached;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import datawave.marking.MarkingFunctions;
+import datawave.webservice.query.cachedresults.CacheableQueryRow;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Loads cached results rows into a results table using the bulk load statement of the database (e.g. MySQL's LOAD DATA LOCAL INFILE) rather than batched
+ * inserts. Rows are written to a tab separated temp file in the column order of the template table, and every {@code rowsPerLoad} rows the file is handed to
+ * the executor to be loaded while the caller goes on writing the next file. Only one load runs at a time, so at most two temp files exist at once.
+ * <p>
+ * The load statement is configured with the {@code $table} and {@code $file} placeholders. The file uses {@code \N} for null columns and escapes backslash,
+ * tab, newline, carriage return, and NUL with a backslash. The files are created in the load directory, readable only by their owner, and are deleted once
+ * loaded or abandoned.
+ * <p>
+ * LOAD DATA skips or truncates a bad row with a warning rather than failing, so after each load the number of rows loaded is checked against the number
+ * written and SHOW WARNINGS is run on the same connection. Any difference or warning fails the load.
+ */
+public class CachedResultsBulkLoader implements AutoCloseable {
+    
+    private static final Logger log = Logger.getLogger(CachedResultsBulkLoader.class);
+    
+    protected static final String FILE = "$file";
+    protected static final String SHOW_WARNINGS = "SHOW WARNINGS";
+    protected static final int NUM_FIELD_COLUMNS = 900;
+    private static final String NULL = "\\N";
+    private static final FileAttribute<Set<PosixFilePermission>> OWNER_ONLY = PosixFilePermissions.asFileAttribute(PosixFilePermissions
+                    .fromString("rw-------"));
+    
+    private final DataSource ds;
+    private final ExecutorService executor;
+    private final String loadStatement;
+    private final int rowsPerLoad;
+    private final Path loadDir;
+    private final int numColumns = CacheableQueryRow.getFixedColumnSet().size() + NUM_FIELD_COLUMNS;
+    
+    private Path file = null;
+    private Writer writer = null;
+    private int rowsInFile = 0;
+    private Future<Integer> pendingLoad = null;
+    private Path pendingFile = null;
+    private long rowsLoaded = 0;
+    
+    /**
+     * @param ds
+     *            the data source to load into, each load uses its own connection
+     * @param executor
+     *            the executor to run the loads on
+     * @param loadTemplate
+     *            the bulk load statement, with {@code $table} and {@code $file} placeholders
+     * @param tableName
+     *            the table to load into
+     * @param rowsPerLoad
+     *            the number of rows to write to a file before loading it
+     * @param loadDir
+     *            the directory to write the files to, which the data source must be allowed to load from, or null for the default temp directory
+     */
+    public CachedResultsBulkLoader(DataSource ds, ExecutorService executor, String loadTemplate, String tableName, int rowsPerLoad, String loadDir) {
+        CachedResultsParameters.validate(tableName);
+        this.ds = ds;
+        this.executor = executor;
+        this.loadStatement = loadTemplate.replace(CachedResultsBean.TABLE, tableName);
+        this.rowsPerLoad = Math.max(1, rowsPerLoad);
+        this.loadDir = Paths.get(loadDir == null || loadDir.isEmpty() ? System.getProperty("java.io.tmpdir") : loadDir);
+    }
+    
+    /**
+     * Write a row to the current file, handing the file off to be loaded once it holds {@code rowsPerLoad} rows
+     *
+     * @param owner
+     *            the owner of the query
+     * @param queryId
+     *            the id of the query
+     * @param logicName
+     *            the name of the query logic
+     * @param fieldMap
+     *            the column number of each field, updated with any new fields of the row
+     * @param cqo
+     *            the row
+     * @throws IOException
+     *             if the row could not be written to the file
+     * @throws SQLException
+     *             if a previous load failed or did not load every row, or if the row has more fields than the table has columns
+     * @throws InterruptedException
+     *             if interrupted while waiting on a previous load
+     */
+    public void addRow(String owner, String queryId, String logicName, Map<String,Integer> fieldMap, CacheableQueryRow cqo) throws IOException,
+                    SQLException, InterruptedException {
+        String[] columns = new String[numColumns];
+        columns[0] = owner;
+        columns[1] = queryId;
+        columns[2] = logicName;
+        columns[3] = cqo.getDataType();
+        columns[4] = cqo.getEventId();
+        columns[5] = cqo.getRow();
+        columns[6] = cqo.getColFam();
+        columns[7] = MarkingFunctions.Encoding.toString(new TreeMap<>(cqo.getMarkings()));
+        for (Entry<String,String> e : cqo.getColumnValues().entrySet()) {
+            // Get the field number from the fieldMap.
+            Integer columnNumber = fieldMap.get(e.getKey());
+            if (columnNumber == null) {
+                columnNumber = CacheableQueryRow.getFixedColumnSet().size() + fieldMap.size() + 1;
+                fieldMap.put(e.getKey(), columnNumber);
+            }
+            if (columnNumber > numColumns) {
+                throw new SQLException("Field " + e.getKey() + " exceeds the " + NUM_FIELD_COLUMNS + " field columns of the table");
+            }
+            columns[columnNumber - 1] = e.getValue();
+        }
+        columns[8] = cqo.getColumnSecurityMarkingString(fieldMap);
+        columns[9] = cqo.getColumnTimestampString(fieldMap);
+        
+        if (writer == null) {
+            Files.createDirectories(loadDir);
+            file = Files.createTempFile(loadDir, "cachedResults", ".tsv", OWNER_ONLY);
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        }
+        writer.write(toLine(columns));
+        rowsInFile++;
+        
+        if (rowsInFile >= rowsPerLoad) {
+            submitLoad();
+        }
+    }
+    
+    /**
+     * Load any rows that have been written but not loaded, and wait for all of the loads to complete
+     *
+     * @return the total number of rows loaded
+     * @throws SQLException
+     *             if a load failed or did not load every row
+     */
+    public long flush() throws IOException, SQLException, InterruptedException {
+        if (rowsInFile > 0) {
+            submitLoad();
+        }
+        awaitPendingLoad();
+        return rowsLoaded;
+    }
+    
+    public long getRowsLoaded() {
+        return rowsLoaded;
+    }
+    
+    /**
+     * Cancels any running load and removes the temp files
+     */
+    @Override
+    public void close() {
+        if (pendingLoad != null) {
+            pendingLoad.cancel(true);
+            pendingLoad = null;
+        }
+        deleteQuietly(pendingFile);
+        pendingFile = null;
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("Error closing cached results file " + file, e);
+            }
+            writer = null;
+        }
+        deleteQuietly(file);
+        file = null;
+    }
+    
+    private void submitLoad() throws IOException, SQLException, InterruptedException {
+        writer.close();
+        writer = null;
+        
+        // wait for the previous file so that only one load is running against the table
+        awaitPendingLoad();
+        
+        final Path loadFile = file;
+        final int expectedRows = rowsInFile;
+        file = null;
+        rowsInFile = 0;
+        pendingFile = loadFile;
+        pendingLoad = executor.submit(() -> load(loadFile, expectedRows));
+    }
+    
+    private void awaitPendingLoad() throws SQLException, InterruptedException {
+        if (pendingLoad != null) {
+            try {
+                rowsLoaded += pendingLoad.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof SQLException) {
+                    throw (SQLException) e.getCause();
+                }
+                throw new SQLException("Error bulk loading cached results", e.getCause());
+            } finally {
+                // the load deletes its file, unless it never ran
+                pendingLoad = null;
+                deleteQuietly(pendingFile);
+                pendingFile = null;
+            }
+        }
+    }
+    
+    private int load(Path loadFile, int expectedRows) throws SQLException {
+        String sql = loadStatement.replace(FILE, loadFile.toAbsolutePath().toString());
+        long start = System.currentTimeMillis();
+        try (Connection con = ds.getConnection(); Statement s = con.createStatement()) {
+            int rows = s.executeUpdate(sql);
+            List<String> warnings = getWarnings(s);
+            if (rows != expectedRows || !warnings.isEmpty()) {
+                throw new SQLException("Bulk loaded " + rows + " of " + expectedRows + " rows from " + loadFile + ", warnings: " + warnings);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Bulk loaded " + rows + " rows from " + loadFile + " in " + (System.currentTimeMillis() - start) + "ms");
+            }
+            return rows;
+        } finally {
+            deleteQuietly(loadFile);
+        }
+    }
+    
+    private static List<String> getWarnings(Statement s) throws SQLException {
+        List<String> warnings = new ArrayList<>();
+        try (ResultSet rs = s.executeQuery(SHOW_WARNINGS)) {
+            while (rs.next()) {
+                // notes are informational only
+                if (!"Note".equalsIgnoreCase(rs.getString("Level"))) {
+                    warnings.add(rs.getString("Level") + " " + rs.getInt("Code") + ": " + rs.getString("Message"));
+                }
+            }
+        }
+        return warnings;
+    }
+    
+    private static void deleteQuietly(Path f) {
+        if (f != null) {
+            try {
+                Files.deleteIfExists(f);
+            } catch (IOException e) {
+                log.warn("Unable to delete cached results file " + f, e);
+            }
+        }
+    }
+    
+    static String toLine(String[] columns) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                line.append('\t');
+            }
+            if (columns[i] == null) {
+                line.append(NULL);
+            } else {
+                escape(columns[i], line);
+            }
+        }
+        return line.append('\n').toString();
+    }
+    
+    private static void escape(String value, StringBuilder sb) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\0':
+                    sb.append("\\0");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package datawave.webservice.results.cached;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.sql.DataSource;
+
+import datawave.webservice.query.cachedresults.CacheableQueryRowImpl;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CachedResultsBulkLoaderTest {
+    
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
+    private ExecutorService executor;
+    private File loadDir;
+    private List<String> statements;
+    private List<List<String>> loadedFiles;
+    private List<String> filePermissions;
+    private int rowsNotLoaded;
+    private List<String[]> warnings;
+    
+    @Before
+    public void setup() throws Exception {
+        executor = Executors.newSingleThreadExecutor();
+        loadDir = new File(temporaryFolder.getRoot(), "load");
+        statements = Collections.synchronizedList(new ArrayList<>());
+        loadedFiles = Collections.synchronizedList(new ArrayList<>());
+        filePermissions = Collections.synchronizedList(new ArrayList<>());
+        rowsNotLoaded = 0;
+        warnings = new ArrayList<>();
+    }
+    
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    public void testToLine() {
+        String[] columns = {"plain", null, "tab\there", "new\nline\r", "back\\slash", ""};
+        Assert.assertEquals("plain\t\\N\ttab\\there\tnew\\nline\\r\tback\\\\slash\t\n", CachedResultsBulkLoader.toLine(columns));
+    }
+    
+    @Test
+    public void testLoadsInFiles() throws Exception {
+        Map<String,Integer> fieldMap = new HashMap<>();
+        try (CachedResultsBulkLoader loader = getLoader()) {
+            for (int i = 0; i < 5; i++) {
+                loader.addRow("owner", "queryId", "logic", fieldMap, getRow("event" + i, i % 2 == 0 ? "FOO" : "BAR"));
+            }
+            Assert.assertEquals(5, loader.flush());
+        }
+        
+        // 5 rows in files of 2
+        Assert.assertEquals(3, statements.size());
+        for (String statement : statements) {
+            Assert.assertTrue(statement, statement.matches("LOAD '.*\\.tsv' INTO t1234"));
+            Assert.assertEquals(loadDir.getAbsolutePath(), getFile(statement).getParent());
+        }
+        Assert.assertEquals(2, loadedFiles.get(0).size());
+        Assert.assertEquals(1, loadedFiles.get(2).size());
+        
+        // the files can only be read by their owner
+        Assert.assertEquals(Collections.nCopies(3, "rw-------"), filePermissions);
+        
+        // the fields are in the columns of the field map, after the fixed columns
+        Assert.assertEquals(2, fieldMap.size());
+        String[] columns = loadedFiles.get(0).get(1).split("\t", -1);
+        Assert.assertEquals(CacheableQueryRowImpl.getFixedColumnSet().size() + CachedResultsBulkLoader.NUM_FIELD_COLUMNS, columns.length);
+        Assert.assertEquals("owner", columns[0]);
+        Assert.assertEquals("event1", columns[4]);
+        Assert.assertEquals("value", columns[fieldMap.get("BAR") - 1]);
+        Assert.assertEquals("\\N", columns[fieldMap.get("FOO") - 1]);
+        
+        // the temp files are removed once loaded
+        Assert.assertArrayEquals(new String[0], loadDir.list());
+    }
+    
+    @Test
+    public void testRowCountMismatch() throws Exception {
+        rowsNotLoaded = 1;
+        try (CachedResultsBulkLoader loader = getLoader()) {
+            loader.addRow("owner", "queryId", "logic", new HashMap<>(), getRow("event0", "FOO"));
+            loader.flush();
+            Assert.fail("Expected the load to fail when a row was not loaded");
+        } catch (SQLException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Bulk loaded 0 of 1 rows"));
+        }
+        Assert.assertArrayEquals(new String[0], loadDir.list());
+    }
+    
+    @Test
+    public void testWarnings() throws Exception {
+        warnings.add(new String[] {"Note", "1", "informational"});
+        try (CachedResultsBulkLoader loader = getLoader()) {
+            loader.addRow("owner", "queryId", "logic", new HashMap<>(), getRow("event0", "FOO"));
+            Assert.assertEquals(1, loader.flush());
+        }
+        
+        warnings.add(new String[] {"Warning", "1265", "Data truncated for column 'FOO' at row 1"});
+        try (CachedResultsBulkLoader loader = getLoader()) {
+            loader.addRow("owner", "queryId", "logic", new HashMap<>(), getRow("event0", "FOO"));
+            loader.flush();
+            Assert.fail("Expected the load to fail on a warning");
+        } catch (SQLException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().endsWith("warnings: [Warning 1265: Data truncated for column 'FOO' at row 1]"));
+        }
+        Assert.assertArrayEquals(new String[0], loadDir.list());
+    }
+    
+    @Test
+    public void testCloseRemovesFiles() throws Exception {
+        try (CachedResultsBulkLoader loader = getLoader()) {
+            loader.addRow("owner", "queryId", "logic", new HashMap<>(), getRow("event0", "FOO"));
+            Assert.assertEquals(1, loadDir.list().length);
+        }
+        Assert.assertArrayEquals(new String[0], loadDir.list());
+        Assert.assertTrue(statements.isEmpty());
+    }
+    
+    private CachedResultsBulkLoader getLoader() {
+        return new CachedResultsBulkLoader(getDataSource(), executor, "LOAD '$file' INTO $table", "t1234", 2, loadDir.getAbsolutePath());
+    }
+    
+    private CacheableQueryRowImpl getRow(String eventId, String field) {
+        CacheableQueryRowImpl row = new CacheableQueryRowImpl();
+        row.setDataType("datatype");
+        row.setEventId(eventId);
+        row.setRow("20190314_0");
+        row.setColFam("datatype\0uid");
+        row.setMarkings(Collections.singletonMap("columnVisibility", "A"));
+        row.addColumn(field, "value", Collections.singletonMap("columnVisibility", "A"), "A", 0L);
+        return row;
+    }
+    
+    private static File getFile(String statement) {
+        return new File(statement.substring(statement.indexOf('\'') + 1, statement.lastIndexOf('\'')));
+    }
+    
+    private DataSource getDataSource() {
+        Statement statement = (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {Statement.class}, (proxy, method, args) -> {
+            if (method.getName().equals("executeUpdate")) {
+                String sql = (String) args[0];
+                statements.add(sql);
+                Path file = getFile(sql).toPath();
+                filePermissions.add(PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+                List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+                loadedFiles.add(lines);
+                return lines.size() - rowsNotLoaded;
+            } else if (method.getName().equals("executeQuery")) {
+                Assert.assertEquals(CachedResultsBulkLoader.SHOW_WARNINGS, args[0]);
+                return getWarnings();
+            }
+            return null;
+        });
+        Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {Connection.class},
+                        (proxy, method, args) -> method.getName().equals("createStatement") ? statement : null);
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {DataSource.class},
+                        (proxy, method, args) -> method.getName().equals("getConnection") ? connection : null);
+    }
+    
+    private ResultSet getWarnings() {
+        Iterator<String[]> rows = new ArrayList<>(warnings).iterator();
+        String[][] current = new String[1][];
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {ResultSet.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "next":
+                    current[0] = rows.hasNext() ? rows.next() : null;
+                    return current[0] != null;
+                case "getString":
+                    return current[0][args[0].equals("Level") ? 0 : 2];
+                case "getInt":
+                    return Integer.parseInt(current[0][1]);
+                default:
+                    return null;
+            }
+        });
+    }
+}
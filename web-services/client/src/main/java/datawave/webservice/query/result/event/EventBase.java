@@ -39,6 +39,29 @@ public abstract class EventBase<T,F extends FieldBase<F>> implements HasMarkings
      */
     public abstract long sizeInBytes();
     
+    /**
+     * Get an estimate of the size of this event in bytes from the estimated sizes of its fields and the lengths of its metadata and markings. Transformers
+     * that do not have a better estimate should set the size in bytes to this once the event is built, so the page byte trigger does not need to walk the
+     * event with the ObjectSizeOf mechanism.
+     *
+     * @return the approximate size of this event in bytes
+     */
+    public long estimateSizeInBytes() {
+        long size = FieldBase.OBJECT_OVERHEAD + FieldBase.sizeInBytes(getMarkings());
+        Metadata metadata = getMetadata();
+        if (metadata != null) {
+            size += FieldBase.OBJECT_OVERHEAD + FieldBase.sizeInBytes(metadata.getDataType()) + FieldBase.sizeInBytes(metadata.getInternalId())
+                            + FieldBase.sizeInBytes(metadata.getRow()) + FieldBase.sizeInBytes(metadata.getTable());
+        }
+        List<F> fields = getFields();
+        if (fields != null) {
+            for (F field : fields) {
+                size += field.sizeInBytes();
+            }
+        }
+        return size;
+    }
+    
     public abstract void setFields(List<F> fields);
     
     @XmlTransient
@@ -0,0 +1,72 @@
+package datawave.webservice.query.result.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class DefaultEventTest {
+    
+    private static final Map<String,String> MARKINGS = Collections.singletonMap("columnVisibility", "A&B");
+    
+    @Test
+    public void testFieldSizeInBytes() {
+        DefaultField field = new DefaultField("NAME", "A&B", MARKINGS, 0L, "value");
+        long expected = FieldBase.OBJECT_OVERHEAD + stringSize("NAME") + stringSize("A&B") + FieldBase.MAP_ENTRY_OVERHEAD + stringSize("columnVisibility")
+                        + stringSize("A&B") + stringSize("value");
+        assertEquals(expected, field.sizeInBytes());
+        
+        // binary values count their bytes
+        DefaultField binary = new DefaultField("NAME", "A&B", MARKINGS, 0L, new byte[100]);
+        assertEquals(expected - stringSize("value") + FieldBase.OBJECT_OVERHEAD + 100, binary.sizeInBytes());
+        
+        // missing visibilities and markings are not counted
+        DefaultField empty = new DefaultField("NAME", null, 0L, "");
+        assertEquals(FieldBase.OBJECT_OVERHEAD + stringSize("NAME") + stringSize(""), empty.sizeInBytes());
+    }
+    
+    @Test
+    public void testEstimateSizeInBytes() {
+        DefaultEvent event = new DefaultEvent();
+        event.setMarkings(MARKINGS);
+        Metadata metadata = new Metadata();
+        metadata.setDataType("datatype");
+        metadata.setInternalId("uid");
+        metadata.setRow("20190314_0");
+        metadata.setTable("shard");
+        event.setMetadata(metadata);
+        
+        List<DefaultField> fields = new ArrayList<>();
+        long fieldSize = 0;
+        for (int i = 0; i < 10; i++) {
+            DefaultField field = new DefaultField("FIELD" + i, "A&B", MARKINGS, 0L, "value" + i);
+            fieldSize += field.sizeInBytes();
+            fields.add(field);
+        }
+        event.setFields(fields);
+        
+        long expected = FieldBase.OBJECT_OVERHEAD + FieldBase.MAP_ENTRY_OVERHEAD + stringSize("columnVisibility") + stringSize("A&B")
+                        + FieldBase.OBJECT_OVERHEAD + stringSize("datatype") + stringSize("uid") + stringSize("20190314_0") + stringSize("shard") + fieldSize;
+        assertEquals(expected, event.estimateSizeInBytes());
+        
+        // the estimate is only reported once a transformer sets it
+        assertEquals(-1, event.getSizeInBytes());
+        event.setSizeInBytes(event.estimateSizeInBytes());
+        assertEquals(expected, event.sizeInBytes());
+    }
+    
+    @Test
+    public void testEstimateSizeInBytesWithoutFields() {
+        DefaultEvent event = new DefaultEvent();
+        assertTrue(event.estimateSizeInBytes() >= FieldBase.OBJECT_OVERHEAD);
+    }
+    
+    private static long stringSize(String value) {
+        return FieldBase.STRING_OVERHEAD + 2L * value.length();
+    }
+}
@@ -45,4 +45,8 @@ public class CachedResultsConfiguration {
     public int getRowsPerBatch() {
         return Integer.parseInt(getParameters().get("ROWS_PER_BATCH"));
     }
+    
+    public int getRowsPerLoad() {
+        return Integer.parseInt(getParameters().get("ROWS_PER_LOAD"));
+    }
 }
@@ -204,7 +204,11 @@ public class AccumuloTableCache {
                 continue;
             }
             long last = entry.getValue().getLastRefresh().getTime();
-            if ((now - last) > entry.getValue().getReloadInterval()) {
+            long interval = entry.getValue().getReloadInterval();
+            if (entry.getValue().getIncrementalReloadInterval() > 0) {
+                interval = Math.min(interval, entry.getValue().getIncrementalReloadInterval());
+            }
+            if ((now - last) > interval) {
                 log.info("Reloading " + entry.getKey());
                 try {
                     Future<Boolean> result = executorService.submit(entry.getValue());
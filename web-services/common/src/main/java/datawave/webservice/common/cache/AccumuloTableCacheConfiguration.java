@@ -24,6 +24,15 @@ public class AccumuloTableCacheConfiguration {
     @Inject
     @ConfigProperty(name = "dw.cache.reloadInterval", defaultValue = "86400000")
     private long reloadInterval;
+    @Inject
+    @ConfigProperty(name = "dw.cache.incrementalReloadInterval", defaultValue = "0")
+    private long incrementalReloadInterval;
+    @Inject
+    @ConfigProperty(name = "dw.cache.incrementalLookback", defaultValue = "86400000")
+    private long incrementalLookback;
+    @Inject
+    @ConfigProperty(name = "dw.cache.maxIncrementalReloads", defaultValue = "12")
+    private int maxIncrementalReloads;
     
     private Map<String,TableCache> caches = new HashMap<>();
     
@@ -34,6 +43,9 @@ public class AccumuloTableCacheConfiguration {
             cache.setTableName(tableName);
             cache.setConnectionPoolName(poolName);
             cache.setReloadInterval(reloadInterval);
+            cache.setIncrementalReloadInterval(incrementalReloadInterval);
+            cache.setIncrementalLookback(incrementalLookback);
+            cache.setMaxIncrementalReloads(maxIncrementalReloads);
             caches.put(tableName, cache);
         }
     }
@@ -6,6 +6,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.SortedMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
@@ -29,6 +30,8 @@ import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.user.RegExFilter;
+import org.apache.accumulo.core.iterators.user.TimestampFilter;
+import org.apache.accumulo.core.iterators.user.WholeRowIterator;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.log4j.Logger;
@@ -47,9 +50,14 @@ public class BaseTableCache implements Serializable, TableCache {
     private String auths = null;
     private long reloadInterval = 0;
     private long maxRows = Long.MAX_VALUE;
+    private long incrementalReloadInterval = 0;
+    private long incrementalLookback = 0;
+    private int maxIncrementalReloads = 0;
     
     /** set programatically **/
     private Date lastRefresh = new Date(0);
+    private Date lastFullRefresh = new Date(0);
+    private int incrementalReloads = 0;
     private AccumuloConnectionFactory connectionFactory = null;
     private transient InMemoryInstance instance = null;
     private SharedCacheCoordinator watcher = null;
@@ -157,6 +165,50 @@ public class BaseTableCache implements Serializable, TableCache {
         this.maxRows = maxRows;
     }
     
+    @Override
+    public long getIncrementalReloadInterval() {
+        return incrementalReloadInterval;
+    }
+    
+    @Override
+    public void setIncrementalReloadInterval(long incrementalReloadInterval) {
+        this.incrementalReloadInterval = incrementalReloadInterval;
+    }
+    
+    @Override
+    public long getIncrementalLookback() {
+        return incrementalLookback;
+    }
+    
+    @Override
+    public void setIncrementalLookback(long incrementalLookback) {
+        this.incrementalLookback = incrementalLookback;
+    }
+    
+    @Override
+    public int getMaxIncrementalReloads() {
+        return maxIncrementalReloads;
+    }
+    
+    @Override
+    public void setMaxIncrementalReloads(int maxIncrementalReloads) {
+        this.maxIncrementalReloads = maxIncrementalReloads;
+    }
+    
+    @Override
+    public Date getLastFullRefresh() {
+        return lastFullRefresh;
+    }
+    
+    /**
+     * Reloads the cached table. Between full reloads, if an incremental reload interval is set, only the entries with a timestamp since the last refresh
+     * (less the incremental lookback) are fetched and written into the live cached table. Deleted entries are only dropped by a full reload, and a reload
+     * requested by resetting the last refresh is always a full reload.
+     * <p>
+     * The timestamps of the metadata entries are event dates rather than the time they were written, so an entry backfilled with an older date than the
+     * lookback is not seen by an incremental reload. To bound how long such an entry is missing, a full reload is forced after {@code maxIncrementalReloads}
+     * incremental reloads, as well as once the reload interval has passed.
+     */
     @Override
     public Boolean call() throws Exception {
         if (!lock.tryLock(0, TimeUnit.SECONDS))
@@ -184,6 +236,24 @@ public class BaseTableCache implements Serializable, TableCache {
             Connector instanceConnector = instance.getConnector(AccumuloTableCache.MOCK_USERNAME, AccumuloTableCache.MOCK_PASSWORD);
             instanceConnector.securityOperations().changeUserAuthorizations(AccumuloTableCache.MOCK_USERNAME, authorizations);
             
+            // note the time before scanning so that entries written during the scan are picked up by the next incremental reload
+            long refreshStart = System.currentTimeMillis();
+            if (isIncrementalReload(refreshStart) && instanceConnector.tableOperations().exists(tableName)) {
+                writer = instanceConnector.createBatchWriter(tableName, 10L * (1024L * 1024L), 100L, 1);
+                
+                setupScanner(scanner);
+                IteratorSetting changedSince = new IteratorSetting(101, "changedSince", TimestampFilter.class);
+                TimestampFilter.setStart(changedSince, Math.max(0, lastRefresh.getTime() - incrementalLookback), true);
+                scanner.addScanIterator(changedSince);
+                
+                long count = copyEntries(scanner, writer);
+                writer.flush();
+                this.lastRefresh = new Date(refreshStart);
+                this.incrementalReloads++;
+                log.info("Cached " + count + " changed k,v for table: " + tableName);
+                return true;
+            }
+            
             createNamespaceIfNecessary(instanceConnector.namespaceOperations(), tempTableName);
             
             if (instanceConnector.tableOperations().exists(tempTableName)) {
@@ -196,23 +266,10 @@ public class BaseTableCache implements Serializable, TableCache {
             
             setupScanner(scanner);
             
-            Iterator<Entry<Key,Value>> iter = scanner.iterator();
-            long count = 0;
-            while (iter.hasNext()) {
-                
-                if (count > maxRows)
-                    break;
-                Entry<Key,Value> value = iter.next();
-                
-                Key valueKey = value.getKey();
-                
-                Mutation m = new Mutation(value.getKey().getRow());
-                m.put(valueKey.getColumnFamily(), valueKey.getColumnQualifier(), new ColumnVisibility(valueKey.getColumnVisibility()), valueKey.getTimestamp(),
-                                value.getValue());
-                writer.addMutation(m);
-                count++;
-            }
-            this.lastRefresh = new Date();
+            long count = copyEntries(scanner, writer);
+            this.lastRefresh = new Date(refreshStart);
+            this.lastFullRefresh = this.lastRefresh;
+            this.incrementalReloads = 0;
             try {
                 instanceConnector.tableOperations().delete(tableName);
             } catch (TableNotFoundException e) {
@@ -243,6 +300,43 @@ public class BaseTableCache implements Serializable, TableCache {
         return true;
     }
     
+    private boolean isIncrementalReload(long now) {
+        if (incrementalReloadInterval <= 0 || lastRefresh.getTime() <= 0 || (now - lastFullRefresh.getTime()) > reloadInterval) {
+            return false;
+        }
+        // force a full reload every so often to pick up backfilled entries
+        return maxIncrementalReloads <= 0 || incrementalReloads < maxIncrementalReloads;
+    }
+    
+    /**
+     * Copies the scanned entries into the writer, one mutation per row. The rows are fetched whole, as the batch scanner may otherwise return the entries of a
+     * row in separate batches, so that an incremental reload into the live cached table never exposes a partially updated row.
+     *
+     * @return the number of k,v copied
+     */
+    long copyEntries(BatchScanner scanner, BatchWriter writer) throws Exception {
+        scanner.addScanIterator(new IteratorSetting(200, "wholeRow", WholeRowIterator.class));
+        Iterator<Entry<Key,Value>> iter = scanner.iterator();
+        long count = 0;
+        while (iter.hasNext()) {
+            
+            if (count > maxRows)
+                break;
+            Entry<Key,Value> wholeRow = iter.next();
+            
+            SortedMap<Key,Value> row = WholeRowIterator.decodeRow(wholeRow.getKey(), wholeRow.getValue());
+            Mutation m = new Mutation(wholeRow.getKey().getRow());
+            for (Entry<Key,Value> value : row.entrySet()) {
+                Key valueKey = value.getKey();
+                m.put(valueKey.getColumnFamily(), valueKey.getColumnQualifier(), new ColumnVisibility(valueKey.getColumnVisibility()), valueKey.getTimestamp(),
+                                value.getValue());
+                count++;
+            }
+            writer.addMutation(m);
+        }
+        return count;
+    }
+    
     public void setupScanner(BatchScanner scanner) {
         scanner.setRanges(Lists.newArrayList(new Range()));
         Map<String,String> options = new HashMap<>();
@@ -31,6 +31,14 @@ public interface TableCache extends Callable<Boolean>, Serializable {
     
     long getMaxRows();
     
+    long getIncrementalReloadInterval();
+    
+    long getIncrementalLookback();
+    
+    int getMaxIncrementalReloads();
+    
+    Date getLastFullRefresh();
+    
     void setTableName(String tableName);
     
     void setConnectionPoolName(String connectionPoolName);
@@ -51,6 +59,12 @@ public interface TableCache extends Callable<Boolean>, Serializable {
     
     void setMaxRows(long maxRows);
     
+    void setIncrementalReloadInterval(long incrementalReloadInterval);
+    
+    void setIncrementalLookback(long incrementalLookback);
+    
+    void setMaxIncrementalReloads(int maxIncrementalReloads);
+    
     Boolean call() throws Exception;
     
 }
@@ -0,0 +1,183 @@
+package datawave.webservice.common.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import datawave.accumulo.inmemory.InMemoryInstance;
+import datawave.webservice.common.connection.AccumuloConnectionFactory;
+import datawave.webservice.common.connection.AccumuloConnectionFactory.Priority;
+
+import org.apache.accumulo.core.client.BatchScanner;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.ColumnUpdate;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+public class BaseTableCacheTest {
+    
+    private static final String TABLE = "DatawaveMetadata";
+    private static final String POOL = "WAREHOUSE";
+    
+    private Connector connector;
+    private InMemoryInstance cacheInstance;
+    private BaseTableCache cache;
+    
+    @Before
+    public void setup() throws Exception {
+        connector = new InMemoryInstance(UUID.randomUUID().toString()).getConnector("root", new PasswordToken(""));
+        connector.tableOperations().create(TABLE);
+        cacheInstance = new InMemoryInstance(UUID.randomUUID().toString());
+        
+        AccumuloConnectionFactory connectionFactory = EasyMock.createMock(AccumuloConnectionFactory.class);
+        EasyMock.expect(connectionFactory.getTrackingMap(EasyMock.anyObject())).andReturn(new HashMap<>()).anyTimes();
+        EasyMock.expect(connectionFactory.getConnection(EasyMock.eq(POOL), EasyMock.eq(Priority.ADMIN), EasyMock.anyObject())).andReturn(connector)
+                        .anyTimes();
+        connectionFactory.returnConnection(connector);
+        EasyMock.expectLastCall().anyTimes();
+        EasyMock.replay(connectionFactory);
+        
+        cache = new BaseTableCache();
+        cache.setTableName(TABLE);
+        cache.setConnectionPoolName(POOL);
+        cache.setConnectionFactory(connectionFactory);
+        cache.setInstance(cacheInstance);
+        cache.setReloadInterval(TimeUnit.DAYS.toMillis(1));
+        cache.setIncrementalReloadInterval(TimeUnit.MINUTES.toMillis(1));
+        cache.setIncrementalLookback(TimeUnit.HOURS.toMillis(1));
+        cache.setMaxIncrementalReloads(2);
+    }
+    
+    @Test
+    public void testIncrementalReload() throws Exception {
+        long now = System.currentTimeMillis();
+        write("FIELD_A", now);
+        cache.call();
+        assertEquals(Sets.newHashSet("FIELD_A"), getCachedRows());
+        
+        write("FIELD_B", now);
+        // an entry that is older than the lookback is not part of the incremental reload
+        write("FIELD_C", now - TimeUnit.DAYS.toMillis(30));
+        
+        Object lastFullRefresh = cache.getLastFullRefresh();
+        cache.call();
+        assertSame(lastFullRefresh, cache.getLastFullRefresh());
+        assertEquals(Sets.newHashSet("FIELD_A", "FIELD_B"), getCachedRows());
+    }
+    
+    @Test
+    public void testBackfilledEntryPickedUpByFullReload() throws Exception {
+        long now = System.currentTimeMillis();
+        write("FIELD_A", now);
+        cache.call();
+        
+        // backfilled with an event date from before the lookback
+        write("FIELD_B", now - TimeUnit.DAYS.toMillis(30));
+        
+        Object lastFullRefresh = cache.getLastFullRefresh();
+        for (int i = 0; i < cache.getMaxIncrementalReloads(); i++) {
+            cache.call();
+            assertSame(lastFullRefresh, cache.getLastFullRefresh());
+            assertEquals(Sets.newHashSet("FIELD_A"), getCachedRows());
+        }
+        
+        // the next reload is forced to be a full reload
+        cache.call();
+        assertNotSame(lastFullRefresh, cache.getLastFullRefresh());
+        assertEquals(Sets.newHashSet("FIELD_A", "FIELD_B"), getCachedRows());
+    }
+    
+    @Test
+    public void testRowCopiedInOneMutation() throws Exception {
+        long now = System.currentTimeMillis();
+        write("FIELD_A", now);
+        cache.call();
+        
+        // a change to several columns of a row, as well as a new row
+        write("FIELD_A", now, "datatype2", "datatype3", "datatype4");
+        write("FIELD_B", now, "datatype", "datatype2");
+        
+        List<Mutation> mutations = new ArrayList<>();
+        BatchScanner scanner = connector.createBatchScanner(TABLE, new Authorizations(), 10);
+        cache.setupScanner(scanner);
+        assertEquals(6, cache.copyEntries(scanner, getRecordingWriter(mutations)));
+        scanner.close();
+        
+        // each row is written by a single mutation, so that its change shows up all at once
+        assertEquals(2, mutations.size());
+        for (Mutation m : mutations) {
+            String row = new String(m.getRow());
+            assertEquals(row, row.equals("FIELD_A") ? 4 : 2, m.getUpdates().size());
+            for (ColumnUpdate update : m.getUpdates()) {
+                assertEquals("e", new String(update.getColumnFamily()));
+            }
+        }
+        
+        cache.call();
+        assertEquals(Sets.newHashSet("FIELD_A", "FIELD_B"), getCachedRows());
+    }
+    
+    private void write(String row, long timestamp) throws Exception {
+        write(row, timestamp, "datatype");
+    }
+    
+    private void write(String row, long timestamp, String... datatypes) throws Exception {
+        BatchWriter writer = connector.createBatchWriter(TABLE, new BatchWriterConfig());
+        Mutation m = new Mutation(row);
+        for (String datatype : datatypes) {
+            m.put("e", datatype, timestamp, new Value(new byte[0]));
+        }
+        writer.addMutation(m);
+        writer.close();
+    }
+    
+    private static BatchWriter getRecordingWriter(List<Mutation> mutations) {
+        return new BatchWriter() {
+            @Override
+            public void addMutation(Mutation m) {
+                mutations.add(m);
+            }
+            
+            @Override
+            public void addMutations(Iterable<Mutation> iterable) {
+                iterable.forEach(mutations::add);
+            }
+            
+            @Override
+            public void flush() {}
+            
+            @Override
+            public void close() {}
+        };
+    }
+    
+    private Set<String> getCachedRows() throws Exception {
+        Connector cacheConnector = cacheInstance.getConnector(AccumuloTableCache.MOCK_USERNAME, AccumuloTableCache.MOCK_PASSWORD);
+        Scanner scanner = cacheConnector.createScanner(TABLE, new Authorizations());
+        Set<String> rows = new TreeSet<>();
+        for (Entry<Key,Value> entry : scanner) {
+            rows.add(entry.getKey().getRow().toString());
+        }
+        return rows;
+    }
+}
@@ -141,6 +141,12 @@ public interface QueryLogic<T> extends Iterable<T>, Cloneable, ParameterValidato
      */
     long getPageByteTrigger();
     
+    /**
+     * @return the number of bytes of results that may be buffered ahead of the caller when the query prefetches pages, 0 to only bound the buffer by the
+     *         page size
+     */
+    long getPrefetchByteLimit();
+    
     /**
      * Returns the base iterator priority.
      * 
@@ -185,6 +191,13 @@ public interface QueryLogic<T> extends Iterable<T>, Cloneable, ParameterValidato
      */
     void setPageByteTrigger(long pageByteTrigger);
     
+    /**
+     * @param prefetchByteLimit
+     *            the number of bytes of results that may be buffered ahead of the caller when the query prefetches pages, 0 to only bound the buffer by the
+     *            page size
+     */
+    void setPrefetchByteLimit(long prefetchByteLimit);
+    
     /**
      * Sets the base iterator priority
      * 
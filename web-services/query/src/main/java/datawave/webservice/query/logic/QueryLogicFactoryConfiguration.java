@@ -5,6 +5,7 @@ import java.util.Map;
 public class QueryLogicFactoryConfiguration {
     private int maxPageSize = 0;
     private long pageByteTrigger = 0;
+    private long prefetchByteLimit = 0;
     private Map<String,QueryLogic<?>> logicClasses = null;
     
     public int getMaxPageSize() {
@@ -23,4 +24,12 @@ public class QueryLogicFactoryConfiguration {
         this.pageByteTrigger = pageByteTrigger;
     }
     
+    public long getPrefetchByteLimit() {
+        return prefetchByteLimit;
+    }
+    
+    public void setPrefetchByteLimit(long prefetchByteLimit) {
+        this.prefetchByteLimit = prefetchByteLimit;
+    }
+    
 }
@@ -48,6 +48,9 @@ public class QueryLogicFactoryImpl implements QueryLogicFactory {
         if (logic.getPageByteTrigger() == 0) {
             logic.setPageByteTrigger(queryLogicFactoryConfiguration.getPageByteTrigger());
         }
+        if (logic.getPrefetchByteLimit() == 0) {
+            logic.setPrefetchByteLimit(queryLogicFactoryConfiguration.getPrefetchByteLimit());
+        }
         return logic;
     }
     
@@ -352,4 +352,17 @@ public interface QueryExecutor {
      */
     StreamingOutput execute(String logicName, MultivaluedMap<String,String> queryParameters, HttpHeaders httpHeaders);
     
+    /**
+     * Creates a query object for the user and streams the results as they are pulled from the query, one query response per result, written as a JSON line or a
+     * length delimited protostuff message. When done, closes the query. Unlike {@link #execute(String, MultivaluedMap, HttpHeaders)}, only the results being
+     * written are held in memory, so this is suited to large exports.
+     * 
+     * @param logicName
+     * @param queryParameters
+     * @param httpHeaders
+     *            HttpHeaders object injected by the JAX-RS layer
+     * @return
+     */
+    StreamingOutput createQueryAndStream(String logicName, MultivaluedMap<String,String> queryParameters, HttpHeaders httpHeaders);
+    
 }
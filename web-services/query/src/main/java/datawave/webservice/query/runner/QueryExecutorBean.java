@@ -3399,7 +3399,79 @@ public class QueryExecutorBean implements QueryExecutor {
         return new AsyncResult<>(queryId);
     }
     
-    private enum SerializationType {
+    /**
+     * Creates a query object for the user and streams the results to the client as they are pulled from the query rather than a page at a time. Each result is
+     * wrapped in a query response by the query logic's transformer, and written as a line of JSON for application/x-ndjson or application/json, or as a length
+     * delimited protostuff message for application/x-protobuf or application/x-protostuff. Results are written as the client reads them, so a slow client slows
+     * the query rather than growing the heap. When done, closes the query.
+     *
+     * @param logicName
+     * @param queryParameters
+     *
+     * @return the streamed results
+     * @RequestHeader X-ProxiedEntitiesChain use when proxying request for user, by specifying a chain of DNs of the identities to proxy
+     * @RequestHeader X-ProxiedIssuersChain required when using X-ProxiedEntitiesChain, specify one issuer DN per subject DN listed in X-ProxiedEntitiesChain
+     * @ResponseHeader X-OperationTimeInMS time spent on the server performing the operation, does not account for network or result serialization
+     *
+     * @HTTP 200 success
+     * @HTTP 204 success and no results
+     * @HTTP 400 invalid or missing parameter
+     * @HTTP 406 unsupported response type
+     * @HTTP 500 internal server error
+     */
+    @POST
+    @Produces({"application/x-ndjson", "application/json", "application/x-protobuf", "application/x-protostuff"})
+    @Path("/{logicName}/createAndStream")
+    @GZIP
+    @Interceptors({ResponseInterceptor.class, RequiredInterceptor.class})
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    @Override
+    @Timed(name = "dw.query.createAndStream", absolute = true)
+    public StreamingOutput createQueryAndStream(@Required("logicName") @PathParam("logicName") String logicName,
+                    MultivaluedMap<String,String> queryParameters, @Context HttpHeaders httpHeaders) {
+        Collection<String> proxyServers = null;
+        Principal p = ctx.getCallerPrincipal();
+        if (p instanceof DatawavePrincipal) {
+            proxyServers = ((DatawavePrincipal) p).getProxyServers();
+        }
+        
+        final MediaType NDJSON_MEDIA_TYPE = new MediaType("application", "x-ndjson");
+        final MediaType PB_MEDIA_TYPE = new MediaType("application", "x-protobuf");
+        final MediaType PROTOSTUFF_MEDIA_TYPE = new MediaType("application", "x-protostuff");
+        final VoidResponse response = new VoidResponse();
+        
+        // HttpHeaders.getAcceptableMediaTypes returns a priority sorted list of acceptable response types.
+        // Find the first one in the list that we support.
+        SerializationType serializationType = null;
+        for (MediaType type : httpHeaders.getAcceptableMediaTypes()) {
+            if (type.equals(NDJSON_MEDIA_TYPE) || type.equals(MediaType.APPLICATION_JSON_TYPE)) {
+                serializationType = SerializationType.JSON;
+                break;
+            } else if (type.equals(PB_MEDIA_TYPE) || type.equals(PROTOSTUFF_MEDIA_TYPE)) {
+                serializationType = SerializationType.PB;
+                break;
+            }
+        }
+        if (null == serializationType) {
+            QueryException qe = new QueryException(DatawaveErrorCode.UNSUPPORTED_MEDIA_TYPE);
+            response.addException(qe);
+            throw new DatawaveWebApplicationException(qe, response);
+        }
+        
+        long start = System.nanoTime();
+        GenericResponse<String> createResponse = this.createQuery(logicName, queryParameters, httpHeaders);
+        long createCallTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        final String queryId = createResponse.getResult();
+        
+        // We created the query and put into cache, get the RunningQuery object
+        final RunningQuery rq = queryCache.get(queryId);
+        rq.getMetric().setCreateCallTime(createCallTime);
+        rq.getMetric().setProxyServers(proxyServers);
+        
+        return new StreamingResultsResponse(queryId, response, rq, serializationType);
+    }
+    
+    enum SerializationType {
         JSON, XML, PB, YAML;
     }
     
@@ -3545,6 +3617,130 @@ public class QueryExecutorBean implements QueryExecutor {
         
     }
     
+    /**
+     * Writes each result of a query to the client as it is pulled from the query. Each result is wrapped in a response of its own by the transformer of the
+     * query logic, the same as a page from next. Only one page of the query is worked on at a time, and the write blocks when the client is not keeping up, so
+     * the query is paced by the client.
+     */
+    public class StreamingResultsResponse implements StreamingOutput {
+        private String queryId = null;
+        private VoidResponse errorResponse = null;
+        private RunningQuery rq = null;
+        private SerializationType serializationType = SerializationType.JSON;
+        
+        public StreamingResultsResponse(String queryId, VoidResponse errorResponse, RunningQuery rq, SerializationType serializationType) {
+            this.queryId = queryId;
+            this.errorResponse = errorResponse;
+            this.rq = rq;
+            this.serializationType = serializationType;
+        }
+        
+        public String getQueryId() {
+            return queryId;
+        }
+        
+        @Override
+        public void write(OutputStream out) throws IOException, WebApplicationException {
+            try {
+                LinkedBuffer buffer = LinkedBuffer.allocate(4096);
+                ObjectMapper jsonSerializer = new ObjectMapper();
+                jsonSerializer.enable(MapperFeature.USE_WRAPPER_NAME_AS_PROPERTY_NAME);
+                jsonSerializer.setAnnotationIntrospector(AnnotationIntrospector.pair(new JacksonAnnotationIntrospector(), new JaxbAnnotationIntrospector(
+                                jsonSerializer.getTypeFactory())));
+                // Don't close the output stream, and leave flushing it to the end of each page
+                jsonSerializer.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                jsonSerializer.configure(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM, false);
+                
+                // Wrap the output stream so that we can get a byte count
+                CountingOutputStream countingStream = new CountingOutputStream(out);
+                final long[] serializationTime = new long[1];
+                
+                boolean sentResults = false;
+                List<PageMetric> pageMetrics = rq.getMetric().getPageTimes();
+                QueryLogicTransformer transformer = rq.getLogic().getTransformer(rq.getSettings());
+                rq.setActiveCall(true);
+                
+                while (true) {
+                    long callStart = System.nanoTime();
+                    long bytesStart = countingStream.getCount();
+                    serializationTime[0] = 0;
+                    
+                    ResultsPage.Status status;
+                    try {
+                        status = rq.next(result -> {
+                            long serializationStart = System.nanoTime();
+                            // the page number is not incremented until the page is done
+                            BaseQueryResponse chunk = transformer.createResponse(new ResultsPage(Collections.singletonList(result)));
+                            chunk.setHasResults(true);
+                            chunk.setPageNumber(rq.getLastPageNumber() + 1);
+                            chunk.setLogicName(rq.getLogic().getLogicName());
+                            chunk.setQueryId(queryId);
+                            switch (serializationType) {
+                                case JSON:
+                                    jsonSerializer.writeValue(countingStream, chunk);
+                                    countingStream.write('\n');
+                                    break;
+                                case PB:
+                                    if (!(chunk instanceof Message)) {
+                                        throw new QueryException(DatawaveErrorCode.BAD_RESPONSE_CLASS, MessageFormat.format("Response class: {0}",
+                                                        chunk.getClass()));
+                                    }
+                                    @SuppressWarnings("unchecked")
+                                    Message<Object> pb = (Message<Object>) chunk;
+                                    ProtobufIOUtil.writeDelimitedTo(countingStream, chunk, pb.cachedSchema(), buffer);
+                                    buffer.clear();
+                                    break;
+                                default:
+                                    throw new QueryException(DatawaveErrorCode.INVALID_FORMAT, MessageFormat.format("format: {0}", serializationType));
+                            }
+                            serializationTime[0] += System.nanoTime() - serializationStart;
+                        });
+                    } catch (RejectedExecutionException e) {
+                        // - race condition, query expired while streaming
+                        throw new PreConditionFailedQueryException(DatawaveErrorCode.QUERY_TIMEOUT_OR_SERVER_ERROR, e, MessageFormat.format("id = {0}",
+                                        queryId));
+                    }
+                    if (status == ResultsPage.Status.NONE) {
+                        break;
+                    }
+                    
+                    long flushStart = System.nanoTime();
+                    countingStream.flush();
+                    serializationTime[0] += System.nanoTime() - flushStart;
+                    
+                    PageMetric pm = pageMetrics.get(pageMetrics.size() - 1);
+                    pm.setSerializationTime(TimeUnit.NANOSECONDS.toMillis(serializationTime[0]));
+                    pm.setCallTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - callStart));
+                    pm.setBytesWritten(countingStream.getCount() - bytesStart);
+                    sentResults = true;
+                }
+                
+                if (!sentResults) {
+                    throw new NoResultsQueryException(DatawaveErrorCode.RESULTS_NOT_SENT);
+                }
+            } catch (DatawaveWebApplicationException e) {
+                throw e;
+            } catch (Exception e) {
+                log.error("StreamingResultsResponse write Failed", e);
+                QueryException qe = new QueryException(DatawaveErrorCode.QUERY_NEXT_ERROR, e, MessageFormat.format("query_id: {0}", rq.getSettings().getId()));
+                log.error(qe, e);
+                errorResponse.addException(qe.getBottomQueryException());
+                int statusCode = qe.getBottomQueryException().getStatusCode();
+                throw new DatawaveWebApplicationException(qe, errorResponse, statusCode);
+            } finally {
+                rq.setActiveCall(false);
+                try {
+                    close(rq);
+                } catch (Exception e) {
+                    log.error("Error returning connection on failed create", e);
+                    QueryException qe = new QueryException(DatawaveErrorCode.CONNECTION_RETURN_ERROR, e);
+                    log.error(qe, e);
+                    errorResponse.addException(qe.getBottomQueryException());
+                }
+            }
+        }
+    }
+    
     private void testForUncaughtException(Query settings, ResultsPage resultList) throws QueryException {
         QueryUncaughtExceptionHandler handler = settings.getUncaughtExceptionHandler();
         if (handler != null) {
@@ -0,0 +1,249 @@
+package datawave.webservice.query.runner;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.collections4.iterators.TransformIterator;
+import org.apache.log4j.Logger;
+
+/**
+ * Pulls results from the transform iterator of a query on a background thread into a bounded buffer, so that the next page of results is gathered while the
+ * caller is still working with the previous one. The buffer is bounded by a number of results and by the estimated size of those results in bytes. Once the
+ * buffer is full the prefetch releases its thread rather than holding an executor thread while the caller works, and it is resumed the next time results are
+ * taken from the buffer.
+ * <p>
+ * Once a prefetcher has been started it owns the transform iterator: all results must be taken through {@link #poll(long, TimeUnit)} until it is canceled.
+ */
+public class ResultsPrefetcher implements Callable<Void> {
+    
+    private static final Logger log = Logger.getLogger(ResultsPrefetcher.class);
+    
+    private final TransformIterator iter;
+    private final ExecutorService executor;
+    private final int maxResults;
+    private final long maxBytes;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Deque<BufferedResult> buffer = new ArrayDeque<>();
+    private long bufferedBytes = 0;
+    private boolean running = false;
+    private boolean exhausted = false;
+    private volatile boolean canceled = false;
+    private Throwable failure = null;
+    private Future<Void> future = null;
+    
+    /**
+     * @param iter
+     *            the transform iterator of the query
+     * @param executor
+     *            the executor to run the prefetch on
+     * @param maxResults
+     *            the maximum number of results to buffer
+     * @param maxBytes
+     *            the maximum estimated size of the buffered results, 0 to only bound the buffer by the number of results
+     */
+    public ResultsPrefetcher(TransformIterator iter, ExecutorService executor, int maxResults, long maxBytes) {
+        this.iter = iter;
+        this.executor = executor;
+        this.maxResults = Math.max(1, maxResults);
+        this.maxBytes = maxBytes;
+    }
+    
+    /**
+     * Start filling the buffer if the prefetch is not already running, has not reached the end of the results, and has not been canceled
+     */
+    public void start() {
+        lock.lock();
+        try {
+            resume();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void resume() {
+        if (!running && !exhausted && !canceled) {
+            future = executor.submit(this);
+            running = true;
+        }
+    }
+    
+    /**
+     * Take the next result from the buffer, waiting up to the timeout for one to become available
+     *
+     * @param timeout
+     *            the time to wait
+     * @param unit
+     *            the unit of the timeout
+     * @return the next result, or null if there is none available yet or if {@link #isFinished()}
+     * @throws ExecutionException
+     *             if the transform iterator failed
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    public Object poll(long timeout, TimeUnit unit) throws ExecutionException, InterruptedException {
+        lock.lock();
+        try {
+            long remaining = unit.toNanos(timeout);
+            while (buffer.isEmpty()) {
+                if (failure != null) {
+                    throw new ExecutionException(failure);
+                }
+                if (exhausted || canceled || remaining <= 0) {
+                    return null;
+                }
+                resume();
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+            BufferedResult result = buffer.poll();
+            bufferedBytes -= result.size;
+            resume();
+            return result.result;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * @return true if all of the results have been taken from the buffer, or if the prefetch was canceled
+     */
+    public boolean isFinished() {
+        lock.lock();
+        try {
+            return canceled || (exhausted && failure == null && buffer.isEmpty());
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * @return true if the prefetch is currently holding a thread
+     */
+    public boolean isRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * @return the number of results currently buffered
+     */
+    public int getBufferedResults() {
+        lock.lock();
+        try {
+            return buffer.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Stop the prefetch, interrupting it if it is running, and drop any buffered results
+     */
+    public void cancel() {
+        this.canceled = true;
+        lock.lock();
+        try {
+            if (future != null) {
+                future.cancel(true);
+            }
+            buffer.clear();
+            bufferedBytes = 0;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public Void call() {
+        boolean released = false;
+        try {
+            while (true) {
+                lock.lock();
+                try {
+                    if (canceled) {
+                        break;
+                    }
+                    if (isFull()) {
+                        // release the thread now rather than holding it while the buffer is drained, poll resumes the prefetch once there is room
+                        log.debug("Prefetch buffer is full, releasing thread");
+                        running = false;
+                        released = true;
+                        break;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                
+                Object o = iter.hasNext() ? iter.next() : null;
+                long size = (maxBytes > 0 && o != null ? RunningQuery.getResultSizeInBytes(o) : 0);
+                lock.lock();
+                try {
+                    if (o == null) {
+                        exhausted = true;
+                    } else if (!canceled) {
+                        buffer.add(new BufferedResult(o, size));
+                        bufferedBytes += size;
+                    }
+                    notEmpty.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                if (o == null) {
+                    log.debug("Null result encountered, no more results to prefetch");
+                    break;
+                }
+            }
+        } catch (Throwable t) {
+            lock.lock();
+            try {
+                // an interrupt is expected when canceled
+                if (!canceled) {
+                    log.error("Failed to prefetch results", t);
+                    failure = t;
+                }
+                exhausted = true;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            lock.lock();
+            try {
+                // once released another call may already have been started
+                if (!released) {
+                    running = false;
+                }
+                notEmpty.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return null;
+    }
+    
+    private boolean isFull() {
+        return buffer.size() >= maxResults || (maxBytes > 0 && bufferedBytes >= maxBytes);
+    }
+    
+    private static class BufferedResult {
+        private final Object result;
+        private final long size;
+        
+        BufferedResult(Object result, long size) {
+            this.result = result;
+            this.size = size;
+        }
+    }
+}
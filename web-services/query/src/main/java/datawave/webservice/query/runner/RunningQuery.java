@@ -15,6 +15,7 @@ import java.util.concurrent.TimeoutException;
 import datawave.security.util.AuthorizationsUtil;
 import datawave.webservice.common.connection.AccumuloConnectionFactory;
 import datawave.webservice.query.Query;
+import datawave.webservice.query.QueryImpl.Parameter;
 import datawave.webservice.query.cache.AbstractRunningQuery;
 import datawave.webservice.query.cache.QueryMetricFactory;
 import datawave.webservice.query.cache.QueryMetricFactoryImpl;
@@ -29,6 +30,8 @@ import datawave.webservice.query.metric.BaseQueryMetric;
 import datawave.webservice.query.metric.BaseQueryMetric.Prediction;
 import datawave.webservice.query.metric.QueryMetric;
 import datawave.webservice.query.metric.QueryMetricsBean;
+import datawave.webservice.query.result.event.EventBase;
+import datawave.webservice.query.result.event.FacetsBase;
 import datawave.webservice.query.util.QueryUncaughtExceptionHandler;
 
 import org.apache.accumulo.core.client.Connector;
@@ -49,6 +52,11 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     
     private static Logger log = Logger.getLogger(RunningQuery.class);
     
+    /**
+     * Query parameter which, when true, has the next page of results gathered in the background while the caller works with the current one
+     */
+    public static final String PARAM_PAGE_PREFETCH = "page.prefetch";
+    
     private transient Connector connection = null;
     private AccumuloConnectionFactory.Priority connectionPriority = null;
     private transient QueryLogic<?> logic = null;
@@ -65,6 +73,7 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     private ExecutorService executor = null;
     private volatile Future<Object> future = null;
     private QueryPredictor predictor = null;
+    private transient volatile ResultsPrefetcher prefetcher = null;
     
     public RunningQuery() {
         super(new QueryMetricFactoryImpl());
@@ -158,6 +167,7 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
             long start = System.currentTimeMillis();
             GenericQueryConfiguration configuration = this.logic.initialize(this.connection, this.settings, this.calculatedAuths);
             this.lastPageNumber = 0;
+            cancelPrefetch();
             this.logic.setupQuery(configuration);
             this.iter = this.logic.getTransformIterator(this.settings);
             // the configuration query string should now hold the planned query
@@ -185,21 +195,47 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     }
     
     public ResultsPage next() throws Exception {
+        List<Object> resultList = new ArrayList<>();
+        ResultsPage.Status status = next(resultList::add);
+        if (resultList.isEmpty()) {
+            return new ResultsPage();
+        } else {
+            return new ResultsPage(resultList, status);
+        }
+    }
+    
+    /**
+     * Gather the next page of results, handing each result to the consumer as soon as it is pulled from the transform iterator rather than collecting the
+     * page in memory. The page is bounded by the same page size, byte, time, and max results triggers as {@link #next()}.
+     *
+     * @param consumer
+     *            the consumer of the results
+     * @return the status of the page, {@link ResultsPage.Status#NONE} if there were no more results
+     * @throws Exception
+     *             if the query or the consumer failed
+     */
+    public ResultsPage.Status next(ResultsConsumer consumer) throws Exception {
         // update AbstractRunningQuery.lastUsed
         touch();
         long pageStartTime = System.currentTimeMillis();
-        List<Object> resultList = new ArrayList<>();
+        int currentPageCount = 0;
         boolean hitPageByteTrigger = false;
         boolean hitPageTimeTrigger = false;
         try {
             addNDC();
-            int currentPageCount = 0;
             long currentPageBytes = 0;
             
             // test for any exceptions prior to loop as hasNext() would likely be false;
-            testForUncaughtException(resultList.size());
+            testForUncaughtException(currentPageCount);
             
-            while (!this.finished && ((future != null) || this.iter.hasNext())) {
+            // once started, the prefetcher owns the transform iterator
+            if (this.prefetcher == null && isPrefetchEnabled()) {
+                this.prefetcher = new ResultsPrefetcher(this.iter, this.executor, getPrefetchPageSize(), this.logic.getPrefetchByteLimit());
+            }
+            // save off the prefetcher as it could be removed at any time
+            ResultsPrefetcher prefetcher = this.prefetcher;
+            
+            while (!this.finished && ((prefetcher != null) || (future != null) || this.iter.hasNext())) {
                 // if we are canceled, then break out
                 if (this.canceled) {
                     log.info("Query has been cancelled, aborting query.next call");
@@ -254,7 +290,16 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
                 }
                 
                 Object o = null;
-                if (executor != null) {
+                boolean waiting = false;
+                if (prefetcher != null) {
+                    try {
+                        o = prefetcher.poll(1, TimeUnit.MINUTES);
+                        // if nothing was available yet, then simply continue
+                        waiting = (o == null && !prefetcher.isFinished());
+                    } catch (InterruptedException ie) {
+                        // in this case we were most likely cancelled, no longer waiting
+                    }
+                } else if (executor != null) {
                     if (future == null) {
                         future = executor.submit(() -> iter.next());
                     }
@@ -270,6 +315,7 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
                         throw ee;
                     } catch (TimeoutException te) {
                         // in this case we are still waiting on our future....simply continue
+                        waiting = true;
                     }
                 } else {
                     o = iter.next();
@@ -280,34 +326,43 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
                     ((WritesQueryMetrics) iter.getTransformer()).writeQueryMetrics(this.getMetric());
                 }
                 
-                // if not still waiting on a future, then process the result (or lack thereof)
-                if (future == null) {
+                // if not still waiting on a future or the prefetcher, then process the result (or lack thereof)
+                if (!waiting) {
                     if (null == o) {
                         log.debug("Null result encountered, no more results");
                         this.finished = true;
                         break;
                     }
-                    resultList.add(o);
+                    consumer.accept(o);
                     if (this.logic.getPageByteTrigger() > 0) {
-                        currentPageBytes += ObjectSizeOf.Sizer.getObjectSize(o);
+                        currentPageBytes += getResultSizeInBytes(o);
                     }
                     currentPageCount++;
                     numResults++;
                 }
                 
-                testForUncaughtException(resultList.size());
+                testForUncaughtException(currentPageCount);
             }
             
             // if the last hasNext() call failed, then we would catch the exception here
-            testForUncaughtException(resultList.size());
+            testForUncaughtException(currentPageCount);
             
             // Update the metric
             long now = System.currentTimeMillis();
             this.getMetric().addPageTime(currentPageCount, now - pageStartTime, pageStartTime, now);
             this.lastPageNumber++;
-            if (!resultList.isEmpty()) {
+            if (currentPageCount > 0) {
                 this.getMetric().setLifecycle(QueryMetric.Lifecycle.RESULTS);
             }
+            
+            // keep gathering the next page while the caller works with this one
+            if (prefetcher != null) {
+                if (this.finished || this.canceled) {
+                    cancelPrefetch();
+                } else {
+                    prefetcher.start();
+                }
+            }
         } catch (Exception e) {
             log.error(e.getMessage(), e);
             this.getMetric().setError(e);
@@ -325,10 +380,10 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
                 }
             }
         }
-        if (resultList.isEmpty()) {
-            return new ResultsPage();
+        if (currentPageCount == 0) {
+            return ResultsPage.Status.NONE;
         } else {
-            return new ResultsPage(resultList, ((hitPageByteTrigger || hitPageTimeTrigger) ? ResultsPage.Status.PARTIAL : ResultsPage.Status.COMPLETE));
+            return ((hitPageByteTrigger || hitPageTimeTrigger) ? ResultsPage.Status.PARTIAL : ResultsPage.Status.COMPLETE);
         }
     }
     
@@ -340,6 +395,7 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
         if (future != null) {
             future.cancel(true);
         }
+        cancelPrefetch();
         
         // change status to cancelled
         this.getMetric().setLifecycle(QueryMetric.Lifecycle.CANCELLED);
@@ -349,6 +405,56 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
         return finished;
     }
     
+    /**
+     * @return true if the query requested that pages be prefetched and there is an executor to do so
+     */
+    public boolean isPrefetchEnabled() {
+        if (this.executor == null || this.settings == null) {
+            return false;
+        }
+        Parameter prefetch = this.settings.findParameter(PARAM_PAGE_PREFETCH);
+        return prefetch != null && Boolean.parseBoolean(prefetch.getParameterValue());
+    }
+    
+    /**
+     * @return the number of results to buffer ahead of the caller, which is a full page
+     */
+    private int getPrefetchPageSize() {
+        int pageSize = this.settings.getPagesize();
+        if (this.logic.getMaxPageSize() > 0) {
+            pageSize = Math.min(pageSize, this.logic.getMaxPageSize());
+        }
+        return pageSize;
+    }
+    
+    /**
+     * Get the size of a result for the page byte trigger. Events and facets carry the size estimated by the transformer that built them, so the reflective
+     * ObjectSizeOf mechanism is only used for other kinds of results.
+     *
+     * @param o
+     *            a transformed result
+     * @return the approximate size of the result in bytes
+     */
+    public static long getResultSizeInBytes(Object o) {
+        if (o instanceof EventBase) {
+            EventBase<?,?> event = (EventBase<?,?>) o;
+            long size = event.getSizeInBytes();
+            return (size > 0) ? size : event.estimateSizeInBytes();
+        } else if (o instanceof FacetsBase && ((FacetsBase) o).getSizeInBytes() > 0) {
+            return ((FacetsBase) o).getSizeInBytes();
+        }
+        return ObjectSizeOf.Sizer.getObjectSize(o);
+    }
+    
+    private void cancelPrefetch() {
+        // save off the prefetcher as it could be removed at any time
+        ResultsPrefetcher prefetcher = this.prefetcher;
+        if (prefetcher != null) {
+            prefetcher.cancel();
+            this.prefetcher = null;
+        }
+    }
+    
     public boolean isCanceled() {
         return canceled;
     }
@@ -407,6 +513,9 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     public void closeConnection(AccumuloConnectionFactory factory) throws Exception {
         this.getMetric().setLifecycle(BaseQueryMetric.Lifecycle.CLOSED);
         
+        // stop using the transform iterator before the logic is closed
+        cancelPrefetch();
+        
         if (iter != null && iter.getTransformer() instanceof WritesResultCardinalities) {
             ((WritesResultCardinalities) iter.getTransformer()).writeResultCardinalities();
         }
@@ -496,6 +605,13 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
         boolean shouldReturnPartialResults(int pageSize, int maxPageSize, long timeInCall);
     }
     
+    /**
+     * An interface used to receive the results of a next call as they are pulled from the transform iterator.
+     */
+    public interface ResultsConsumer {
+        void accept(Object result) throws Exception;
+    }
+    
     /**
      * A noop implementation of the running query timing interface.
      */
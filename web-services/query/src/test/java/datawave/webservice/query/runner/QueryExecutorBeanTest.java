@@ -34,6 +34,7 @@ import datawave.webservice.query.cache.QueryExpirationConfiguration;
 import datawave.webservice.query.cache.QueryMetricFactory;
 import datawave.webservice.query.cache.QueryMetricFactoryImpl;
 import datawave.webservice.query.cache.QueryTraceCache;
+import datawave.webservice.query.cache.ResultsPage;
 import datawave.webservice.query.configuration.GenericQueryConfiguration;
 import datawave.webservice.query.configuration.LookupUUIDConfiguration;
 import datawave.webservice.query.exception.DatawaveErrorCode;
@@ -43,12 +44,15 @@ import datawave.webservice.query.logic.BaseQueryLogic;
 import datawave.webservice.query.logic.QueryLogic;
 import datawave.webservice.query.logic.QueryLogicFactory;
 import datawave.webservice.query.logic.QueryLogicFactoryImpl;
+import datawave.webservice.query.logic.QueryLogicTransformer;
 import datawave.webservice.query.metric.BaseQueryMetric;
 import datawave.webservice.query.metric.BaseQueryMetric.Lifecycle;
 import datawave.webservice.query.metric.BaseQueryMetric.Prediction;
 import datawave.webservice.query.metric.QueryMetric;
 import datawave.webservice.query.metric.QueryMetricsBean;
+import datawave.webservice.result.BaseQueryResponse;
 import datawave.webservice.result.GenericResponse;
+import datawave.webservice.result.VoidResponse;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.security.tokens.PasswordToken;
 import org.apache.accumulo.core.util.Pair;
@@ -80,12 +84,18 @@ import org.xml.sax.SAXException;
 import javax.ejb.EJBContext;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -101,6 +111,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.eq;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.powermock.api.easymock.PowerMock.createMock;
@@ -762,4 +773,165 @@ public class QueryExecutorBeanTest {
             }
         }
     }
+    
+    @Test
+    public void testStreamResults() throws Exception {
+        QueryImpl q = createNewQuery();
+        String queryId = q.getId().toString();
+        RunningQuery rq = createStreamingQuery(q, Arrays.asList(Arrays.asList("one", "two"), Collections.singletonList("three")), null);
+        cache.put(queryId, rq);
+        
+        PowerMock.replayAll();
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        createStreamingResponse(q, rq, new VoidResponse()).write(out);
+        
+        PowerMock.verifyAll();
+        
+        // one response per result, each built by the transformer of the logic
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        String[] expected = {"one", "two", "three"};
+        for (int i = 0; i < lines.length; i++) {
+            assertTrue(lines[i], lines[i].contains("\"" + expected[i] + "\""));
+            assertTrue(lines[i], lines[i].contains(queryId));
+            assertTrue(lines[i], lines[i].contains(queryLogicName));
+        }
+        
+        // the query is closed once the results are written
+        Assert.assertNull(cache.get(queryId));
+    }
+    
+    @Test
+    public void testStreamNoResults() throws Exception {
+        QueryImpl q = createNewQuery();
+        String queryId = q.getId().toString();
+        RunningQuery rq = createStreamingQuery(q, Collections.emptyList(), null);
+        cache.put(queryId, rq);
+        
+        PowerMock.replayAll();
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        VoidResponse errorResponse = new VoidResponse();
+        try {
+            createStreamingResponse(q, rq, errorResponse).write(out);
+            fail("Expected no results to fail the call");
+        } catch (DatawaveWebApplicationException e) {
+            assertFalse(errorResponse.getExceptions().isEmpty());
+        }
+        
+        PowerMock.verifyAll();
+        
+        assertEquals(0, out.size());
+        Assert.assertNull(cache.get(queryId));
+    }
+    
+    @Test
+    public void testStreamClientDisconnect() throws Exception {
+        QueryImpl q = createNewQuery();
+        String queryId = q.getId().toString();
+        // the second page is never pulled once the client goes away
+        RunningQuery rq = createStreamingQuery(q, Arrays.asList(Arrays.asList("one", "two"), Collections.singletonList("three")), 1);
+        cache.put(queryId, rq);
+        
+        PowerMock.replayAll();
+        
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Connection reset by peer");
+            }
+        };
+        try {
+            createStreamingResponse(q, rq, new VoidResponse()).write(out);
+            fail("Expected the disconnect to fail the call");
+        } catch (DatawaveWebApplicationException e) {
+            // expected
+        }
+        
+        PowerMock.verifyAll();
+        
+        // the connection is returned and the query is removed even though the results were not all sent
+        Assert.assertNull(cache.get(queryId));
+    }
+    
+    /**
+     * Create a running query that returns the pages of results to the consumer of each next call, followed by an empty page
+     *
+     * @param q
+     *            the query settings
+     * @param pages
+     *            the results of each page
+     * @param numNextCalls
+     *            the number of next calls expected, or null for all of the pages plus the empty page
+     * @return the running query mock
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private RunningQuery createStreamingQuery(QueryImpl q, List<List<String>> pages, Integer numNextCalls) throws Exception {
+        QueryLogic logic = createMock(BaseQueryLogic.class);
+        QueryLogicTransformer transformer = new QueryLogicTransformer() {
+            @Override
+            public BaseQueryResponse createResponse(ResultsPage resultList) {
+                StreamedResultResponse response = new StreamedResultResponse();
+                response.setResult(resultList.getResults().get(0).toString());
+                return response;
+            }
+            
+            @Override
+            public Object transform(Object input) {
+                return input;
+            }
+        };
+        BaseQueryMetric metric = new QueryMetricFactoryImpl().createMetric();
+        RunningQuery rq = createMock(RunningQuery.class);
+        
+        PowerMock.resetAll();
+        EasyMock.expect(rq.getSettings()).andReturn(q).anyTimes();
+        EasyMock.expect(rq.getLogic()).andReturn(logic).anyTimes();
+        EasyMock.expect(rq.getMetric()).andReturn(metric).anyTimes();
+        EasyMock.expect(rq.getLastPageNumber()).andReturn(0L).anyTimes();
+        EasyMock.expect(rq.getTraceInfo()).andReturn(null).anyTimes();
+        EasyMock.expect(logic.getTransformer(q)).andReturn(transformer);
+        EasyMock.expect(logic.getLogicName()).andReturn(queryLogicName).anyTimes();
+        rq.setActiveCall(true);
+        
+        List<List<String>> allPages = new ArrayList<>(pages);
+        allPages.add(Collections.emptyList());
+        int calls = (numNextCalls == null ? allPages.size() : numNextCalls);
+        for (List<String> page : allPages.subList(0, calls)) {
+            EasyMock.expect(rq.next(anyObject(RunningQuery.ResultsConsumer.class))).andAnswer(() -> {
+                RunningQuery.ResultsConsumer consumer = (RunningQuery.ResultsConsumer) EasyMock.getCurrentArguments()[0];
+                for (String result : page) {
+                    consumer.accept(result);
+                }
+                metric.addPageTime(page.size(), 0, 0, 0);
+                return page.isEmpty() ? ResultsPage.Status.NONE : ResultsPage.Status.COMPLETE;
+            });
+        }
+        
+        rq.setActiveCall(false);
+        rq.closeConnection(connectionFactory);
+        return rq;
+    }
+    
+    private QueryExecutorBean.StreamingResultsResponse createStreamingResponse(QueryImpl q, RunningQuery rq, VoidResponse errorResponse) {
+        return bean.new StreamingResultsResponse(q.getId().toString(), errorResponse, rq, QueryExecutorBean.SerializationType.JSON);
+    }
+    
+    @XmlAccessorType(XmlAccessType.NONE)
+    public static class StreamedResultResponse extends BaseQueryResponse {
+        
+        private static final long serialVersionUID = 1L;
+        
+        @XmlElement(name = "Result")
+        private String result;
+        
+        public String getResult() {
+            return result;
+        }
+        
+        public void setResult(String result) {
+            this.result = result;
+        }
+    }
 }
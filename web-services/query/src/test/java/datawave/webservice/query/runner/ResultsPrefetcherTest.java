@@ -0,0 +1,180 @@
+package datawave.webservice.query.runner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.collections4.iterators.TransformIterator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResultsPrefetcherTest {
+    
+    private ExecutorService executor;
+    private AtomicInteger nextCalls;
+    
+    @Before
+    public void setup() {
+        executor = Executors.newCachedThreadPool();
+        nextCalls = new AtomicInteger();
+    }
+    
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    public void testAllResults() throws Exception {
+        ResultsPrefetcher prefetcher = new ResultsPrefetcher(getIterator(25), executor, 10, 0);
+        prefetcher.start();
+        
+        List<Object> results = new ArrayList<>();
+        while (!prefetcher.isFinished()) {
+            Object o = prefetcher.poll(1, TimeUnit.SECONDS);
+            if (o != null) {
+                results.add(o);
+            }
+        }
+        assertEquals(getResults(25), results);
+        assertNull(prefetcher.poll(1, TimeUnit.MILLISECONDS));
+    }
+    
+    @Test
+    public void testBufferIsBoundedByResults() throws Exception {
+        ResultsPrefetcher prefetcher = new ResultsPrefetcher(getIterator(25), executor, 10, 0);
+        prefetcher.start();
+        waitFor(() -> prefetcher.getBufferedResults() == 10);
+        
+        // the prefetcher stops rather than pulling more results
+        Thread.sleep(100);
+        assertEquals(10, nextCalls.get());
+        
+        assertEquals("result0", prefetcher.poll(1, TimeUnit.SECONDS));
+        waitFor(() -> nextCalls.get() == 11);
+        prefetcher.cancel();
+    }
+    
+    @Test
+    public void testBufferIsBoundedByBytes() throws Exception {
+        ResultsPrefetcher prefetcher = new ResultsPrefetcher(getIterator(25), executor, 10, 1);
+        prefetcher.start();
+        waitFor(() -> prefetcher.getBufferedResults() == 1);
+        Thread.sleep(100);
+        assertEquals(1, prefetcher.getBufferedResults());
+        prefetcher.cancel();
+    }
+    
+    @Test
+    public void testFullBufferReleasesThread() throws Exception {
+        ResultsPrefetcher prefetcher = new ResultsPrefetcher(getIterator(25), executor, 10, 0);
+        prefetcher.start();
+        waitFor(() -> prefetcher.getBufferedResults() == 10);
+        waitFor(() -> !prefetcher.isRunning());
+        assertEquals(10, nextCalls.get());
+        assertFalse(prefetcher.isFinished());
+        
+        // taking a result resumes the prefetch
+        int count = 0;
+        while (!prefetcher.isFinished()) {
+            if (prefetcher.poll(1, TimeUnit.SECONDS) != null) {
+                count++;
+            }
+        }
+        assertEquals(25, count);
+    }
+    
+    @Test
+    public void testFailure() throws Exception {
+        IllegalStateException failure = new IllegalStateException("scanner failed");
+        Iterator<Object> failing = new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+            
+            @Override
+            public Object next() {
+                throw failure;
+            }
+        };
+        ResultsPrefetcher prefetcher = new ResultsPrefetcher(new TransformIterator(failing), executor, 10, 0);
+        prefetcher.start();
+        try {
+            prefetcher.poll(10, TimeUnit.SECONDS);
+            fail("Expected the failure to be passed to the caller");
+        } catch (ExecutionException e) {
+            assertSame(failure, e.getCause());
+        }
+        assertFalse(prefetcher.isFinished());
+    }
+    
+    @Test
+    public void testCancel() throws Exception {
+        ResultsPrefetcher prefetcher = new ResultsPrefetcher(getIterator(25), executor, 10, 0);
+        prefetcher.start();
+        waitFor(() -> prefetcher.getBufferedResults() == 10);
+        
+        prefetcher.cancel();
+        waitFor(() -> !prefetcher.isRunning());
+        assertTrue(prefetcher.isFinished());
+        assertEquals(0, prefetcher.getBufferedResults());
+        assertNull(prefetcher.poll(1, TimeUnit.SECONDS));
+        
+        // a canceled prefetcher can not be restarted
+        prefetcher.start();
+        assertFalse(prefetcher.isRunning());
+        assertEquals(10, nextCalls.get());
+    }
+    
+    private TransformIterator getIterator(int numResults) {
+        Iterator<Object> results = getResults(numResults).iterator();
+        return new TransformIterator(new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+                return results.hasNext();
+            }
+            
+            @Override
+            public Object next() {
+                nextCalls.incrementAndGet();
+                return results.next();
+            }
+        });
+    }
+    
+    private static List<Object> getResults(int numResults) {
+        List<Object> results = new ArrayList<>();
+        for (int i = 0; i < numResults; i++) {
+            results.add("result" + i);
+        }
+        return results;
+    }
+    
+    private static void waitFor(Condition condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + 10000;
+        while (!condition.isMet()) {
+            if (System.currentTimeMillis() > end) {
+                fail("Timed out waiting for the prefetcher");
+            }
+            Thread.sleep(10);
+        }
+    }
+    
+    private interface Condition {
+        boolean isMet();
+    }
+}